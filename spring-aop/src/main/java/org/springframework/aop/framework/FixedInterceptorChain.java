@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.BridgeMethodResolver;
+import org.springframework.lang.Nullable;
+
+/**
+ * Internal framework class, holding the interception chain of a proxied
+ * method along with a generated invoker for the target method.
+ *
+ * <p>Only used for proxies with a frozen configuration and a static target,
+ * for which both can be computed once when the proxy is created instead of
+ * being resolved for each invocation.
+ *
+ * @since 6.0
+ * @see JdkDynamicAopProxy
+ */
+final class FixedInterceptorChain {
+
+	private final Method method;
+
+	private final List<Object> interceptorsAndDynamicMethodMatchers;
+
+	@Nullable
+	private final BiFunction<Object, Object[], Object> invoker;
+
+	@Nullable
+	private final Predicate<Object[]> argumentsMatcher;
+
+
+	/**
+	 * Create a new FixedInterceptorChain.
+	 * @param method the proxied method
+	 * @param interceptorsAndDynamicMethodMatchers the interception chain for the method
+	 * @param targetClass the class of the static target, if any
+	 */
+	@SuppressWarnings("unchecked")
+	FixedInterceptorChain(Method method, List<Object> interceptorsAndDynamicMethodMatchers,
+			@Nullable Class<?> targetClass) {
+
+		this.method = BridgeMethodResolver.findBridgedMethod(method);
+		this.interceptorsAndDynamicMethodMatchers = interceptorsAndDynamicMethodMatchers;
+		this.invoker = (targetClass != null && this.method.getDeclaringClass().isAssignableFrom(targetClass) ?
+				JoinpointInvokerGenerator.getInvoker(this.method) : null);
+		// Generated invokers check arguments as well
+		this.argumentsMatcher = (Predicate<Object[]>) this.invoker;
+	}
+
+
+	/**
+	 * Return the interceptors and dynamic method matchers to apply.
+	 */
+	List<Object> getInterceptorsAndDynamicMethodMatchers() {
+		return this.interceptorsAndDynamicMethodMatchers;
+	}
+
+	/**
+	 * Invoke the target method on the given target, with the same outcome as
+	 * {@link AopUtils#invokeJoinpointUsingReflection}.
+	 * @param target the static target
+	 * @param arguments the arguments for the method
+	 * @return the invocation result, if any
+	 * @throws Throwable if thrown by the target method
+	 */
+	@Nullable
+	Object invokeJoinpoint(@Nullable Object target, Object[] arguments) throws Throwable {
+		if (this.invoker != null && this.argumentsMatcher != null && target != null &&
+				this.argumentsMatcher.test(arguments)) {
+			return this.invoker.apply(target, arguments);
+		}
+		// Not accessible from a generated class, or mismatching arguments to report
+		return AopUtils.invokeJoinpointUsingReflection(target, this.method, arguments);
+	}
+
+}
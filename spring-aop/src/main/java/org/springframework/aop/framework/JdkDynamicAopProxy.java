@@ -16,11 +16,16 @@
 
 package org.springframework.aop.framework;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.commons.logging.Log;
@@ -34,6 +39,7 @@ import org.springframework.core.DecoratingProxy;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
 
 /**
  * JDK-based {@link AopProxy} implementation for the Spring AOP framework,
@@ -53,6 +59,12 @@ import org.springframework.util.ClassUtils;
  * <p>Proxies are serializable so long as all Advisors (including Advices
  * and Pointcuts) and the TargetSource are serializable.
  *
+ * <p>If the configuration is {@linkplain ProxyConfig#isFrozen() frozen} and
+ * the target is static, the interception chain of each proxied method is
+ * computed when the proxy is created, and the target method is invoked through
+ * a generated class, as CGLIB proxies do with fixed callbacks and method proxies.
+ * Later changes to the configuration are not taken into account in that case.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @author Rob Harrop
@@ -95,6 +107,20 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	 */
 	private boolean hashCodeDefined;
 
+	/**
+	 * Interception chains per proxied method, if frozen with a static target.
+	 */
+	@Nullable
+	private transient Map<Method, FixedInterceptorChain> fixedChains;
+
+	/**
+	 * Interception chains per {@code Method} instance passed to {@link #invoke},
+	 * which is the same for each invocation of a given proxy class method.
+	 * Only populated once fixed chains are in use.
+	 */
+	@Nullable
+	private transient volatile Map<Method, FixedInterceptorChain> fixedChainsByInstance;
+
 
 	/**
 	 * Construct a new JdkDynamicAopProxy for the given AOP configuration.
@@ -110,6 +136,7 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 		this.advised = config;
 		this.proxiedInterfaces = AopProxyUtils.completeProxiedInterfaces(this.advised, true);
 		findDefinedEqualsAndHashCodeMethods(this.proxiedInterfaces);
+		this.fixedChains = createFixedChains();
 	}
 
 
@@ -149,6 +176,58 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	}
 
 
+	/**
+	 * Compute the interception chain of each proxied method, provided that
+	 * the configuration is frozen and the target is static.
+	 * @return the chains per method, or {@code null} if they must be resolved
+	 * for each invocation
+	 */
+	@Nullable
+	private Map<Method, FixedInterceptorChain> createFixedChains() {
+		TargetSource targetSource = this.advised.getTargetSource();
+		if (!this.advised.isFrozen() || !targetSource.isStatic()) {
+			return null;
+		}
+		Object target;
+		try {
+			target = targetSource.getTarget();
+		}
+		catch (Exception ex) {
+			// Resolve the target for each invocation as usual
+			return null;
+		}
+		Class<?> targetClass = (target != null ? target.getClass() : null);
+		Map<Method, FixedInterceptorChain> fixedChains = CollectionUtils.newHashMap(16);
+		for (Class<?> proxiedInterface : this.proxiedInterfaces) {
+			for (Method method : proxiedInterface.getMethods()) {
+				addFixedChain(fixedChains, method, targetClass);
+			}
+		}
+		for (Method method : Object.class.getMethods()) {
+			// Only equals, hashCode and toString are dispatched to the invocation handler
+			if (!Modifier.isFinal(method.getModifiers()) &&
+					(this.equalsDefined || !AopUtils.isEqualsMethod(method)) &&
+					(this.hashCodeDefined || !AopUtils.isHashCodeMethod(method))) {
+				addFixedChain(fixedChains, method, targetClass);
+			}
+		}
+		return fixedChains;
+	}
+
+	private void addFixedChain(Map<Method, FixedInterceptorChain> fixedChains, Method method,
+			@Nullable Class<?> targetClass) {
+
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (Modifier.isStatic(method.getModifiers()) || declaringClass == DecoratingProxy.class ||
+				(!this.advised.opaque && declaringClass.isInterface() && declaringClass.isAssignableFrom(Advised.class))) {
+			// Dispatched to the proxy configuration instead
+			return;
+		}
+		List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+		fixedChains.put(method, new FixedInterceptorChain(method, chain, targetClass));
+	}
+
+
 	/**
 	 * Implementation of {@code InvocationHandler.invoke}.
 	 * <p>Callers will see exactly the exception thrown by the target,
@@ -163,23 +242,28 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 		TargetSource targetSource = this.advised.targetSource;
 		Object target = null;
 
+		// Methods with a fixed chain are always dispatched to the target.
+		FixedInterceptorChain fixedChain = getFixedChain(method);
+
 		try {
-			if (!this.equalsDefined && AopUtils.isEqualsMethod(method)) {
-				// The target does not implement the equals(Object) method itself.
-				return equals(args[0]);
-			}
-			else if (!this.hashCodeDefined && AopUtils.isHashCodeMethod(method)) {
-				// The target does not implement the hashCode() method itself.
-				return hashCode();
-			}
-			else if (method.getDeclaringClass() == DecoratingProxy.class) {
-				// There is only getDecoratedClass() declared -> dispatch to proxy config.
-				return AopProxyUtils.ultimateTargetClass(this.advised);
-			}
-			else if (!this.advised.opaque && method.getDeclaringClass().isInterface() &&
-					method.getDeclaringClass().isAssignableFrom(Advised.class)) {
-				// Service invocations on ProxyConfig with the proxy config...
-				return AopUtils.invokeJoinpointUsingReflection(this.advised, method, args);
+			if (fixedChain == null) {
+				if (!this.equalsDefined && AopUtils.isEqualsMethod(method)) {
+					// The target does not implement the equals(Object) method itself.
+					return equals(args[0]);
+				}
+				else if (!this.hashCodeDefined && AopUtils.isHashCodeMethod(method)) {
+					// The target does not implement the hashCode() method itself.
+					return hashCode();
+				}
+				else if (method.getDeclaringClass() == DecoratingProxy.class) {
+					// There is only getDecoratedClass() declared -> dispatch to proxy config.
+					return AopProxyUtils.ultimateTargetClass(this.advised);
+				}
+				else if (!this.advised.opaque && method.getDeclaringClass().isInterface() &&
+						method.getDeclaringClass().isAssignableFrom(Advised.class)) {
+					// Service invocations on ProxyConfig with the proxy config...
+					return AopUtils.invokeJoinpointUsingReflection(this.advised, method, args);
+				}
 			}
 
 			Object retVal;
@@ -195,24 +279,35 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 			target = targetSource.getTarget();
 			Class<?> targetClass = (target != null ? target.getClass() : null);
 
-			// Get the interception chain for this method.
-			List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
-
-			// Check whether we have any advice. If we don't, we can fallback on direct
-			// reflective invocation of the target, and avoid creating a MethodInvocation.
-			if (chain.isEmpty()) {
-				// We can skip creating a MethodInvocation: just invoke the target directly
-				// Note that the final invoker must be an InvokerInterceptor so we know it does
-				// nothing but a reflective operation on the target, and no hot swapping or fancy proxying.
-				Object[] argsToUse = AopProxyUtils.adaptArgumentsIfNecessary(method, args);
-				retVal = AopUtils.invokeJoinpointUsingReflection(target, method, argsToUse);
+			if (fixedChain != null) {
+				if (fixedChain.getInterceptorsAndDynamicMethodMatchers().isEmpty()) {
+					Object[] argsToUse = AopProxyUtils.adaptArgumentsIfNecessary(method, args);
+					retVal = fixedChain.invokeJoinpoint(target, argsToUse);
+				}
+				else {
+					retVal = new FixedChainMethodInvocation(proxy, target, method, args, targetClass, fixedChain).proceed();
+				}
 			}
 			else {
-				// We need to create a method invocation...
-				MethodInvocation invocation =
-						new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain);
-				// Proceed to the joinpoint through the interceptor chain.
-				retVal = invocation.proceed();
+				// Get the interception chain for this method.
+				List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+
+				// Check whether we have any advice. If we don't, we can fallback on direct
+				// reflective invocation of the target, and avoid creating a MethodInvocation.
+				if (chain.isEmpty()) {
+					// We can skip creating a MethodInvocation: just invoke the target directly
+					// Note that the final invoker must be an InvokerInterceptor so we know it does
+					// nothing but a reflective operation on the target, and no hot swapping or fancy proxying.
+					Object[] argsToUse = AopProxyUtils.adaptArgumentsIfNecessary(method, args);
+					retVal = AopUtils.invokeJoinpointUsingReflection(target, method, argsToUse);
+				}
+				else {
+					// We need to create a method invocation...
+					MethodInvocation invocation =
+							new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain);
+					// Proceed to the joinpoint through the interceptor chain.
+					retVal = invocation.proceed();
+				}
 			}
 
 			// Massage return value if necessary.
@@ -244,6 +339,27 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	}
 
 
+	@Nullable
+	private FixedInterceptorChain getFixedChain(Method method) {
+		if (this.fixedChains == null) {
+			return null;
+		}
+		// Identity lookup first: cheaper than hashing and comparing methods
+		Map<Method, FixedInterceptorChain> chainsByInstance = this.fixedChainsByInstance;
+		FixedInterceptorChain fixedChain = (chainsByInstance != null ? chainsByInstance.get(method) : null);
+		if (fixedChain == null) {
+			fixedChain = this.fixedChains.get(method);
+			if (fixedChain != null) {
+				Map<Method, FixedInterceptorChain> fixedChainsByInstance = (chainsByInstance != null ?
+						new IdentityHashMap<>(chainsByInstance) : new IdentityHashMap<>());
+				fixedChainsByInstance.put(method, fixedChain);
+				this.fixedChainsByInstance = fixedChainsByInstance;
+			}
+		}
+		return fixedChain;
+	}
+
+
 	/**
 	 * Equality means interfaces, advisors and TargetSource are equal.
 	 * <p>The compared object may be a JdkDynamicAopProxy instance itself
@@ -286,4 +402,37 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 		return JdkDynamicAopProxy.class.hashCode() * 13 + this.advised.getTargetSource().hashCode();
 	}
 
+
+	//---------------------------------------------------------------------
+	// Serialization support
+	//---------------------------------------------------------------------
+
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		// Rely on default serialization; just recompute the chains afterwards.
+		ois.defaultReadObject();
+		this.fixedChains = createFixedChains();
+	}
+
+
+	/**
+	 * Method invocation along a {@link FixedInterceptorChain}.
+	 */
+	private static class FixedChainMethodInvocation extends ReflectiveMethodInvocation {
+
+		private final FixedInterceptorChain fixedChain;
+
+		public FixedChainMethodInvocation(Object proxy, @Nullable Object target, Method method,
+				@Nullable Object[] arguments, @Nullable Class<?> targetClass, FixedInterceptorChain fixedChain) {
+
+			super(proxy, target, method, arguments, targetClass, fixedChain.getInterceptorsAndDynamicMethodMatchers());
+			this.fixedChain = fixedChain;
+		}
+
+		@Override
+		@Nullable
+		protected Object invokeJoinpoint() throws Throwable {
+			return this.fixedChain.invokeJoinpoint(this.target, this.arguments);
+		}
+	}
+
 }
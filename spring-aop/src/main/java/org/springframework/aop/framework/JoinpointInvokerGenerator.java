@@ -0,0 +1,311 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Internal framework class, generating a class per proxied method that
+ * invokes the target method directly, with the arguments of a method
+ * invocation: that is, the bytecode equivalent of
+ * {@code (target, args) -> ((Service) target).method((String) args[0], (Integer) args[1])}.
+ * Generated classes also implement {@link Predicate} for checking upfront
+ * that arguments can be passed to the method without a {@link ClassCastException}
+ * or a {@link NullPointerException}.
+ *
+ * <p>Generated classes are defined in a child class loader of the class loader
+ * of the type declaring the method, and implement JDK interfaces which are
+ * visible from any class loader. Exceptions thrown by the target method,
+ * including checked exceptions, are propagated as is. Invokers are shared
+ * by all proxies exposing the same method.
+ *
+ * @since 6.0
+ * @see FixedInterceptorChain
+ */
+final class JoinpointInvokerGenerator implements Opcodes {
+
+	private static final Log logger = LogFactory.getLog(JoinpointInvokerGenerator.class);
+
+	private static final String OBJECT_ARRAY_DESCRIPTOR = "[Ljava/lang/Object;";
+
+	// A child class loader is created for each class loader of the types
+	// declaring proxied methods, and used to define the generated classes.
+	// It holds the invokers it defined: they live as long as it does.
+	private static final Map<ClassLoader, WeakReference<InvokerClassLoader>> classLoaders = new WeakHashMap<>();
+
+	private static final Object NO_INVOKER = new Object();
+
+
+	private JoinpointInvokerGenerator() {
+	}
+
+
+	/**
+	 * Return an invoker for the given method, taking the target instance
+	 * and the method arguments, generating it if necessary. The invoker
+	 * also implements {@code Predicate<Object[]>} for checking arguments.
+	 * @param method the method to invoke
+	 * @return the invoker, or {@code null} if the method or one of the types
+	 * in its signature is not accessible from a generated class
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	static BiFunction<Object, Object[], Object> getInvoker(Method method) {
+		InvokerClassLoader invokerClassLoader = getInvokerClassLoader(method.getDeclaringClass());
+		Object invoker = invokerClassLoader.invokers.computeIfAbsent(method, key -> {
+			Object generated = generate(key, invokerClassLoader);
+			return (generated != null ? generated : NO_INVOKER);
+		});
+		return (invoker != NO_INVOKER ? (BiFunction<Object, Object[], Object>) invoker : null);
+	}
+
+	private static InvokerClassLoader getInvokerClassLoader(Class<?> declaringClass) {
+		ClassLoader classLoader = declaringClass.getClassLoader();
+		ClassLoader parent = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		synchronized (classLoaders) {
+			WeakReference<InvokerClassLoader> ref = classLoaders.get(parent);
+			InvokerClassLoader invokerClassLoader = (ref != null ? ref.get() : null);
+			if (invokerClassLoader == null) {
+				invokerClassLoader = new InvokerClassLoader(parent);
+				classLoaders.put(parent, new WeakReference<>(invokerClassLoader));
+			}
+			return invokerClassLoader;
+		}
+	}
+
+	@Nullable
+	private static Object generate(Method method, InvokerClassLoader invokerClassLoader) {
+		if (Modifier.isStatic(method.getModifiers()) || !isAccessible(method)) {
+			return null;
+		}
+		try {
+			String className = "aop/JoinpointInvoker" + invokerClassLoader.nextSuffix();
+			Class<?> invokerClass = invokerClassLoader.defineClass(
+					className.replace('/', '.'), generateClass(className, method));
+			return ReflectionUtils.accessibleConstructor(invokerClass).newInstance();
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate joinpoint invoker for method: " + method, ex);
+			}
+			return null;
+		}
+	}
+
+	private static boolean isAccessible(Method method) {
+		if (!Modifier.isPublic(method.getModifiers()) || !isAccessible(method.getDeclaringClass()) ||
+				!isAccessible(method.getReturnType())) {
+			return false;
+		}
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (!isAccessible(parameterType)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isAccessible(Class<?> type) {
+		Class<?> typeToCheck = type;
+		while (typeToCheck.isArray()) {
+			typeToCheck = typeToCheck.getComponentType();
+		}
+		if (typeToCheck.isPrimitive()) {
+			return true;
+		}
+		for (Class<?> current = typeToCheck; current != null; current = current.getEnclosingClass()) {
+			if (!Modifier.isPublic(current.getModifiers())) {
+				return false;
+			}
+		}
+		return typeToCheck.getModule().isExported(typeToCheck.getPackageName());
+	}
+
+	private static byte[] generateClass(String className, Method method) {
+		ClassWriter cw = new InvokerClassWriter();
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, "java/lang/Object",
+				new String[] {"java/util/function/BiFunction", "java/util/function/Predicate"});
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// Object apply(Object target, Object arguments)
+		mv = cw.visitMethod(ACC_PUBLIC, "apply", "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+		mv.visitCode();
+		Class<?> declaringClass = method.getDeclaringClass();
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, Type.getInternalName(declaringClass));
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		if (parameterTypes.length > 0) {
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitTypeInsn(CHECKCAST, OBJECT_ARRAY_DESCRIPTOR);
+			mv.visitVarInsn(ASTORE, 3);
+		}
+		for (int i = 0; i < parameterTypes.length; i++) {
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitLdcInsn(i);
+			mv.visitInsn(AALOAD);
+			unboxOrCast(mv, parameterTypes[i]);
+		}
+		mv.visitMethodInsn(declaringClass.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL,
+				Type.getInternalName(declaringClass), method.getName(), Type.getMethodDescriptor(method),
+				declaringClass.isInterface());
+		box(mv, method.getReturnType());
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// boolean test(Object arguments)
+		mv = cw.visitMethod(ACC_PUBLIC, "test", "(Ljava/lang/Object;)Z", null, null);
+		mv.visitCode();
+		Label mismatch = new Label();
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, OBJECT_ARRAY_DESCRIPTOR);
+		mv.visitVarInsn(ASTORE, 2);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitInsn(ARRAYLENGTH);
+		mv.visitLdcInsn(parameterTypes.length);
+		mv.visitJumpInsn(IF_ICMPNE, mismatch);
+		for (int i = 0; i < parameterTypes.length; i++) {
+			Class<?> parameterType = parameterTypes[i];
+			if (parameterType == Object.class) {
+				continue;
+			}
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitLdcInsn(i);
+			mv.visitInsn(AALOAD);
+			if (parameterType.isPrimitive()) {
+				// null is rejected by instanceof
+				mv.visitTypeInsn(INSTANCEOF, Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(parameterType)));
+				mv.visitJumpInsn(IFEQ, mismatch);
+			}
+			else {
+				Label next = new Label();
+				mv.visitVarInsn(ASTORE, 3);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitJumpInsn(IFNULL, next);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitTypeInsn(INSTANCEOF, Type.getInternalName(parameterType));
+				mv.visitJumpInsn(IFEQ, mismatch);
+				mv.visitLabel(next);
+			}
+		}
+		mv.visitInsn(ICONST_1);
+		mv.visitInsn(IRETURN);
+		mv.visitLabel(mismatch);
+		mv.visitInsn(ICONST_0);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void unboxOrCast(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			String wrapperName = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type));
+			mv.visitTypeInsn(CHECKCAST, wrapperName);
+			mv.visitMethodInsn(INVOKEVIRTUAL, wrapperName, type.getName() + "Value",
+					"()" + Type.getDescriptor(type), false);
+		}
+		else if (type != Object.class) {
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+		}
+	}
+
+	private static void box(MethodVisitor mv, Class<?> type) {
+		if (type == void.class) {
+			mv.visitInsn(ACONST_NULL);
+		}
+		else if (type.isPrimitive()) {
+			Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(type);
+			mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(wrapperType), "valueOf",
+					"(" + Type.getDescriptor(type) + ")" + Type.getDescriptor(wrapperType), false);
+		}
+	}
+
+
+	/**
+	 * ASM class writer computing frames without loading any class: generated
+	 * code only merges frames holding identical types.
+	 */
+	private static class InvokerClassWriter extends ClassWriter {
+
+		InvokerClassWriter() {
+			super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+		}
+
+		@Override
+		protected String getCommonSuperClass(String type1, String type2) {
+			return "java/lang/Object";
+		}
+	}
+
+
+	/**
+	 * Child class loader defining the generated invoker classes.
+	 */
+	private static class InvokerClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		private final AtomicInteger suffixId = new AtomicInteger();
+
+		final Map<Method, Object> invokers = new ConcurrentHashMap<>();
+
+		InvokerClassLoader(ClassLoader parent) {
+			super(NO_URLS, parent);
+		}
+
+		int nextSuffix() {
+			return this.suffixId.incrementAndGet();
+		}
+
+		Class<?> defineClass(String name, byte[] bytes) {
+			return super.defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+}
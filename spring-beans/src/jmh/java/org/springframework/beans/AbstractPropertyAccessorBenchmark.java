@@ -26,10 +26,14 @@ import org.openjdk.jmh.annotations.State;
 
 import org.springframework.beans.propertyeditors.CustomNumberEditor;
 import org.springframework.beans.propertyeditors.StringTrimmerEditor;
+import org.springframework.core.SpringProperties;
 
 /**
  * Benchmark for {@link AbstractPropertyAccessor} use on beans.
  *
+ * <p>Property methods of a {@link BeanWrapperImpl} are either always invoked
+ * through reflection, or through generated accessors once warmed up.
+ *
  * @author Brian Clozel
  */
 @BenchmarkMode(Mode.Throughput)
@@ -44,6 +48,9 @@ public class AbstractPropertyAccessorBenchmark {
 		@Param({"none", "stringTrimmer", "numberOnPath", "numberOnNestedPath", "numberOnType"})
 		public String customEditor;
 
+		@Param({"reflective", "generated"})
+		public String methodAccess;
+
 		public int[] input;
 
 		public PrimitiveArrayBean target;
@@ -52,6 +59,9 @@ public class AbstractPropertyAccessorBenchmark {
 
 		@Setup
 		public void setup() {
+			SpringProperties.setProperty(CachedIntrospectionResults.IGNORE_GENERATED_ACCESSORS_PROPERTY_NAME,
+					String.valueOf(this.methodAccess.equals("reflective")));
+			CachedIntrospectionResults.clearClassLoader(getClass().getClassLoader());
 			this.target = new PrimitiveArrayBean();
 			this.input = new int[1024];
 			if (this.accessor.equals("DirectFieldAccessor")) {
@@ -80,6 +90,11 @@ public class AbstractPropertyAccessorBenchmark {
 		return state.target;
 	}
 
+	@Benchmark
+	public Object getPropertyValue(BenchmarkState state) {
+		return state.propertyAccessor.getPropertyValue("array");
+	}
+
 	@SuppressWarnings("unused")
 	private static class PrimitiveArrayBean {
 
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Benchmark for the startup time of a bean factory with a wide graph of
+ * singletons, each of them simulating some I/O on initialization. Complements
+ * {@link ConcurrentBeanFactoryBenchmark}, comparing sequential pre-instantiation
+ * with concurrent pre-instantiation on a bootstrap executor.
+ *
+ * @see DefaultListableBeanFactory#setBootstrapExecutor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PreInstantiateSingletonsBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		/**
+		 * Number of independent chains of singletons.
+		 */
+		@Param({"100", "1000"})
+		public int width;
+
+		/**
+		 * Number of singletons in each chain, each one referring to the next.
+		 */
+		@Param({"3"})
+		public int depth;
+
+		/**
+		 * Simulated I/O time on initialization, in microseconds.
+		 */
+		@Param({"0", "100"})
+		public long initMicros;
+
+		/**
+		 * Number of bootstrap threads, or 0 for sequential pre-instantiation.
+		 */
+		@Param({"0", "8"})
+		public int bootstrapThreads;
+
+		public ExecutorService executor;
+
+		public DefaultListableBeanFactory factory;
+
+		@Setup(Level.Trial)
+		public void setupExecutor() {
+			if (this.bootstrapThreads > 0) {
+				this.executor = Executors.newFixedThreadPool(this.bootstrapThreads);
+			}
+		}
+
+		@Setup(Level.Invocation)
+		public void setupFactory() {
+			this.factory = new DefaultListableBeanFactory();
+			this.factory.setBootstrapExecutor(this.executor);
+			for (int i = 0; i < this.width; i++) {
+				for (int j = 0; j < this.depth; j++) {
+					RootBeanDefinition bd = new RootBeanDefinition(SlowInitBean.class);
+					bd.getPropertyValues().add("initMicros", this.initMicros);
+					if (j + 1 < this.depth) {
+						bd.getPropertyValues().add("next", new RuntimeBeanReference("bean" + i + "_" + (j + 1)));
+					}
+					this.factory.registerBeanDefinition("bean" + i + "_" + j, bd);
+				}
+			}
+		}
+
+		@TearDown(Level.Invocation)
+		public void closeFactory() {
+			this.factory.destroySingletons();
+		}
+
+		@TearDown(Level.Trial)
+		public void shutdownExecutor() {
+			if (this.executor != null) {
+				this.executor.shutdownNow();
+			}
+		}
+	}
+
+	@Benchmark
+	public DefaultListableBeanFactory preInstantiateSingletons(BenchmarkState state) {
+		state.factory.preInstantiateSingletons();
+		return state.factory;
+	}
+
+
+	public static class SlowInitBean implements InitializingBean {
+
+		private long initMicros;
+
+		private SlowInitBean next;
+
+		public void setInitMicros(long initMicros) {
+			this.initMicros = initMicros;
+		}
+
+		public void setNext(SlowInitBean next) {
+			this.next = next;
+		}
+
+		public SlowInitBean getNext() {
+			return this.next;
+		}
+
+		@Override
+		public void afterPropertiesSet() {
+			if (this.initMicros > 0) {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(this.initMicros));
+			}
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -95,6 +95,19 @@ public final class CachedIntrospectionResults {
 	 */
 	public static final String IGNORE_BEANINFO_PROPERTY_NAME = "spring.beaninfo.ignore";
 
+	/**
+	 * System property that instructs Spring to always invoke the read and write methods
+	 * of bean properties through reflection: "spring.beans.generated-accessors.ignore",
+	 * with a value of "true" disabling the generation of accessors for frequently
+	 * accessed properties.
+	 * <p>The default is "false", generating accessors where the bean class allows it
+	 * and falling back to reflection otherwise. Consider switching this flag to "true"
+	 * if the generated classes are not desirable, for example in a constrained environment.
+	 * @since 6.0
+	 * @see java.lang.invoke.LambdaMetafactory
+	 */
+	public static final String IGNORE_GENERATED_ACCESSORS_PROPERTY_NAME = "spring.beans.generated-accessors.ignore";
+
 	private static final PropertyDescriptor[] EMPTY_PROPERTY_DESCRIPTOR_ARRAY = {};
 
 
@@ -263,6 +276,9 @@ public final class CachedIntrospectionResults {
 	/** TypeDescriptor objects keyed by PropertyDescriptor. */
 	private final ConcurrentMap<PropertyDescriptor, TypeDescriptor> typeDescriptorCache;
 
+	/** PropertyMethodInvoker objects keyed by property name String. */
+	private final ConcurrentMap<String, PropertyMethodInvoker> methodInvokerCache;
+
 
 	/**
 	 * Create a new CachedIntrospectionResults instance for the given class.
@@ -319,6 +335,7 @@ public final class CachedIntrospectionResults {
 			introspectPlainAccessors(beanClass, readMethodNames);
 
 			this.typeDescriptorCache = new ConcurrentReferenceHashMap<>();
+			this.methodInvokerCache = new ConcurrentHashMap<>();
 		}
 		catch (IntrospectionException ex) {
 			throw new FatalBeanException("Failed to obtain BeanInfo for class [" + beanClass.getName() + "]", ex);
@@ -423,4 +440,21 @@ public final class CachedIntrospectionResults {
 		return this.typeDescriptorCache.get(pd);
 	}
 
+	PropertyMethodInvoker getMethodInvoker(PropertyDescriptor pd) {
+		PropertyMethodInvoker invoker = this.methodInvokerCache.get(pd.getName());
+		if (invoker == null) {
+			Method writeMethod = pd.getWriteMethod();
+			if (writeMethod != null && pd instanceof GenericTypeAwarePropertyDescriptor gpd) {
+				writeMethod = gpd.getWriteMethodForActualAccess();
+			}
+			invoker = new PropertyMethodInvoker(pd.getReadMethod(), writeMethod,
+					!SpringProperties.getFlag(IGNORE_GENERATED_ACCESSORS_PROPERTY_NAME));
+			PropertyMethodInvoker existing = this.methodInvokerCache.putIfAbsent(pd.getName(), invoker);
+			if (existing != null) {
+				invoker = existing;
+			}
+		}
+		return invoker;
+	}
+
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Invokes the read and write methods of a bean property on behalf of
+ * {@link BeanWrapperImpl}, cached per property in {@link CachedIntrospectionResults}.
+ *
+ * <p>Methods are invoked through reflection at first. Once a method has been
+ * invoked {@value #GENERATION_THRESHOLD} times, an accessor calling it directly
+ * is generated through the {@link LambdaMetafactory}, avoiding the argument
+ * array and access checks of {@link Method#invoke} from then on. Generation
+ * is skipped for methods that cannot be looked up with full privileges from
+ * here (for example in classes from another class loader or from a named
+ * module that does not open its package), which keep being invoked through
+ * reflection. Exceptions thrown by the method are reported as an
+ * {@link InvocationTargetException} in both cases.
+ *
+ * @since 6.0
+ * @see CachedIntrospectionResults#IGNORE_GENERATED_ACCESSORS_PROPERTY_NAME
+ */
+final class PropertyMethodInvoker {
+
+	/**
+	 * Number of reflective invocations of a method before an accessor is generated,
+	 * so that properties only set once (like on most singleton beans) do not pay
+	 * for the generation of a class.
+	 */
+	static final int GENERATION_THRESHOLD = 16;
+
+	private static final MethodType GETTER_SAM_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType SETTER_SAM_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final Log logger = LogFactory.getLog(PropertyMethodInvoker.class);
+
+
+	@Nullable
+	private final Method readMethod;
+
+	@Nullable
+	private final Method writeMethod;
+
+	@Nullable
+	private final Class<?> writeType;
+
+	@Nullable
+	private volatile Function<Object, Object> getter;
+
+	@Nullable
+	private volatile BiConsumer<Object, Object> setter;
+
+	// Not thread-safe on purpose: lost updates only delay the generation
+	private int readCount;
+
+	private int writeCount;
+
+
+	/**
+	 * Create a new PropertyMethodInvoker for the given methods.
+	 * @param readMethod the read method of the property, if any
+	 * @param writeMethod the write method of the property, if any
+	 * @param generateAccessors whether accessors should be generated
+	 * for frequently invoked methods
+	 */
+	PropertyMethodInvoker(@Nullable Method readMethod, @Nullable Method writeMethod, boolean generateAccessors) {
+		this.readMethod = readMethod;
+		this.writeMethod = writeMethod;
+		this.writeType = (writeMethod != null ?
+				ClassUtils.resolvePrimitiveIfNecessary(writeMethod.getParameterTypes()[0]) : null);
+		if (!generateAccessors) {
+			this.readCount = -1;
+			this.writeCount = -1;
+		}
+	}
+
+
+	/**
+	 * Invoke the read method on the given target.
+	 * @param target the bean instance
+	 * @return the current value of the property
+	 * @throws InvocationTargetException if the read method threw an exception
+	 */
+	@Nullable
+	Object getValue(Object target) throws Exception {
+		Function<Object, Object> getter = this.getter;
+		Method readMethod = this.readMethod;
+		if (readMethod == null) {
+			throw new IllegalStateException("No read method available");
+		}
+		if (getter != null) {
+			try {
+				return getter.apply(target);
+			}
+			catch (Throwable ex) {
+				throw invocationFailure(readMethod, target, ex);
+			}
+		}
+		if (this.readCount >= 0 && ++this.readCount >= GENERATION_THRESHOLD) {
+			this.readCount = -1;
+			this.getter = generateGetter(readMethod);
+		}
+		ReflectionUtils.makeAccessible(readMethod);
+		return readMethod.invoke(target, (Object[]) null);
+	}
+
+	/**
+	 * Invoke the write method on the given target.
+	 * @param target the bean instance
+	 * @param value the new value of the property
+	 * @throws InvocationTargetException if the write method threw an exception
+	 */
+	void setValue(Object target, @Nullable Object value) throws Exception {
+		BiConsumer<Object, Object> setter = this.setter;
+		Method writeMethod = this.writeMethod;
+		if (writeMethod == null) {
+			throw new IllegalStateException("No write method available");
+		}
+		// Values that do not match are left to Method.invoke for consistent errors
+		if (setter != null && this.writeType != null && this.writeType.isInstance(value)) {
+			try {
+				setter.accept(target, value);
+				return;
+			}
+			catch (Throwable ex) {
+				throw invocationFailure(writeMethod, target, ex);
+			}
+		}
+		if (setter == null && this.writeCount >= 0 && ++this.writeCount >= GENERATION_THRESHOLD) {
+			this.writeCount = -1;
+			this.setter = generateSetter(writeMethod);
+		}
+		ReflectionUtils.makeAccessible(writeMethod);
+		writeMethod.invoke(target, value);
+	}
+
+
+	/**
+	 * Adapt an exception thrown by a generated accessor to the one that
+	 * {@link Method#invoke} would have thrown.
+	 */
+	private static Exception invocationFailure(Method method, Object target, Throwable ex) {
+		if (ex instanceof ClassCastException && !method.getDeclaringClass().isInstance(target)) {
+			return new IllegalArgumentException("Object is not an instance of declaring class", ex);
+		}
+		return new InvocationTargetException(ex);
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> generateGetter(Method readMethod) {
+		try {
+			MethodHandles.Lookup lookup = lookupFor(readMethod);
+			if (lookup == null) {
+				return null;
+			}
+			MethodHandle handle = lookup.unreflect(readMethod);
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+					MethodType.methodType(Function.class), GETTER_SAM_TYPE, handle,
+					MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(readMethod.getReturnType()),
+							readMethod.getDeclaringClass()));
+			return (Function<Object, Object>) callSite.getTarget().invoke();
+		}
+		catch (Throwable ex) {
+			logGenerationFailure(readMethod, ex);
+			return null;
+		}
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private static BiConsumer<Object, Object> generateSetter(Method writeMethod) {
+		try {
+			MethodHandles.Lookup lookup = lookupFor(writeMethod);
+			if (lookup == null) {
+				return null;
+			}
+			MethodHandle handle = lookup.unreflect(writeMethod);
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept",
+					MethodType.methodType(BiConsumer.class), SETTER_SAM_TYPE, handle,
+					MethodType.methodType(void.class, writeMethod.getDeclaringClass(),
+							ClassUtils.resolvePrimitiveIfNecessary(writeMethod.getParameterTypes()[0])));
+			return (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+		}
+		catch (Throwable ex) {
+			logGenerationFailure(writeMethod, ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Obtain a lookup on the declaring class of the given method, as needed
+	 * to define the generated accessor next to it, or {@code null} if no such
+	 * lookup with full privileges is available.
+	 */
+	@Nullable
+	private static MethodHandles.Lookup lookupFor(Method method) throws IllegalAccessException {
+		if (Modifier.isStatic(method.getModifiers())) {
+			return null;
+		}
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (!PropertyMethodInvoker.class.getModule().canRead(declaringClass.getModule())) {
+			return null;
+		}
+		MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+		return (lookup.hasFullPrivilegeAccess() ? lookup : null);
+	}
+
+	private static void logGenerationFailure(Method method, Throwable ex) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Falling back to reflection for property method " + method, ex);
+		}
+	}
+
+}
@@ -30,14 +30,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -45,6 +51,7 @@ import java.util.stream.Stream;
 import jakarta.inject.Provider;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCurrentlyInCreationException;
@@ -64,8 +71,10 @@ import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.BeanReference;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.beans.factory.config.NamedBeanHolder;
 import org.springframework.core.OrderComparator;
@@ -152,6 +161,10 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	@Nullable
 	private Comparator<Object> dependencyComparator;
 
+	/** Optional Executor for the concurrent pre-instantiation of singletons. */
+	@Nullable
+	private Executor bootstrapExecutor;
+
 	/** Resolver to use for checking if a bean definition is an autowire candidate. */
 	private AutowireCandidateResolver autowireCandidateResolver = SimpleAutowireCandidateResolver.INSTANCE;
 
@@ -267,6 +280,37 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.allowEagerClassLoading;
 	}
 
+	/**
+	 * Set an {@link Executor} for pre-instantiating singletons concurrently.
+	 * <p>If set, {@link #preInstantiateSingletons()} groups the non-lazy singletons
+	 * that refer to each other in their bean definitions, through bean references,
+	 * "depends-on" declarations or factory beans, and instantiates each group of
+	 * singletons as a separate task on the given executor, waiting for all of them
+	 * to complete. Singletons needed by several groups, e.g. through autowiring,
+	 * are still created once, with other groups waiting for them as necessary.
+	 * <p>This is useful for bean factories with many independent singletons that
+	 * perform slow I/O on initialization. The executor should be bounded, and is
+	 * expected to run tasks on other threads than the bootstrap thread.
+	 * {@link SmartInitializingSingleton} callbacks are always invoked sequentially,
+	 * once all singletons have been instantiated.
+	 * <p>Default is none, instantiating all singletons sequentially.
+	 * @since 6.0
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setBootstrapExecutor(@Nullable Executor bootstrapExecutor) {
+		this.bootstrapExecutor = bootstrapExecutor;
+	}
+
+	/**
+	 * Return the {@link #setBootstrapExecutor Executor} for pre-instantiating
+	 * singletons concurrently, if any.
+	 * @since 6.0
+	 */
+	@Nullable
+	public Executor getBootstrapExecutor() {
+		return this.bootstrapExecutor;
+	}
+
 	/**
 	 * Set a {@link java.util.Comparator} for dependency Lists and arrays.
 	 * @since 4.0
@@ -915,18 +959,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
 		// Trigger initialization of all non-lazy singleton beans...
-		for (String beanName : beanNames) {
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				if (isFactoryBean(beanName)) {
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					if (bean instanceof SmartFactoryBean<?> smartFactoryBean && smartFactoryBean.isEagerInit()) {
-						getBean(beanName);
-					}
-				}
-				else {
-					getBean(beanName);
-				}
+		Executor executor = this.bootstrapExecutor;
+		if (executor != null) {
+			preInstantiateSingletonsConcurrently(beanNames, executor);
+		}
+		else {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
 			}
 		}
 
@@ -943,6 +982,165 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	private void preInstantiateSingleton(String beanName) {
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+			if (isFactoryBean(beanName)) {
+				Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+				if (bean instanceof SmartFactoryBean<?> smartFactoryBean && smartFactoryBean.isEagerInit()) {
+					getBean(beanName);
+				}
+			}
+			else {
+				getBean(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Pre-instantiate each group of related singletons as a separate task
+	 * on the given executor, and wait for all of them to complete.
+	 * @param beanNames the names of all beans, in registration order
+	 * @param executor the executor to use
+	 * @see #setBootstrapExecutor
+	 */
+	private void preInstantiateSingletonsConcurrently(List<String> beanNames, Executor executor) {
+		Collection<List<String>> groups = groupSingletonsToPreInstantiate(beanNames);
+		List<CompletableFuture<Void>> futures = new ArrayList<>(groups.size());
+		setConcurrentSingletonCreation(true);
+		try {
+			for (List<String> group : groups) {
+				Runnable task = () -> group.forEach(this::preInstantiateSingleton);
+				CompletableFuture<Void> future;
+				try {
+					future = CompletableFuture.runAsync(task, executor);
+				}
+				catch (RejectedExecutionException ex) {
+					// Executor saturated or shut down: instantiate the group right away
+					future = CompletableFuture.runAsync(task, Runnable::run);
+				}
+				futures.add(future);
+			}
+			Throwable failure = null;
+			for (CompletableFuture<Void> future : futures) {
+				try {
+					future.join();
+				}
+				catch (CompletionException ex) {
+					Throwable groupFailure = (ex.getCause() instanceof RuntimeException || ex.getCause() instanceof Error ?
+							ex.getCause() : ex);
+					if (failure == null) {
+						failure = groupFailure;
+					}
+					else if (failure != groupFailure) {
+						failure.addSuppressed(groupFailure);
+					}
+				}
+			}
+			if (failure instanceof Error error) {
+				throw error;
+			}
+			if (failure != null) {
+				throw (RuntimeException) failure;
+			}
+		}
+		finally {
+			setConcurrentSingletonCreation(false);
+		}
+	}
+
+	/**
+	 * Determine the groups of non-lazy singletons that may be instantiated
+	 * independently, based on the references between their bean definitions.
+	 * @param beanNames the names of all beans, in registration order
+	 * @return the groups of bean names, each in registration order
+	 */
+	private Collection<List<String>> groupSingletonsToPreInstantiate(List<String> beanNames) {
+		Map<String, String> parents = new HashMap<>(beanNames.size());
+		Map<String, List<String>> groups = new LinkedHashMap<>();
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+			Set<String> references = new LinkedHashSet<>();
+			if (bd.getDependsOn() != null) {
+				references.addAll(Arrays.asList(bd.getDependsOn()));
+			}
+			if (bd.getFactoryBeanName() != null) {
+				references.add(bd.getFactoryBeanName());
+			}
+			collectBeanReferences(bd, references);
+			for (String reference : references) {
+				String referencedName = canonicalName(BeanFactoryUtils.transformedBeanName(reference));
+				if (containsBeanDefinition(referencedName)) {
+					union(parents, beanName, referencedName);
+				}
+			}
+		}
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+				groups.computeIfAbsent(find(parents, beanName), key -> new ArrayList<>()).add(beanName);
+			}
+		}
+		return groups.values();
+	}
+
+	private static void collectBeanReferences(BeanDefinition bd, Set<String> references) {
+		ConstructorArgumentValues args = bd.getConstructorArgumentValues();
+		for (ConstructorArgumentValues.ValueHolder valueHolder : args.getIndexedArgumentValues().values()) {
+			collectBeanReferences(valueHolder.getValue(), references);
+		}
+		for (ConstructorArgumentValues.ValueHolder valueHolder : args.getGenericArgumentValues()) {
+			collectBeanReferences(valueHolder.getValue(), references);
+		}
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValueList()) {
+			collectBeanReferences(pv.getValue(), references);
+		}
+	}
+
+	private static void collectBeanReferences(@Nullable Object value, Set<String> references) {
+		if (value instanceof BeanReference beanReference) {
+			references.add(beanReference.getBeanName());
+		}
+		else if (value instanceof BeanDefinitionHolder holder) {
+			collectBeanReferences(holder.getBeanDefinition(), references);
+		}
+		else if (value instanceof BeanDefinition innerBd) {
+			collectBeanReferences(innerBd, references);
+		}
+		else if (value instanceof Collection<?> collection) {
+			for (Object element : collection) {
+				collectBeanReferences(element, references);
+			}
+		}
+		else if (value instanceof Map<?, ?> map) {
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				collectBeanReferences(entry.getKey(), references);
+				collectBeanReferences(entry.getValue(), references);
+			}
+		}
+	}
+
+	private static String find(Map<String, String> parents, String beanName) {
+		String root = beanName;
+		String parent;
+		while ((parent = parents.get(root)) != null) {
+			root = parent;
+		}
+		if (!root.equals(beanName)) {
+			parents.put(beanName, root);
+		}
+		return root;
+	}
+
+	private static void union(Map<String, String> parents, String beanName, String otherBeanName) {
+		String root = find(parents, beanName);
+		String otherRoot = find(parents, otherBeanName);
+		if (!root.equals(otherRoot)) {
+			parents.put(otherRoot, root);
+		}
+	}
+
+
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
 	//---------------------------------------------------------------------
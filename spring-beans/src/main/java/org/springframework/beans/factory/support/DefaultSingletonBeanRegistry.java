@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -90,6 +90,15 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Set<String> singletonsCurrentlyInCreation =
 			Collections.newSetFromMap(new ConcurrentHashMap<>(16));
 
+	/** Threads creating singletons outside of the full singleton lock: bean name to thread. */
+	private final Map<String, Thread> singletonCreationThreads = new ConcurrentHashMap<>(16);
+
+	/** Threads waiting for a singleton created by another thread: thread to bean name. */
+	private final Map<Thread, String> singletonWaitingThreads = new HashMap<>(16);
+
+	/** Whether singletons are currently allowed to be created concurrently. */
+	private volatile boolean concurrentSingletonCreation;
+
 	/** Names of beans currently excluded from in creation checks. */
 	private final Set<String> inCreationCheckExclusions =
 			Collections.newSetFromMap(new ConcurrentHashMap<>(16));
@@ -98,6 +107,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	@Nullable
 	private Set<Exception> suppressedExceptions;
 
+	/** Suppressed Exceptions of threads creating singletons outside of the full singleton lock. */
+	private final Map<Thread, Set<Exception>> concurrentSuppressedExceptions = new HashMap<>(16);
+
 	/** Flag that indicates whether we're currently within destroySingletons. */
 	private boolean singletonsCurrentlyInDestruction = false;
 
@@ -181,21 +193,17 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		// Quick check for existing instance without full singleton lock
 		Object singletonObject = this.singletonObjects.get(beanName);
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+			if (isSingletonCreatedByOtherThread(beanName)) {
+				// Not even partially initialized from the point of view of the current thread
+				return null;
+			}
 			singletonObject = this.earlySingletonObjects.get(beanName);
 			if (singletonObject == null && allowEarlyReference) {
 				synchronized (this.singletonObjects) {
 					// Consistent creation of early reference within full singleton lock
 					singletonObject = this.singletonObjects.get(beanName);
 					if (singletonObject == null) {
-						singletonObject = this.earlySingletonObjects.get(beanName);
-						if (singletonObject == null) {
-							ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
-							if (singletonFactory != null) {
-								singletonObject = singletonFactory.getObject();
-								this.earlySingletonObjects.put(beanName, singletonObject);
-								this.singletonFactories.remove(beanName);
-							}
-						}
+						singletonObject = getEarlySingleton(beanName);
 					}
 				}
 			}
@@ -203,6 +211,27 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		return singletonObject;
 	}
 
+	/**
+	 * Return the early reference to the given singleton, creating it through
+	 * the registered singleton factory if necessary.
+	 * <p>To be called within the full singleton lock.
+	 * @param beanName the name of the bean to look for
+	 * @return the early singleton reference, or {@code null} if none exposed yet
+	 */
+	@Nullable
+	private Object getEarlySingleton(String beanName) {
+		Object singletonObject = this.earlySingletonObjects.get(beanName);
+		if (singletonObject == null) {
+			ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+			if (singletonFactory != null) {
+				singletonObject = singletonFactory.getObject();
+				this.earlySingletonObjects.put(beanName, singletonObject);
+				this.singletonFactories.remove(beanName);
+			}
+		}
+		return singletonObject;
+	}
+
 	/**
 	 * Return the (raw) singleton object registered under the given name,
 	 * creating and registering a new one if none registered yet.
@@ -213,6 +242,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
+		if (this.concurrentSingletonCreation) {
+			return getSingletonConcurrently(beanName, singletonFactory);
+		}
 		synchronized (this.singletonObjects) {
 			Object singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
@@ -264,6 +296,182 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 	}
 
+	/**
+	 * Variant of {@link #getSingleton(String, ObjectFactory)} that only holds
+	 * the full singleton lock to register the creating thread, so that unrelated
+	 * singletons can be created by several threads at the same time.
+	 * <p>A thread that needs a singleton currently created by another thread
+	 * waits for it to be fully initialized. If that other thread is itself
+	 * waiting for the current thread, directly or not, the circular reference
+	 * is resolved with an early singleton reference, as within a single thread.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to lazily create the singleton
+	 * with, if necessary
+	 * @return the registered singleton object
+	 * @see #setConcurrentSingletonCreation
+	 */
+	private Object getSingletonConcurrently(String beanName, ObjectFactory<?> singletonFactory) {
+		Thread currentThread = Thread.currentThread();
+		boolean recordSuppressedExceptions;
+		synchronized (this.singletonObjects) {
+			Object singletonObject = this.singletonObjects.get(beanName);
+			Thread creationThread = this.singletonCreationThreads.get(beanName);
+			while (singletonObject == null && creationThread != null && creationThread != currentThread) {
+				if (isWaitingFor(creationThread, currentThread)) {
+					// Circular reference across threads
+					singletonObject = getEarlySingleton(beanName);
+					if (singletonObject != null) {
+						return singletonObject;
+					}
+					if (!isAnyEarlySingletonAvailable(creationThread, currentThread)) {
+						throw new BeanCurrentlyInCreationException(beanName,
+								"Requested bean is currently in creation in another thread which waits " +
+								"for the current thread: Is there an unresolvable circular reference?");
+					}
+					// Let another thread in the cycle resolve it with an early reference
+					this.singletonObjects.notifyAll();
+				}
+				this.singletonWaitingThreads.put(currentThread, beanName);
+				try {
+					this.singletonObjects.wait();
+				}
+				catch (InterruptedException ex) {
+					currentThread.interrupt();
+					throw new BeanCreationException(beanName,
+							"Interrupted while waiting for singleton creation in another thread", ex);
+				}
+				finally {
+					this.singletonWaitingThreads.remove(currentThread);
+				}
+				singletonObject = this.singletonObjects.get(beanName);
+				creationThread = this.singletonCreationThreads.get(beanName);
+			}
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			if (this.singletonsCurrentlyInDestruction) {
+				throw new BeanCreationNotAllowedException(beanName,
+						"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+						"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+			}
+			beforeSingletonCreation(beanName);
+			this.singletonCreationThreads.put(beanName, currentThread);
+			recordSuppressedExceptions = !this.concurrentSuppressedExceptions.containsKey(currentThread);
+			if (recordSuppressedExceptions) {
+				this.concurrentSuppressedExceptions.put(currentThread, new LinkedHashSet<>());
+			}
+		}
+
+		Object singletonObject = null;
+		boolean newSingleton = false;
+		try {
+			singletonObject = singletonFactory.getObject();
+			newSingleton = true;
+		}
+		catch (IllegalStateException ex) {
+			// Has the singleton object implicitly appeared in the meantime ->
+			// if yes, proceed with it since the exception indicates that state.
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				throw ex;
+			}
+		}
+		catch (BeanCreationException ex) {
+			if (recordSuppressedExceptions) {
+				synchronized (this.singletonObjects) {
+					for (Exception suppressedException : this.concurrentSuppressedExceptions.get(currentThread)) {
+						ex.addRelatedCause(suppressedException);
+					}
+				}
+			}
+			throw ex;
+		}
+		finally {
+			synchronized (this.singletonObjects) {
+				if (recordSuppressedExceptions) {
+					this.concurrentSuppressedExceptions.remove(currentThread);
+				}
+				this.singletonCreationThreads.remove(beanName);
+				afterSingletonCreation(beanName);
+				if (newSingleton) {
+					addSingleton(beanName, singletonObject);
+				}
+				// Wake up threads waiting for this singleton, or for its creation to fail
+				this.singletonObjects.notifyAll();
+			}
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Whether the given singleton is currently created by a thread other than
+	 * the current one, through {@link #getSingletonConcurrently}.
+	 */
+	private boolean isSingletonCreatedByOtherThread(String beanName) {
+		Thread creationThread = this.singletonCreationThreads.get(beanName);
+		return (creationThread != null && creationThread != Thread.currentThread());
+	}
+
+	/**
+	 * Whether the given thread waits for the candidate thread, directly or
+	 * through a chain of other waiting threads.
+	 */
+	private boolean isWaitingFor(Thread thread, Thread candidate) {
+		Thread current = thread;
+		for (int i = 0; i <= this.singletonWaitingThreads.size(); i++) {
+			String awaitedBean = this.singletonWaitingThreads.get(current);
+			Thread next = (awaitedBean != null ? this.singletonCreationThreads.get(awaitedBean) : null);
+			if (next == null) {
+				return false;
+			}
+			if (next == candidate) {
+				return true;
+			}
+			current = next;
+		}
+		return false;
+	}
+
+	/**
+	 * Whether any thread in the chain from the given thread back to the
+	 * candidate thread waits for a singleton that is already exposed as an
+	 * early reference, and will therefore be able to resolve the cycle.
+	 */
+	private boolean isAnyEarlySingletonAvailable(Thread thread, Thread candidate) {
+		Thread current = thread;
+		while (current != candidate) {
+			String awaitedBean = this.singletonWaitingThreads.get(current);
+			if (awaitedBean == null) {
+				return false;
+			}
+			if (this.earlySingletonObjects.containsKey(awaitedBean) ||
+					this.singletonFactories.containsKey(awaitedBean)) {
+				return true;
+			}
+			current = this.singletonCreationThreads.get(awaitedBean);
+			if (current == null) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Specify whether singletons may be created concurrently by several threads,
+	 * instead of one at a time under the full singleton lock.
+	 * <p>Meant to be switched on for a well-defined phase only, such as the
+	 * concurrent pre-instantiation of independent singletons, and switched off
+	 * again once all creating threads are done.
+	 * @param concurrentSingletonCreation whether to allow concurrent creation
+	 * @since 6.0
+	 */
+	protected void setConcurrentSingletonCreation(boolean concurrentSingletonCreation) {
+		this.concurrentSingletonCreation = concurrentSingletonCreation;
+	}
+
 	/**
 	 * Register an exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
@@ -275,8 +483,12 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	protected void onSuppressedException(Exception ex) {
 		synchronized (this.singletonObjects) {
-			if (this.suppressedExceptions != null && this.suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
-				this.suppressedExceptions.add(ex);
+			Set<Exception> suppressedExceptions = this.concurrentSuppressedExceptions.get(Thread.currentThread());
+			if (suppressedExceptions == null) {
+				suppressedExceptions = this.suppressedExceptions;
+			}
+			if (suppressedExceptions != null && suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
+				suppressedExceptions.add(ex);
 			}
 		}
 	}
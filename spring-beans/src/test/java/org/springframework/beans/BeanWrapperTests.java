@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -210,6 +210,27 @@ class BeanWrapperTests extends AbstractPropertyAccessorTests {
 			.satisfies(ex -> assertThat(ex.getPossibleMatches()).isNull());
 	}
 
+	@Test
+	void repeatedAccessThroughGeneratedAccessors() {
+		TestBean target = new TestBean();
+		BeanWrapper accessor = createAccessor(target);
+		for (int i = 0; i < PropertyMethodInvoker.GENERATION_THRESHOLD * 2; i++) {
+			accessor.setPropertyValue("age", String.valueOf(i));
+			accessor.setPropertyValue("spouse", new TestBean("spouse" + i));
+			accessor.setPropertyValue("spouse.name", "kerry" + i);
+			assertThat(accessor.getPropertyValue("age")).isEqualTo(i);
+			assertThat(accessor.getPropertyValue("spouse.name")).isEqualTo("kerry" + i);
+		}
+		assertThat(target.getAge()).isEqualTo(PropertyMethodInvoker.GENERATION_THRESHOLD * 2 - 1);
+		assertThatExceptionOfType(MethodInvocationException.class).isThrownBy(() ->
+				accessor.setPropertyValue("touchy", "."));
+		assertThatExceptionOfType(MethodInvocationException.class).isThrownBy(() ->
+				accessor.setPropertyValue("touchy", ","))
+			.withCauseInstanceOf(NumberFormatException.class);
+		assertThatExceptionOfType(TypeMismatchException.class).isThrownBy(() ->
+				accessor.setPropertyValue("age", "foobar"));
+	}
+
 
 	private interface BaseProperty {
 
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link PropertyMethodInvoker}.
+ */
+class PropertyMethodInvokerTests {
+
+	@Test
+	void primitivePropertyBeforeAndAfterGeneration() throws Exception {
+		PropertyMethodInvoker invoker = forProperty(PublicBean.class, "count", int.class, true);
+		PublicBean bean = new PublicBean();
+		for (int i = 0; i < PropertyMethodInvoker.GENERATION_THRESHOLD * 2; i++) {
+			invoker.setValue(bean, i);
+			assertThat(invoker.getValue(bean)).isEqualTo(i);
+		}
+		assertThat(bean.getCount()).isEqualTo(PropertyMethodInvoker.GENERATION_THRESHOLD * 2 - 1);
+	}
+
+	@Test
+	void fluentSetterAfterGeneration() throws Exception {
+		PropertyMethodInvoker invoker = forProperty(PublicBean.class, "name", String.class, true);
+		PublicBean bean = new PublicBean();
+		for (int i = 0; i < PropertyMethodInvoker.GENERATION_THRESHOLD * 2; i++) {
+			invoker.setValue(bean, "name" + i);
+		}
+		assertThat(invoker.getValue(bean)).isEqualTo("name" + (PropertyMethodInvoker.GENERATION_THRESHOLD * 2 - 1));
+		invoker.setValue(bean, null);
+		assertThat(bean.getName()).isNull();
+	}
+
+	@Test
+	void nonPublicBeanClassAfterGeneration() throws Exception {
+		PropertyMethodInvoker invoker = forProperty(PackagePrivateBean.class, "count", int.class, true);
+		PackagePrivateBean bean = new PackagePrivateBean();
+		for (int i = 0; i < PropertyMethodInvoker.GENERATION_THRESHOLD * 2; i++) {
+			invoker.setValue(bean, i);
+			assertThat(invoker.getValue(bean)).isEqualTo(i);
+		}
+	}
+
+	@Test
+	void jdkClassFallsBackToReflection() throws Exception {
+		PropertyMethodInvoker invoker = new PropertyMethodInvoker(Class.class.getMethod("getName"), null, true);
+		for (int i = 0; i < PropertyMethodInvoker.GENERATION_THRESHOLD * 2; i++) {
+			assertThat(invoker.getValue(String.class)).isEqualTo(String.class.getName());
+		}
+	}
+
+	@Test
+	void exceptionsBeforeGeneration() throws Exception {
+		assertExceptions(forProperty(PublicBean.class, "count", int.class, false));
+	}
+
+	@Test
+	void exceptionsAfterGeneration() throws Exception {
+		PropertyMethodInvoker invoker = forProperty(PublicBean.class, "count", int.class, true);
+		PublicBean bean = new PublicBean();
+		for (int i = 0; i < PropertyMethodInvoker.GENERATION_THRESHOLD * 2; i++) {
+			invoker.setValue(bean, i);
+			invoker.getValue(bean);
+		}
+		assertExceptions(invoker);
+	}
+
+	private void assertExceptions(PropertyMethodInvoker invoker) {
+		PublicBean bean = new PublicBean();
+		assertThatExceptionOfType(InvocationTargetException.class)
+				.isThrownBy(() -> invoker.setValue(bean, -1))
+				.satisfies(ex -> assertThat(ex.getTargetException()).hasMessage("Negative count"));
+		assertThatIllegalArgumentException().isThrownBy(() -> invoker.setValue(bean, null));
+		assertThatIllegalArgumentException().isThrownBy(() -> invoker.setValue(bean, "1"));
+		assertThatIllegalArgumentException().isThrownBy(() -> invoker.getValue(new Object()));
+	}
+
+	private static PropertyMethodInvoker forProperty(Class<?> beanClass, String name, Class<?> type,
+			boolean generateAccessors) throws Exception {
+
+		String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		return new PropertyMethodInvoker(beanClass.getDeclaredMethod("get" + suffix),
+				beanClass.getDeclaredMethod("set" + suffix, type), generateAccessors);
+	}
+
+
+	public static class PublicBean {
+
+		private int count;
+
+		private String name;
+
+		public int getCount() {
+			return this.count;
+		}
+
+		public void setCount(int count) {
+			if (count < 0) {
+				throw new IllegalStateException("Negative count");
+			}
+			this.count = count;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public PublicBean setName(String name) {
+			this.name = name;
+			return this;
+		}
+	}
+
+
+	static class PackagePrivateBean {
+
+		private int count;
+
+		int getCount() {
+			return this.count;
+		}
+
+		void setCount(int count) {
+			this.count = count;
+		}
+	}
+
+}
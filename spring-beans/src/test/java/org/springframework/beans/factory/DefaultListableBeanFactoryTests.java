@@ -34,6 +34,11 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -140,6 +145,152 @@ class DefaultListableBeanFactoryTests {
 		assertThat(KnowsIfInstantiated.wasInstantiated()).as("singleton was instantiated").isTrue();
 	}
 
+	@Test
+	void preInstantiateSingletonsWithBootstrapExecutor() {
+		Map<String, Thread> creationThreads = new ConcurrentHashMap<>();
+		lbf.addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				creationThreads.put(beanName, Thread.currentThread());
+				return bean;
+			}
+		});
+		RootBeanDefinition a = new RootBeanDefinition(TestBean.class);
+		a.getPropertyValues().add("spouse", new RuntimeBeanReference("b"));
+		lbf.registerBeanDefinition("a", a);
+		lbf.registerBeanDefinition("b", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition c = new RootBeanDefinition(TestBean.class);
+		c.setDependsOn("d");
+		lbf.registerBeanDefinition("c", c);
+		lbf.registerBeanDefinition("d", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition lazy = new RootBeanDefinition(TestBean.class);
+		lazy.setLazyInit(true);
+		lbf.registerBeanDefinition("lazy", lazy);
+		lbf.registerBeanDefinition("smart", new RootBeanDefinition(SmartSingleton.class));
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(creationThreads).containsOnlyKeys("a", "b", "c", "d", "smart");
+		assertThat(creationThreads.values()).doesNotContain(Thread.currentThread());
+		assertThat(creationThreads.get("a")).isSameAs(creationThreads.get("b"));
+		assertThat(creationThreads.get("c")).isSameAs(creationThreads.get("d"));
+		assertThat(lbf.getBean("a", TestBean.class).getSpouse()).isSameAs(lbf.getBean("b"));
+		assertThat(lbf.getBean("smart", SmartSingleton.class).singletonsInstantiated)
+				.containsExactlyInAnyOrder("a", "b", "c", "d", "smart");
+	}
+
+	@Test
+	void preInstantiateSingletonsWithBootstrapExecutorAndSharedDependency() {
+		for (int i = 0; i < 10; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			bd.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_BY_NAME);
+			lbf.registerBeanDefinition("bean" + i, bd);
+		}
+		RootBeanDefinition spouse = new RootBeanDefinition(TestBean.class);
+		spouse.getPropertyValues().add("spouse", new RuntimeBeanReference("bean0"));
+		lbf.registerBeanDefinition("spouse", spouse);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		TestBean shared = lbf.getBean("spouse", TestBean.class);
+		assertThat(shared.getSpouse()).isSameAs(lbf.getBean("bean0"));
+		for (int i = 0; i < 10; i++) {
+			assertThat(lbf.getBean("bean" + i, TestBean.class).getSpouse()).isSameAs(shared);
+		}
+	}
+
+	@Test
+	void preInstantiateSingletonsWithBootstrapExecutorAndFailure() {
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition failing = new RootBeanDefinition(TestBean.class);
+		failing.getPropertyValues().add("age", "not a number");
+		lbf.registerBeanDefinition("failing", failing);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			assertThatExceptionOfType(BeanCreationException.class)
+					.isThrownBy(lbf::preInstantiateSingletons)
+					.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("failing"));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(lbf.containsSingleton("a")).isTrue();
+		assertThat(lbf.containsSingleton("failing")).isFalse();
+	}
+
+	@Test
+	void preInstantiateSingletonsWithBootstrapExecutorAndCircularReferenceAcrossThreads() {
+		lbf.addBeanPostProcessor(new CrossReferencingPostProcessor(lbf));
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("b", new RootBeanDefinition(TestBean.class));
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		TestBean a = lbf.getBean("a", TestBean.class);
+		TestBean b = lbf.getBean("b", TestBean.class);
+		assertThat(a.getSpouse()).isSameAs(b);
+		assertThat(b.getSpouse()).isSameAs(a);
+	}
+
+	@Test
+	void preInstantiateSingletonsWithBootstrapExecutorAndUnresolvableCircularReferenceAcrossThreads() {
+		lbf.setAllowCircularReferences(false);
+		lbf.addBeanPostProcessor(new CrossReferencingPostProcessor(lbf));
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("b", new RootBeanDefinition(TestBean.class));
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			assertThatExceptionOfType(BeanCreationException.class)
+					.isThrownBy(lbf::preInstantiateSingletons)
+					.satisfies(ex -> assertThat(ex.contains(BeanCurrentlyInCreationException.class)).isTrue());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(lbf.containsSingleton("a")).isFalse();
+		assertThat(lbf.containsSingleton("b")).isFalse();
+	}
+
+	@Test
+	void preInstantiateSingletonsWithBootstrapExecutorAndError() {
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("failing", new RootBeanDefinition(ErrorThrowingFactoryBean.class));
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			assertThatExceptionOfType(NoClassDefFoundError.class).isThrownBy(lbf::preInstantiateSingletons);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 	@Test
 	void factoryBeanDidNotCreatePrototype() {
 		Properties p = new Properties();
@@ -3025,6 +3176,77 @@ class DefaultListableBeanFactoryTests {
 	}
 
 
+	/**
+	 * Sets beans "a" and "b" as spouses of each other once both are in creation,
+	 * so that each thread creating one of them requests the other one.
+	 */
+	private static class CrossReferencingPostProcessor implements BeanPostProcessor {
+
+		private final BeanFactory beanFactory;
+
+		private final CountDownLatch inCreation = new CountDownLatch(2);
+
+		CrossReferencingPostProcessor(BeanFactory beanFactory) {
+			this.beanFactory = beanFactory;
+		}
+
+		@Override
+		public Object postProcessBeforeInitialization(Object bean, String beanName) {
+			String otherBeanName = ("a".equals(beanName) ? "b" : "b".equals(beanName) ? "a" : null);
+			if (otherBeanName != null) {
+				this.inCreation.countDown();
+				try {
+					assertThat(this.inCreation.await(10, TimeUnit.SECONDS)).isTrue();
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+				((TestBean) bean).setSpouse(this.beanFactory.getBean(otherBeanName, TestBean.class));
+			}
+			return bean;
+		}
+	}
+
+
+	public static class ErrorThrowingFactoryBean implements SmartFactoryBean<TestBean> {
+
+		@Override
+		public TestBean getObject() {
+			return new TestBean();
+		}
+
+		@Override
+		public Class<?> getObjectType() {
+			return TestBean.class;
+		}
+
+		@Override
+		public boolean isEagerInit() {
+			throw new NoClassDefFoundError("Eager init");
+		}
+	}
+
+
+	public static class SmartSingleton implements SmartInitializingSingleton, BeanFactoryAware {
+
+		private DefaultListableBeanFactory beanFactory;
+
+		private List<String> singletonsInstantiated;
+
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+			this.beanFactory = (DefaultListableBeanFactory) beanFactory;
+		}
+
+		@Override
+		public void afterSingletonsInstantiated() {
+			this.singletonsInstantiated = Arrays.stream(this.beanFactory.getBeanDefinitionNames())
+					.filter(this.beanFactory::containsSingleton)
+					.collect(Collectors.toList());
+		}
+	}
+
+
 	/**
 	 * Bean with a dependency on a {@link FactoryBean}.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,12 @@ package org.springframework.beans.factory.support;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.testfixture.beans.DerivedTestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 /**
  * @author Juergen Hoeller
@@ -76,6 +78,21 @@ public class DefaultSingletonBeanRegistryTests {
 		assertThat(tb.wasDestroyed()).isTrue();
 	}
 
+	@Test
+	public void testSuppressedExceptionsWithConcurrentSingletonCreation() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+
+		Exception suppressed = new IllegalStateException("Suppressed");
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() ->
+				beanRegistry.getSingleton("tb", () -> {
+					beanRegistry.onSuppressedException(suppressed);
+					throw new BeanCreationException("tb", "Failure");
+				}))
+				.satisfies(ex -> assertThat(ex.getRelatedCauses()).containsExactly(suppressed));
+		assertThat(beanRegistry.containsSingleton("tb")).isFalse();
+	}
+
 	@Test
 	public void testDependentRegistration() {
 		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation {@link Processor} that writes an index of the annotations present
+ * on the compiled classes and their methods, which allows for
+ * {@code MergedAnnotations} lookups on classes and methods that are known to be
+ * without annotations to return immediately, instead of scanning their type
+ * hierarchy.
+ *
+ * <p>Each class gets an entry in {@value #INDEX_PATH}, with an {@code @type}
+ * marker if the class or any of its superclasses and interfaces is annotated,
+ * and the names of the annotated methods declared in that type hierarchy.
+ * Annotations that are not retained at runtime, and annotations declared in
+ * {@code java.lang} and {@code org.springframework.lang}, are not taken into
+ * account. Local and anonymous classes are not indexed.
+ *
+ * <p>As indexing visits every compiled class, it is only enabled with the
+ * {@code -A}{@value #ENABLED_OPTION}{@code =true} compiler option.
+ *
+ * <p>The index reflects annotations as seen by the compiler: it should be
+ * ignored with the {@code spring.annotations.index.ignore} system property
+ * if annotations are added to classes after compilation, or if libraries
+ * differ at runtime from the ones on the compile classpath.
+ *
+ * @since 6.0
+ */
+public class AnnotationsIndexer implements Processor {
+
+	/**
+	 * The processor option that enables the generation of the index.
+	 */
+	public static final String ENABLED_OPTION = "spring.annotations.index";
+
+	static final String INDEX_PATH = "META-INF/spring.annotations";
+
+	static final String TYPE_MARKER = "@type";
+
+
+	private ProcessingEnvironment environment;
+
+	private boolean enabled;
+
+	private final Map<String, Set<String>> entries = new HashMap<>();
+
+	private final Set<String> processedTypes = new HashSet<>();
+
+	private final Map<TypeElement, Set<String>> hierarchyCache = new HashMap<>();
+
+
+	@Override
+	public Set<String> getSupportedOptions() {
+		return Collections.singleton(ENABLED_OPTION);
+	}
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return (this.enabled ? Collections.singleton("*") : Collections.emptySet());
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latest();
+	}
+
+	@Override
+	public synchronized void init(ProcessingEnvironment env) {
+		this.environment = env;
+		this.enabled = Boolean.parseBoolean(env.getOptions().get(ENABLED_OPTION));
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (!this.enabled) {
+			return false;
+		}
+		for (Element element : roundEnv.getRootElements()) {
+			processElement(element);
+		}
+		if (roundEnv.processingOver()) {
+			writeIndex();
+		}
+		return false;
+	}
+
+	@Override
+	public Iterable<? extends Completion> getCompletions(
+			Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+
+		return Collections.emptyList();
+	}
+
+
+	private void processElement(Element element) {
+		if (element instanceof TypeElement typeElement) {
+			String type = this.environment.getElementUtils().getBinaryName(typeElement).toString();
+			this.processedTypes.add(type);
+			this.entries.put(type, getHierarchyAnnotations(typeElement));
+			for (Element enclosed : typeElement.getEnclosedElements()) {
+				processElement(enclosed);
+			}
+		}
+	}
+
+	/**
+	 * Return the {@value #TYPE_MARKER} marker and method names to index for
+	 * the given type, merged with the ones of its superclasses and interfaces.
+	 */
+	private Set<String> getHierarchyAnnotations(TypeElement type) {
+		Set<String> result = this.hierarchyCache.get(type);
+		if (result != null) {
+			return result;
+		}
+		result = new LinkedHashSet<>(getDeclaredAnnotations(type));
+		for (TypeMirror superType : this.environment.getTypeUtils().directSupertypes(type.asType())) {
+			Element superElement = this.environment.getTypeUtils().asElement(superType);
+			if (superElement instanceof TypeElement superTypeElement &&
+					!superTypeElement.getQualifiedName().toString().startsWith("java.")) {
+				result.addAll(getHierarchyAnnotations(superTypeElement));
+			}
+		}
+		this.hierarchyCache.put(type, result);
+		return result;
+	}
+
+	private Set<String> getDeclaredAnnotations(TypeElement type) {
+		Set<String> result = new LinkedHashSet<>();
+		if (hasRelevantAnnotations(type)) {
+			result.add(TYPE_MARKER);
+		}
+		for (Element enclosed : type.getEnclosedElements()) {
+			if (enclosed.getKind() == ElementKind.METHOD && hasRelevantAnnotations(enclosed)) {
+				result.add(enclosed.getSimpleName().toString());
+			}
+			else if (enclosed.getKind() == ElementKind.RECORD_COMPONENT && hasRelevantAnnotations(enclosed)) {
+				// Annotations may be propagated to the implicit accessor method
+				result.add(enclosed.getSimpleName().toString());
+			}
+		}
+		return result;
+	}
+
+	private boolean hasRelevantAnnotations(Element element) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (isRelevant(annotation)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isRelevant(AnnotationMirror annotation) {
+		if (annotation.getAnnotationType().getKind() != TypeKind.DECLARED) {
+			// Not resolvable at compile time: assume it is present at runtime
+			return true;
+		}
+		TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+		String name = annotationType.getQualifiedName().toString();
+		if (name.startsWith("java.lang.") || name.startsWith("org.springframework.lang.")) {
+			return false;
+		}
+		Retention retention = annotationType.getAnnotation(Retention.class);
+		return (retention != null && retention.value() == RetentionPolicy.RUNTIME);
+	}
+
+	private void writeIndex() {
+		Properties previous = readIndex();
+		previous.forEach((type, value) -> {
+			if (!this.processedTypes.contains(type) &&
+					this.environment.getElementUtils().getTypeElement(((String) type).replace('$', '.')) != null) {
+				this.entries.put((String) type, parseTokens((String) value));
+			}
+		});
+		if (this.entries.isEmpty()) {
+			return;
+		}
+		Properties index = new SortedProperties(true);
+		this.entries.forEach((type, tokens) -> index.put(type, String.join(",", tokens)));
+		try {
+			FileObject resource = this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_PATH);
+			try (OutputStream out = resource.openOutputStream()) {
+				index.store(out, null);
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write annotations index", ex);
+		}
+	}
+
+	private static Set<String> parseTokens(String value) {
+		Set<String> tokens = new LinkedHashSet<>();
+		for (String token : value.split(",")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	private Properties readIndex() {
+		Properties properties = new Properties();
+		try {
+			FileObject resource = this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_PATH);
+			try (InputStream in = resource.openInputStream()) {
+				properties.load(in);
+			}
+		}
+		catch (IOException ex) {
+			// No previous index -> ignore.
+		}
+		return properties;
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.context.index.sample.SampleService;
+import org.springframework.context.index.sample.annotation.SampleBase;
+import org.springframework.context.index.sample.annotation.SampleBean;
+import org.springframework.context.index.sample.annotation.SampleCallback;
+import org.springframework.context.index.sample.annotation.SampleClassRetention;
+import org.springframework.context.index.sample.annotation.SampleRecord;
+import org.springframework.context.index.test.TestCompiler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AnnotationsIndexer}.
+ */
+class AnnotationsIndexerTests {
+
+	private TestCompiler compiler;
+
+
+	@BeforeEach
+	void createCompiler(@TempDir Path tempDir) throws IOException {
+		this.compiler = new TestCompiler(tempDir);
+	}
+
+	@Test
+	void typeAnnotation() {
+		Properties index = compile(SampleService.class);
+		assertThat(index).containsEntry(SampleService.class.getName(), "@type");
+	}
+
+	@Test
+	void methodAnnotations() {
+		Properties index = compile(SampleBase.class, SampleCallback.class);
+		assertThat(index).containsEntry(SampleBase.class.getName(), "setDependency");
+		assertThat(index).containsEntry(SampleCallback.class.getName(), "onEvent");
+	}
+
+	@Test
+	void inheritedMethodAnnotations() {
+		Properties index = compile(SampleBean.class);
+		assertThat(index.getProperty(SampleBean.class.getName()).split(","))
+				.containsExactlyInAnyOrder("setDependency", "onEvent");
+	}
+
+	@Test
+	void nestedTypes() {
+		Properties index = compile(SampleBean.class);
+		assertThat(index).containsEntry(SampleBean.Nested.class.getName(), "@type");
+		assertThat(index).containsEntry(SampleBean.Nested.Inner.class.getName(), "");
+	}
+
+	@Test
+	void annotationNotRetainedAtRuntime() {
+		Properties index = compile(SampleClassRetention.class);
+		assertThat(index).containsEntry(SampleClassRetention.class.getName(), "");
+	}
+
+	@Test
+	void recordComponentAnnotation() {
+		Properties index = compile(SampleRecord.class);
+		assertThat(index).containsEntry(SampleRecord.class.getName(), "name");
+	}
+
+	@Test
+	void disabledByDefault() {
+		this.compiler.getTask(SampleService.class).call(new AnnotationsIndexer());
+		assertThat(new File(this.compiler.getOutputLocation(), AnnotationsIndexer.INDEX_PATH)).doesNotExist();
+	}
+
+	private Properties compile(Class<?>... types) {
+		AnnotationsIndexer processor = new AnnotationsIndexer();
+		List<String> options = List.of("-A" + AnnotationsIndexer.ENABLED_OPTION + "=true");
+		this.compiler.getTask(options, types).call(processor);
+		return readGeneratedIndex(this.compiler.getOutputLocation());
+	}
+
+	private Properties readGeneratedIndex(File outputLocation) {
+		Properties properties = new Properties();
+		File indexFile = new File(outputLocation, AnnotationsIndexer.INDEX_PATH);
+		if (indexFile.isFile()) {
+			try (FileInputStream fileInputStream = new FileInputStream(indexFile)) {
+				properties.load(fileInputStream);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to read index from disk", ex);
+			}
+		}
+		return properties;
+	}
+
+}
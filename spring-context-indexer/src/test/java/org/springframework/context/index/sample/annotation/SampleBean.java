@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.sample.annotation;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Class inheriting annotated methods, with nested classes.
+ */
+public class SampleBean extends SampleBase implements SampleCallback {
+
+	@Override
+	public void onEvent(Object event) {
+	}
+
+	@SampleClassRetention
+	public void run() {
+	}
+
+	@Component
+	public static class Nested {
+
+		public static class Inner {
+		}
+	}
+
+}
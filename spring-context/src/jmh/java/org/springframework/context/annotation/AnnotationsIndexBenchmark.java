@@ -0,0 +1,186 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.FieldVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Benchmark for the startup of an application context scanning many
+ * {@code @Component} beans, with and without an annotation index
+ * ({@code META-INF/spring.annotations}) listing the bean classes.
+ *
+ * <p>Each bean has an {@code @Value} field, an {@code @Autowired} setter and
+ * an {@code @EventListener} method, along with plain methods declared in the
+ * bean class and in its superclass, as in typical application components.
+ *
+ * <p>Bean classes are generated once and loaded in a new class loader for each
+ * invocation, so that annotation lookups are not served by caches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AnnotationsIndexBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		private static final String BASE_PACKAGE = "org.springframework.context.annotation.generated";
+
+		private static final String PACKAGE_NAME = BASE_PACKAGE.replace('.', '/') + '/';
+
+		private static final int METHOD_COUNT = 10;
+
+		@Param({"1000"})
+		public int beanCount;
+
+		@Param({"false", "true"})
+		public boolean indexed;
+
+		public Path classesDirectory;
+
+		public Path indexDirectory;
+
+		public URLClassLoader classLoader;
+
+		@Setup(Level.Trial)
+		public void generateClasses() throws IOException {
+			this.classesDirectory = Files.createTempDirectory("classes");
+			this.indexDirectory = Files.createTempDirectory("index");
+			StringBuilder index = new StringBuilder();
+			writeClass(PACKAGE_NAME + "AbstractBean", "java/lang/Object", Opcodes.ACC_ABSTRACT, "base", false);
+			index.append(getClassName(PACKAGE_NAME + "AbstractBean")).append("=\n");
+			for (int i = 0; i < this.beanCount; i++) {
+				writeClass(PACKAGE_NAME + "Bean" + i, PACKAGE_NAME + "AbstractBean", 0, "method", true);
+				index.append(getClassName(PACKAGE_NAME + "Bean" + i)).append("=@type,setEnvironment,onRefresh\n");
+			}
+			Path indexFile = this.indexDirectory.resolve("META-INF/spring.annotations");
+			Files.createDirectories(indexFile.getParent());
+			Files.writeString(indexFile, index);
+		}
+
+		@Setup(Level.Invocation)
+		public void createClassLoader() throws IOException {
+			URL[] urls = (this.indexed ?
+					new URL[] {this.classesDirectory.toUri().toURL(), this.indexDirectory.toUri().toURL()} :
+					new URL[] {this.classesDirectory.toUri().toURL()});
+			this.classLoader = new URLClassLoader(urls, getClass().getClassLoader());
+		}
+
+		@TearDown(Level.Invocation)
+		public void closeClassLoader() throws IOException {
+			this.classLoader.close();
+		}
+
+		@TearDown(Level.Trial)
+		public void deleteClasses() throws IOException {
+			FileSystemUtils.deleteRecursively(this.classesDirectory);
+			FileSystemUtils.deleteRecursively(this.indexDirectory);
+		}
+
+		private void writeClass(String internalName, String superName, int modifiers, String methodPrefix,
+				boolean component) throws IOException {
+
+			ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+			cw.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER | modifiers, internalName, null, superName, null);
+			if (component) {
+				writeComponentMembers(cw);
+			}
+			MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false);
+			mv.visitInsn(Opcodes.RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+			for (int i = 0; i < METHOD_COUNT; i++) {
+				mv = cw.visitMethod(Opcodes.ACC_PUBLIC, methodPrefix + i, "()V", null, null);
+				mv.visitCode();
+				mv.visitInsn(Opcodes.RETURN);
+				mv.visitMaxs(0, 0);
+				mv.visitEnd();
+			}
+			cw.visitEnd();
+			Path classFile = this.classesDirectory.resolve(internalName + ".class");
+			Files.createDirectories(classFile.getParent());
+			Files.write(classFile, cw.toByteArray());
+		}
+
+		private static void writeComponentMembers(ClassWriter cw) {
+			cw.visitAnnotation("Lorg/springframework/stereotype/Component;", true).visitEnd();
+
+			FieldVisitor fv = cw.visitField(Opcodes.ACC_PRIVATE, "name", "Ljava/lang/String;", null, null);
+			AnnotationVisitor av = fv.visitAnnotation("Lorg/springframework/beans/factory/annotation/Value;", true);
+			av.visit("value", "${bean.name:bean}");
+			av.visitEnd();
+			fv.visitEnd();
+
+			MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "setEnvironment",
+					"(Lorg/springframework/core/env/Environment;)V", null, null);
+			mv.visitAnnotation("Lorg/springframework/beans/factory/annotation/Autowired;", true).visitEnd();
+			mv.visitCode();
+			mv.visitInsn(Opcodes.RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+
+			mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "onRefresh",
+					"(Lorg/springframework/context/event/ContextRefreshedEvent;)V", null, null);
+			mv.visitAnnotation("Lorg/springframework/context/event/EventListener;", true).visitEnd();
+			mv.visitCode();
+			mv.visitInsn(Opcodes.RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		private static String getClassName(String internalName) {
+			return internalName.replace('/', '.');
+		}
+	}
+
+	@Benchmark
+	public GenericApplicationContext refresh(BenchmarkState state) {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.setClassLoader(state.classLoader);
+		new ClassPathBeanDefinitionScanner(context).scan(BenchmarkState.BASE_PACKAGE);
+		context.refresh();
+		context.close();
+		return context;
+	}
+
+}
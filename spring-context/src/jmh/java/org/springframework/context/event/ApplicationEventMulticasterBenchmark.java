@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * Benchmark for {@code publishEvent} throughput on an application context,
+ * with a varying number of listeners and publishing threads.
+ *
+ * <p>Events are either dispatched to listeners on the publishing thread, or in
+ * batches through a {@link BatchingApplicationEventDispatcher} on a bounded
+ * thread pool that runs tasks on the publishing thread when saturated.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ApplicationEventMulticasterBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"1", "50", "500"})
+		public int listenerCount;
+
+		@Param({"direct", "batching"})
+		public String dispatch;
+
+		public GenericApplicationContext context;
+
+		public ThreadPoolExecutor executor;
+
+		@Setup
+		public void setup() {
+			this.context = new GenericApplicationContext();
+			SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+			if (this.dispatch.equals("batching")) {
+				int poolSize = Runtime.getRuntime().availableProcessors();
+				this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+						new ArrayBlockingQueue<>(1024), new ThreadPoolExecutor.CallerRunsPolicy());
+				multicaster.setEventDispatcher(new BatchingApplicationEventDispatcher(this.executor));
+			}
+			this.context.getBeanFactory().registerSingleton(
+					AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, multicaster);
+			for (int i = 0; i < this.listenerCount; i++) {
+				this.context.addApplicationListener(new DomainEventListener());
+			}
+			this.context.refresh();
+		}
+
+		@TearDown
+		public void shutdown() {
+			this.context.close();
+			if (this.executor != null) {
+				this.executor.shutdownNow();
+			}
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void publishEvent(BenchmarkState state) {
+		state.context.publishEvent(new DomainEvent(state));
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void publishEventConcurrently(BenchmarkState state) {
+		state.context.publishEvent(new DomainEvent(state));
+	}
+
+
+	@SuppressWarnings("serial")
+	static class DomainEvent extends ApplicationEvent {
+
+		DomainEvent(Object source) {
+			super(source);
+		}
+	}
+
+
+	static class DomainEventListener implements ApplicationListener<DomainEvent> {
+
+		// Not thread-safe on purpose: only there to keep invocations from being optimized away
+		long count;
+
+		@Override
+		public void onApplicationEvent(DomainEvent event) {
+			this.count++;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,10 +28,18 @@ import org.openjdk.jmh.infra.Blackhole;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.GenericApplicationContext;
 
 /**
- * Benchmark for application context expressions resolution during prototype bean creation.
+ * Benchmark for application context expressions resolution during prototype bean creation,
+ * and for the per-call overhead of expressions on {@code @Cacheable} methods.
  * @author Brian Clozel
  */
 @BenchmarkMode(Mode.Throughput)
@@ -62,10 +70,83 @@ public class ApplicationContextExpressionBenchmark {
 		}
 	}
 
+	@State(Scope.Benchmark)
+	public static class CacheState {
+
+		public AnnotationConfigApplicationContext context;
+
+		public CustomerService service;
+
+		public TestBean customer;
+
+		@Setup
+		public void setup() {
+			this.context = new AnnotationConfigApplicationContext(CacheConfiguration.class);
+			this.service = this.context.getBean(CustomerService.class);
+			this.customer = new TestBean("juergen", 42);
+		}
+
+		@TearDown
+		public void teardown() {
+			this.context.close();
+		}
+	}
+
 	@Benchmark
 	public void prototypeCreationWithSystemProperties(BenchmarkState state, Blackhole bh) {
 		TestBean tb = (TestBean) state.context.getBean("test");
 		bh.consume(tb.getName());
 		bh.consume(tb.getCountry());
 	}
+
+	@Benchmark
+	public void cacheableWithArgumentKey(CacheState state, Blackhole bh) {
+		bh.consume(state.service.findById(42L));
+	}
+
+	@Benchmark
+	public void cacheableWithPropertyKey(CacheState state, Blackhole bh) {
+		bh.consume(state.service.findByName(state.customer));
+	}
+
+	@Benchmark
+	public void cacheableWithCondition(CacheState state, Blackhole bh) {
+		bh.consume(state.service.findByIdIfPositive(42L));
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class CacheConfiguration {
+
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager();
+		}
+
+		@Bean
+		public CustomerService customerService() {
+			return new CustomerService();
+		}
+	}
+
+
+	public static class CustomerService {
+
+		@Cacheable(cacheNames = "customers", key = "#id")
+		public String findById(long id) {
+			return "customer-" + id;
+		}
+
+		@Cacheable(cacheNames = "customers", key = "#customer.name")
+		public String findByName(TestBean customer) {
+			return "customer-" + customer.getName();
+		}
+
+		@Cacheable(cacheNames = "customers", key = "#id + 1", condition = "#id > 0")
+		public String findByIdIfPositive(long id) {
+			return "customer-" + id;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -790,9 +790,15 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		 */
 		@Nullable
 		protected Object generateKey(@Nullable Object result) {
-			if (StringUtils.hasText(this.metadata.operation.getKey())) {
+			String key = this.metadata.operation.getKey();
+			if (StringUtils.hasText(key)) {
+				Object argumentKey = evaluator.argumentKey(
+						key, this.metadata.methodKey, this.metadata.targetMethod, this.args);
+				if (argumentKey != CacheOperationExpressionEvaluator.NO_RESULT) {
+					return argumentKey;
+				}
 				EvaluationContext evaluationContext = createEvaluationContext(result);
-				return evaluator.key(this.metadata.operation.getKey(), this.metadata.methodKey, evaluationContext);
+				return evaluator.key(key, this.metadata.methodKey, evaluationContext);
 			}
 			return this.metadata.keyGenerator.generate(this.target, this.metadata.method, this.args);
 		}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,16 @@
 
 package org.springframework.cache.interceptor;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.cache.Cache;
@@ -28,6 +34,9 @@ import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
 import org.springframework.lang.Nullable;
 
 /**
@@ -35,7 +44,9 @@ import org.springframework.lang.Nullable;
  * Meant to be used as a reusable, thread-safe component.
  *
  * <p>Performs internal caching for performance reasons
- * using {@link AnnotatedElementKey}.
+ * using {@link AnnotatedElementKey}. Expressions are compiled once they
+ * are hot, and keys that simply refer to a method argument or to one of
+ * its properties are resolved without evaluating the expression at all.
  *
  * @author Costin Leau
  * @author Phillip Webb
@@ -60,6 +71,15 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 	 */
 	public static final String RESULT_VARIABLE = "result";
 
+	/**
+	 * Pattern for key expressions that refer to a method argument, optionally
+	 * followed by one of its properties: e.g. {@code #id} or {@code #a0.name}.
+	 */
+	private static final Pattern ARGUMENT_KEY_PATTERN =
+			Pattern.compile("#([a-zA-Z_$][\\w$]*)(?:\\.([a-zA-Z_$][\\w$]*))?");
+
+	private static final MethodType PROPERTY_READER_TYPE = MethodType.methodType(Object.class, Object.class);
+
 
 	private final Map<ExpressionKey, Expression> keyCache = new ConcurrentHashMap<>(64);
 
@@ -67,6 +87,23 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 
 	private final Map<ExpressionKey, Expression> unlessCache = new ConcurrentHashMap<>(64);
 
+	private final Map<Expression, ArgumentKey> argumentKeyCache = new ConcurrentHashMap<>(64);
+
+	private final ReflectivePropertyAccessor propertyAccessor = new ReflectivePropertyAccessor(false);
+
+	// Only used for resolving accessors: never exposed to expressions
+	private final SimpleEvaluationContext propertyAccessorContext =
+			SimpleEvaluationContext.forReadOnlyDataBinding().build();
+
+
+	/**
+	 * Create a new evaluator that compiles expressions once they are hot.
+	 * @see #createCompilingParser()
+	 */
+	CacheOperationExpressionEvaluator() {
+		super(createCompilingParser());
+	}
+
 
 	/**
 	 * Create an {@link EvaluationContext}.
@@ -104,6 +141,59 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 		return getExpression(this.keyCache, methodKey, keyExpression).getValue(evalContext);
 	}
 
+	/**
+	 * Resolve the key for an expression that simply refers to a method argument
+	 * or to a property of it, such as {@code #id} or {@code #a0.name}, without
+	 * creating an {@link EvaluationContext}.
+	 * <p>The argument is located once per method, following the variable names
+	 * exposed by {@link CacheEvaluationContext}, and properties are read through
+	 * a method handle for the getter or field that SpEL would use.
+	 * @param keyExpression the key expression
+	 * @param methodKey the method on which the expression is defined
+	 * @param targetMethod the target method
+	 * @param args the method arguments
+	 * @return the key, or {@link #NO_RESULT} if the expression has to be
+	 * evaluated against an {@link EvaluationContext}
+	 * @since 6.0
+	 * @see #key(String, AnnotatedElementKey, EvaluationContext)
+	 */
+	@Nullable
+	public Object argumentKey(String keyExpression, AnnotatedElementKey methodKey, Method targetMethod, Object[] args) {
+		Expression expression = getExpression(this.keyCache, methodKey, keyExpression);
+		ArgumentKey argumentKey = this.argumentKeyCache.get(expression);
+		if (argumentKey == null) {
+			argumentKey = resolveArgumentKey(expression, targetMethod);
+			this.argumentKeyCache.put(expression, argumentKey);
+		}
+		if (argumentKey.argumentIndex < 0 || args.length != argumentKey.argumentCount) {
+			return NO_RESULT;
+		}
+		Object argument = args[argumentKey.argumentIndex];
+		if (argumentKey.propertyName == null) {
+			return argument;
+		}
+		// Let SpEL report null or unreadable targets
+		if (argument == null || argument instanceof Class) {
+			return NO_RESULT;
+		}
+		PropertyReader reader = argumentKey.propertyReader;
+		if (reader == null || reader.targetType != argument.getClass()) {
+			reader = new PropertyReader(argument.getClass(),
+					createPropertyReadHandle(argument, argumentKey.propertyName));
+			argumentKey.propertyReader = reader;
+		}
+		if (reader.handle == null) {
+			return NO_RESULT;
+		}
+		try {
+			return reader.handle.invokeExact(argument);
+		}
+		catch (Throwable ex) {
+			// Evaluate the expression to report the failure the same way as SpEL
+			return NO_RESULT;
+		}
+	}
+
 	public boolean condition(String conditionExpression, AnnotatedElementKey methodKey, EvaluationContext evalContext) {
 		return (Boolean.TRUE.equals(getExpression(this.conditionCache, methodKey, conditionExpression).getValue(
 				evalContext, Boolean.class)));
@@ -121,6 +211,89 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 		this.keyCache.clear();
 		this.conditionCache.clear();
 		this.unlessCache.clear();
+		this.argumentKeyCache.clear();
+	}
+
+	private ArgumentKey resolveArgumentKey(Expression expression, Method targetMethod) {
+		Matcher matcher = ARGUMENT_KEY_PATTERN.matcher(expression.getExpressionString());
+		if (!matcher.matches()) {
+			return ArgumentKey.NONE;
+		}
+		String variableName = matcher.group(1);
+		if (variableName.equals(RESULT_VARIABLE) || variableName.equals("root") || variableName.equals("this")) {
+			return ArgumentKey.NONE;
+		}
+		// Same variable names, and same precedence, as in MethodBasedEvaluationContext
+		String[] paramNames = getParameterNameDiscoverer().getParameterNames(targetMethod);
+		int paramCount = (paramNames != null ? paramNames.length : targetMethod.getParameterCount());
+		int argumentIndex = -1;
+		for (int i = 0; i < paramCount; i++) {
+			if (variableName.equals("a" + i) || variableName.equals("p" + i) ||
+					(paramNames != null && variableName.equals(paramNames[i]))) {
+				argumentIndex = i;
+			}
+		}
+		return (argumentIndex >= 0 ? new ArgumentKey(argumentIndex, paramCount, matcher.group(2)) : ArgumentKey.NONE);
+	}
+
+	@Nullable
+	private MethodHandle createPropertyReadHandle(Object target, String propertyName) {
+		PropertyAccessor accessor = this.propertyAccessor.createOptimalAccessor(
+				this.propertyAccessorContext, target, propertyName);
+		if (!(accessor instanceof ReflectivePropertyAccessor.OptimalPropertyAccessor optimalAccessor)) {
+			return null;
+		}
+		try {
+			MethodHandle handle = (optimalAccessor.member instanceof Method method ?
+					MethodHandles.lookup().unreflect(method) :
+					MethodHandles.lookup().unreflectGetter((Field) optimalAccessor.member));
+			return handle.asType(PROPERTY_READER_TYPE);
+		}
+		catch (IllegalAccessException ex) {
+			return null;
+		}
+	}
+
+
+	/**
+	 * Resolved form of a key expression that refers to a method argument.
+	 */
+	private static final class ArgumentKey {
+
+		static final ArgumentKey NONE = new ArgumentKey(-1, -1, null);
+
+		final int argumentIndex;
+
+		final int argumentCount;
+
+		@Nullable
+		final String propertyName;
+
+		@Nullable
+		volatile PropertyReader propertyReader;
+
+		ArgumentKey(int argumentIndex, int argumentCount, @Nullable String propertyName) {
+			this.argumentIndex = argumentIndex;
+			this.argumentCount = argumentCount;
+			this.propertyName = propertyName;
+		}
+	}
+
+
+	/**
+	 * Handle reading a property on a given type of argument, if readable.
+	 */
+	private static final class PropertyReader {
+
+		final Class<?> targetType;
+
+		@Nullable
+		final MethodHandle handle;
+
+		PropertyReader(Class<?> targetType, @Nullable MethodHandle handle) {
+			this.targetType = targetType;
+			this.handle = handle;
+		}
 	}
 
 }
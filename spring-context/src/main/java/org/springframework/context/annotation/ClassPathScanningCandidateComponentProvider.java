@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.context.annotation;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -36,6 +37,7 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.index.CandidateComponentsIndex;
 import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
@@ -49,6 +51,7 @@ import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.PersistentMetadataReaderFactory;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.TypeFilter;
@@ -60,6 +63,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * A component provider that provides candidate components from a base package. Can
@@ -89,6 +93,19 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	/**
+	 * System property that instructs Spring to keep the metadata of scanned
+	 * classes in the given file, i.e. to use a {@link PersistentMetadataReaderFactory}
+	 * by default, so that unchanged classes are not parsed again on the next startup.
+	 * <p>The default is to read every scanned class file on each startup.
+	 * @since 6.0
+	 * @see #setResourceLoader
+	 */
+	public static final String METADATA_CACHE_FILE_PROPERTY_NAME = "spring.classpath.metadata-cache";
+
+	@Nullable
+	private static final String metadataCacheFile = SpringProperties.getProperty(METADATA_CACHE_FILE_PROPERTY_NAME);
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -113,6 +130,8 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	private boolean metadataStoreDeferred;
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -257,13 +276,19 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	 * This will typically be a {@link ResourcePatternResolver} implementation.
 	 * <p>Default is a {@code PathMatchingResourcePatternResolver}, also capable of
 	 * resource pattern resolving through the {@code ResourcePatternResolver} interface.
+	 * <p>Also creates the default {@link MetadataReaderFactory}: a
+	 * {@link PersistentMetadataReaderFactory} if the
+	 * {@value #METADATA_CACHE_FILE_PROPERTY_NAME} property is set, or a
+	 * {@link CachingMetadataReaderFactory} otherwise.
 	 * @see org.springframework.core.io.support.ResourcePatternResolver
 	 * @see org.springframework.core.io.support.PathMatchingResourcePatternResolver
 	 */
 	@Override
 	public void setResourceLoader(@Nullable ResourceLoader resourceLoader) {
 		this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
-		this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+		this.metadataReaderFactory = (StringUtils.hasText(metadataCacheFile) ?
+				new PersistentMetadataReaderFactory(Paths.get(metadataCacheFile), resourceLoader) :
+				new CachingMetadataReaderFactory(resourceLoader));
 		this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(this.resourcePatternResolver.getClassLoader());
 	}
 
@@ -284,7 +309,9 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	/**
 	 * Set the {@link MetadataReaderFactory} to use.
 	 * <p>Default is a {@link CachingMetadataReaderFactory} for the specified
-	 * {@linkplain #setResourceLoader resource loader}.
+	 * {@linkplain #setResourceLoader resource loader}. A
+	 * {@link PersistentMetadataReaderFactory} is stored after each scan, once
+	 * all base packages have been scanned by a {@link ClassPathBeanDefinitionScanner}.
 	 * <p>Call this setter method <i>after</i> {@link #setResourceLoader} in order
 	 * for the given MetadataReaderFactory to override the default factory.
 	 */
@@ -458,6 +485,9 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 							"Failed to read candidate component class: " + resource, ex);
 				}
 			}
+			if (!this.metadataStoreDeferred) {
+				storeMetadata();
+			}
 		}
 		catch (IOException ex) {
 			throw new BeanDefinitionStoreException("I/O failure during classpath scanning", ex);
@@ -466,6 +496,36 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	}
 
 
+	/**
+	 * Defer storing the metadata of scanned classes until
+	 * {@link #storeDeferredMetadata()} is called, so that a scan of several
+	 * base packages writes a {@link PersistentMetadataReaderFactory} once.
+	 */
+	void deferMetadataStore() {
+		this.metadataStoreDeferred = true;
+	}
+
+	/**
+	 * Store the metadata of the classes scanned since
+	 * {@link #deferMetadataStore()} was called.
+	 */
+	void storeDeferredMetadata() {
+		this.metadataStoreDeferred = false;
+		storeMetadata();
+	}
+
+	private void storeMetadata() {
+		if (this.metadataReaderFactory instanceof PersistentMetadataReaderFactory persistentFactory) {
+			try {
+				persistentFactory.store();
+			}
+			catch (IOException ex) {
+				// Not fatal: classes will be read again on the next startup
+				logger.warn("Failed to store metadata of scanned classes to " + persistentFactory.getCacheFile(), ex);
+			}
+		}
+	}
+
 	/**
 	 * Resolve the specified base package into a pattern specification for
 	 * the package search path.
@@ -536,6 +596,10 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			// for a shared cache since it'll be cleared by the ApplicationContext.
 			((CachingMetadataReaderFactory) this.metadataReaderFactory).clearCache();
 		}
+		else if (this.metadataReaderFactory instanceof PersistentMetadataReaderFactory persistentFactory) {
+			// Release the metadata read from class files or from the cache file
+			persistentFactory.clearCache();
+		}
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,11 +18,13 @@ package org.springframework.context.event;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import org.springframework.aop.framework.AopProxyUtils;
@@ -50,6 +52,10 @@ import org.springframework.util.ObjectUtils;
  * ApplicationListener objects can be overridden through the "collectionClass"
  * bean property.
  *
+ * <p>Registered listeners are kept as copy-on-write snapshots: registering or
+ * removing a listener replaces the snapshot, while retrieving the listeners
+ * for an event never blocks on a lock.
+ *
  * <p>Implementing ApplicationEventMulticaster's actual {@link #multicastEvent} method
  * is left to subclasses. {@link SimpleApplicationEventMulticaster} simply multicasts
  * all events to all registered listeners, invoking them in the calling thread.
@@ -103,13 +109,15 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void addApplicationListener(ApplicationListener<?> listener) {
 		synchronized (this.defaultRetriever) {
-			// Explicitly remove target for a proxy, if registered already,
-			// in order to avoid double invocations of the same listener.
-			Object singletonTarget = AopProxyUtils.getSingletonTarget(listener);
-			if (singletonTarget instanceof ApplicationListener) {
-				this.defaultRetriever.applicationListeners.remove(singletonTarget);
-			}
-			this.defaultRetriever.applicationListeners.add(listener);
+			this.defaultRetriever.updateApplicationListeners(listeners -> {
+				// Explicitly remove target for a proxy, if registered already,
+				// in order to avoid double invocations of the same listener.
+				Object singletonTarget = AopProxyUtils.getSingletonTarget(listener);
+				if (singletonTarget instanceof ApplicationListener) {
+					listeners.remove(singletonTarget);
+				}
+				listeners.add(listener);
+			});
 			this.retrieverCache.clear();
 		}
 	}
@@ -117,7 +125,7 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void addApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListenerBeans.add(listenerBeanName);
+			this.defaultRetriever.updateApplicationListenerBeans(listenerBeans -> listenerBeans.add(listenerBeanName));
 			this.retrieverCache.clear();
 		}
 	}
@@ -125,7 +133,7 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListener(ApplicationListener<?> listener) {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListeners.remove(listener);
+			this.defaultRetriever.updateApplicationListeners(listeners -> listeners.remove(listener));
 			this.retrieverCache.clear();
 		}
 	}
@@ -133,7 +141,7 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListenerBeans.remove(listenerBeanName);
+			this.defaultRetriever.updateApplicationListenerBeans(listenerBeans -> listenerBeans.remove(listenerBeanName));
 			this.retrieverCache.clear();
 		}
 	}
@@ -141,7 +149,7 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListeners(Predicate<ApplicationListener<?>> predicate) {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListeners.removeIf(predicate);
+			this.defaultRetriever.updateApplicationListeners(listeners -> listeners.removeIf(predicate));
 			this.retrieverCache.clear();
 		}
 	}
@@ -149,7 +157,7 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListenerBeans(Predicate<String> predicate) {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListenerBeans.removeIf(predicate);
+			this.defaultRetriever.updateApplicationListenerBeans(listenerBeans -> listenerBeans.removeIf(predicate));
 			this.retrieverCache.clear();
 		}
 	}
@@ -157,8 +165,8 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeAllListeners() {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListeners.clear();
-			this.defaultRetriever.applicationListenerBeans.clear();
+			this.defaultRetriever.updateApplicationListeners(Set::clear);
+			this.defaultRetriever.updateApplicationListenerBeans(Set::clear);
 			this.retrieverCache.clear();
 		}
 	}
@@ -170,9 +178,7 @@ public abstract class AbstractApplicationEventMulticaster
 	 * @see org.springframework.context.ApplicationListener
 	 */
 	protected Collection<ApplicationListener<?>> getApplicationListeners() {
-		synchronized (this.defaultRetriever) {
-			return this.defaultRetriever.getApplicationListeners();
-		}
+		return this.defaultRetriever.getApplicationListeners();
 	}
 
 	/**
@@ -235,12 +241,9 @@ public abstract class AbstractApplicationEventMulticaster
 		Set<ApplicationListener<?>> filteredListeners = (retriever != null ? new LinkedHashSet<>() : null);
 		Set<String> filteredListenerBeans = (retriever != null ? new LinkedHashSet<>() : null);
 
-		Set<ApplicationListener<?>> listeners;
-		Set<String> listenerBeans;
-		synchronized (this.defaultRetriever) {
-			listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
-			listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
-		}
+		// Snapshots, not modified once published
+		Set<ApplicationListener<?>> listeners = this.defaultRetriever.applicationListeners;
+		Set<String> listenerBeans = this.defaultRetriever.applicationListenerBeans;
 
 		// Add programmatically registered listeners, including ones coming
 		// from ApplicationListenerDetector (singleton beans and inner beans).
@@ -295,12 +298,10 @@ public abstract class AbstractApplicationEventMulticaster
 		AnnotationAwareOrderComparator.sort(allListeners);
 		if (retriever != null) {
 			if (filteredListenerBeans.isEmpty()) {
-				retriever.applicationListeners = new LinkedHashSet<>(allListeners);
-				retriever.applicationListenerBeans = filteredListenerBeans;
+				retriever.populate(new LinkedHashSet<>(allListeners), filteredListenerBeans);
 			}
 			else {
-				retriever.applicationListeners = filteredListeners;
-				retriever.applicationListenerBeans = filteredListenerBeans;
+				retriever.populate(filteredListeners, filteredListenerBeans);
 			}
 		}
 		return allListeners;
@@ -447,8 +448,24 @@ public abstract class AbstractApplicationEventMulticaster
 		@Nullable
 		public volatile Set<String> applicationListenerBeans;
 
+		/** Sorted listeners, shared by all events if no listener bean needs to be retrieved. */
+		@Nullable
+		private volatile List<ApplicationListener<?>> listenerSnapshot;
+
+		public void populate(Set<ApplicationListener<?>> applicationListeners, Set<String> applicationListenerBeans) {
+			if (applicationListenerBeans.isEmpty()) {
+				this.listenerSnapshot = Collections.unmodifiableList(new ArrayList<>(applicationListeners));
+			}
+			this.applicationListeners = applicationListeners;
+			this.applicationListenerBeans = applicationListenerBeans;
+		}
+
 		@Nullable
 		public Collection<ApplicationListener<?>> getApplicationListeners() {
+			List<ApplicationListener<?>> listenerSnapshot = this.listenerSnapshot;
+			if (listenerSnapshot != null) {
+				return listenerSnapshot;
+			}
 			Set<ApplicationListener<?>> applicationListeners = this.applicationListeners;
 			Set<String> applicationListenerBeans = this.applicationListenerBeans;
 			if (applicationListeners == null || applicationListenerBeans == null) {
@@ -481,20 +498,36 @@ public abstract class AbstractApplicationEventMulticaster
 
 	/**
 	 * Helper class that encapsulates a general set of target listeners.
+	 * <p>Both sets are copied on write, under the lock of this retriever,
+	 * and can be read without locking.
 	 */
 	private class DefaultListenerRetriever {
 
-		public final Set<ApplicationListener<?>> applicationListeners = new LinkedHashSet<>();
+		public volatile Set<ApplicationListener<?>> applicationListeners = Collections.emptySet();
+
+		public volatile Set<String> applicationListenerBeans = Collections.emptySet();
+
+		public void updateApplicationListeners(Consumer<Set<ApplicationListener<?>>> update) {
+			Set<ApplicationListener<?>> applicationListeners = new LinkedHashSet<>(this.applicationListeners);
+			update.accept(applicationListeners);
+			this.applicationListeners = Collections.unmodifiableSet(applicationListeners);
+		}
 
-		public final Set<String> applicationListenerBeans = new LinkedHashSet<>();
+		public void updateApplicationListenerBeans(Consumer<Set<String>> update) {
+			Set<String> applicationListenerBeans = new LinkedHashSet<>(this.applicationListenerBeans);
+			update.accept(applicationListenerBeans);
+			this.applicationListenerBeans = Collections.unmodifiableSet(applicationListenerBeans);
+		}
 
 		public Collection<ApplicationListener<?>> getApplicationListeners() {
+			Set<ApplicationListener<?>> applicationListeners = this.applicationListeners;
+			Set<String> applicationListenerBeans = this.applicationListenerBeans;
 			List<ApplicationListener<?>> allListeners = new ArrayList<>(
-					this.applicationListeners.size() + this.applicationListenerBeans.size());
-			allListeners.addAll(this.applicationListeners);
-			if (!this.applicationListenerBeans.isEmpty()) {
+					applicationListeners.size() + applicationListenerBeans.size());
+			allListeners.addAll(applicationListeners);
+			if (!applicationListenerBeans.isEmpty()) {
 				BeanFactory beanFactory = getBeanFactory();
-				for (String listenerBeanName : this.applicationListenerBeans) {
+				for (String listenerBeanName : applicationListenerBeans) {
 					try {
 						ApplicationListener<?> listener =
 								beanFactory.getBean(listenerBeanName, ApplicationListener.class);
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.Collection;
+import java.util.function.BiConsumer;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Strategy for dispatching an event to the listeners that support it,
+ * as used by {@link SimpleApplicationEventMulticaster}.
+ *
+ * <p>Implementations decide when and on which thread each listener gets
+ * invoked, for example delivering events asynchronously in batches as done
+ * by {@link BatchingApplicationEventDispatcher}.
+ *
+ * @since 6.0
+ * @see SimpleApplicationEventMulticaster#setEventDispatcher
+ */
+@FunctionalInterface
+public interface ApplicationEventDispatcher {
+
+	/**
+	 * Dispatch the given event to the given listeners.
+	 * @param event the event to dispatch
+	 * @param listeners the listeners supporting the event, in invocation order
+	 * @param invoker the callback to invoke a single listener with an event,
+	 * applying the error handling of the multicaster
+	 */
+	void dispatch(ApplicationEvent event, Collection<ApplicationListener<?>> listeners,
+			BiConsumer<ApplicationListener<?>, ApplicationEvent> invoker);
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationEventDispatcher} that delivers events asynchronously,
+ * coalescing the events published for each listener into batches.
+ *
+ * <p>Events are queued per listener, and a single task per listener is
+ * submitted to the executor to deliver all events queued in the meantime,
+ * up to the {@linkplain #setMaxBatchSize maximum batch size}. Compared to
+ * submitting a task for each event and listener, this saves most executor
+ * submissions for high-frequency events, and guarantees that each listener
+ * receives events one at a time and in publication order.
+ *
+ * <p>The queue of a listener only exists while events are pending for it, so
+ * that listeners removed from the multicaster, or created for each event, are
+ * not retained once their events have been delivered.
+ *
+ * <p>If the executor rejects a task, the exception is propagated to the
+ * publisher and the events remain queued until the next event is published
+ * for the same listener.
+ *
+ * @since 6.0
+ * @see SimpleApplicationEventMulticaster#setEventDispatcher
+ */
+public class BatchingApplicationEventDispatcher implements ApplicationEventDispatcher {
+
+	private final Executor executor;
+
+	private int maxBatchSize = 256;
+
+	private final Map<ApplicationListener<?>, ListenerQueue> listenerQueues = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Create a new BatchingApplicationEventDispatcher.
+	 * @param executor the executor to deliver batches of events with
+	 */
+	public BatchingApplicationEventDispatcher(Executor executor) {
+		Assert.notNull(executor, "Executor must not be null");
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Set the maximum number of events delivered to a listener in a single
+	 * task, before a new task is submitted for the remaining events, so that
+	 * a busy listener does not hold an executor thread indefinitely.
+	 * <p>Default is 256.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "'maxBatchSize' must be positive");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Return the maximum number of events delivered to a listener in a single task.
+	 */
+	public int getMaxBatchSize() {
+		return this.maxBatchSize;
+	}
+
+
+	@Override
+	public void dispatch(ApplicationEvent event, Collection<ApplicationListener<?>> listeners,
+			BiConsumer<ApplicationListener<?>, ApplicationEvent> invoker) {
+
+		for (ApplicationListener<?> listener : listeners) {
+			// Queued with the entry locked, so that it cannot be removed in the meantime
+			ListenerQueue queue = this.listenerQueues.compute(listener, (key, existing) -> {
+				ListenerQueue queueToUse = (existing != null ? existing : new ListenerQueue());
+				queueToUse.events.offer(event);
+				return queueToUse;
+			});
+			if (queue.scheduled.compareAndSet(false, true)) {
+				schedule(listener, queue, invoker);
+			}
+		}
+	}
+
+	private void schedule(ApplicationListener<?> listener, ListenerQueue queue,
+			BiConsumer<ApplicationListener<?>, ApplicationEvent> invoker) {
+
+		try {
+			this.executor.execute(() -> deliver(listener, queue, invoker));
+		}
+		catch (RuntimeException ex) {
+			queue.scheduled.set(false);
+			throw ex;
+		}
+	}
+
+	private void deliver(ApplicationListener<?> listener, ListenerQueue queue,
+			BiConsumer<ApplicationListener<?>, ApplicationEvent> invoker) {
+
+		try {
+			for (int i = 0; i < this.maxBatchSize; i++) {
+				ApplicationEvent event = queue.events.poll();
+				if (event == null) {
+					break;
+				}
+				invoker.accept(listener, event);
+			}
+		}
+		catch (Throwable ex) {
+			try {
+				scheduleRemainingEvents(listener, queue, invoker);
+			}
+			catch (RuntimeException scheduleEx) {
+				ex.addSuppressed(scheduleEx);
+			}
+			throw ex;
+		}
+		scheduleRemainingEvents(listener, queue, invoker);
+	}
+
+	private void scheduleRemainingEvents(ApplicationListener<?> listener, ListenerQueue queue,
+			BiConsumer<ApplicationListener<?>, ApplicationEvent> invoker) {
+
+		queue.scheduled.set(false);
+		// Events queued after the last poll, or beyond the batch size
+		if (!queue.events.isEmpty()) {
+			if (queue.scheduled.compareAndSet(false, true)) {
+				schedule(listener, queue, invoker);
+			}
+		}
+		else {
+			this.listenerQueues.computeIfPresent(listener, (key, existing) ->
+					(existing == queue && existing.events.isEmpty() && !existing.scheduled.get() ? null : existing));
+		}
+	}
+
+
+	/**
+	 * Events pending for a listener, with the state of its delivery task.
+	 */
+	private static final class ListenerQueue {
+
+		final Queue<ApplicationEvent> events = new ConcurrentLinkedQueue<>();
+
+		final AtomicBoolean scheduled = new AtomicBoolean();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.context.event;
 
 import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -40,13 +41,16 @@ import org.springframework.util.ErrorHandler;
  * <p>By default, all listeners are invoked in the calling thread.
  * This allows the danger of a rogue listener blocking the entire application,
  * but adds minimal overhead. Specify an alternative task executor to have
- * listeners executed in different threads, for example from a thread pool.
+ * listeners executed in different threads, for example from a thread pool,
+ * or an alternative {@link ApplicationEventDispatcher} to take full control
+ * over the delivery of events, for example in batches.
  *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @author Stephane Nicoll
  * @author Brian Clozel
  * @see #setTaskExecutor
+ * @see #setEventDispatcher
  */
 public class SimpleApplicationEventMulticaster extends AbstractApplicationEventMulticaster {
 
@@ -56,6 +60,11 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	@Nullable
 	private ErrorHandler errorHandler;
 
+	@Nullable
+	private ApplicationEventDispatcher eventDispatcher;
+
+	private final BiConsumer<ApplicationListener<?>, ApplicationEvent> listenerInvoker = this::invokeListener;
+
 	@Nullable
 	private volatile Log lazyLogger;
 
@@ -126,6 +135,29 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		return this.errorHandler;
 	}
 
+	/**
+	 * Set an {@link ApplicationEventDispatcher} to dispatch each event to the
+	 * listeners supporting it with, instead of invoking every listener with
+	 * the {@linkplain #setTaskExecutor task executor}, if any.
+	 * <p>Listeners are still invoked through {@link #invokeListener}, applying
+	 * the {@linkplain #setErrorHandler error handler}, if any.
+	 * <p>Default is none.
+	 * @since 6.0
+	 * @see BatchingApplicationEventDispatcher
+	 */
+	public void setEventDispatcher(@Nullable ApplicationEventDispatcher eventDispatcher) {
+		this.eventDispatcher = eventDispatcher;
+	}
+
+	/**
+	 * Return the current event dispatcher for this multicaster, if any.
+	 * @since 6.0
+	 */
+	@Nullable
+	protected ApplicationEventDispatcher getEventDispatcher() {
+		return this.eventDispatcher;
+	}
+
 	@Override
 	public void multicastEvent(ApplicationEvent event) {
 		multicastEvent(event, resolveDefaultEventType(event));
@@ -134,6 +166,11 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	@Override
 	public void multicastEvent(final ApplicationEvent event, @Nullable ResolvableType eventType) {
 		ResolvableType type = (eventType != null ? eventType : resolveDefaultEventType(event));
+		ApplicationEventDispatcher dispatcher = getEventDispatcher();
+		if (dispatcher != null) {
+			dispatcher.dispatch(event, getApplicationListeners(event, type), this.listenerInvoker);
+			return;
+		}
 		Executor executor = getTaskExecutor();
 		for (ApplicationListener<?> listener : getApplicationListeners(event, type)) {
 			if (executor != null) {
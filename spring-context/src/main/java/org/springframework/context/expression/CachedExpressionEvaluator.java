@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,10 @@ import java.util.Map;
 
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.SpringProperties;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -101,6 +104,23 @@ public abstract class CachedExpressionEvaluator {
 		return getParser().parseExpression(expression);
 	}
 
+	/**
+	 * Create a {@link SpelExpressionParser} that compiles expressions in
+	 * {@link SpelCompilerMode#MIXED mixed mode}: an expression is compiled to
+	 * bytecode once it has been interpreted enough times, and silently reverts
+	 * to interpreted mode if it cannot be compiled or if the compiled form fails.
+	 * <p>This suits expressions that are evaluated for every invocation of an
+	 * annotated method. If the {@value SpelParserConfiguration#SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME}
+	 * property is set, the parser uses the configured compiler mode instead.
+	 * @since 6.0
+	 */
+	protected static SpelExpressionParser createCompilingParser() {
+		if (SpringProperties.getProperty(SpelParserConfiguration.SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME) != null) {
+			return new SpelExpressionParser();
+		}
+		return new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, null));
+	}
+
 	private ExpressionKey createKey(AnnotatedElementKey elementKey, String expression) {
 		return new ExpressionKey(elementKey, expression);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,9 @@
 
 package org.springframework.aop.framework;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.lang.reflect.Method;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -24,11 +26,15 @@ import org.junit.jupiter.api.Test;
 
 import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
 import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.DynamicMethodMatcherPointcut;
+import org.springframework.aop.testfixture.interceptor.NopInterceptor;
 import org.springframework.beans.testfixture.beans.IOther;
 import org.springframework.beans.testfixture.beans.ITestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
@@ -148,6 +154,107 @@ public class JdkDynamicProxyTests extends AbstractAopProxyTests implements Seria
 		assertThat(proxy.doWithVarargs(MyEnum.A, MyOtherEnum.C)).isTrue();
 	}
 
+	@Test
+	public void testFrozenProxyWithStaticTarget() {
+		TestBean target = new TestBean("Rob", 32);
+		NopInterceptor nop = new NopInterceptor();
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.addAdvice(nop);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		assertThat(proxy.getName()).isEqualTo("Rob");
+		assertThat(proxy.haveBirthday()).isEqualTo(32);
+		assertThat(proxy.getAge()).isEqualTo(33);
+		TestBean spouse = new TestBean("Juergen");
+		proxy.setSpouse(spouse);
+		assertThat(proxy.getSpouse()).isSameAs(spouse);
+		assertThat(nop.getCount()).isEqualTo(5);
+		assertThat(proxy.toString()).isEqualTo(target.toString());
+		assertThat(proxy).isEqualTo(pf.getProxy());
+		assertThat(((Advised) proxy).isFrozen()).isTrue();
+	}
+
+	@Test
+	public void testFrozenProxyWithStaticTargetAndNoAdvice() {
+		Person target = new Person();
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setFrozen(true);
+		Named proxy = (Named) pf.getProxy();
+
+		assertThat(proxy.getName()).isEqualTo("Rob Harrop");
+		assertThat(proxy).isEqualTo(new Person());
+		assertThat(proxy.hashCode()).isEqualTo(target.hashCode());
+		assertThat(((Advised) proxy).getAdvisors()).isEmpty();
+	}
+
+	@Test
+	public void testFrozenProxyWithStaticTargetPropagatesExceptions() {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addAdvice(new NopInterceptor());
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		assertThatExceptionOfType(IOException.class).isThrownBy(() ->
+				proxy.exceptional(new IOException()));
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+				proxy.exceptional(new IllegalStateException()));
+	}
+
+	@Test
+	public void testFrozenProxyWithStaticTargetAndDynamicMethodMatcher() {
+		NopInterceptor nop = new NopInterceptor();
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addAdvisor(new DefaultPointcutAdvisor(new DynamicMethodMatcherPointcut() {
+			@Override
+			public boolean matches(Method method, Class<?> targetClass, Object... args) {
+				return (args.length == 1 && "Rob".equals(args[0]));
+			}
+		}, nop));
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		proxy.setName("Juergen");
+		assertThat(nop.getCount()).isEqualTo(0);
+		proxy.setName("Rob");
+		assertThat(nop.getCount()).isEqualTo(1);
+		assertThat(proxy.getName()).isEqualTo("Rob");
+	}
+
+	@Test
+	public void testFrozenProxyWithStaticTargetAndNonPublicTargetClass() {
+		ProxyFactory pf = new ProxyFactory(new FooBar() {
+		});
+		pf.setFrozen(true);
+		Foo proxy = (Foo) pf.getProxy();
+
+		assertThat(proxy.getFooThis()).isSameAs(proxy);
+		assertThat(proxy.getBarThis()).isNotSameAs(proxy);
+	}
+
+	@Test
+	public void testFrozenProxyWithStaticTargetUsesGeneratedInvoker() {
+		ProxyFactory pf = new ProxyFactory(new CallerCapturingBean());
+		pf.setFrozen(true);
+		CallerCapturing proxy = (CallerCapturing) pf.getProxy();
+		assertThat(proxy.getCaller().getName()).startsWith("aop.JoinpointInvoker");
+
+		NopInterceptor nop = new NopInterceptor();
+		pf = new ProxyFactory(new CallerCapturingBean());
+		pf.addAdvice(nop);
+		pf.setFrozen(true);
+		proxy = (CallerCapturing) pf.getProxy();
+		assertThat(proxy.getCaller().getName()).startsWith("aop.JoinpointInvoker");
+		assertThat(nop.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testNonFrozenProxyUsesReflection() {
+		ProxyFactory pf = new ProxyFactory(new CallerCapturingBean());
+		CallerCapturing proxy = (CallerCapturing) pf.getProxy();
+		assertThat(proxy.getCaller()).isEqualTo(AopUtils.class);
+	}
+
 
 	public interface Foo {
 
@@ -218,6 +325,21 @@ public class JdkDynamicProxyTests extends AbstractAopProxyTests implements Seria
 	}
 
 
+	public interface CallerCapturing {
+
+		Class<?> getCaller();
+	}
+
+
+	public static class CallerCapturingBean implements CallerCapturing {
+
+		@Override
+		public Class<?> getCaller() {
+			return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).getCallerClass();
+		}
+	}
+
+
 	public interface VarargTestInterface {
 
 		@SuppressWarnings("unchecked")
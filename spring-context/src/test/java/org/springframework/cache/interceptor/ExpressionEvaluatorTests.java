@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,20 @@
 
 package org.springframework.cache.interceptor;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.testfixture.beans.Pet;
+import org.springframework.beans.testfixture.beans.TestBean;
 import org.springframework.cache.annotation.AnnotationCacheOperationSource;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
@@ -33,6 +37,7 @@ import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.util.ReflectionUtils;
 
@@ -136,6 +141,75 @@ public class ExpressionEvaluatorTests {
 		assertThat(value).isEqualTo(String.class.getName());
 	}
 
+	@Test
+	public void argumentKeyWithVariableName() {
+		Method method = ReflectionUtils.findMethod(
+				AnnotatedClass.class, "multipleCaching", Object.class, Object.class);
+		AnnotatedElementKey key = new AnnotatedElementKey(method, AnnotatedClass.class);
+		Object[] args = new Object[] {new Object(), new Object()};
+
+		assertThat(this.eval.argumentKey("#a", key, method, args)).isSameAs(args[0]);
+		assertThat(this.eval.argumentKey("#b", key, method, args)).isSameAs(args[1]);
+		assertThat(this.eval.argumentKey("#a1", key, method, args)).isSameAs(args[1]);
+		assertThat(this.eval.argumentKey("#p0", key, method, args)).isSameAs(args[0]);
+	}
+
+	@Test
+	public void argumentKeyWithProperty() {
+		Method method = ReflectionUtils.findMethod(
+				AnnotatedClass.class, "multipleCaching", Object.class, Object.class);
+		AnnotatedElementKey key = new AnnotatedElementKey(method, AnnotatedClass.class);
+
+		assertThat(this.eval.argumentKey("#a0.name", key, method, new Object[] {new TestBean("juergen"), null}))
+				.isEqualTo("juergen");
+		assertThat(this.eval.argumentKey("#a0.name", key, method, new Object[] {new Pet("rex"), null}))
+				.isEqualTo("rex");
+		assertThat(this.eval.argumentKey("#b.age", key, method, new Object[] {null, new TestBean("juergen", 42)}))
+				.isEqualTo(42);
+	}
+
+	@Test
+	public void argumentKeyRequiresEvaluation() {
+		Method method = ReflectionUtils.findMethod(
+				AnnotatedClass.class, "multipleCaching", Object.class, Object.class);
+		AnnotatedElementKey key = new AnnotatedElementKey(method, AnnotatedClass.class);
+		Object[] args = new Object[] {new TestBean("juergen"), null};
+
+		assertThat(this.eval.argumentKey("#a + #b", key, method, args)).isSameAs(CacheOperationExpressionEvaluator.NO_RESULT);
+		assertThat(this.eval.argumentKey("#result", key, method, args)).isSameAs(CacheOperationExpressionEvaluator.NO_RESULT);
+		assertThat(this.eval.argumentKey("#unknown", key, method, args)).isSameAs(CacheOperationExpressionEvaluator.NO_RESULT);
+		assertThat(this.eval.argumentKey("#a.unknown", key, method, args)).isSameAs(CacheOperationExpressionEvaluator.NO_RESULT);
+		assertThat(this.eval.argumentKey("#b.name", key, method, args)).isSameAs(CacheOperationExpressionEvaluator.NO_RESULT);
+		assertThat(this.eval.argumentKey("#a", key, method, new Object[] {"a", "b", "c"}))
+				.isSameAs(CacheOperationExpressionEvaluator.NO_RESULT);
+	}
+
+	@Test
+	public void conditionEvaluatedConsistentlyOnceCompiled() {
+		Method method = ReflectionUtils.findMethod(
+				AnnotatedClass.class, "multipleCaching", Object.class, Object.class);
+		AnnotatedElementKey key = new AnnotatedElementKey(method, AnnotatedClass.class);
+		AnnotatedClass target = new AnnotatedClass();
+		Collection<ConcurrentMapCache> caches = Collections.singleton(new ConcurrentMapCache("test"));
+
+		for (int i = 0; i < 500; i++) {
+			Object[] args = new Object[] {i, (i % 3 == 0 ? "match" : "other")};
+			EvaluationContext context = this.eval.createEvaluationContext(caches, method, args,
+					target, target.getClass(), method, CacheOperationExpressionEvaluator.NO_RESULT, null);
+			assertThat(this.eval.condition("#b == 'match'", key, context)).isEqualTo(i % 3 == 0);
+		}
+
+		Field conditionCache = ReflectionUtils.findField(CacheOperationExpressionEvaluator.class, "conditionCache");
+		ReflectionUtils.makeAccessible(conditionCache);
+		Map<?, ?> expressions = (Map<?, ?>) ReflectionUtils.getField(conditionCache, this.eval);
+		assertThat(expressions).hasSize(1);
+		Object expression = expressions.values().iterator().next();
+		assertThat(expression).isInstanceOf(SpelExpression.class);
+		Field compiledAst = ReflectionUtils.findField(SpelExpression.class, "compiledAst");
+		ReflectionUtils.makeAccessible(compiledAst);
+		assertThat(ReflectionUtils.getField(compiledAst, expression)).as("compiled expression").isNotNull();
+	}
+
 	private EvaluationContext createEvaluationContext(Object result) {
 		return createEvaluationContext(result, null);
 	}
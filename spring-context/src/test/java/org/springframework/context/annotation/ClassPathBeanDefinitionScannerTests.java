@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,10 @@
 
 package org.springframework.context.annotation;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import example.scannable.CustomComponent;
 import example.scannable.FooService;
 import example.scannable.FooServiceImpl;
@@ -23,6 +27,7 @@ import example.scannable.NamedStubDao;
 import example.scannable.StubFooDao;
 import org.aspectj.lang.annotation.Aspect;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.beans.BeanInstantiationException;
 import org.springframework.beans.factory.BeanCreationException;
@@ -38,6 +43,7 @@ import org.springframework.context.annotation2.NamedStubDao2;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.context.testfixture.index.CandidateComponentsTestClassLoader;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.type.classreading.PersistentMetadataReaderFactory;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.stereotype.Component;
@@ -526,6 +532,49 @@ public class ClassPathBeanDefinitionScannerTests {
 			.satisfies(ex -> assertThat(ex.getMostSpecificCause()).isInstanceOf(NoSuchBeanDefinitionException.class));
 	}
 
+	@Test
+	public void testPersistentMetadataStoredOncePerScan(@TempDir Path tempDir) {
+		Path cacheFile = tempDir.resolve("metadata.cache");
+		AtomicInteger storeCount = new AtomicInteger();
+		PersistentMetadataReaderFactory metadataReaderFactory = new PersistentMetadataReaderFactory(cacheFile) {
+			@Override
+			public synchronized void store() throws IOException {
+				storeCount.incrementAndGet();
+				super.store();
+			}
+		};
+		GenericApplicationContext context = new GenericApplicationContext();
+		ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(context);
+		scanner.setMetadataReaderFactory(metadataReaderFactory);
+		scanner.scan(BASE_PACKAGE, "org.springframework.context.annotation5");
+
+		assertThat(storeCount).hasValue(1);
+		assertThat(cacheFile).exists();
+		assertThat(context.containsBean("fooServiceImpl")).isTrue();
+		assertThat(context.containsBean("otherFooDao")).isTrue();
+	}
+
+	@Test
+	public void testPersistentMetadataClearedWithCache(@TempDir Path tempDir) {
+		AtomicInteger clearCount = new AtomicInteger();
+		PersistentMetadataReaderFactory metadataReaderFactory =
+				new PersistentMetadataReaderFactory(tempDir.resolve("metadata.cache")) {
+			@Override
+			public synchronized void clearCache() {
+				clearCount.incrementAndGet();
+				super.clearCache();
+			}
+		};
+		GenericApplicationContext context = new GenericApplicationContext();
+		ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(context);
+		scanner.setMetadataReaderFactory(metadataReaderFactory);
+		scanner.scan(BASE_PACKAGE);
+		scanner.clearCache();
+
+		assertThat(clearCount).hasValue(1);
+		assertThat(context.containsBean("fooServiceImpl")).isTrue();
+	}
+
 
 	private static class TestBeanNameGenerator extends AnnotationBeanNameGenerator {
 
@@ -180,6 +180,59 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		smc.multicastEvent(evt);
 	}
 
+	@Test
+	public void simpleApplicationEventMulticasterWithEventDispatcher() {
+		@SuppressWarnings("unchecked")
+		ApplicationListener<ApplicationEvent> listener = mock(ApplicationListener.class);
+		ApplicationEvent evt = new ContextClosedEvent(new StaticApplicationContext());
+		List<ApplicationListener<?>> dispatched = new ArrayList<>();
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setTaskExecutor(command -> {
+			throw new IllegalStateException("Should not be used with an event dispatcher");
+		});
+		smc.setEventDispatcher((event, listeners, invoker) -> {
+			dispatched.addAll(listeners);
+			listeners.forEach(l -> invoker.accept(l, event));
+		});
+		smc.addApplicationListener(listener);
+
+		smc.multicastEvent(evt);
+		assertThat(dispatched).containsExactly(listener);
+		verify(listener).onApplicationEvent(evt);
+	}
+
+	@Test
+	public void simpleApplicationEventMulticasterWithEventDispatcherAndErrorHandler() {
+		@SuppressWarnings("unchecked")
+		ApplicationListener<ApplicationEvent> listener = mock(ApplicationListener.class);
+		ApplicationEvent evt = new ContextClosedEvent(new StaticApplicationContext());
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setErrorHandler(TaskUtils.LOG_AND_SUPPRESS_ERROR_HANDLER);
+		smc.setEventDispatcher(new BatchingApplicationEventDispatcher(Runnable::run));
+		smc.addApplicationListener(listener);
+
+		willThrow(new RuntimeException()).given(listener).onApplicationEvent(evt);
+		smc.multicastEvent(evt);
+		smc.multicastEvent(evt);
+		verify(listener, times(2)).onApplicationEvent(evt);
+	}
+
+	@Test
+	public void listenerRegistrationDuringMulticast() {
+		ApplicationEvent evt = new ContextClosedEvent(new StaticApplicationContext());
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		@SuppressWarnings("unchecked")
+		ApplicationListener<ApplicationEvent> addedListener = mock(ApplicationListener.class);
+		smc.addApplicationListener(event -> smc.addApplicationListener(addedListener));
+
+		smc.multicastEvent(evt);
+		verify(addedListener, times(0)).onApplicationEvent(evt);
+		smc.multicastEvent(evt);
+		verify(addedListener).onApplicationEvent(evt);
+	}
+
 	@Test
 	public void orderedListeners() {
 		MyOrderedListener1 listener1 = new MyOrderedListener1();
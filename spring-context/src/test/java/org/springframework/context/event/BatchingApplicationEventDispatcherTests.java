@@ -0,0 +1,314 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link BatchingApplicationEventDispatcher}.
+ */
+class BatchingApplicationEventDispatcherTests {
+
+	private final Queue<Runnable> tasks = new LinkedList<>();
+
+	private final BatchingApplicationEventDispatcher dispatcher = new BatchingApplicationEventDispatcher(this.tasks::add);
+
+	private final SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+
+
+	BatchingApplicationEventDispatcherTests() {
+		this.multicaster.setEventDispatcher(this.dispatcher);
+	}
+
+
+	@Test
+	void deliverEventsPublishedInTheMeantimeInSingleTask() {
+		CollectingListener listener = new CollectingListener();
+		this.multicaster.addApplicationListener(listener);
+
+		this.multicaster.multicastEvent(event("first"));
+		this.multicaster.multicastEvent(event("second"));
+		this.multicaster.multicastEvent(event("third"));
+		assertThat(listener.payloads).isEmpty();
+		assertThat(this.tasks).hasSize(1);
+
+		this.tasks.remove().run();
+		assertThat(listener.payloads).containsExactly("first", "second", "third");
+		assertThat(this.tasks).isEmpty();
+	}
+
+	@Test
+	void deliverEventsInTaskPerListener() {
+		CollectingListener listener1 = new CollectingListener();
+		CollectingListener listener2 = new CollectingListener();
+		this.multicaster.addApplicationListener(listener1);
+		this.multicaster.addApplicationListener(listener2);
+
+		this.multicaster.multicastEvent(event("first"));
+		this.multicaster.multicastEvent(event("second"));
+		assertThat(this.tasks).hasSize(2);
+
+		this.tasks.remove().run();
+		assertThat(listener1.payloads).containsExactly("first", "second");
+		assertThat(listener2.payloads).isEmpty();
+		this.tasks.remove().run();
+		assertThat(listener2.payloads).containsExactly("first", "second");
+	}
+
+	@Test
+	void scheduleNewTaskBeyondMaxBatchSize() {
+		CollectingListener listener = new CollectingListener();
+		this.multicaster.addApplicationListener(listener);
+		this.dispatcher.setMaxBatchSize(2);
+
+		this.multicaster.multicastEvent(event("first"));
+		this.multicaster.multicastEvent(event("second"));
+		this.multicaster.multicastEvent(event("third"));
+		this.tasks.remove().run();
+		assertThat(listener.payloads).containsExactly("first", "second");
+		assertThat(this.tasks).hasSize(1);
+
+		this.tasks.remove().run();
+		assertThat(listener.payloads).containsExactly("first", "second", "third");
+		assertThat(this.tasks).isEmpty();
+	}
+
+	@Test
+	void scheduleNewTaskAfterEventPublishedDuringDelivery() {
+		List<Object> payloads = new ArrayList<>();
+		this.multicaster.addApplicationListener((PayloadApplicationEvent<String> event) -> {
+			payloads.add(event.getPayload());
+			if (event.getPayload().equals("first")) {
+				this.multicaster.multicastEvent(event("second"));
+			}
+		});
+
+		this.multicaster.multicastEvent(event("first"));
+		this.tasks.remove().run();
+		assertThat(payloads).containsExactly("first", "second");
+		assertThat(this.tasks).isEmpty();
+	}
+
+	@Test
+	void keepRemainingEventsAfterListenerFailure() {
+		CollectingListener listener = new CollectingListener();
+		listener.failOn = "first";
+		this.multicaster.addApplicationListener(listener);
+
+		this.multicaster.multicastEvent(event("first"));
+		this.multicaster.multicastEvent(event("second"));
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> this.tasks.remove().run());
+		assertThat(this.tasks).hasSize(1);
+
+		this.tasks.remove().run();
+		assertThat(listener.payloads).containsExactly("first", "second");
+	}
+
+	@Test
+	void propagateListenerFailureWhenRemainingEventsRejected() {
+		AtomicBoolean reject = new AtomicBoolean();
+		this.multicaster.setEventDispatcher(new BatchingApplicationEventDispatcher(task -> {
+			if (reject.get()) {
+				throw new RejectedExecutionException();
+			}
+			this.tasks.add(task);
+		}));
+		CollectingListener listener = new CollectingListener();
+		listener.failOn = "first";
+		this.multicaster.addApplicationListener(listener);
+
+		this.multicaster.multicastEvent(event("first"));
+		this.multicaster.multicastEvent(event("second"));
+		reject.set(true);
+		assertThatExceptionOfType(IllegalStateException.class)
+				.isThrownBy(() -> this.tasks.remove().run())
+				.satisfies(ex -> assertThat(ex.getSuppressed()).singleElement()
+						.isInstanceOf(RejectedExecutionException.class));
+
+		reject.set(false);
+		this.multicaster.multicastEvent(event("third"));
+		this.tasks.remove().run();
+		assertThat(listener.payloads).containsExactly("first", "second", "third");
+	}
+
+	@Test
+	void removeQueueOnceEventsDelivered() {
+		CollectingListener listener = new CollectingListener();
+		this.multicaster.addApplicationListener(listener);
+
+		this.multicaster.multicastEvent(event("first"));
+		assertThat(listenerQueues()).containsOnlyKeys(listener);
+		this.tasks.remove().run();
+		assertThat(listenerQueues()).isEmpty();
+
+		this.multicaster.multicastEvent(event("second"));
+		this.multicaster.removeApplicationListener(listener);
+		this.tasks.remove().run();
+		assertThat(listener.payloads).containsExactly("first", "second");
+		assertThat(listenerQueues()).isEmpty();
+	}
+
+	@Test
+	void keepEventsAfterRejectedExecution() {
+		AtomicBoolean reject = new AtomicBoolean(true);
+		this.multicaster.setEventDispatcher(new BatchingApplicationEventDispatcher(task -> {
+			if (reject.getAndSet(false)) {
+				throw new RejectedExecutionException();
+			}
+			this.tasks.add(task);
+		}));
+		CollectingListener listener = new CollectingListener();
+		this.multicaster.addApplicationListener(listener);
+
+		assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() ->
+				this.multicaster.multicastEvent(event("first")));
+		this.multicaster.multicastEvent(event("second"));
+		assertThat(this.tasks).hasSize(1);
+
+		this.tasks.remove().run();
+		assertThat(listener.payloads).containsExactly("first", "second");
+	}
+
+	@Test
+	void deliverEventsConcurrentlyPublished() throws Exception {
+		int publisherCount = 4;
+		int eventCount = 1000;
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CountDownLatch delivered = new CountDownLatch(publisherCount * eventCount);
+			List<String> payloads = new ArrayList<>();
+			this.multicaster.setEventDispatcher(new BatchingApplicationEventDispatcher(executor));
+			this.multicaster.addApplicationListener((PayloadApplicationEvent<String> event) -> {
+				// Never invoked concurrently
+				payloads.add(event.getPayload());
+				delivered.countDown();
+			});
+
+			List<Thread> publishers = new ArrayList<>();
+			for (int i = 0; i < publisherCount; i++) {
+				String prefix = i + "-";
+				Thread publisher = new Thread(() -> {
+					for (int j = 0; j < eventCount; j++) {
+						this.multicaster.multicastEvent(event(prefix + j));
+					}
+				});
+				publishers.add(publisher);
+				publisher.start();
+			}
+			for (Thread publisher : publishers) {
+				publisher.join();
+			}
+			assertThat(delivered.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(payloads).hasSize(publisherCount * eventCount);
+			assertThat(payloads.stream().filter(payload -> payload.startsWith("0-"))
+					.map(payload -> Integer.parseInt(payload.substring(2)))).isSorted().hasSize(eventCount);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void deliverEventsInOrderAcrossGarbageCollections() throws Exception {
+		int eventCount = 5000;
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			CountDownLatch delivered = new CountDownLatch(eventCount);
+			AtomicBoolean delivering = new AtomicBoolean();
+			AtomicBoolean concurrentDelivery = new AtomicBoolean();
+			List<Integer> payloads = new ArrayList<>();
+			BatchingApplicationEventDispatcher dispatcher = new BatchingApplicationEventDispatcher(executor);
+			dispatcher.setMaxBatchSize(8);
+			this.multicaster.setEventDispatcher(dispatcher);
+			this.multicaster.addApplicationListener((PayloadApplicationEvent<Integer> event) -> {
+				if (!delivering.compareAndSet(false, true)) {
+					concurrentDelivery.set(true);
+				}
+				payloads.add(event.getPayload());
+				delivering.set(false);
+				delivered.countDown();
+			});
+
+			for (int i = 0; i < eventCount; i++) {
+				this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, i));
+				if (i % 500 == 0) {
+					System.gc();
+				}
+			}
+			assertThat(delivered.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(concurrentDelivery).isFalse();
+			assertThat(payloads).hasSize(eventCount).isSorted();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void rejectNonPositiveMaxBatchSize() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.dispatcher.setMaxBatchSize(0));
+	}
+
+
+	private ApplicationEvent event(String payload) {
+		return new PayloadApplicationEvent<>(this, payload);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<ApplicationListener<?>, ?> listenerQueues() {
+		return (Map<ApplicationListener<?>, ?>) new DirectFieldAccessor(this.dispatcher).getPropertyValue("listenerQueues");
+	}
+
+
+	private static class CollectingListener implements ApplicationListener<PayloadApplicationEvent<String>> {
+
+		final List<String> payloads = new ArrayList<>();
+
+		String failOn;
+
+		@Override
+		public void onApplicationEvent(PayloadApplicationEvent<String> event) {
+			this.payloads.add(event.getPayload());
+			if (event.getPayload().equals(this.failOn)) {
+				this.failOn = null;
+				throw new IllegalStateException("Failure on " + event.getPayload());
+			}
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -53,6 +53,11 @@ public class StringDecoderBenchmark {
 		blackhole.consume(state.parseLines().blockLast());
 	}
 
+	@Benchmark
+	public void parseLines(LinesState state, Blackhole blackhole) {
+		blackhole.consume(state.parseLines().blockLast());
+	}
+
 
 	@State(Scope.Benchmark)
 	@SuppressWarnings({"NotNullFieldNotInitialized", "ConstantConditions"})
@@ -108,4 +113,50 @@ public class StringDecoderBenchmark {
 		}
 	}
 
+
+
+	/**
+	 * Lines of a fixed length in a single large buffer, from many short
+	 * lines to a few long ones where most of the time goes to scanning.
+	 */
+	@State(Scope.Benchmark)
+	@SuppressWarnings({"NotNullFieldNotInitialized", "ConstantConditions"})
+	public static class LinesState {
+
+		private static final ResolvableType ELEMENT_TYPE = ResolvableType.forClass(String.class);
+
+		@Param("1048576")
+		int totalSize;
+
+		@Param({"8", "80", "4096"})
+		int lineLength;
+
+		@Param({"LF", "CRLF_LF"})
+		String delimiters;
+
+		DataBuffer buffer;
+
+		StringDecoder decoder;
+
+		MimeType mimeType = new MimeType("text", "plain", StandardCharsets.UTF_8);
+
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.decoder = StringDecoder.textPlainOnly(
+					(this.delimiters.equals("LF") ? List.of("\n") : List.of("\r\n", "\n")), false);
+			byte[] line = ("x".repeat(this.lineLength - 1) + "\n").getBytes(StandardCharsets.UTF_8);
+			int lineCount = this.totalSize / this.lineLength;
+			this.buffer = DefaultDataBufferFactory.sharedInstance.allocateBuffer(lineCount * this.lineLength);
+			for (int i = 0; i < lineCount; i++) {
+				this.buffer.write(line);
+			}
+		}
+
+		public Flux<String> parseLines() {
+			DataBuffer input = this.buffer.retainedSlice(0, this.buffer.readableByteCount());
+			return this.decoder.decode(Flux.just(input), ELEMENT_TYPE, this.mimeType, Collections.emptyMap());
+		}
+	}
+
 }
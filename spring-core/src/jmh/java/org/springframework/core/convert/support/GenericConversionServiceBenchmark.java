@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -101,6 +101,79 @@ public class GenericConversionServiceBenchmark {
 		}
 	}
 
+	@Benchmark
+	public void convertListOfStringToListOfIntegerWithElementConversion(ElementListBenchmarkState state, Blackhole bh) {
+		bh.consume(state.conversionService.convert(state.source, state.sourceTypeDesc, state.targetTypeDesc));
+	}
+
+	@Benchmark
+	public void convertListOfStringToIntArrayWithElementConversion(ElementListBenchmarkState state, Blackhole bh) {
+		bh.consume(state.conversionService.convert(state.source, state.sourceTypeDesc, state.arrayTypeDesc));
+	}
+
+	@Benchmark
+	public void convertMapOfStringToMapOfIntegerWithElementConversion(ElementMapBenchmarkState state, Blackhole bh) {
+		bh.consume(state.conversionService.convert(state.source, state.sourceTypeDesc, state.targetTypeDesc));
+	}
+
+
+	/**
+	 * Converts each element, with a generic target type and default converters.
+	 */
+	@State(Scope.Benchmark)
+	public static class ElementListBenchmarkState {
+
+		DefaultConversionService conversionService = new DefaultConversionService();
+
+		@Param({"10", "1000"})
+		int collectionSize;
+
+		List<String> source;
+
+		TypeDescriptor sourceTypeDesc;
+
+		TypeDescriptor targetTypeDesc;
+
+		TypeDescriptor arrayTypeDesc;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.source = IntStream.rangeClosed(1, this.collectionSize).mapToObj(String::valueOf).collect(Collectors.toList());
+			this.sourceTypeDesc = TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(String.class));
+			this.targetTypeDesc = TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(Integer.class));
+			this.arrayTypeDesc = TypeDescriptor.valueOf(int[].class);
+		}
+	}
+
+
+	/**
+	 * Converts each key and value, with a generic target type and default converters.
+	 */
+	@State(Scope.Benchmark)
+	public static class ElementMapBenchmarkState {
+
+		DefaultConversionService conversionService = new DefaultConversionService();
+
+		@Param({"10", "1000"})
+		int collectionSize;
+
+		Map<String, String> source;
+
+		TypeDescriptor sourceTypeDesc;
+
+		TypeDescriptor targetTypeDesc;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.source = IntStream.rangeClosed(1, this.collectionSize).mapToObj(String::valueOf)
+					.collect(Collectors.toMap(String::valueOf, String::valueOf));
+			this.sourceTypeDesc = TypeDescriptor.map(Map.class,
+					TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(String.class));
+			this.targetTypeDesc = TypeDescriptor.map(Map.class,
+					TypeDescriptor.valueOf(Integer.class), TypeDescriptor.valueOf(Integer.class));
+		}
+	}
+
 
 	@State(Scope.Benchmark)
 	public static class BenchmarkState {
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Benchmarks for allocating, writing, and releasing buffers with the
+ * {@link DefaultDataBufferFactory}, the {@link PooledDataBufferFactory},
+ * and a {@link NettyDataBufferFactory} with a pooled allocator, for heap
+ * and direct buffers. Run with {@code -prof gc} to compare heap allocation.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DataBufferFactoryBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class FactoryState {
+
+		@Param({"default", "pooled", "netty"})
+		public String factory;
+
+		@Param({"false", "true"})
+		public boolean direct;
+
+		@Param({"256", "8192", "65536"})
+		public int capacity;
+
+		public DataBufferFactory bufferFactory;
+
+		public byte[] content;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.bufferFactory = switch (this.factory) {
+				case "pooled" -> new PooledDataBufferFactory(this.direct);
+				case "netty" -> new NettyDataBufferFactory(new PooledByteBufAllocator(this.direct));
+				default -> new DefaultDataBufferFactory(this.direct);
+			};
+			this.content = new byte[this.capacity];
+		}
+	}
+
+
+	@Benchmark
+	@Threads(1)
+	public int allocateAndRelease(FactoryState state) {
+		return writeAndRelease(state);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public int allocateAndReleaseConcurrently(FactoryState state) {
+		return writeAndRelease(state);
+	}
+
+	private static int writeAndRelease(FactoryState state) {
+		DataBuffer buffer = state.bufferFactory.allocateBuffer(state.capacity);
+		buffer.write(state.content);
+		int count = buffer.readableByteCount();
+		DataBufferUtils.release(buffer);
+		return count;
+	}
+
+}
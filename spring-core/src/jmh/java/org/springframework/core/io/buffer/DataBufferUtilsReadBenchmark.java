@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for reading files with {@link DataBufferUtils}, either through an
+ * {@code AsynchronousFileChannel} into buffers allocated by the factory, or by
+ * mapping file regions into memory, and for gathering the resulting buffers
+ * into a single one, by copying them with {@link DataBufferUtils#join} or by
+ * composing them with {@link DataBufferUtils#compose}.
+ * Run with {@code -prof gc} to compare heap allocation.
+ *
+ * <p>Files are sparse, so that large ones do not use disk space. Reading one
+ * byte per page keeps mapped regions from being left unread.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DataBufferUtilsReadBenchmark {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final int REGION_SIZE = 64 * 1024 * 1024;
+
+	private static final int PAGE_SIZE = 4096;
+
+
+	@State(Scope.Benchmark)
+	public static class FileState {
+
+		@Param({"1024", "1048576", "268435456", "4294967296"})
+		public long fileSize;
+
+		public Path file;
+
+		public DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+		@Setup(Level.Trial)
+		public void createFile() throws IOException {
+			this.file = createSparseFile(this.fileSize);
+		}
+
+		@TearDown(Level.Trial)
+		public void deleteFile() throws IOException {
+			Files.deleteIfExists(this.file);
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class JoinState {
+
+		// Joined buffers cannot hold more than 2GB
+		@Param({"1024", "1048576", "268435456"})
+		public long fileSize;
+
+		public Path file;
+
+		public DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+		@Setup(Level.Trial)
+		public void createFile() throws IOException {
+			this.file = createSparseFile(this.fileSize);
+		}
+
+		@TearDown(Level.Trial)
+		public void deleteFile() throws IOException {
+			Files.deleteIfExists(this.file);
+		}
+	}
+
+
+	@Benchmark
+	public long readAsynchronousFileChannel(FileState state) {
+		return DataBufferUtils.read(state.file, state.bufferFactory, BUFFER_SIZE)
+				.map(DataBufferUtilsReadBenchmark::readPages)
+				.reduce(0L, Long::sum)
+				.block();
+	}
+
+	@Benchmark
+	public long readMapped(FileState state) {
+		return DataBufferUtils.readMapped(state.file, state.bufferFactory, REGION_SIZE)
+				.map(DataBufferUtilsReadBenchmark::readPages)
+				.reduce(0L, Long::sum)
+				.block();
+	}
+
+	@Benchmark
+	public void joinAsynchronousFileChannel(JoinState state, Blackhole blackhole) {
+		DataBuffer joined = DataBufferUtils.join(
+				DataBufferUtils.read(state.file, state.bufferFactory, BUFFER_SIZE)).block();
+		blackhole.consume(readPages(joined));
+	}
+
+	@Benchmark
+	public void composeMapped(JoinState state, Blackhole blackhole) {
+		DataBuffer joined = DataBufferUtils.compose(
+				DataBufferUtils.readMapped(state.file, state.bufferFactory, REGION_SIZE)).block();
+		blackhole.consume(readPages(joined));
+	}
+
+
+	private static Path createSparseFile(long size) throws IOException {
+		Path file = Files.createTempFile("DataBufferUtilsReadBenchmark", null);
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+			randomAccessFile.setLength(size);
+		}
+		return file;
+	}
+
+	private static long readPages(DataBuffer dataBuffer) {
+		long sum = dataBuffer.readableByteCount();
+		for (int i = dataBuffer.readPosition(); i < dataBuffer.writePosition(); i += PAGE_SIZE) {
+			sum += dataBuffer.getByte(i);
+		}
+		DataBufferUtils.release(dataBuffer);
+		return sum;
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Benchmark for reading the metadata of all classes of a generated classpath,
+ * as done when scanning for components on startup: parsing every class file
+ * with a {@link SimpleMetadataReaderFactory}, compared with restoring unchanged
+ * classes from the cache file of a {@link PersistentMetadataReaderFactory}.
+ *
+ * <p>Scores are reported for a whole scan, as a single cold iteration as on startup.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MetadataReaderFactoryBenchmark {
+
+	@Benchmark
+	public void simpleMetadataReaderFactory(ClassPathData data, Blackhole bh) throws IOException {
+		readAll(new SimpleMetadataReaderFactory(), data.resources, bh);
+	}
+
+	@Benchmark
+	public void persistentMetadataReaderFactory(ClassPathData data, Blackhole bh) throws IOException {
+		readAll(new PersistentMetadataReaderFactory(data.cacheFile), data.resources, bh);
+	}
+
+	private static void readAll(MetadataReaderFactory factory, List<Resource> resources, Blackhole bh)
+			throws IOException {
+
+		for (Resource resource : resources) {
+			bh.consume(factory.getMetadataReader(resource).getAnnotationMetadata().getAnnotationTypes());
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class ClassPathData {
+
+		@Param({"2000", "20000"})
+		public int classCount;
+
+		/**
+		 * Whether the generated classes are read from a directory or from a jar file.
+		 */
+		@Param({"directory", "jar"})
+		public String packaging;
+
+		public Path directory;
+
+		public Path cacheFile;
+
+		public List<Resource> resources;
+
+		@Setup
+		public void setup() throws IOException {
+			this.directory = Files.createTempDirectory("metadata-benchmark");
+			this.cacheFile = this.directory.resolve("metadata.cache");
+			this.resources = new ArrayList<>(this.classCount);
+			Path jarFile = this.directory.resolve("generated.jar");
+			try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(jarFile))) {
+				for (int i = 0; i < this.classCount; i++) {
+					String path = "com/example/Generated" + i + ".class";
+					byte[] content = generateClass("com.example.Generated" + i, i);
+					if (this.packaging.equals("jar")) {
+						jar.putNextEntry(new JarEntry(path));
+						jar.write(content);
+						jar.closeEntry();
+						this.resources.add(new UrlResource("jar:" + jarFile.toUri() + "!/" + path));
+					}
+					else {
+						Path classFile = this.directory.resolve(path);
+						Files.createDirectories(classFile.getParent());
+						Files.write(classFile, content);
+						this.resources.add(new FileSystemResource(classFile));
+					}
+				}
+			}
+			// Warm cache, as on a restart of an unchanged application
+			PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(this.cacheFile);
+			for (Resource resource : this.resources) {
+				factory.getMetadataReader(resource);
+			}
+			factory.store();
+		}
+
+		@TearDown
+		public void deleteClassFiles() throws IOException {
+			FileSystemUtils.deleteRecursively(this.directory);
+		}
+
+		/**
+		 * Generate an annotated class of about 6 KB, with 10 fields and 20 methods.
+		 */
+		private static byte[] generateClass(String className, int order) {
+			ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+			writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, className.replace('.', '/'),
+					null, "java/lang/Object", new String[] {"java/io/Serializable"});
+			AnnotationVisitor annotation = writer.visitAnnotation(Type.getDescriptor(Order.class), true);
+			annotation.visit("value", order);
+			annotation.visitEnd();
+			for (int i = 0; i < 10; i++) {
+				writer.visitField(Opcodes.ACC_PRIVATE, "field" + i, "Ljava/lang/String;", null, null).visitEnd();
+			}
+			for (int i = 0; i < 20; i++) {
+				MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC,
+						"method" + i, "(Ljava/lang/String;)Ljava/lang/String;", null, null);
+				if (i == 0) {
+					method.visitAnnotation(Type.getDescriptor(Deprecated.class), true).visitEnd();
+				}
+				method.visitCode();
+				for (int j = 0; j < 10; j++) {
+					method.visitVarInsn(Opcodes.ALOAD, 1);
+					method.visitLdcInsn("constant" + i + "_" + j);
+					method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "concat",
+							"(Ljava/lang/String;)Ljava/lang/String;", false);
+					method.visitVarInsn(Opcodes.ASTORE, 1);
+				}
+				method.visitVarInsn(Opcodes.ALOAD, 1);
+				method.visitInsn(Opcodes.ARETURN);
+				method.visitMaxs(0, 0);
+				method.visitEnd();
+			}
+			writer.visitEnd();
+			return writer.toByteArray();
+		}
+	}
+
+}
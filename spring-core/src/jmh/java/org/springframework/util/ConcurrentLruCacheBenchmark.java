@@ -0,0 +1,163 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link ConcurrentLruCache}, compared with the previous
+ * read-write lock based implementation under contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(64)
+public class ConcurrentLruCacheBenchmark {
+
+	@Benchmark
+	public void lruCache(BenchmarkData data, Blackhole bh) {
+		for (String key : data.keys) {
+			bh.consume(data.lruCache.get(key));
+		}
+	}
+
+	@Benchmark
+	public void readWriteLockCache(BenchmarkData data, Blackhole bh) {
+		for (String key : data.keys) {
+			bh.consume(data.readWriteLockCache.get(key));
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		/**
+		 * Number of distinct keys, compared with a fixed cache capacity of 64.
+		 */
+		@Param({"32", "64", "128"})
+		public int keyCount;
+
+		@Param({"100"})
+		public int keysPerIteration;
+
+		public ConcurrentLruCache<String, String> lruCache;
+
+		public ReadWriteLockLruCache<String, String> readWriteLockCache;
+
+		public List<String> keys;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			this.lruCache = new ConcurrentLruCache<>(64, this::createValue);
+			this.readWriteLockCache = new ReadWriteLockLruCache<>(64, this::createValue);
+			Random random = new Random();
+			this.keys = new ArrayList<>(this.keysPerIteration);
+			for (int i = 0; i < this.keysPerIteration; i++) {
+				this.keys.add("key" + random.nextInt(this.keyCount));
+			}
+		}
+
+		private String createValue(String key) {
+			return "value" + key;
+		}
+	}
+
+
+	/**
+	 * Copy of the {@code ConcurrentLruCache} implementation up to 5.3,
+	 * funneling misses and recency updates through a single read-write lock.
+	 */
+	static class ReadWriteLockLruCache<K, V> {
+
+		private final int sizeLimit;
+
+		private final Function<K, V> generator;
+
+		private final ConcurrentHashMap<K, V> cache = new ConcurrentHashMap<>();
+
+		private final ConcurrentLinkedDeque<K> queue = new ConcurrentLinkedDeque<>();
+
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+		private volatile int size;
+
+		ReadWriteLockLruCache(int sizeLimit, Function<K, V> generator) {
+			this.sizeLimit = sizeLimit;
+			this.generator = generator;
+		}
+
+		V get(K key) {
+			V cached = this.cache.get(key);
+			if (cached != null) {
+				if (this.size < this.sizeLimit) {
+					return cached;
+				}
+				this.lock.readLock().lock();
+				try {
+					if (this.queue.removeLastOccurrence(key)) {
+						this.queue.offer(key);
+					}
+					return cached;
+				}
+				finally {
+					this.lock.readLock().unlock();
+				}
+			}
+			this.lock.writeLock().lock();
+			try {
+				cached = this.cache.get(key);
+				if (cached != null) {
+					if (this.queue.removeLastOccurrence(key)) {
+						this.queue.offer(key);
+					}
+					return cached;
+				}
+				V value = this.generator.apply(key);
+				if (this.size == this.sizeLimit) {
+					K leastUsed = this.queue.poll();
+					if (leastUsed != null) {
+						this.cache.remove(leastUsed);
+					}
+				}
+				this.queue.offer(key);
+				this.cache.put(key, value);
+				this.size = this.cache.size();
+				return value;
+			}
+			finally {
+				this.lock.writeLock().unlock();
+			}
+		}
+	}
+
+}
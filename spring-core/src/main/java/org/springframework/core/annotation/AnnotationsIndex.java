@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.io.IOException;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * Index of the annotations present on classes and their methods, generated
+ * at build time in {@value #INDEX_RESOURCE_LOCATION} files and used by
+ * {@link AnnotationsScanner} to skip scanning elements that are known to
+ * have no annotations, when searching with the default
+ * {@link AnnotationFilter#PLAIN} filter.
+ *
+ * <p>The index has an entry per class, keyed by class name, holding a
+ * {@value #TYPE_MARKER} marker if the class or one of its superclasses and
+ * interfaces is annotated, along with the names of the methods annotated
+ * in that type hierarchy. Only annotations retained at runtime are taken
+ * into account, except for {@link AnnotationFilter#PLAIN plain} ones which
+ * are always ignored. Classes without an entry are scanned as usual.
+ *
+ * <p>Indexes can be present in multiple JAR files, and are ignored if the
+ * {@value #IGNORE_INDEX} flag is set, for instance if some classes are
+ * changed after compilation.
+ *
+ * @since 6.0
+ */
+final class AnnotationsIndex {
+
+	/**
+	 * The location to look for indexes.
+	 */
+	static final String INDEX_RESOURCE_LOCATION = "META-INF/spring.annotations";
+
+	/**
+	 * System property that instructs Spring to ignore annotation indexes.
+	 */
+	static final String IGNORE_INDEX = "spring.annotations.index.ignore";
+
+	/**
+	 * Marker of an entry whose type hierarchy is annotated.
+	 */
+	static final String TYPE_MARKER = "@type";
+
+
+	private static final Log logger = LogFactory.getLog(AnnotationsIndex.class);
+
+	private static final boolean shouldIgnoreIndex = SpringProperties.getFlag(IGNORE_INDEX);
+
+	private static final AnnotationsIndex EMPTY = new AnnotationsIndex(Collections.emptyMap());
+
+	private static final Map<ClassLoader, AnnotationsIndex> cache = new ConcurrentReferenceHashMap<>();
+
+
+	private final Map<String, Entry> entries;
+
+
+	private AnnotationsIndex(Map<String, Entry> entries) {
+		this.entries = entries;
+	}
+
+
+	/**
+	 * Determine if the given class or method is known to be without any
+	 * annotations, including in its type hierarchy, according to the
+	 * indexes available from the class loader of its class.
+	 * @param source the element to check
+	 * @return {@code true} if the element is known to be without annotations
+	 */
+	static boolean isKnownEmpty(AnnotatedElement source) {
+		if (shouldIgnoreIndex) {
+			return false;
+		}
+		Class<?> type = (source instanceof Method method ? method.getDeclaringClass() :
+				source instanceof Class<?> clazz ? clazz : null);
+		ClassLoader classLoader = (type != null ? type.getClassLoader() : null);
+		if (classLoader == null) {
+			return false;
+		}
+		AnnotationsIndex index = cache.get(classLoader);
+		if (index == null) {
+			index = load(classLoader);
+			cache.put(classLoader, index);
+		}
+		return index.isEmpty(source);
+	}
+
+	/**
+	 * Load the indexes available from the given class loader.
+	 * @param classLoader the class loader to use
+	 * @return the merged indexes, possibly empty
+	 */
+	static AnnotationsIndex load(ClassLoader classLoader) {
+		Map<String, Entry> entries = new HashMap<>();
+		try {
+			Enumeration<URL> urls = classLoader.getResources(INDEX_RESOURCE_LOCATION);
+			while (urls.hasMoreElements()) {
+				Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(urls.nextElement()));
+				properties.forEach((type, value) -> entries.putIfAbsent((String) type, new Entry((String) value)));
+			}
+		}
+		catch (IOException ex) {
+			logger.warn("Ignoring annotation indexes at location [" + INDEX_RESOURCE_LOCATION + "]", ex);
+			return EMPTY;
+		}
+		if (entries.isEmpty()) {
+			return EMPTY;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Loaded annotation index with " + entries.size() + " entries");
+		}
+		return new AnnotationsIndex(entries);
+	}
+
+	/**
+	 * Clear the indexes loaded per class loader.
+	 */
+	static void clearCache() {
+		cache.clear();
+	}
+
+
+	/**
+	 * Determine if this index lists no annotation for the given class or method.
+	 * @param source the element to check
+	 * @return {@code true} if the index has an entry for the class or the
+	 * declaring class of the method that does not list any annotation for it
+	 */
+	boolean isEmpty(AnnotatedElement source) {
+		if (source instanceof Class<?> type) {
+			Entry entry = this.entries.get(type.getName());
+			return (entry != null && !entry.typeAnnotated);
+		}
+		if (source instanceof Method method) {
+			Entry entry = this.entries.get(method.getDeclaringClass().getName());
+			return (entry != null && !entry.annotatedMethods.contains(method.getName()));
+		}
+		return false;
+	}
+
+
+	/**
+	 * Index entry for a class.
+	 */
+	private static final class Entry {
+
+		final boolean typeAnnotated;
+
+		final Set<String> annotatedMethods;
+
+		Entry(String value) {
+			Set<String> tokens = StringUtils.commaDelimitedListToSet(value);
+			this.typeAnnotated = tokens.remove(TYPE_MARKER);
+			this.annotatedMethods = (tokens.isEmpty() ? Collections.emptySet() : tokens);
+		}
+	}
+
+}
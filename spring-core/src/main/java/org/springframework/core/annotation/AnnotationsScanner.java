@@ -449,8 +449,12 @@ abstract class AnnotationsScanner {
 		return AnnotationFilter.PLAIN.matches(annotationType);
 	}
 
-	static boolean isKnownEmpty(AnnotatedElement source, SearchStrategy searchStrategy) {
-		if (hasPlainJavaAnnotationsOnly(source)) {
+	static boolean isKnownEmpty(AnnotatedElement source, SearchStrategy searchStrategy,
+			AnnotationFilter annotationFilter) {
+
+		// The index does not list plain annotations
+		if (hasPlainJavaAnnotationsOnly(source) ||
+				(annotationFilter == AnnotationFilter.PLAIN && AnnotationsIndex.isKnownEmpty(source))) {
 			return true;
 		}
 		if (searchStrategy == SearchStrategy.DIRECT || isWithoutHierarchy(source, searchStrategy)) {
@@ -496,6 +500,7 @@ abstract class AnnotationsScanner {
 	static void clearCache() {
 		declaredAnnotationCache.clear();
 		baseTypeMethodsCache.clear();
+		AnnotationsIndex.clearCache();
 	}
 
 }
@@ -248,7 +248,7 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 	static MergedAnnotations from(AnnotatedElement element, SearchStrategy searchStrategy,
 			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter) {
 
-		if (AnnotationsScanner.isKnownEmpty(element, searchStrategy)) {
+		if (AnnotationsScanner.isKnownEmpty(element, searchStrategy, annotationFilter)) {
 			return NONE;
 		}
 		return new TypeMappedAnnotations(element, searchStrategy, repeatableContainers, annotationFilter);
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.convert.support;
+
+import java.util.function.Function;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.GenericConverter;
+import org.springframework.lang.Nullable;
+
+/**
+ * Converts the elements of a collection, array or map to a target element type,
+ * resolving the source element type and the {@link GenericConverter} to apply
+ * once per element class instead of for each element.
+ *
+ * <p>Only resolves converters upfront with a {@link GenericConversionService}
+ * that supports it; {@code null} elements and other conversion services go
+ * through a regular {@link ConversionService#convert(Object, TypeDescriptor, TypeDescriptor)}
+ * call. Not thread-safe: a new instance is meant to be used for each conversion,
+ * so that converters registered in the meantime are picked up by the next one.
+ *
+ * @since 6.0
+ * @see GenericConversionService#supportsElementConverters()
+ */
+final class ElementConverter {
+
+	private final ConversionService conversionService;
+
+	@Nullable
+	private final GenericConversionService genericConversionService;
+
+	private final Function<Object, TypeDescriptor> sourceTypeResolver;
+
+	private final TypeDescriptor targetType;
+
+	@Nullable
+	private Class<?> lastSourceClass;
+
+	@Nullable
+	private TypeDescriptor lastSourceType;
+
+	@Nullable
+	private GenericConverter lastConverter;
+
+
+	/**
+	 * Create a new ElementConverter.
+	 * @param conversionService the conversion service to use
+	 * @param sourceTypeResolver the function returning the source type descriptor
+	 * for a given element, e.g. {@link TypeDescriptor#elementTypeDescriptor(Object)}
+	 * @param targetType the target element type
+	 */
+	ElementConverter(ConversionService conversionService,
+			Function<Object, TypeDescriptor> sourceTypeResolver, TypeDescriptor targetType) {
+
+		this.conversionService = conversionService;
+		this.genericConversionService = (conversionService instanceof GenericConversionService gcs &&
+				gcs.supportsElementConverters() ? gcs : null);
+		this.sourceTypeResolver = sourceTypeResolver;
+		this.targetType = targetType;
+	}
+
+
+	/**
+	 * Convert the given element to the target element type.
+	 * @param sourceElement the element to convert
+	 * @return the converted element
+	 */
+	@Nullable
+	Object convert(@Nullable Object sourceElement) {
+		if (sourceElement == null || this.genericConversionService == null) {
+			return this.conversionService.convert(sourceElement,
+					this.sourceTypeResolver.apply(sourceElement), this.targetType);
+		}
+		Class<?> sourceClass = sourceElement.getClass();
+		if (sourceClass != this.lastSourceClass) {
+			TypeDescriptor sourceType = this.sourceTypeResolver.apply(sourceElement);
+			if (sourceType == null) {
+				return this.conversionService.convert(sourceElement, null, this.targetType);
+			}
+			this.lastConverter = this.genericConversionService.getConverter(sourceType, this.targetType);
+			this.lastSourceType = sourceType;
+			this.lastSourceClass = sourceClass;
+		}
+		return this.genericConversionService.convert(
+				sourceElement, this.lastSourceType, this.targetType, this.lastConverter);
+	}
+
+}
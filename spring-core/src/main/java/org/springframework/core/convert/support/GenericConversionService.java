@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -79,6 +79,8 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private final Map<ConverterCacheKey, GenericConverter> converterCache = new ConcurrentReferenceHashMap<>(64);
 
+	private final boolean elementConvertersSupported = !isConvertOverridden(getClass());
+
 
 	// ConverterRegistry implementation
 
@@ -187,12 +189,7 @@ public class GenericConversionService implements ConfigurableConversionService {
 			throw new IllegalArgumentException("Source to convert from must be an instance of [" +
 					sourceType + "]; instead it was a [" + source.getClass().getName() + "]");
 		}
-		GenericConverter converter = getConverter(sourceType, targetType);
-		if (converter != null) {
-			Object result = ConversionUtils.invokeConverter(converter, source, sourceType, targetType);
-			return handleResult(sourceType, targetType, result);
-		}
-		return handleConverterNotFound(source, sourceType, targetType);
+		return convert(source, sourceType, targetType, getConverter(sourceType, targetType));
 	}
 
 	/**
@@ -288,6 +285,47 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	// Internal helpers
 
+	/**
+	 * Return whether collection, array and map converters may resolve the
+	 * converter for their elements once per element type through
+	 * {@link #getConverter}, and then apply it with
+	 * {@link #convert(Object, TypeDescriptor, TypeDescriptor, GenericConverter)}:
+	 * that is, if {@link #convert(Object, TypeDescriptor, TypeDescriptor)} is
+	 * not overridden by a subclass.
+	 * @since 6.0
+	 * @see ElementConverter
+	 */
+	boolean supportsElementConverters() {
+		return this.elementConvertersSupported;
+	}
+
+	/**
+	 * Convert the given source with a converter previously obtained from
+	 * {@link #getConverter}, with the same outcome as
+	 * {@link #convert(Object, TypeDescriptor, TypeDescriptor)}.
+	 * @param source the source object to convert (may be {@code null})
+	 * @param sourceType the source type, matching the source object
+	 * @param targetType the target type to convert to
+	 * @param converter the converter to apply, or {@code null} if none was found
+	 * @return the converted object
+	 * @since 6.0
+	 */
+	@Nullable
+	Object convert(@Nullable Object source, TypeDescriptor sourceType, TypeDescriptor targetType,
+			@Nullable GenericConverter converter) {
+
+		if (converter != null) {
+			Object result = ConversionUtils.invokeConverter(converter, source, sourceType, targetType);
+			return handleResult(sourceType, targetType, result);
+		}
+		return handleConverterNotFound(source, sourceType, targetType);
+	}
+
+	private static boolean isConvertOverridden(Class<?> clazz) {
+		return (ClassUtils.getMethod(clazz, "convert", Object.class, TypeDescriptor.class, TypeDescriptor.class)
+				.getDeclaringClass() != GenericConversionService.class);
+	}
+
 	@Nullable
 	private ResolvableType[] getRequiredTypeInfo(Class<?> converterClass, Class<?> genericIfc) {
 		ResolvableType resolvableType = ResolvableType.forClass(converterClass).as(genericIfc);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -77,12 +77,17 @@ final class MapToMapConverter implements ConditionalGenericConverter {
 		TypeDescriptor keyDesc = targetType.getMapKeyTypeDescriptor();
 		TypeDescriptor valueDesc = targetType.getMapValueTypeDescriptor();
 
+		ElementConverter keyConverter = (keyDesc != null ?
+				new ElementConverter(this.conversionService, sourceType::getMapKeyTypeDescriptor, keyDesc) : null);
+		ElementConverter valueConverter = (valueDesc != null ?
+				new ElementConverter(this.conversionService, sourceType::getMapValueTypeDescriptor, valueDesc) : null);
+
 		List<MapEntry> targetEntries = new ArrayList<>(sourceMap.size());
 		for (Map.Entry<Object, Object> entry : sourceMap.entrySet()) {
 			Object sourceKey = entry.getKey();
 			Object sourceValue = entry.getValue();
-			Object targetKey = convertKey(sourceKey, sourceType, keyDesc);
-			Object targetValue = convertValue(sourceValue, sourceType, valueDesc);
+			Object targetKey = (keyConverter != null ? keyConverter.convert(sourceKey) : sourceKey);
+			Object targetValue = (valueConverter != null ? valueConverter.convert(sourceValue) : sourceValue);
 			targetEntries.add(new MapEntry(targetKey, targetValue));
 			if (sourceKey != targetKey || sourceValue != targetValue) {
 				copyRequired = true;
@@ -114,22 +119,6 @@ final class MapToMapConverter implements ConditionalGenericConverter {
 				targetType.getMapValueTypeDescriptor(), this.conversionService);
 	}
 
-	@Nullable
-	private Object convertKey(Object sourceKey, TypeDescriptor sourceType, @Nullable TypeDescriptor targetType) {
-		if (targetType == null) {
-			return sourceKey;
-		}
-		return this.conversionService.convert(sourceKey, sourceType.getMapKeyTypeDescriptor(sourceKey), targetType);
-	}
-
-	@Nullable
-	private Object convertValue(Object sourceValue, TypeDescriptor sourceType, @Nullable TypeDescriptor targetType) {
-		if (targetType == null) {
-			return sourceValue;
-		}
-		return this.conversionService.convert(sourceValue, sourceType.getMapValueTypeDescriptor(sourceValue), targetType);
-	}
-
 
 	private static class MapEntry {
 
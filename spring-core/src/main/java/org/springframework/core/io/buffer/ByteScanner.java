@@ -0,0 +1,155 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds the first occurrence of any of a small set of byte values in a
+ * {@link DataBuffer}, reading eight bytes at a time where the buffer gives
+ * access to its content as a {@link ByteBuffer}.
+ *
+ * <p>Each word is compared against every value replicated across a
+ * {@code long}, and bytes that are equal are detected without branching,
+ * so that a delimiter search does not go through {@link DataBuffer#getByte}
+ * for every byte preceding a candidate.
+ *
+ * @since 6.0
+ */
+final class ByteScanner {
+
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+	private static final long REPEATED_BYTE = 0x0101010101010101L;
+
+	// Minimum number of bytes to scan for creating a ByteBuffer view
+	// of buffers that do not expose their native buffer
+	private static final int VIEW_THRESHOLD = 64;
+
+	// Maximum number of bytes to scan through a single view: views spanning
+	// several components of a composite buffer are copies, which must not
+	// extend far beyond the byte found
+	private static final int VIEW_WINDOW = 4096;
+
+
+	private final byte[] values;
+
+	private final long[] patterns;
+
+
+	/**
+	 * Create a scanner for the given byte values.
+	 * @param values the byte values to find, possibly with duplicates
+	 */
+	ByteScanner(byte[] values) {
+		byte[] distinct = new byte[values.length];
+		int count = 0;
+		for (byte value : values) {
+			if (indexOf(distinct, count, value) == -1) {
+				distinct[count++] = value;
+			}
+		}
+		this.values = new byte[count];
+		this.patterns = new long[count];
+		for (int i = 0; i < count; i++) {
+			this.values[i] = distinct[i];
+			this.patterns[i] = (distinct[i] & 0xFFL) * REPEATED_BYTE;
+		}
+	}
+
+	private static int indexOf(byte[] values, int count, byte value) {
+		for (int i = 0; i < count; i++) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Return the index of the first byte in the given range of the buffer
+	 * that is equal to one of the values of this scanner.
+	 * @param dataBuffer the buffer to scan
+	 * @param fromIndex the index to start from, inclusive
+	 * @param toIndex the index to stop at, exclusive
+	 * @return the index of the byte found, or {@code -1} if none
+	 */
+	int indexOf(DataBuffer dataBuffer, int fromIndex, int toIndex) {
+		if (dataBuffer instanceof DefaultDataBuffer defaultDataBuffer) {
+			return indexOf(defaultDataBuffer.getRawNativeBuffer(), fromIndex, toIndex);
+		}
+		int start = fromIndex;
+		while (toIndex - start >= VIEW_THRESHOLD) {
+			int length = Math.min(toIndex - start, VIEW_WINDOW);
+			int index = indexOf(dataBuffer.asByteBuffer(start, length), 0, length);
+			if (index != -1) {
+				return start + index;
+			}
+			start += length;
+		}
+		for (int i = start; i < toIndex; i++) {
+			if (matches(dataBuffer.getByte(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int indexOf(ByteBuffer byteBuffer, int fromIndex, int toIndex) {
+		boolean bigEndian = (byteBuffer.order() == ByteOrder.BIG_ENDIAN);
+		int i = fromIndex;
+		for (; i <= toIndex - Long.BYTES; i += Long.BYTES) {
+			long word = byteBuffer.getLong(i);
+			long found = 0;
+			for (long pattern : this.patterns) {
+				found |= zeroBytes(word ^ pattern);
+			}
+			if (found != 0) {
+				int offset = (bigEndian ? Long.numberOfLeadingZeros(found) : Long.numberOfTrailingZeros(found));
+				return i + (offset >>> 3);
+			}
+		}
+		for (; i < toIndex; i++) {
+			if (matches(byteBuffer.get(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Return a word with the high bit set in exactly those bytes of the
+	 * given word that are zero. Unlike the shorter {@code (x - 0x01..) & ~x}
+	 * variant, there is no borrow across bytes, so no false positives.
+	 */
+	private static long zeroBytes(long word) {
+		long lowBitsSet = (word & LOW_BITS) + LOW_BITS;
+		return ~(lowBitsSet | word | LOW_BITS);
+	}
+
+	private boolean matches(byte b) {
+		for (byte value : this.values) {
+			if (value == b) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.springframework.util.Assert;
+
+/**
+ * Read-only {@link DataBuffer} composed of the readable bytes of other data
+ * buffers, without copying them. Returned by
+ * {@link DataBufferUtils#compose(org.reactivestreams.Publisher)}, typically
+ * for the file regions mapped by
+ * {@link DataBufferUtils#readMapped(java.nio.file.Path, DataBufferFactory, int)}.
+ *
+ * <p>Reading, slicing, and searching a composite buffer does not copy its
+ * content; only {@link #asByteBuffer()} and {@link #toString(Charset)} do,
+ * when the requested bytes span several components. Releasing a composite
+ * buffer releases all of its components. Like any other data buffer, a
+ * composite buffer cannot hold more than {@link Integer#MAX_VALUE} bytes.
+ *
+ * @since 6.0
+ */
+public final class CompositeDataBuffer implements PooledDataBuffer {
+
+	private final DataBufferFactory dataBufferFactory;
+
+	private final DataBuffer[] components;
+
+	// Index in this buffer of the first byte of each component
+	private final int[] componentStarts;
+
+	// Read position of each component when composed
+	private final int[] componentOffsets;
+
+	private final int capacity;
+
+	private int readPosition;
+
+	private int writePosition;
+
+
+	/**
+	 * Create a new {@code CompositeDataBuffer} with the readable bytes
+	 * of the given data buffers, which are released along with it.
+	 * @param dataBuffers the data buffers to compose
+	 */
+	public CompositeDataBuffer(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "DataBuffer List must not be empty");
+		this.dataBufferFactory = dataBuffers.get(0).factory();
+		this.components = dataBuffers.toArray(new DataBuffer[0]);
+		this.componentStarts = new int[this.components.length];
+		this.componentOffsets = new int[this.components.length];
+		long capacity = 0;
+		for (int i = 0; i < this.components.length; i++) {
+			this.componentStarts[i] = (int) capacity;
+			this.componentOffsets[i] = this.components[i].readPosition();
+			capacity += this.components[i].readableByteCount();
+			Assert.isTrue(capacity <= Integer.MAX_VALUE,
+					"Composed buffers must not hold more than " + Integer.MAX_VALUE + " bytes");
+		}
+		this.capacity = (int) capacity;
+		this.writePosition = this.capacity;
+	}
+
+
+	@Override
+	public DataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.writePosition) {
+			return -1;
+		}
+		for (int c = componentIndex(fromIndex); c < this.components.length; c++) {
+			int start = this.componentStarts[c];
+			int end = Math.min(componentEnd(c), this.writePosition);
+			DataBuffer component = this.components[c];
+			int offset = this.componentOffsets[c] - start;
+			for (int i = Math.max(fromIndex, start); i < end; i++) {
+				if (predicate.test(component.getByte(offset + i))) {
+					return i;
+				}
+			}
+			if (end == this.writePosition) {
+				break;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		int from = Math.min(fromIndex, this.writePosition - 1);
+		if (from < 0) {
+			return -1;
+		}
+		for (int c = componentIndex(from); c >= 0; c--) {
+			int start = this.componentStarts[c];
+			DataBuffer component = this.components[c];
+			int offset = this.componentOffsets[c] - start;
+			for (int i = Math.min(from, componentEnd(c) - 1); i >= start; i--) {
+				if (predicate.test(component.getByte(offset + i))) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.writePosition - this.readPosition;
+	}
+
+	@Override
+	public int writableByteCount() {
+		return this.capacity - this.writePosition;
+	}
+
+	@Override
+	public int readPosition() {
+		return this.readPosition;
+	}
+
+	@Override
+	public CompositeDataBuffer readPosition(int readPosition) {
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return this.writePosition;
+	}
+
+	@Override
+	public CompositeDataBuffer writePosition(int writePosition) {
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		assertIndex(writePosition <= this.capacity, "'writePosition' %d must be <= %d",
+				writePosition, this.capacity);
+		this.writePosition = writePosition;
+		return this;
+	}
+
+	@Override
+	public int capacity() {
+		return this.capacity;
+	}
+
+	@Override
+	public CompositeDataBuffer capacity(int capacity) {
+		throw new UnsupportedOperationException("Changing the capacity of a composite buffer is not supported");
+	}
+
+	@Override
+	public byte getByte(int index) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d", index, this.writePosition - 1);
+		int c = componentIndex(index);
+		return this.components[c].getByte(this.componentOffsets[c] + index - this.componentStarts[c]);
+	}
+
+	@Override
+	public byte read() {
+		assertIndex(this.readPosition <= this.writePosition - 1, "readPosition %d must be <= %d",
+				this.readPosition, this.writePosition - 1);
+		byte b = getByte(this.readPosition);
+		this.readPosition++;
+		return b;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "Byte array must not be null");
+		return read(destination, 0, destination.length);
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "Byte array must not be null");
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+		copy(this.readPosition, destination, offset, length);
+		this.readPosition += length;
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte b) {
+		throw readOnly();
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source) {
+		throw readOnly();
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source, int offset, int length) {
+		throw readOnly();
+	}
+
+	@Override
+	public CompositeDataBuffer write(DataBuffer... buffers) {
+		throw readOnly();
+	}
+
+	@Override
+	public CompositeDataBuffer write(ByteBuffer... buffers) {
+		throw readOnly();
+	}
+
+	@Override
+	public DataBuffer write(CharSequence charSequence, Charset charset) {
+		throw readOnly();
+	}
+
+	@Override
+	public DataBuffer slice(int index, int length) {
+		checkIndex(index, length);
+		int first = componentIndex(index);
+		int end = index + length;
+		if (length == 0 || end <= componentEnd(first)) {
+			return this.components[first].slice(
+					this.componentOffsets[first] + index - this.componentStarts[first], length);
+		}
+		DataBuffer[] slices = new DataBuffer[componentIndex(end - 1) - first + 1];
+		for (int i = 0; i < slices.length; i++) {
+			int c = first + i;
+			int from = Math.max(index, this.componentStarts[c]);
+			int to = Math.min(end, componentEnd(c));
+			slices[i] = this.components[c].slice(
+					this.componentOffsets[c] + from - this.componentStarts[c], to - from);
+		}
+		return new CompositeDataBuffer(Arrays.asList(slices));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The returned buffer shares the content of this buffer if it is held
+	 * by a single component, or else holds a copy of it.
+	 */
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return asByteBuffer(this.readPosition, readableByteCount());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The returned buffer shares the content of this buffer if it is held
+	 * by a single component, or else holds a copy of it.
+	 */
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		checkIndex(index, length);
+		int c = componentIndex(index);
+		if (length == 0 || index + length <= componentEnd(c)) {
+			return this.components[c].asByteBuffer(this.componentOffsets[c] + index - this.componentStarts[c], length);
+		}
+		byte[] bytes = new byte[length];
+		copy(index, bytes, 0, length);
+		return ByteBuffer.wrap(bytes);
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new CompositeDataBufferInputStream(false);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		return new CompositeDataBufferInputStream(releaseOnClose);
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		throw readOnly();
+	}
+
+	@Override
+	public String toString(int index, int length, Charset charset) {
+		checkIndex(index, length);
+		Assert.notNull(charset, "Charset must not be null");
+		int c = componentIndex(index);
+		if (length == 0 || index + length <= componentEnd(c)) {
+			return this.components[c].toString(
+					this.componentOffsets[c] + index - this.componentStarts[c], length, charset);
+		}
+		byte[] bytes = new byte[length];
+		copy(index, bytes, 0, length);
+		return new String(bytes, charset);
+	}
+
+	@Override
+	public boolean isAllocated() {
+		for (DataBuffer component : this.components) {
+			if (component instanceof PooledDataBuffer pooledDataBuffer && !pooledDataBuffer.isAllocated()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public CompositeDataBuffer retain() {
+		for (DataBuffer component : this.components) {
+			DataBufferUtils.retain(component);
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer touch(Object hint) {
+		for (DataBuffer component : this.components) {
+			DataBufferUtils.touch(component, hint);
+		}
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		boolean released = true;
+		for (DataBuffer component : this.components) {
+			released &= DataBufferUtils.release(component);
+		}
+		return released;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CompositeDataBuffer (r: %d, w: %d, c: %d, components: %d)",
+				this.readPosition, this.writePosition, this.capacity, this.components.length);
+	}
+
+
+	/**
+	 * Return the index of the component holding the byte at the given index,
+	 * skipping empty components.
+	 */
+	private int componentIndex(int index) {
+		int c = Arrays.binarySearch(this.componentStarts, index);
+		if (c < 0) {
+			return -c - 2;
+		}
+		while (c + 1 < this.componentStarts.length && this.componentStarts[c + 1] == index) {
+			c++;
+		}
+		return c;
+	}
+
+	private int componentEnd(int c) {
+		return (c + 1 < this.componentStarts.length ? this.componentStarts[c + 1] : this.capacity);
+	}
+
+	private void copy(int index, byte[] destination, int offset, int length) {
+		int c = componentIndex(index);
+		while (length > 0) {
+			int start = this.componentStarts[c];
+			int count = Math.min(length, componentEnd(c) - index);
+			this.components[c].asByteBuffer(this.componentOffsets[c] + index - start, count)
+					.get(destination, offset, count);
+			index += count;
+			offset += count;
+			length -= count;
+			c++;
+		}
+	}
+
+	private void checkIndex(int index, int length) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index <= this.capacity, "index %d must be <= %d", index, this.capacity);
+		assertIndex(length <= this.capacity - index, "length %d must be <= %d", length, this.capacity - index);
+	}
+
+	private static void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+	private static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("Writing to a composite buffer is not supported");
+	}
+
+
+	private class CompositeDataBufferInputStream extends InputStream {
+
+		private final boolean releaseOnClose;
+
+		CompositeDataBufferInputStream(boolean releaseOnClose) {
+			this.releaseOnClose = releaseOnClose;
+		}
+
+		@Override
+		public int available() {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return available() > 0 ? CompositeDataBuffer.this.read() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			int available = available();
+			if (available > 0) {
+				len = Math.min(len, available);
+				CompositeDataBuffer.this.read(bytes, off, len);
+				return len;
+			}
+			else {
+				return -1;
+			}
+		}
+
+		@Override
+		public void close() {
+			if (this.releaseOnClose) {
+				DataBufferUtils.release(CompositeDataBuffer.this);
+			}
+		}
+	}
+
+}
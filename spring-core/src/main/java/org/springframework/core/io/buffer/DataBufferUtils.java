@@ -25,6 +25,7 @@ import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.OpenOption;
@@ -185,6 +186,54 @@ public abstract class DataBufferUtils {
 				bufferFactory, bufferSize);
 	}
 
+	/**
+	 * Map the file at the given {@code Path} into memory, and expose its content
+	 * as a {@code Flux} of read-only {@code DataBuffer}s, each wrapping a region
+	 * of the file. Closes the file when the flux is terminated.
+	 * <p>Unlike {@link #read(Path, DataBufferFactory, int, OpenOption...)}, file
+	 * content is not copied into buffers allocated by the factory: it is loaded
+	 * by the operating system as buffers are read, which suits large files that
+	 * are read often. Mapped regions can be gathered into a single buffer
+	 * without copying them through {@link #compose(Publisher)}.
+	 * <p>Mapped regions remain valid once the file is closed, and are unmapped
+	 * when their buffers are garbage collected. The file must not be truncated
+	 * while they are in use, as reading them would then fail.
+	 * @param path the path of the file to map
+	 * @param bufferFactory the factory to wrap mapped regions with
+	 * @param regionSize the maximum size of the mapped regions
+	 * @return a Flux of data buffers wrapping the mapped regions
+	 * @since 6.0
+	 */
+	public static Flux<DataBuffer> readMapped(Path path, DataBufferFactory bufferFactory, int regionSize) {
+		return readMapped(path, 0, bufferFactory, regionSize);
+	}
+
+	/**
+	 * Map the file at the given {@code Path} into memory, starting at the given
+	 * position, and expose its content as a {@code Flux} of read-only
+	 * {@code DataBuffer}s, each wrapping a region of the file. Closes the file
+	 * when the flux is terminated.
+	 * @param path the path of the file to map
+	 * @param position the position to start mapping from
+	 * @param bufferFactory the factory to wrap mapped regions with
+	 * @param regionSize the maximum size of the mapped regions
+	 * @return a Flux of data buffers wrapping the mapped regions
+	 * @since 6.0
+	 * @see #readMapped(Path, DataBufferFactory, int)
+	 */
+	public static Flux<DataBuffer> readMapped(
+			Path path, long position, DataBufferFactory bufferFactory, int regionSize) {
+
+		Assert.notNull(path, "Path must not be null");
+		Assert.notNull(bufferFactory, "BufferFactory must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(regionSize > 0, "'regionSize' must be > 0");
+
+		return Flux.using(() -> FileChannel.open(path, StandardOpenOption.READ),
+				channel -> Flux.generate(new MappedRegionGenerator(channel, position, bufferFactory, regionSize)),
+				DataBufferUtils::closeChannel);
+	}
+
 	/**
 	 * Read the given {@code Resource} into a {@code Flux} of {@code DataBuffer}s.
 	 * <p>If the resource is a file, it is read into an
@@ -583,6 +632,53 @@ public abstract class DataBufferUtils {
 				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 	}
 
+	/**
+	 * Compose the given data buffers into a single read-only
+	 * {@link CompositeDataBuffer}, without copying their content, unlike
+	 * {@link #join(Publisher)}. Intended for buffers that are views on existing
+	 * content, such as the file regions mapped by
+	 * {@link #readMapped(Path, DataBufferFactory, int)}. A single buffer is
+	 * returned as is.
+	 * <p>Note that the given data buffers do <strong>not</strong> have to be
+	 * released. They will be released as part of the returned composite.
+	 * @param dataBuffers the data buffers that are to be composed
+	 * @return a buffer composed of the {@code dataBuffers} argument
+	 * @throws DataBufferLimitException if the buffers hold more than
+	 * {@link Integer#MAX_VALUE} bytes
+	 * @since 6.0
+	 */
+	public static Mono<DataBuffer> compose(Publisher<? extends DataBuffer> dataBuffers) {
+		return compose(dataBuffers, -1);
+	}
+
+	/**
+	 * Variant of {@link #compose(Publisher)} that behaves the same way up until
+	 * the specified max number of bytes to buffer. Once the limit is exceeded,
+	 * {@link DataBufferLimitException} is raised.
+	 * @param buffers the data buffers that are to be composed
+	 * @param maxByteCount the max number of bytes to buffer, or -1 for
+	 * {@link Integer#MAX_VALUE}
+	 * @return a buffer composed of the {@code buffers} argument
+	 * @throws DataBufferLimitException if maxByteCount is exceeded
+	 * @since 6.0
+	 */
+	@SuppressWarnings("unchecked")
+	public static Mono<DataBuffer> compose(Publisher<? extends DataBuffer> buffers, int maxByteCount) {
+		Assert.notNull(buffers, "'dataBuffers' must not be null");
+
+		if (buffers instanceof Mono) {
+			return (Mono<DataBuffer>) buffers;
+		}
+
+		// Composite buffers are int-indexed, like any other buffer
+		int limit = (maxByteCount < 0 ? Integer.MAX_VALUE : maxByteCount);
+		return Flux.from(buffers)
+				.collect(() -> new LimitedDataBufferList(limit), LimitedDataBufferList::add)
+				.filter(list -> !list.isEmpty())
+				.map(list -> (list.size() == 1 ? list.get(0) : new CompositeDataBuffer(list)))
+				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+	}
+
 	/**
 	 * Return a {@link Matcher} for the given delimiter.
 	 * The matcher can be used to find the delimiters in a stream of data buffers.
@@ -655,10 +751,13 @@ public abstract class DataBufferUtils {
 
 		private final NestedMatcher[] matchers;
 
+		private final ByteScanner scanner;
+
 		byte[] longestDelimiter = NO_DELIMITER;
 
 		CompositeMatcher(byte[][] delimiters) {
 			this.matchers = initMatchers(delimiters);
+			this.scanner = new ByteScanner(initFirstBytes(delimiters));
 		}
 
 		private static NestedMatcher[] initMatchers(byte[][] delimiters) {
@@ -669,11 +768,27 @@ public abstract class DataBufferUtils {
 			return matchers;
 		}
 
+		private static byte[] initFirstBytes(byte[][] delimiters) {
+			byte[] firstBytes = new byte[delimiters.length];
+			for (int i = 0; i < delimiters.length; i++) {
+				firstBytes[i] = delimiters[i][0];
+			}
+			return firstBytes;
+		}
+
 		@Override
 		public int match(DataBuffer dataBuffer) {
 			this.longestDelimiter = NO_DELIMITER;
 
-			for (int pos = dataBuffer.readPosition(); pos < dataBuffer.writePosition(); pos++) {
+			int limit = dataBuffer.writePosition();
+			for (int pos = dataBuffer.readPosition(); pos < limit; pos++) {
+				if (!hasPartialMatch()) {
+					// Skip bytes that cannot start any of the delimiters
+					pos = this.scanner.indexOf(dataBuffer, pos, limit);
+					if (pos == -1) {
+						return -1;
+					}
+				}
 				byte b = dataBuffer.getByte(pos);
 
 				for (NestedMatcher matcher : this.matchers) {
@@ -690,6 +805,15 @@ public abstract class DataBufferUtils {
 			return -1;
 		}
 
+		private boolean hasPartialMatch() {
+			for (NestedMatcher matcher : this.matchers) {
+				if (matcher.hasPartialMatch()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
 		@Override
 		public byte[] delimiter() {
 			Assert.state(this.longestDelimiter != NO_DELIMITER, "Illegal state!");
@@ -717,6 +841,13 @@ public abstract class DataBufferUtils {
 		 */
 		boolean match(byte b);
 
+		/**
+		 * Return whether the bytes matched so far are a prefix of the
+		 * delimiter, in which case the next byte must be passed to
+		 * {@link #match(byte)} even if it does not start the delimiter.
+		 */
+		boolean hasPartialMatch();
+
 	}
 
 
@@ -729,20 +860,17 @@ public abstract class DataBufferUtils {
 
 		private final byte[] delimiter;
 
+		private final ByteScanner scanner;
+
 		SingleByteMatcher(byte[] delimiter) {
 			Assert.isTrue(delimiter.length == 1, "Expected a 1 byte delimiter");
 			this.delimiter = delimiter;
+			this.scanner = new ByteScanner(delimiter);
 		}
 
 		@Override
 		public int match(DataBuffer dataBuffer) {
-			for (int pos = dataBuffer.readPosition(); pos < dataBuffer.writePosition(); pos++) {
-				byte b = dataBuffer.getByte(pos);
-				if (match(b)) {
-					return pos;
-				}
-			}
-			return -1;
+			return this.scanner.indexOf(dataBuffer, dataBuffer.readPosition(), dataBuffer.writePosition());
 		}
 
 		@Override
@@ -750,6 +878,11 @@ public abstract class DataBufferUtils {
 			return this.delimiter[0] == b;
 		}
 
+		@Override
+		public boolean hasPartialMatch() {
+			return false;
+		}
+
 		@Override
 		public byte[] delimiter() {
 			return this.delimiter;
@@ -768,11 +901,14 @@ public abstract class DataBufferUtils {
 
 		private final byte[] delimiter;
 
+		private final ByteScanner scanner;
+
 		private int matches = 0;
 
 
 		protected AbstractNestedMatcher(byte[] delimiter) {
 			this.delimiter = delimiter;
+			this.scanner = new ByteScanner(new byte[] {delimiter[0]});
 		}
 
 		protected void setMatches(int index) {
@@ -785,7 +921,15 @@ public abstract class DataBufferUtils {
 
 		@Override
 		public int match(DataBuffer dataBuffer) {
-			for (int pos = dataBuffer.readPosition(); pos < dataBuffer.writePosition(); pos++) {
+			int limit = dataBuffer.writePosition();
+			for (int pos = dataBuffer.readPosition(); pos < limit; pos++) {
+				if (this.matches == 0) {
+					// Skip bytes that cannot start the delimiter
+					pos = this.scanner.indexOf(dataBuffer, pos, limit);
+					if (pos == -1) {
+						return -1;
+					}
+				}
 				byte b = dataBuffer.getByte(pos);
 				if (match(b)) {
 					reset();
@@ -795,6 +939,11 @@ public abstract class DataBufferUtils {
 			return -1;
 		}
 
+		@Override
+		public boolean hasPartialMatch() {
+			return (this.matches > 0);
+		}
+
 		@Override
 		public boolean match(byte b) {
 			if (b == this.delimiter[this.matches]) {
@@ -912,6 +1061,45 @@ public abstract class DataBufferUtils {
 	}
 
 
+	private static class MappedRegionGenerator implements Consumer<SynchronousSink<DataBuffer>> {
+
+		private final FileChannel channel;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int regionSize;
+
+		private long position;
+
+		public MappedRegionGenerator(
+				FileChannel channel, long position, DataBufferFactory dataBufferFactory, int regionSize) {
+
+			this.channel = channel;
+			this.position = position;
+			this.dataBufferFactory = dataBufferFactory;
+			this.regionSize = regionSize;
+		}
+
+		@Override
+		public void accept(SynchronousSink<DataBuffer> sink) {
+			try {
+				long size = this.channel.size();
+				if (this.position >= size) {
+					sink.complete();
+					return;
+				}
+				long length = Math.min(this.regionSize, size - this.position);
+				ByteBuffer region = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, length);
+				this.position += length;
+				sink.next(this.dataBufferFactory.wrap(region));
+			}
+			catch (IOException ex) {
+				sink.error(ex);
+			}
+		}
+	}
+
+
 	private static class ReadCompletionHandler implements CompletionHandler<Integer, DataBuffer> {
 
 		private final AsynchronousFileChannel channel;
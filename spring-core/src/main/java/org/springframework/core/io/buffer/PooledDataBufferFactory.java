@@ -0,0 +1,571 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DefaultDataBufferFactory} that recycles the memory of the buffers it
+ * allocates, once they are {@linkplain DataBufferUtils#release(DataBuffer) released},
+ * without requiring Netty. Buffers are {@link PooledDataBuffer PooledDataBuffers}
+ * with a reference count, which must be released once consumed, as for a
+ * {@link NettyDataBufferFactory} with a pooled allocator.
+ *
+ * <p>Buffers have the requested capacity, but their memory is pooled in
+ * power of two size classes, from 256 bytes up to a
+ * {@linkplain #PooledDataBufferFactory(boolean, int, int) maximum pooled capacity},
+ * 64K by default; larger buffers are not pooled. Released memory is cached by
+ * the releasing thread up to 32K per size class, and otherwise returned to
+ * one of several shared arenas, up to 1M per size class, each thread being
+ * assigned an arena. Memory from the JVM heap or direct memory is used
+ * depending on the {@code preferDirect} flag.
+ *
+ * <p>The content of a released buffer, including views obtained with
+ * {@link DataBuffer#asByteBuffer()}, is reused by subsequent allocations and
+ * must not be accessed anymore. To help find buffers that are never released,
+ * a sample of allocations records their call site, which is logged at error
+ * level if the buffer is garbage collected without having been released.
+ * See {@link #setLeakDetectionSamplingInterval(int)}. The number of buffers
+ * not released yet is exposed through {@link #getAllocatedBufferCount()}.
+ *
+ * <p>Can be configured on the {@code ServletHttpHandlerAdapter} and
+ * {@code UndertowHttpHandlerAdapter} to pool request and response buffers.
+ *
+ * @since 6.0
+ */
+public class PooledDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The default maximum capacity of pooled buffers.
+	 * @see #PooledDataBufferFactory(boolean, int, int)
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	private static final int MIN_POOLED_CAPACITY = 256;
+
+	private static final int MIN_POOLED_CAPACITY_SHIFT = Integer.numberOfTrailingZeros(MIN_POOLED_CAPACITY);
+
+	private static final int THREAD_CACHE_BYTES_PER_SIZE_CLASS = 32 * 1024;
+
+	private static final int ARENA_BYTES_PER_SIZE_CLASS = 1024 * 1024;
+
+	private static final Log logger = LogFactory.getLog(PooledDataBufferFactory.class);
+
+
+	private final boolean preferDirect;
+
+	private final int maxPooledCapacity;
+
+	private final Arena[] arenas;
+
+	private final AtomicInteger arenaIndex = new AtomicInteger();
+
+	private final ThreadLocal<ThreadCache> threadCaches = ThreadLocal.withInitial(this::createThreadCache);
+
+	private final LongAdder allocatedBufferCount = new LongAdder();
+
+	private final LeakDetector leakDetector = new LeakDetector();
+
+	private volatile int leakDetectionSamplingInterval = 128;
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with default settings,
+	 * pooling heap buffers.
+	 */
+	public PooledDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}, indicating whether direct
+	 * buffers should be pooled and created by {@link #allocateBuffer()} and
+	 * {@link #allocateBuffer(int)}.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_POOLED_CAPACITY);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}, indicating whether direct
+	 * buffers should be pooled and created by {@link #allocateBuffer()} and
+	 * {@link #allocateBuffer(int)}, what the capacity is to be used for
+	 * {@link #allocateBuffer()}, and the maximum capacity of pooled buffers.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 * @param defaultInitialCapacity the capacity of buffers allocated by
+	 * {@link #allocateBuffer()}
+	 * @param maxPooledCapacity the maximum capacity of pooled buffers, as a
+	 * power of two of at least 256: larger buffers are allocated for each request
+	 */
+	public PooledDataBufferFactory(boolean preferDirect, int defaultInitialCapacity, int maxPooledCapacity) {
+		super(preferDirect, defaultInitialCapacity);
+		Assert.isTrue(maxPooledCapacity >= MIN_POOLED_CAPACITY && Integer.bitCount(maxPooledCapacity) == 1,
+				"'maxPooledCapacity' should be a power of two, of at least " + MIN_POOLED_CAPACITY);
+		this.preferDirect = preferDirect;
+		this.maxPooledCapacity = maxPooledCapacity;
+		int sizeClassCount = sizeClassIndex(maxPooledCapacity) + 1;
+		this.arenas = new Arena[Runtime.getRuntime().availableProcessors()];
+		for (int i = 0; i < this.arenas.length; i++) {
+			this.arenas[i] = new Arena(sizeClassCount);
+		}
+	}
+
+
+	/**
+	 * Set the interval at which allocations are sampled for leak detection:
+	 * one allocation out of {@code interval} records its call site, so that it
+	 * can be logged if the buffer is garbage collected without being released.
+	 * <p>By default one allocation out of 128 is sampled. Set to 1 to track all
+	 * allocations while diagnosing a leak, or to 0 to disable leak detection.
+	 * @param interval the sampling interval
+	 */
+	public void setLeakDetectionSamplingInterval(int interval) {
+		Assert.isTrue(interval >= 0, "'interval' must be >= 0");
+		this.leakDetectionSamplingInterval = interval;
+	}
+
+	/**
+	 * Return the configured leak detection sampling interval.
+	 */
+	public int getLeakDetectionSamplingInterval() {
+		return this.leakDetectionSamplingInterval;
+	}
+
+	/**
+	 * Return the number of pooled buffers allocated by this factory that have
+	 * not been released yet, including buffers that were leaked.
+	 */
+	public long getAllocatedBufferCount() {
+		return this.allocatedBufferCount.sum();
+	}
+
+
+	@Override
+	public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+		if (initialCapacity > this.maxPooledCapacity) {
+			return super.allocateBuffer(initialCapacity);
+		}
+		PooledBuffer dataBuffer = new PooledBuffer(this, acquire(initialCapacity), initialCapacity);
+		this.allocatedBufferCount.increment();
+		int interval = this.leakDetectionSamplingInterval;
+		if (interval > 0) {
+			reportLeaks();
+			if (interval == 1 || ThreadLocalRandom.current().nextInt(interval) == 0) {
+				dataBuffer.leakTracker = this.leakDetector.track(dataBuffer);
+			}
+		}
+		return dataBuffer;
+	}
+
+	private void reportLeaks() {
+		LeakTracker leakTracker;
+		while ((leakTracker = this.leakDetector.pollLeak()) != null) {
+			reportLeak(leakTracker.allocationSite, leakTracker.hint);
+		}
+	}
+
+	/**
+	 * Report a buffer that was garbage collected without having been released.
+	 * @param allocationSite the exception recording where the buffer was allocated
+	 * @param hint the last hint passed to {@link PooledDataBuffer#touch(Object)}, if any
+	 */
+	void reportLeak(Throwable allocationSite, @Nullable Object hint) {
+		if (logger.isErrorEnabled()) {
+			logger.error("DataBuffer was garbage collected without being released" +
+					(hint != null ? ", last hint: " + hint : "") + ". Allocation site below.", allocationSite);
+		}
+	}
+
+	/**
+	 * Acquire a native buffer of at least the given capacity, from the
+	 * pool if possible.
+	 */
+	ByteBuffer acquire(int capacity) {
+		if (capacity > this.maxPooledCapacity) {
+			return allocate(capacity);
+		}
+		int sizeClass = sizeClassIndex(capacity);
+		ThreadCache threadCache = this.threadCaches.get();
+		ByteBuffer byteBuffer = threadCache.poll(sizeClass);
+		if (byteBuffer == null) {
+			byteBuffer = threadCache.arena.poll(sizeClass);
+		}
+		return (byteBuffer != null ? byteBuffer : allocate(MIN_POOLED_CAPACITY << sizeClass));
+	}
+
+	/**
+	 * Return the given native buffer to the pool, if it was pooled.
+	 */
+	void recycle(ByteBuffer byteBuffer) {
+		int capacity = byteBuffer.capacity();
+		if (capacity < MIN_POOLED_CAPACITY || capacity > this.maxPooledCapacity ||
+				Integer.bitCount(capacity) != 1 || byteBuffer.isDirect() != this.preferDirect) {
+			return;
+		}
+		byteBuffer.clear();
+		int sizeClass = sizeClassIndex(capacity);
+		ThreadCache threadCache = this.threadCaches.get();
+		if (!threadCache.offer(sizeClass, byteBuffer)) {
+			threadCache.arena.offer(sizeClass, byteBuffer);
+		}
+	}
+
+	private ByteBuffer allocate(int capacity) {
+		return (this.preferDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+	}
+
+	private ThreadCache createThreadCache() {
+		Arena arena = this.arenas[Math.floorMod(this.arenaIndex.getAndIncrement(), this.arenas.length)];
+		return new ThreadCache(arena);
+	}
+
+	private static int sizeClassIndex(int capacity) {
+		if (capacity <= MIN_POOLED_CAPACITY) {
+			return 0;
+		}
+		return (Integer.SIZE - Integer.numberOfLeadingZeros(capacity - 1)) - MIN_POOLED_CAPACITY_SHIFT;
+	}
+
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (preferDirect=" + this.preferDirect +
+				", maxPooledCapacity=" + this.maxPooledCapacity + ")";
+	}
+
+
+	/**
+	 * Shared pool of native buffers, with a queue per size class.
+	 */
+	private static final class Arena {
+
+		private final Queue<ByteBuffer>[] queues;
+
+		private final AtomicInteger[] sizes;
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Arena(int sizeClassCount) {
+			this.queues = new Queue[sizeClassCount];
+			this.sizes = new AtomicInteger[sizeClassCount];
+			for (int i = 0; i < sizeClassCount; i++) {
+				this.queues[i] = new ConcurrentLinkedQueue<>();
+				this.sizes[i] = new AtomicInteger();
+			}
+		}
+
+		@Nullable
+		ByteBuffer poll(int sizeClass) {
+			ByteBuffer byteBuffer = this.queues[sizeClass].poll();
+			if (byteBuffer != null) {
+				this.sizes[sizeClass].decrementAndGet();
+			}
+			return byteBuffer;
+		}
+
+		void offer(int sizeClass, ByteBuffer byteBuffer) {
+			int maxSize = Math.max(1, ARENA_BYTES_PER_SIZE_CLASS / byteBuffer.capacity());
+			if (this.sizes[sizeClass].incrementAndGet() <= maxSize) {
+				this.queues[sizeClass].offer(byteBuffer);
+			}
+			else {
+				this.sizes[sizeClass].decrementAndGet();
+			}
+		}
+	}
+
+
+	/**
+	 * Native buffers cached by a thread, with a stack per size class
+	 * so that recently used memory is reused first.
+	 */
+	private static final class ThreadCache {
+
+		final Arena arena;
+
+		private final ArrayDeque<ByteBuffer>[] stacks;
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		ThreadCache(Arena arena) {
+			this.arena = arena;
+			this.stacks = new ArrayDeque[arena.queues.length];
+			for (int i = 0; i < this.stacks.length; i++) {
+				this.stacks[i] = new ArrayDeque<>();
+			}
+		}
+
+		@Nullable
+		ByteBuffer poll(int sizeClass) {
+			return this.stacks[sizeClass].pollFirst();
+		}
+
+		boolean offer(int sizeClass, ByteBuffer byteBuffer) {
+			ArrayDeque<ByteBuffer> stack = this.stacks[sizeClass];
+			if (stack.size() >= Math.max(1, THREAD_CACHE_BYTES_PER_SIZE_CLASS / byteBuffer.capacity())) {
+				return false;
+			}
+			stack.offerFirst(byteBuffer);
+			return true;
+		}
+	}
+
+
+	/**
+	 * Pooled buffer, returning its memory to the factory once released.
+	 */
+	private static final class PooledBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private static final AtomicIntegerFieldUpdater<PooledBuffer> REF_COUNT_UPDATER =
+				AtomicIntegerFieldUpdater.newUpdater(PooledBuffer.class, "refCount");
+
+		private final PooledDataBufferFactory dataBufferFactory;
+
+		private volatile int refCount = 1;
+
+		/**
+		 * The pooled memory, possibly larger than the capacity of this buffer.
+		 */
+		private ByteBuffer memory;
+
+		@Nullable
+		private ByteBuffer newMemory;
+
+		private boolean sliced;
+
+		@Nullable
+		private List<ByteBuffer> replacedMemory;
+
+		@Nullable
+		LeakTracker leakTracker;
+
+		PooledBuffer(PooledDataBufferFactory dataBufferFactory, ByteBuffer memory, int capacity) {
+			super(dataBufferFactory, memory.duplicate().limit(capacity));
+			this.dataBufferFactory = dataBufferFactory;
+			this.memory = memory;
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.refCount > 0;
+		}
+
+		@Override
+		public PooledBuffer retain() {
+			int refCount;
+			do {
+				refCount = this.refCount;
+				if (refCount <= 0) {
+					throw new IllegalStateException("Cannot retain a released buffer");
+				}
+			}
+			while (!REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount + 1));
+			return this;
+		}
+
+		@Override
+		public PooledBuffer touch(Object hint) {
+			LeakTracker leakTracker = this.leakTracker;
+			if (leakTracker != null) {
+				leakTracker.hint = hint;
+			}
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			int refCount;
+			do {
+				refCount = this.refCount;
+				if (refCount <= 0) {
+					throw new IllegalStateException("Buffer already released");
+				}
+			}
+			while (!REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount - 1));
+			if (refCount > 1) {
+				return false;
+			}
+			LeakTracker leakTracker = this.leakTracker;
+			if (leakTracker != null) {
+				leakTracker.close();
+			}
+			this.dataBufferFactory.allocatedBufferCount.decrement();
+			this.dataBufferFactory.recycle(this.memory);
+			List<ByteBuffer> replacedMemory = this.replacedMemory;
+			if (replacedMemory != null) {
+				this.replacedMemory = null;
+				replacedMemory.forEach(this.dataBufferFactory::recycle);
+			}
+			return true;
+		}
+
+		@Override
+		ByteBuffer allocateNativeBuffer(int capacity, boolean direct) {
+			ByteBuffer memory = this.dataBufferFactory.acquire(capacity);
+			this.newMemory = memory;
+			return memory.duplicate().limit(capacity).slice();
+		}
+
+		@Override
+		void releaseNativeBuffer(ByteBuffer byteBuffer) {
+			ByteBuffer oldMemory = this.memory;
+			Assert.state(this.newMemory != null, "No new memory allocated");
+			this.memory = this.newMemory;
+			this.newMemory = null;
+			if (this.sliced) {
+				// Slices may still read the replaced memory: keep it until they are released too
+				if (this.replacedMemory == null) {
+					this.replacedMemory = new ArrayList<>(2);
+				}
+				this.replacedMemory.add(oldMemory);
+			}
+			else {
+				this.dataBufferFactory.recycle(oldMemory);
+			}
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			this.sliced = true;
+			return new PooledSlice(this, asByteBuffer(index, length));
+		}
+
+		@Override
+		public String toString() {
+			return String.format("PooledDataBuffer (r: %d, w: %d, c: %d, refCount: %d)",
+					readPosition(), writePosition(), capacity(), this.refCount);
+		}
+	}
+
+
+	/**
+	 * Slice of a pooled buffer, sharing its reference count.
+	 */
+	private static final class PooledSlice extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final PooledBuffer parent;
+
+		PooledSlice(PooledBuffer parent, ByteBuffer byteBuffer) {
+			super(parent.dataBufferFactory, byteBuffer);
+			this.parent = parent;
+			writePosition(byteBuffer.remaining());
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.parent.isAllocated();
+		}
+
+		@Override
+		public PooledSlice retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public PooledSlice touch(Object hint) {
+			this.parent.touch(hint);
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			return new PooledSlice(this.parent, asByteBuffer(index, length));
+		}
+
+		@Override
+		public DefaultDataBuffer capacity(int newCapacity) {
+			throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+		}
+	}
+
+
+	/**
+	 * Tracks sampled buffers, and finds those that were garbage collected
+	 * without having been released.
+	 */
+	private static final class LeakDetector {
+
+		private final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<>();
+
+		private final Set<LeakTracker> trackers = ConcurrentHashMap.newKeySet();
+
+		LeakTracker track(DataBuffer dataBuffer) {
+			LeakTracker leakTracker = new LeakTracker(dataBuffer, this.referenceQueue, this.trackers);
+			this.trackers.add(leakTracker);
+			return leakTracker;
+		}
+
+		@Nullable
+		LeakTracker pollLeak() {
+			LeakTracker leakTracker;
+			while ((leakTracker = (LeakTracker) this.referenceQueue.poll()) != null) {
+				if (this.trackers.remove(leakTracker)) {
+					return leakTracker;
+				}
+			}
+			return null;
+		}
+	}
+
+
+	private static final class LeakTracker extends WeakReference<Object> {
+
+		final Throwable allocationSite = new Throwable("DataBuffer allocation site");
+
+		private final Set<LeakTracker> trackers;
+
+		@Nullable
+		volatile Object hint;
+
+		LeakTracker(DataBuffer dataBuffer, ReferenceQueue<Object> referenceQueue, Set<LeakTracker> trackers) {
+			super(dataBuffer, referenceQueue);
+			this.trackers = trackers;
+		}
+
+		void close() {
+			this.trackers.remove(this);
+			clear();
+		}
+	}
+
+}
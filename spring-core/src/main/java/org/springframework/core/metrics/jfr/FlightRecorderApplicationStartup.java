@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,10 @@ import org.springframework.core.metrics.StartupStep;
  * <p>Once this is configured on the application context, you can record data by
  * launching the application with recording enabled:
  * {@code java -XX:StartFlightRecording:filename=recording.jfr,duration=10s -jar app.jar}.
+ * <p>Steps are nested within the current step of the thread that starts them,
+ * so that steps recorded by several threads at the same time, for example
+ * during the concurrent pre-instantiation of singletons, do not become
+ * children of each other.
  *
  * @author Brian Clozel
  * @since 5.3
@@ -40,21 +44,25 @@ public class FlightRecorderApplicationStartup implements ApplicationStartup {
 
 	private final AtomicLong currentSequenceId = new AtomicLong(0);
 
-	private final Deque<Long> currentSteps;
+	private final ThreadLocal<Deque<Long>> currentSteps;
 
 
 	public FlightRecorderApplicationStartup() {
-		this.currentSteps = new ConcurrentLinkedDeque<>();
-		this.currentSteps.offerFirst(this.currentSequenceId.get());
+		this.currentSteps = ThreadLocal.withInitial(() -> {
+			Deque<Long> steps = new ConcurrentLinkedDeque<>();
+			steps.offerFirst(0L);
+			return steps;
+		});
 	}
 
 
 	@Override
 	public StartupStep start(String name) {
+		Deque<Long> steps = this.currentSteps.get();
 		long sequenceId = this.currentSequenceId.incrementAndGet();
-		this.currentSteps.offerFirst(sequenceId);
+		steps.offerFirst(sequenceId);
 		return new FlightRecorderStartupStep(sequenceId, name,
-				this.currentSteps.getFirst(), committedStep -> this.currentSteps.removeFirstOccurrence(sequenceId));
+				steps.getFirst(), committedStep -> steps.removeFirstOccurrence(sequenceId));
 	}
 
 }
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * {@link MetadataReaderFactory} that keeps the metadata read from class files
+ * in a file, so that the class files do not have to be parsed again with ASM
+ * on the next startup of the application, as long as they did not change.
+ *
+ * <p>Each entry is stamped with the last-modified timestamp and the length of
+ * the class file, or of the jar file that contains it: a class file that has
+ * been recompiled, or any class file from a jar that has been replaced, is read
+ * again and its entry is updated. Entries that cannot be restored, for example
+ * because an annotation type is not present anymore, are read again as well.
+ *
+ * <p>Metadata is read from the cache file on construction, and written back
+ * on {@link #store()} if any entry has been added or updated in the meantime.
+ * Entries of other classes are kept, so that factories scanning different
+ * packages can share the same file, unless their class file or jar file is not
+ * present anymore or has changed. {@link #clearCache()} releases the metadata
+ * held in memory, which is read from the file again when needed.
+ *
+ * @since 6.0
+ * @see CachingMetadataReaderFactory
+ */
+public class PersistentMetadataReaderFactory extends SimpleMetadataReaderFactory {
+
+	private static final int MAGIC = 0x53504d43;
+
+	private static final int VERSION = 1;
+
+	private static final Log logger = LogFactory.getLog(PersistentMetadataReaderFactory.class);
+
+
+	private final Path cacheFile;
+
+	@Nullable
+	private volatile SimpleAnnotationMetadataCodec codec;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>(256);
+
+	private final Map<String, Stamp> jarStamps = new ConcurrentHashMap<>();
+
+	private volatile boolean modified;
+
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the default class loader.
+	 * @param cacheFile the file to read metadata from and to store metadata to;
+	 * it does not have to exist yet
+	 */
+	public PersistentMetadataReaderFactory(Path cacheFile) {
+		super();
+		Assert.notNull(cacheFile, "Cache file must not be null");
+		this.cacheFile = cacheFile;
+		this.codec = load();
+	}
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the given resource loader.
+	 * @param cacheFile the file to read metadata from and to store metadata to;
+	 * it does not have to exist yet
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 */
+	public PersistentMetadataReaderFactory(Path cacheFile, @Nullable ResourceLoader resourceLoader) {
+		super(resourceLoader);
+		Assert.notNull(cacheFile, "Cache file must not be null");
+		this.cacheFile = cacheFile;
+		this.codec = load();
+	}
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the given class loader.
+	 * @param cacheFile the file to read metadata from and to store metadata to;
+	 * it does not have to exist yet
+	 * @param classLoader the ClassLoader to use
+	 */
+	public PersistentMetadataReaderFactory(Path cacheFile, @Nullable ClassLoader classLoader) {
+		super(classLoader);
+		Assert.notNull(cacheFile, "Cache file must not be null");
+		this.cacheFile = cacheFile;
+		this.codec = load();
+	}
+
+
+	/**
+	 * Return the file that metadata is read from and stored to.
+	 */
+	public final Path getCacheFile() {
+		return this.cacheFile;
+	}
+
+	private SimpleAnnotationMetadataCodec load() {
+		SimpleAnnotationMetadataCodec codec = new SimpleAnnotationMetadataCodec(getResourceLoader().getClassLoader());
+		if (!Files.isRegularFile(this.cacheFile)) {
+			return codec;
+		}
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(this.cacheFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring incompatible class metadata cache " + this.cacheFile);
+				}
+				return codec;
+			}
+			codec.readStrings(in);
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = codec.readString(in);
+				Stamp stamp = new Stamp(in.readLong(), in.readLong());
+				byte[] encoded = new byte[in.readInt()];
+				in.readFully(encoded);
+				this.entries.put(key, new Entry(stamp, encoded));
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded metadata of " + count + " classes from " + this.cacheFile);
+			}
+			return codec;
+		}
+		catch (IOException ex) {
+			this.entries.clear();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring unreadable class metadata cache " + this.cacheFile, ex);
+			}
+			return new SimpleAnnotationMetadataCodec(getResourceLoader().getClassLoader());
+		}
+	}
+
+	private SimpleAnnotationMetadataCodec getCodec() {
+		SimpleAnnotationMetadataCodec codec = this.codec;
+		if (codec == null) {
+			synchronized (this) {
+				codec = this.codec;
+				if (codec == null) {
+					codec = load();
+					this.codec = codec;
+				}
+			}
+		}
+		return codec;
+	}
+
+	@Override
+	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		String key;
+		Stamp stamp;
+		try {
+			if (resource.isFile()) {
+				Path file = resource.getFile().toPath();
+				BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				key = file.toString();
+				stamp = new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+			}
+			else {
+				URL url = resource.getURL();
+				key = url.toString();
+				stamp = getJarStamp(url);
+			}
+		}
+		catch (IOException ex) {
+			// Not resolvable to a class file on the file system
+			return super.getMetadataReader(resource);
+		}
+		if (stamp == null) {
+			return super.getMetadataReader(resource);
+		}
+		SimpleAnnotationMetadataCodec codec = getCodec();
+		Entry entry = this.entries.get(key);
+		if (entry != null && entry.stamp.equals(stamp)) {
+			SimpleAnnotationMetadata metadata = entry.getMetadata(codec);
+			if (metadata != null) {
+				return new SimpleMetadataReader(resource, metadata);
+			}
+		}
+		MetadataReader metadataReader = super.getMetadataReader(resource);
+		if (metadataReader.getAnnotationMetadata() instanceof SimpleAnnotationMetadata metadata) {
+			try {
+				this.entries.put(key, new Entry(stamp, codec.encode(metadata), metadata));
+				this.modified = true;
+			}
+			catch (IOException ex) {
+				this.entries.remove(key);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Not caching metadata of " + resource, ex);
+				}
+			}
+		}
+		return metadataReader;
+	}
+
+	@Nullable
+	private Stamp getJarStamp(URL url) throws IOException {
+		if (!ResourceUtils.isJarURL(url)) {
+			return null;
+		}
+		URL jarFileUrl = ResourceUtils.extractArchiveURL(url);
+		if (!ResourceUtils.isFileURL(jarFileUrl)) {
+			return null;
+		}
+		Stamp stamp = this.jarStamps.get(jarFileUrl.toString());
+		if (stamp == null) {
+			File jarFile = ResourceUtils.getFile(jarFileUrl);
+			stamp = new Stamp(jarFile.lastModified(), jarFile.length());
+			this.jarStamps.put(jarFileUrl.toString(), stamp);
+		}
+		return stamp;
+	}
+
+	/**
+	 * Write the metadata known to this factory to the cache file, if any of it
+	 * has been read from a class file since this factory has been created.
+	 * Entries of class files that are not present anymore, or that have changed
+	 * since their metadata has been read, are dropped.
+	 * @throws IOException if the cache file cannot be written
+	 */
+	public synchronized void store() throws IOException {
+		SimpleAnnotationMetadataCodec codec = this.codec;
+		if (!this.modified || codec == null) {
+			// Jar files might be replaced before the next call
+			this.jarStamps.clear();
+			return;
+		}
+		this.modified = false;
+		List<Map.Entry<String, Entry>> entries = new ArrayList<>(this.entries.size());
+		for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+			if (isCurrent(entry.getKey(), entry.getValue().stamp)) {
+				entries.add(entry);
+			}
+			else {
+				this.entries.remove(entry.getKey(), entry.getValue());
+			}
+		}
+		this.jarStamps.clear();
+		Path directory = this.cacheFile.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path tempFile = Files.createTempFile(directory, this.cacheFile.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				// Keys are added to the string table first
+				for (Map.Entry<String, Entry> entry : entries) {
+					codec.indexOf(entry.getKey());
+				}
+				codec.writeStrings(out);
+				out.writeInt(entries.size());
+				for (Map.Entry<String, Entry> entry : entries) {
+					codec.writeString(out, entry.getKey());
+					out.writeLong(entry.getValue().stamp.lastModified);
+					out.writeLong(entry.getValue().stamp.length);
+					out.writeInt(entry.getValue().encoded.length);
+					out.write(entry.getValue().encoded);
+				}
+			}
+			try {
+				Files.move(tempFile, this.cacheFile,
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile, this.cacheFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException ex) {
+			this.modified = true;
+			Files.deleteIfExists(tempFile);
+			throw ex;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Stored metadata of " + entries.size() + " classes to " + this.cacheFile);
+		}
+	}
+
+	private boolean isCurrent(String key, Stamp stamp) {
+		try {
+			Stamp current;
+			if (ResourceUtils.isUrl(key)) {
+				current = getJarStamp(new URL(key));
+			}
+			else {
+				BasicFileAttributes attributes = Files.readAttributes(Path.of(key), BasicFileAttributes.class);
+				current = new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+			}
+			return stamp.equals(current);
+		}
+		catch (IOException | InvalidPathException ex) {
+			// Not present anymore
+			return false;
+		}
+	}
+
+	/**
+	 * Release the metadata held in memory. Entries that have not been stored
+	 * yet are discarded; the others are read from the cache file again on the
+	 * next call to {@link #getMetadataReader}.
+	 */
+	public synchronized void clearCache() {
+		this.codec = null;
+		this.entries.clear();
+		this.jarStamps.clear();
+		this.modified = false;
+	}
+
+
+	/**
+	 * Last-modified timestamp and length of a class file or jar file.
+	 */
+	private static final class Stamp {
+
+		final long lastModified;
+
+		final long length;
+
+		Stamp(long lastModified, long length) {
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof Stamp that &&
+					this.lastModified == that.lastModified && this.length == that.length));
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(this.lastModified) * 31 + Long.hashCode(this.length);
+		}
+	}
+
+
+	/**
+	 * Cached metadata of a class file, decoded on first access.
+	 */
+	private static final class Entry {
+
+		final Stamp stamp;
+
+		final byte[] encoded;
+
+		@Nullable
+		private volatile SimpleAnnotationMetadata metadata;
+
+		Entry(Stamp stamp, byte[] encoded) {
+			this.stamp = stamp;
+			this.encoded = encoded;
+		}
+
+		Entry(Stamp stamp, byte[] encoded, SimpleAnnotationMetadata metadata) {
+			this.stamp = stamp;
+			this.encoded = encoded;
+			this.metadata = metadata;
+		}
+
+		@Nullable
+		SimpleAnnotationMetadata getMetadata(SimpleAnnotationMetadataCodec codec) {
+			SimpleAnnotationMetadata metadata = this.metadata;
+			if (metadata == null) {
+				try {
+					metadata = codec.decode(this.encoded);
+					this.metadata = metadata;
+				}
+				catch (Exception | LinkageError ex) {
+					if (logger.isTraceEnabled()) {
+						logger.trace("Failed to restore cached class metadata", ex);
+					}
+					return null;
+				}
+			}
+			return metadata;
+		}
+	}
+
+}
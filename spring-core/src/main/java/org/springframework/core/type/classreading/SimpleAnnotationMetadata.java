@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -77,6 +77,10 @@ final class SimpleAnnotationMetadata implements AnnotationMetadata {
 		this.annotations = annotations;
 	}
 
+	int getAccess() {
+		return this.access;
+	}
+
 	@Override
 	public String getClassName() {
 		return this.className;
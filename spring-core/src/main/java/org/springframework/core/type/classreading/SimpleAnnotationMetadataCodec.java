@@ -0,0 +1,457 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Binary codec for {@link SimpleAnnotationMetadata}, used to persist the result
+ * of reading a class file with ASM and restore it without parsing the class file
+ * again.
+ *
+ * <p>Only the annotations directly declared on the class and its methods are
+ * encoded, with their attribute values as exposed by {@link MergedAnnotation}:
+ * class references are kept as class names, while enums and annotation types
+ * are resolved against the class loader on decoding, as they are when reading
+ * the class file. Strings are encoded as references to a table shared by all
+ * the metadata encoded by the same codec, written and read separately.
+ *
+ * @since 6.0
+ * @see PersistentMetadataReaderFactory
+ */
+final class SimpleAnnotationMetadataCodec {
+
+	private static final byte TAG_BOOLEAN = 'Z';
+
+	private static final byte TAG_BYTE = 'B';
+
+	private static final byte TAG_CHAR = 'C';
+
+	private static final byte TAG_SHORT = 'S';
+
+	private static final byte TAG_INT = 'I';
+
+	private static final byte TAG_LONG = 'J';
+
+	private static final byte TAG_FLOAT = 'F';
+
+	private static final byte TAG_DOUBLE = 'D';
+
+	private static final byte TAG_STRING = 's';
+
+	private static final byte TAG_ENUM = 'e';
+
+	private static final byte TAG_ANNOTATION = '@';
+
+	private static final byte TAG_ARRAY = '[';
+
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private final Map<String, Class<?>> resolvedTypes = new ConcurrentHashMap<>(64);
+
+	private final Map<String, Integer> stringIndexes = new HashMap<>(1024);
+
+	private volatile String[] strings = new String[1024];
+
+	private volatile int stringCount;
+
+
+	SimpleAnnotationMetadataCodec(@Nullable ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+
+	/**
+	 * Encode the given metadata.
+	 * @param metadata the metadata read from a class file
+	 * @return the encoded metadata
+	 * @throws IOException in case of encoding failure
+	 */
+	byte[] encode(SimpleAnnotationMetadata metadata) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		DataOutputStream out = new DataOutputStream(bytes);
+		writeString(out, metadata.getClassName());
+		out.writeInt(metadata.getAccess());
+		writeNullableString(out, metadata.getEnclosingClassName());
+		writeNullableString(out, metadata.getSuperClassName());
+		out.writeBoolean(metadata.isIndependent());
+		writeStringArray(out, metadata.getInterfaceNames());
+		writeStringArray(out, metadata.getMemberClassNames());
+		Set<MethodMetadata> methods = metadata.getDeclaredMethods();
+		out.writeInt(methods.size());
+		for (MethodMetadata method : methods) {
+			SimpleMethodMetadata simpleMethod = (SimpleMethodMetadata) method;
+			SimpleMethodMetadataReadingVisitor.Source source =
+					(SimpleMethodMetadataReadingVisitor.Source) simpleMethod.getSource();
+			writeString(out, simpleMethod.getMethodName());
+			out.writeInt(simpleMethod.getAccess());
+			writeString(out, simpleMethod.getDeclaringClassName());
+			writeString(out, simpleMethod.getReturnTypeName());
+			writeString(out, source.getDescriptor());
+			writeAnnotations(out, simpleMethod.getAnnotations());
+		}
+		writeAnnotations(out, metadata.getAnnotations());
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decode metadata previously {@link #encode encoded}.
+	 * @param encoded the encoded metadata
+	 * @return the decoded metadata
+	 * @throws IOException in case of decoding failure
+	 * @throws ClassNotFoundException if an enum or annotation type cannot be resolved
+	 */
+	SimpleAnnotationMetadata decode(byte[] encoded) throws IOException, ClassNotFoundException {
+		ByteBuffer in = ByteBuffer.wrap(encoded);
+		String className = readString(in);
+		int access = in.getInt();
+		String enclosingClassName = readNullableString(in);
+		String superClassName = readNullableString(in);
+		boolean independentInnerClass = (in.get() != 0);
+		Set<String> interfaceNames = readStringSet(in);
+		Set<String> memberClassNames = readStringSet(in);
+		int methodCount = in.getInt();
+		Set<MethodMetadata> declaredMethods = new LinkedHashSet<>(methodCount * 2);
+		for (int i = 0; i < methodCount; i++) {
+			String methodName = readString(in);
+			int methodAccess = in.getInt();
+			String declaringClassName = readString(in);
+			String returnTypeName = readString(in);
+			String descriptor = readString(in);
+			Object source = new SimpleMethodMetadataReadingVisitor.Source(declaringClassName, methodName, descriptor);
+			MergedAnnotations annotations = readAnnotations(in, source);
+			declaredMethods.add(new SimpleMethodMetadata(methodName, methodAccess, declaringClassName,
+					returnTypeName, source, annotations));
+		}
+		Object source = new SimpleAnnotationMetadataReadingVisitor.Source(className);
+		MergedAnnotations annotations = readAnnotations(in, source);
+		return new SimpleAnnotationMetadata(className, access, enclosingClassName, superClassName,
+				independentInnerClass, interfaceNames, memberClassNames, declaredMethods, annotations);
+	}
+
+
+	private void writeAnnotations(DataOutputStream out, MergedAnnotations annotations) throws IOException {
+		List<MergedAnnotation<Annotation>> declared = new ArrayList<>();
+		for (MergedAnnotation<Annotation> annotation : annotations) {
+			if (annotation.getDistance() == 0) {
+				declared.add(annotation);
+			}
+		}
+		out.writeInt(declared.size());
+		for (MergedAnnotation<Annotation> annotation : declared) {
+			writeAnnotation(out, annotation);
+		}
+	}
+
+	private void writeAnnotation(DataOutputStream out, MergedAnnotation<?> annotation) throws IOException {
+		List<Method> attributes = new ArrayList<>();
+		for (Method method : annotation.getType().getDeclaredMethods()) {
+			if (method.getParameterCount() == 0 && !method.isSynthetic()) {
+				attributes.add(method);
+			}
+		}
+		writeString(out, annotation.getType().getName());
+		out.writeInt(attributes.size());
+		for (Method attribute : attributes) {
+			String name = attribute.getName();
+			Class<?> type = attribute.getReturnType();
+			// Keep class references as names, avoiding to load the referenced classes
+			Object value = (type == Class.class ? annotation.getValue(name, String.class).orElse(null) :
+					type == Class[].class ? annotation.getValue(name, String[].class).orElse(null) :
+					annotation.getValue(name).orElse(null));
+			if (value == null) {
+				throw new IOException("No value for attribute '" + name + "' of " + annotation.getType().getName());
+			}
+			writeString(out, name);
+			writeValue(out, value);
+		}
+	}
+
+	private void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value instanceof Boolean booleanValue) {
+			out.writeByte(TAG_BOOLEAN);
+			out.writeBoolean(booleanValue);
+		}
+		else if (value instanceof Byte byteValue) {
+			out.writeByte(TAG_BYTE);
+			out.writeByte(byteValue);
+		}
+		else if (value instanceof Character charValue) {
+			out.writeByte(TAG_CHAR);
+			out.writeChar(charValue);
+		}
+		else if (value instanceof Short shortValue) {
+			out.writeByte(TAG_SHORT);
+			out.writeShort(shortValue);
+		}
+		else if (value instanceof Integer intValue) {
+			out.writeByte(TAG_INT);
+			out.writeInt(intValue);
+		}
+		else if (value instanceof Long longValue) {
+			out.writeByte(TAG_LONG);
+			out.writeLong(longValue);
+		}
+		else if (value instanceof Float floatValue) {
+			out.writeByte(TAG_FLOAT);
+			out.writeFloat(floatValue);
+		}
+		else if (value instanceof Double doubleValue) {
+			out.writeByte(TAG_DOUBLE);
+			out.writeDouble(doubleValue);
+		}
+		else if (value instanceof String stringValue) {
+			out.writeByte(TAG_STRING);
+			writeString(out, stringValue);
+		}
+		else if (value instanceof Enum<?> enumValue) {
+			out.writeByte(TAG_ENUM);
+			writeString(out, enumValue.getDeclaringClass().getName());
+			writeString(out, enumValue.name());
+		}
+		else if (value instanceof MergedAnnotation<?> annotation) {
+			out.writeByte(TAG_ANNOTATION);
+			writeAnnotation(out, annotation);
+		}
+		else if (value.getClass().isArray()) {
+			int length = Array.getLength(value);
+			out.writeByte(TAG_ARRAY);
+			writeString(out, value.getClass().getComponentType().getName());
+			out.writeInt(length);
+			for (int i = 0; i < length; i++) {
+				writeValue(out, Array.get(value, i));
+			}
+		}
+		else {
+			throw new IOException("Unsupported attribute value type: " + value.getClass().getName());
+		}
+	}
+
+	private MergedAnnotations readAnnotations(ByteBuffer in, Object source)
+			throws IOException, ClassNotFoundException {
+
+		int count = in.getInt();
+		List<MergedAnnotation<?>> annotations = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			annotations.add(readAnnotation(in, source));
+		}
+		return MergedAnnotations.of(annotations);
+	}
+
+	@SuppressWarnings("unchecked")
+	private MergedAnnotation<?> readAnnotation(ByteBuffer in, Object source)
+			throws IOException, ClassNotFoundException {
+
+		Class<Annotation> type = (Class<Annotation>) resolveType(readString(in));
+		int count = in.getInt();
+		Map<String, Object> attributes = new LinkedHashMap<>(count * 2);
+		for (int i = 0; i < count; i++) {
+			String name = readString(in);
+			attributes.put(name, readValue(in, source));
+		}
+		return MergedAnnotation.of(this.classLoader, source, type, attributes);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object readValue(ByteBuffer in, Object source)
+			throws IOException, ClassNotFoundException {
+
+		byte tag = in.get();
+		switch (tag) {
+			case TAG_BOOLEAN:
+				return (in.get() != 0);
+			case TAG_BYTE:
+				return in.get();
+			case TAG_CHAR:
+				return in.getChar();
+			case TAG_SHORT:
+				return in.getShort();
+			case TAG_INT:
+				return in.getInt();
+			case TAG_LONG:
+				return in.getLong();
+			case TAG_FLOAT:
+				return in.getFloat();
+			case TAG_DOUBLE:
+				return in.getDouble();
+			case TAG_STRING:
+				return readString(in);
+			case TAG_ENUM:
+				Class<? extends Enum> enumType = (Class<? extends Enum>) resolveType(readString(in));
+				return Enum.valueOf(enumType, readString(in));
+			case TAG_ANNOTATION:
+				return readAnnotation(in, source);
+			case TAG_ARRAY:
+				Class<?> componentType = resolveType(readString(in));
+				int length = in.getInt();
+				Object array = Array.newInstance(componentType, length);
+				for (int i = 0; i < length; i++) {
+					Array.set(array, i, readValue(in, source));
+				}
+				return array;
+			default:
+				throw new IOException("Unknown attribute value tag: " + tag);
+		}
+	}
+
+	private void writeStringArray(DataOutputStream out, String[] values) throws IOException {
+		out.writeInt(values.length);
+		for (String value : values) {
+			writeString(out, value);
+		}
+	}
+
+	private Set<String> readStringSet(ByteBuffer in) throws IOException {
+		int count = in.getInt();
+		Set<String> values = new LinkedHashSet<>(count * 2);
+		for (int i = 0; i < count; i++) {
+			values.add(readString(in));
+		}
+		return values;
+	}
+
+	private void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			writeString(out, value);
+		}
+	}
+
+	@Nullable
+	private String readNullableString(ByteBuffer in) throws IOException {
+		return (in.get() != 0 ? readString(in) : null);
+	}
+
+	private Class<?> resolveType(String className) throws ClassNotFoundException {
+		Class<?> type = this.resolvedTypes.get(className);
+		if (type == null) {
+			type = ClassUtils.forName(className, this.classLoader);
+			this.resolvedTypes.put(className, type);
+		}
+		return type;
+	}
+
+	/**
+	 * Write a string, as a reference to the {@link #writeStrings string table}.
+	 */
+	void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeInt(indexOf(value));
+	}
+
+	/**
+	 * Read a string {@link #writeString written} as a reference.
+	 */
+	String readString(DataInputStream in) throws IOException {
+		return getString(in.readInt());
+	}
+
+	private String readString(ByteBuffer in) throws IOException {
+		return getString(in.getInt());
+	}
+
+	private String getString(int index) throws IOException {
+		if (index < 0 || index >= this.stringCount) {
+			throw new IOException("Invalid string reference: " + index);
+		}
+		return this.strings[index];
+	}
+
+	/**
+	 * Return the index of the given string in the string table, adding it if necessary.
+	 */
+	synchronized int indexOf(String value) {
+		Integer index = this.stringIndexes.get(value);
+		if (index == null) {
+			index = addString(value);
+		}
+		return index;
+	}
+
+	private int addString(String value) {
+		int index = this.stringCount;
+		String[] strings = this.strings;
+		if (index == strings.length) {
+			strings = Arrays.copyOf(strings, index * 2);
+		}
+		strings[index] = value;
+		this.stringIndexes.put(value, index);
+		// Publish the string before its index
+		this.strings = strings;
+		this.stringCount = index + 1;
+		return index;
+	}
+
+	/**
+	 * Write the strings referenced by the metadata encoded so far.
+	 * @param out the output to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	synchronized void writeStrings(DataOutputStream out) throws IOException {
+		int count = this.stringCount;
+		out.writeInt(count);
+		for (int i = 0; i < count; i++) {
+			// Not using writeUTF: attribute values are not limited to 64K bytes
+			byte[] bytes = this.strings[i].getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Read the strings referenced by encoded metadata, as written by
+	 * {@link #writeStrings}, before any metadata is encoded with this codec.
+	 * @param in the input to read from
+	 * @throws IOException in case of I/O errors
+	 */
+	synchronized void readStrings(DataInputStream in) throws IOException {
+		Assert.state(this.stringCount == 0, "Strings already read or written");
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			addString(new String(bytes, StandardCharsets.UTF_8));
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,38 @@
 
 package org.springframework.util;
 
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.springframework.lang.Nullable;
 
 /**
  * Simple LRU (Least Recently Used) cache, bounded by a specified cache limit.
  *
  * <p>This implementation is backed by a {@code ConcurrentHashMap} for storing
- * the cached values and a {@code ConcurrentLinkedDeque} for ordering the keys
- * and choosing the least recently used key when the cache is at full capacity.
+ * the cached values and a doubly-linked eviction queue for ordering the entries
+ * and choosing the least recently used one when the cache is at full capacity.
+ * Reads never block: recency updates are recorded in striped read buffers and
+ * applied to the eviction queue in batches, together with pending writes, by
+ * whichever thread manages to acquire the eviction lock without waiting.
+ *
+ * <p>By default, the cache limit is expressed as a number of entries. A custom
+ * {@link ToIntFunction weigher} may be provided in order to bound the cache by
+ * the total weight of its values instead, e.g. by their approximate memory size.
+ *
+ * <p>Hit, miss and eviction counts are tracked and exposed through
+ * {@link #hitCount()}, {@link #missCount()} and {@link #evictionCount()}.
  *
  * @author Brian Clozel
  * @author Juergen Hoeller
@@ -42,13 +62,28 @@ public class ConcurrentLruCache<K, V> {
 
 	private final Function<K, V> generator;
 
-	private final ConcurrentHashMap<K, V> cache = new ConcurrentHashMap<>();
+	@Nullable
+	private final ToIntFunction<? super V> weigher;
+
+	private final ConcurrentMap<K, Node<K, V>> cache = new ConcurrentHashMap<>();
+
+	private final AtomicLong weightedSize = new AtomicLong();
+
+	private final EvictionQueue<K, V> evictionQueue = new EvictionQueue<>();
+
+	private final ReadOperations<K, V> readOperations = new ReadOperations<>(this.evictionQueue);
 
-	private final ConcurrentLinkedDeque<K> queue = new ConcurrentLinkedDeque<>();
+	private final WriteOperations writeOperations = new WriteOperations();
 
-	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Lock evictionLock = new ReentrantLock();
 
-	private volatile int size;
+	private final AtomicReference<DrainStatus> drainStatus = new AtomicReference<>(DrainStatus.IDLE);
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
 
 
 	/**
@@ -58,10 +93,25 @@ public class ConcurrentLruCache<K, V> {
 	 * @param generator a function to generate a new value for a given key
 	 */
 	public ConcurrentLruCache(int sizeLimit, Function<K, V> generator) {
+		this(sizeLimit, generator, null);
+	}
+
+	/**
+	 * Create a new cache instance with the given limit, generator function
+	 * and weigher.
+	 * @param sizeLimit the maximum total weight of the entries in the cache
+	 * (0 indicates no caching, always generating a new value)
+	 * @param generator a function to generate a new value for a given key
+	 * @param weigher a function to compute the (non-negative) weight of a value,
+	 * or {@code null} for a weight of 1 per entry
+	 * @since 6.0
+	 */
+	public ConcurrentLruCache(int sizeLimit, Function<K, V> generator, @Nullable ToIntFunction<? super V> weigher) {
 		Assert.isTrue(sizeLimit >= 0, "Cache size limit must not be negative");
 		Assert.notNull(generator, "Generator function must not be null");
 		this.sizeLimit = sizeLimit;
 		this.generator = generator;
+		this.weigher = weigher;
 	}
 
 
@@ -76,48 +126,65 @@ public class ConcurrentLruCache<K, V> {
 			return this.generator.apply(key);
 		}
 
-		V cached = this.cache.get(key);
-		if (cached != null) {
-			if (this.size < this.sizeLimit) {
-				return cached;
-			}
-			this.lock.readLock().lock();
-			try {
-				if (this.queue.removeLastOccurrence(key)) {
-					this.queue.offer(key);
-				}
-				return cached;
-			}
-			finally {
-				this.lock.readLock().unlock();
-			}
+		Node<K, V> node = this.cache.get(key);
+		if (node != null) {
+			this.hitCount.increment();
+			processRead(node);
+			return node.getValue();
 		}
 
-		this.lock.writeLock().lock();
-		try {
-			// Retrying in case of concurrent reads on the same key
-			cached = this.cache.get(key);
-			if (cached != null) {
-				if (this.queue.removeLastOccurrence(key)) {
-					this.queue.offer(key);
-				}
-				return cached;
-			}
-			// Generate value first, to prevent size inconsistency
-			V value = this.generator.apply(key);
-			if (this.size == this.sizeLimit) {
-				K leastUsed = this.queue.poll();
-				if (leastUsed != null) {
-					this.cache.remove(leastUsed);
-				}
-			}
-			this.queue.offer(key);
-			this.cache.put(key, value);
-			this.size = this.cache.size();
+		this.missCount.increment();
+		V value = this.generator.apply(key);
+		return put(key, value);
+	}
+
+	private V put(K key, V value) {
+		Assert.notNull(value, "Generated value must not be null");
+		int weight = weigh(value);
+		Node<K, V> node = new Node<>(key, new CacheEntry<>(value, CacheEntryState.ACTIVE), weight);
+		Node<K, V> prior = this.cache.putIfAbsent(key, node);
+		if (prior == null) {
+			processWrite(new AddTask(node));
 			return value;
 		}
-		finally {
-			this.lock.writeLock().unlock();
+		// Concurrent generation for the same key: keep the value that won
+		processRead(prior);
+		return prior.getValue();
+	}
+
+	private int weigh(V value) {
+		if (this.weigher == null) {
+			return 1;
+		}
+		int weight = this.weigher.applyAsInt(value);
+		Assert.state(weight >= 0, "Weigher must not return a negative weight");
+		return weight;
+	}
+
+	private void processRead(Node<K, V> node) {
+		boolean delayable = this.readOperations.recordRead(node);
+		if (this.drainStatus.get().shouldDrainBuffers(delayable)) {
+			drainOperations();
+		}
+	}
+
+	private void processWrite(Runnable task) {
+		this.writeOperations.add(task);
+		this.drainStatus.lazySet(DrainStatus.REQUIRED);
+		drainOperations();
+	}
+
+	private void drainOperations() {
+		if (this.evictionLock.tryLock()) {
+			try {
+				this.drainStatus.lazySet(DrainStatus.PROCESSING);
+				this.readOperations.drain();
+				this.writeOperations.drain();
+			}
+			finally {
+				this.drainStatus.compareAndSet(DrainStatus.PROCESSING, DrainStatus.IDLE);
+				this.evictionLock.unlock();
+			}
 		}
 	}
 
@@ -138,48 +205,489 @@ public class ConcurrentLruCache<K, V> {
 	 * {@code false} if there was no matching key
 	 */
 	public boolean remove(K key) {
-		this.lock.writeLock().lock();
-		try {
-			boolean wasPresent = (this.cache.remove(key) != null);
-			this.queue.remove(key);
-			this.size = this.cache.size();
-			return wasPresent;
-		}
-		finally {
-			this.lock.writeLock().unlock();
+		Node<K, V> node = this.cache.remove(key);
+		if (node == null) {
+			return false;
 		}
+		markForRemoval(node);
+		processWrite(new RemovalTask(node));
+		return true;
 	}
 
 	/**
 	 * Immediately remove all entries from this cache.
 	 */
 	public void clear() {
-		this.lock.writeLock().lock();
+		this.evictionLock.lock();
 		try {
-			this.cache.clear();
-			this.queue.clear();
-			this.size = 0;
+			this.writeOperations.drainAll();
+			this.readOperations.clear();
+			Node<K, V> node;
+			while ((node = this.evictionQueue.poll()) != null) {
+				this.cache.remove(node.key, node);
+				markAsRemoved(node);
+			}
 		}
 		finally {
-			this.lock.writeLock().unlock();
+			this.evictionLock.unlock();
 		}
 	}
 
 	/**
 	 * Return the current size of the cache.
 	 * @see #sizeLimit()
+	 * @see #weightedSize()
 	 */
 	public int size() {
-		return this.size;
+		return this.cache.size();
 	}
 
 	/**
 	 * Return the maximum number of entries in the cache
 	 * (0 indicates no caching, always generating a new value).
+	 * <p>If a weigher has been specified, this is the maximum total
+	 * weight of the entries in the cache instead.
 	 * @see #size()
 	 */
 	public int sizeLimit() {
 		return this.sizeLimit;
 	}
 
+	/**
+	 * Return the current total weight of the entries in the cache,
+	 * as accounted for by the eviction policy. Without a weigher,
+	 * this is the number of entries.
+	 * @since 6.0
+	 * @see #sizeLimit()
+	 */
+	public long weightedSize() {
+		return this.weightedSize.get();
+	}
+
+	/**
+	 * Return the number of times {@link #get} found a cached value.
+	 * @since 6.0
+	 */
+	public long hitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of times {@link #get} had to generate a value.
+	 * @since 6.0
+	 */
+	public long missCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the number of entries evicted in order to honor the size limit.
+	 * Explicit {@link #remove} and {@link #clear} calls are not counted.
+	 * @since 6.0
+	 */
+	public long evictionCount() {
+		return this.evictionCount.sum();
+	}
+
+	private void markForRemoval(Node<K, V> node) {
+		for (;;) {
+			CacheEntry<V> current = node.get();
+			if (!current.isActive()) {
+				return;
+			}
+			CacheEntry<V> pendingRemoval = new CacheEntry<>(current.value, CacheEntryState.PENDING_REMOVAL);
+			if (node.compareAndSet(current, pendingRemoval)) {
+				return;
+			}
+		}
+	}
+
+	private void markAsRemoved(Node<K, V> node) {
+		for (;;) {
+			CacheEntry<V> current = node.get();
+			if (current.state == CacheEntryState.REMOVED) {
+				return;
+			}
+			CacheEntry<V> removed = new CacheEntry<>(current.value, CacheEntryState.REMOVED);
+			if (node.compareAndSet(current, removed)) {
+				this.weightedSize.lazySet(this.weightedSize.get() - node.weight);
+				return;
+			}
+		}
+	}
+
+
+	/**
+	 * Write operation recorded when a new entry is added to the cache.
+	 * Always executed while holding the eviction lock.
+	 */
+	private final class AddTask implements Runnable {
+
+		private final Node<K, V> node;
+
+		AddTask(Node<K, V> node) {
+			this.node = node;
+		}
+
+		@Override
+		public void run() {
+			weightedSize.lazySet(weightedSize.get() + this.node.weight);
+			if (this.node.get().isActive()) {
+				evictionQueue.add(this.node);
+				evictEntries();
+			}
+		}
+
+		private void evictEntries() {
+			while (weightedSize.get() > sizeLimit) {
+				Node<K, V> node = evictionQueue.poll();
+				if (node == null) {
+					return;
+				}
+				if (cache.remove(node.key, node)) {
+					evictionCount.increment();
+				}
+				markAsRemoved(node);
+			}
+		}
+	}
+
+
+	/**
+	 * Write operation recorded when an entry is explicitly removed from the cache.
+	 * Always executed while holding the eviction lock.
+	 */
+	private final class RemovalTask implements Runnable {
+
+		private final Node<K, V> node;
+
+		RemovalTask(Node<K, V> node) {
+			this.node = node;
+		}
+
+		@Override
+		public void run() {
+			evictionQueue.remove(this.node);
+			markAsRemoved(this.node);
+		}
+	}
+
+
+	/**
+	 * Draining status for the read and write buffers.
+	 */
+	private enum DrainStatus {
+
+		/**
+		 * No drain operation currently running.
+		 */
+		IDLE {
+			@Override
+			boolean shouldDrainBuffers(boolean delayable) {
+				return !delayable;
+			}
+		},
+
+		/**
+		 * A drain operation is required due to a pending write modification.
+		 */
+		REQUIRED {
+			@Override
+			boolean shouldDrainBuffers(boolean delayable) {
+				return true;
+			}
+		},
+
+		/**
+		 * A drain operation is in progress.
+		 */
+		PROCESSING {
+			@Override
+			boolean shouldDrainBuffers(boolean delayable) {
+				return false;
+			}
+		};
+
+		/**
+		 * Determine whether the buffers should be drained.
+		 * @param delayable if a drain should be delayed until required
+		 * @return if a drain should be attempted
+		 */
+		abstract boolean shouldDrainBuffers(boolean delayable);
+	}
+
+
+	private enum CacheEntryState {
+
+		ACTIVE, PENDING_REMOVAL, REMOVED
+	}
+
+
+	private static final class CacheEntry<V> {
+
+		final V value;
+
+		final CacheEntryState state;
+
+		CacheEntry(V value, CacheEntryState state) {
+			this.value = value;
+			this.state = state;
+		}
+
+		boolean isActive() {
+			return (this.state == CacheEntryState.ACTIVE);
+		}
+	}
+
+
+	/**
+	 * Striped ring buffers recording reads, so that recency updates can be
+	 * applied to the eviction queue in batches rather than on every access.
+	 * Each thread writes to the buffer selected by its id; a full buffer
+	 * simply overwrites older entries, losing a few recency updates rather
+	 * than ever blocking the reader.
+	 */
+	private static final class ReadOperations<K, V> {
+
+		private static final int BUFFER_COUNT = detectNumberOfBuffers();
+
+		private static final int BUFFERS_MASK = BUFFER_COUNT - 1;
+
+		private static final int MAX_PENDING_OPERATIONS = 32;
+
+		private static final int MAX_DRAIN_COUNT = 2 * MAX_PENDING_OPERATIONS;
+
+		private static final int BUFFER_SIZE = 2 * MAX_DRAIN_COUNT;
+
+		private static final int BUFFER_INDEX_MASK = BUFFER_SIZE - 1;
+
+		/**
+		 * Number of operations recorded, for each buffer.
+		 */
+		private final AtomicLongArray recordedCount = new AtomicLongArray(BUFFER_COUNT);
+
+		/**
+		 * Number of operations read, for each buffer (only accessed under the eviction lock).
+		 */
+		private final long[] readCount = new long[BUFFER_COUNT];
+
+		/**
+		 * Number of operations processed, for each buffer.
+		 */
+		private final AtomicLongArray processedCount = new AtomicLongArray(BUFFER_COUNT);
+
+		private final AtomicReferenceArray<Node<K, V>>[] buffers;
+
+		private final EvictionQueue<K, V> evictionQueue;
+
+		@SuppressWarnings({"rawtypes", "unchecked"})
+		ReadOperations(EvictionQueue<K, V> evictionQueue) {
+			this.evictionQueue = evictionQueue;
+			this.buffers = new AtomicReferenceArray[BUFFER_COUNT];
+			for (int i = 0; i < BUFFER_COUNT; i++) {
+				this.buffers[i] = new AtomicReferenceArray<>(BUFFER_SIZE);
+			}
+		}
+
+		private static int detectNumberOfBuffers() {
+			int availableProcessors = Runtime.getRuntime().availableProcessors();
+			int nextPowerOfTwo = 1 << (Integer.SIZE - Integer.numberOfLeadingZeros(availableProcessors - 1));
+			return Math.min(4, nextPowerOfTwo);
+		}
+
+		private static int getBufferIndex() {
+			return ((int) Thread.currentThread().getId()) & BUFFERS_MASK;
+		}
+
+		/**
+		 * Record a read of the given node.
+		 * @return {@code true} if draining the buffers can be delayed
+		 */
+		boolean recordRead(Node<K, V> node) {
+			int bufferIndex = getBufferIndex();
+			long writeCount = this.recordedCount.get(bufferIndex);
+			this.recordedCount.lazySet(bufferIndex, writeCount + 1);
+			int index = (int) (writeCount & BUFFER_INDEX_MASK);
+			this.buffers[bufferIndex].lazySet(index, node);
+			long pending = (writeCount - this.processedCount.get(bufferIndex));
+			return (pending < MAX_PENDING_OPERATIONS);
+		}
+
+		void drain() {
+			int start = (int) Thread.currentThread().getId();
+			int end = start + BUFFER_COUNT;
+			for (int i = start; i < end; i++) {
+				drainReadBuffer(i & BUFFERS_MASK);
+			}
+		}
+
+		void clear() {
+			for (int i = 0; i < BUFFER_COUNT; i++) {
+				AtomicReferenceArray<Node<K, V>> buffer = this.buffers[i];
+				for (int j = 0; j < BUFFER_SIZE; j++) {
+					buffer.lazySet(j, null);
+				}
+			}
+		}
+
+		private void drainReadBuffer(int bufferIndex) {
+			long writeCount = this.recordedCount.get(bufferIndex);
+			AtomicReferenceArray<Node<K, V>> buffer = this.buffers[bufferIndex];
+			for (int i = 0; i < MAX_DRAIN_COUNT; i++) {
+				int index = (int) (this.readCount[bufferIndex] & BUFFER_INDEX_MASK);
+				Node<K, V> node = buffer.get(index);
+				if (node == null) {
+					break;
+				}
+				buffer.lazySet(index, null);
+				this.evictionQueue.moveToBack(node);
+				this.readCount[bufferIndex]++;
+			}
+			this.processedCount.lazySet(bufferIndex, writeCount);
+		}
+	}
+
+
+	/**
+	 * Queue of pending write operations, applied under the eviction lock.
+	 */
+	private static final class WriteOperations {
+
+		private static final int DRAIN_THRESHOLD = 16;
+
+		private final Queue<Runnable> operations = new ConcurrentLinkedQueue<>();
+
+		void add(Runnable task) {
+			this.operations.add(task);
+		}
+
+		void drain() {
+			for (int i = 0; i < DRAIN_THRESHOLD; i++) {
+				Runnable task = this.operations.poll();
+				if (task == null) {
+					break;
+				}
+				task.run();
+			}
+		}
+
+		void drainAll() {
+			Runnable task;
+			while ((task = this.operations.poll()) != null) {
+				task.run();
+			}
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private static final class Node<K, V> extends AtomicReference<CacheEntry<V>> {
+
+		final K key;
+
+		final int weight;
+
+		@Nullable
+		Node<K, V> prev;
+
+		@Nullable
+		Node<K, V> next;
+
+		Node(K key, CacheEntry<V> cacheEntry, int weight) {
+			super(cacheEntry);
+			this.key = key;
+			this.weight = weight;
+		}
+
+		V getValue() {
+			return get().value;
+		}
+	}
+
+
+	/**
+	 * Doubly-linked queue of nodes in access order, least recently used first.
+	 * Not thread-safe: only accessed under the eviction lock.
+	 */
+	private static final class EvictionQueue<K, V> {
+
+		@Nullable
+		Node<K, V> first;
+
+		@Nullable
+		Node<K, V> last;
+
+		@Nullable
+		Node<K, V> poll() {
+			Node<K, V> f = this.first;
+			if (f == null) {
+				return null;
+			}
+			Node<K, V> next = f.next;
+			f.next = null;
+			this.first = next;
+			if (next == null) {
+				this.last = null;
+			}
+			else {
+				next.prev = null;
+			}
+			return f;
+		}
+
+		void add(Node<K, V> e) {
+			if (!contains(e)) {
+				linkLast(e);
+			}
+		}
+
+		void moveToBack(Node<K, V> e) {
+			if (contains(e) && e != this.last) {
+				unlink(e);
+				linkLast(e);
+			}
+		}
+
+		void remove(Node<K, V> e) {
+			if (contains(e)) {
+				unlink(e);
+			}
+		}
+
+		private boolean contains(Node<K, V> e) {
+			return (e.prev != null || e.next != null || e == this.first);
+		}
+
+		private void linkLast(Node<K, V> e) {
+			Node<K, V> l = this.last;
+			this.last = e;
+			if (l == null) {
+				this.first = e;
+			}
+			else {
+				l.next = e;
+				e.prev = l;
+			}
+		}
+
+		private void unlink(Node<K, V> e) {
+			Node<K, V> prev = e.prev;
+			Node<K, V> next = e.next;
+			if (prev == null) {
+				this.first = next;
+			}
+			else {
+				prev.next = next;
+				e.prev = null;
+			}
+			if (next == null) {
+				this.last = prev;
+			}
+			else {
+				next.prev = prev;
+				e.next = null;
+			}
+		}
+	}
+
 }
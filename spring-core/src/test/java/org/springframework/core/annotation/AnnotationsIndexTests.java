@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AnnotationsIndex}.
+ */
+class AnnotationsIndexTests {
+
+	@Test
+	void loadWithoutIndex(@TempDir Path tempDir) throws IOException {
+		AnnotationsIndex index = AnnotationsIndex.load(classLoader(tempDir));
+		assertThat(index.isEmpty(WithAnnotatedMethod.class)).isFalse();
+		assertThat(index.isEmpty(method(WithAnnotatedMethod.class, "plain"))).isFalse();
+	}
+
+	@Test
+	void typeWithoutAnnotations(@TempDir Path tempDir) throws IOException {
+		AnnotationsIndex index = loadIndex(tempDir, WithAnnotatedMethod.class.getName() + "=annotated");
+		assertThat(index.isEmpty(WithAnnotatedMethod.class)).isTrue();
+		assertThat(index.isEmpty(method(WithAnnotatedMethod.class, "annotated"))).isFalse();
+		assertThat(index.isEmpty(method(WithAnnotatedMethod.class, "plain"))).isTrue();
+	}
+
+	@Test
+	void typeWithAnnotations(@TempDir Path tempDir) throws IOException {
+		AnnotationsIndex index = loadIndex(tempDir, WithTypeAnnotation.class.getName() + "=@type");
+		assertThat(index.isEmpty(WithTypeAnnotation.class)).isFalse();
+		assertThat(index.isEmpty(method(WithTypeAnnotation.class, "plain"))).isTrue();
+	}
+
+	@Test
+	void typeWithoutEntry(@TempDir Path tempDir) throws IOException {
+		AnnotationsIndex index = loadIndex(tempDir, WithTypeAnnotation.class.getName() + "=@type");
+		assertThat(index.isEmpty(WithAnnotatedMethod.class)).isFalse();
+		assertThat(index.isEmpty(method(WithAnnotatedMethod.class, "plain"))).isFalse();
+	}
+
+	@Test
+	void knownEmptyWithPlainAnnotationFilterOnly(@TempDir Path tempDir) throws Exception {
+		Class<?> type = loadIndexedClass(tempDir, DeprecatedOnly.class);
+		assertThat(AnnotationsScanner.isKnownEmpty(type, SearchStrategy.TYPE_HIERARCHY, AnnotationFilter.PLAIN)).isTrue();
+		assertThat(AnnotationsScanner.isKnownEmpty(type, SearchStrategy.TYPE_HIERARCHY, AnnotationFilter.NONE)).isFalse();
+
+		MergedAnnotations indexed = MergedAnnotations.from(
+				type, SearchStrategy.TYPE_HIERARCHY, RepeatableContainers.none(), AnnotationFilter.NONE);
+		MergedAnnotations scanned = MergedAnnotations.from(
+				DeprecatedOnly.class, SearchStrategy.TYPE_HIERARCHY, RepeatableContainers.none(), AnnotationFilter.NONE);
+		assertThat(indexed).isNotSameAs(TypeMappedAnnotations.NONE);
+		assertThat(indexed.isPresent(Deprecated.class)).isEqualTo(scanned.isPresent(Deprecated.class));
+	}
+
+	@Test
+	void indexReloadedOnceCacheCleared(@TempDir Path tempDir) throws Exception {
+		Class<?> type = loadIndexedClass(tempDir, DeprecatedOnly.class);
+		assertThat(AnnotationsScanner.isKnownEmpty(type, SearchStrategy.TYPE_HIERARCHY, AnnotationFilter.PLAIN)).isTrue();
+
+		writeIndex(tempDir, type.getName() + "=@type");
+		assertThat(AnnotationsScanner.isKnownEmpty(type, SearchStrategy.TYPE_HIERARCHY, AnnotationFilter.PLAIN)).isTrue();
+		AnnotationsScanner.clearCache();
+		assertThat(AnnotationsScanner.isKnownEmpty(type, SearchStrategy.TYPE_HIERARCHY, AnnotationFilter.PLAIN)).isFalse();
+	}
+
+	private static Class<?> loadIndexedClass(Path tempDir, Class<?> type) throws Exception {
+		String resourceName = ClassUtils.convertClassNameToResourcePath(type.getName()) + ClassUtils.CLASS_FILE_SUFFIX;
+		Path classFile = tempDir.resolve(resourceName);
+		Files.createDirectories(classFile.getParent());
+		try (InputStream inputStream = type.getClassLoader().getResourceAsStream(resourceName)) {
+			assertThat(inputStream).isNotNull();
+			Files.copy(inputStream, classFile);
+		}
+		writeIndex(tempDir, type.getName() + "=");
+		return classLoader(tempDir).loadClass(type.getName());
+	}
+
+	private static AnnotationsIndex loadIndex(Path tempDir, String content) throws IOException {
+		writeIndex(tempDir, content);
+		return AnnotationsIndex.load(classLoader(tempDir));
+	}
+
+	private static void writeIndex(Path tempDir, String content) throws IOException {
+		Path index = tempDir.resolve(AnnotationsIndex.INDEX_RESOURCE_LOCATION);
+		Files.createDirectories(index.getParent());
+		Files.writeString(index, content);
+	}
+
+	private static ClassLoader classLoader(Path tempDir) throws IOException {
+		return new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, null);
+	}
+
+	private static Method method(Class<?> type, String name) {
+		Method method = ReflectionUtils.findMethod(type, name);
+		assertThat(method).isNotNull();
+		return method;
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface TestAnnotation {
+	}
+
+
+	static class WithAnnotatedMethod {
+
+		@TestAnnotation
+		public void annotated() {
+		}
+
+		public void plain() {
+		}
+	}
+
+
+	@TestAnnotation
+	static class WithTypeAnnotation {
+
+		public void plain() {
+		}
+	}
+
+
+	// Only refers to JDK types, so that it can be loaded without parent class loader
+	@Deprecated
+	static class DeprecatedOnly implements Runnable {
+
+		@Override
+		public void run() {
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,6 +38,7 @@ import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -264,6 +265,61 @@ class CollectionToCollectionConverterTests {
 		assertThat(conversionService.convert(list, TypeDescriptor.forObject(list), new TypeDescriptor(getClass().getField("enumSet")))).isEqualTo(EnumSet.of(MyEnum.A, MyEnum.C));
 	}
 
+	@Test
+	void mixedElementTypes() throws Exception {
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		conversionService.addConverterFactory(new NumberToNumberConverterFactory());
+		List<Object> list = new ArrayList<>();
+		list.add("1");
+		list.add(2L);
+		list.add(null);
+		list.add("3");
+		list.add(4);
+		TypeDescriptor sourceType = TypeDescriptor.forObject(list);
+		TypeDescriptor targetType = new TypeDescriptor(getClass().getField("scalarListTarget"));
+		assertThat(conversionService.convert(list, sourceType, targetType)).isEqualTo(Arrays.asList(1, 2, null, 3, 4));
+	}
+
+	@Test
+	void elementConversionWithConverterAddedInBetween() throws Exception {
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		List<String> list = Arrays.asList("1", "2");
+		TypeDescriptor sourceType = TypeDescriptor.forObject(list);
+		TypeDescriptor targetType = new TypeDescriptor(getClass().getField("scalarListTarget"));
+		assertThat(conversionService.convert(list, sourceType, targetType)).isEqualTo(Arrays.asList(1, 2));
+		conversionService.addConverter(String.class, Integer.class, source -> Integer.parseInt(source) * 10);
+		assertThat(conversionService.convert(list, sourceType, targetType)).isEqualTo(Arrays.asList(10, 20));
+	}
+
+	@Test
+	void elementConversionWithOverriddenConvert() throws Exception {
+		List<TypeDescriptor> targetTypes = new ArrayList<>();
+		GenericConversionService conversionService = new GenericConversionService() {
+			@Override
+			public Object convert(@Nullable Object source, @Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
+				targetTypes.add(targetType);
+				return super.convert(source, sourceType, targetType);
+			}
+		};
+		conversionService.addConverter(new CollectionToCollectionConverter(conversionService));
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		List<String> list = Arrays.asList("1", "2");
+		TypeDescriptor targetType = new TypeDescriptor(getClass().getField("scalarListTarget"));
+		assertThat(conversionService.convert(list, TypeDescriptor.forObject(list), targetType)).isEqualTo(Arrays.asList(1, 2));
+		assertThat(targetTypes).hasSize(3);
+		assertThat(targetTypes.get(1).getType()).isEqualTo(Integer.class);
+	}
+
+	@Test
+	void nullElementToPrimitiveArray() {
+		conversionService.addConverter(new CollectionToArrayConverter(conversionService));
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		List<String> list = Arrays.asList("1", null);
+		assertThatExceptionOfType(ConversionFailedException.class).isThrownBy(() ->
+				conversionService.convert(list, TypeDescriptor.forObject(list), TypeDescriptor.valueOf(int[].class)));
+		assertThat(conversionService.convert(Arrays.asList("1", "2"), int[].class)).containsExactly(1, 2);
+	}
+
 
 	public ArrayList<Integer> scalarListTarget;
 
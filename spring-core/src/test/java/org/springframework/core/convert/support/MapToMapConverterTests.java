@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -274,6 +274,22 @@ class MapToMapConverterTests {
 				TypeDescriptor.forObject(source), new TypeDescriptor(getClass().getField("enumMap")))).isEqualTo(result);
 	}
 
+	@Test
+	void mixedKeyAndValueTypes() throws Exception {
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		conversionService.addConverterFactory(new NumberToNumberConverterFactory());
+		Map<Object, Object> map = new LinkedHashMap<>();
+		map.put("1", 9L);
+		map.put(2L, "37");
+		map.put("3", null);
+		TypeDescriptor sourceType = TypeDescriptor.forObject(map);
+		TypeDescriptor targetType = new TypeDescriptor(getClass().getField("scalarMapTarget"));
+
+		@SuppressWarnings("unchecked")
+		Map<Integer, Integer> result = (Map<Integer, Integer>) conversionService.convert(map, sourceType, targetType);
+		assertThat(result).hasSize(3).containsEntry(1, 9).containsEntry(2, 37).containsEntry(3, null);
+	}
+
 
 	public Map<Integer, Integer> scalarMapTarget;
 
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ByteScanner}.
+ */
+class ByteScannerTests {
+
+	private static final String TEXT = "abcdefghijklmnopqrstuvwxyz".repeat(4) + "\r\n" + "0123456789\n";
+
+	private final ByteScanner scanner = new ByteScanner("\n\r\n".getBytes(StandardCharsets.UTF_8));
+
+
+	@Test
+	void indexOfHeapBuffer() {
+		DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(bytes(TEXT));
+		assertIndexes(buffer);
+	}
+
+	@Test
+	void indexOfLittleEndianDirectBuffer() {
+		ByteBuffer byteBuffer = ByteBuffer.allocateDirect(TEXT.length()).order(ByteOrder.LITTLE_ENDIAN);
+		byteBuffer.put(bytes(TEXT)).flip();
+		DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(byteBuffer);
+		assertIndexes(buffer);
+	}
+
+	@Test
+	void indexOfNettyBuffer() {
+		DataBuffer buffer = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT).wrap(bytes(TEXT));
+		assertIndexes(buffer);
+	}
+
+	@Test
+	void indexOfEachPosition() {
+		byte[] bytes = bytes("-".repeat(20));
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = '\r';
+			DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(bytes.clone());
+			assertThat(this.scanner.indexOf(buffer, 0, bytes.length)).isEqualTo(i);
+			assertThat(this.scanner.indexOf(buffer, 0, i)).isEqualTo(-1);
+			bytes[i] = '-';
+		}
+	}
+
+	@Test
+	void indexOfCompositeBufferScansBoundedViews() {
+		List<DataBuffer> components = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			components.add(DefaultDataBufferFactory.sharedInstance.wrap(bytes("-".repeat(99) + (i % 100 == 99 ? "\n" : "-"))));
+		}
+		List<Integer> viewLengths = new ArrayList<>();
+		DataBuffer buffer = new DataBufferWrapper(new CompositeDataBuffer(components)) {
+			@Override
+			public ByteBuffer asByteBuffer(int index, int length) {
+				viewLengths.add(length);
+				return super.asByteBuffer(index, length);
+			}
+		};
+		int length = buffer.readableByteCount();
+		int expected = 99 * 100 + 99;
+		int index = -1;
+		while ((index = this.scanner.indexOf(buffer, index + 1, length)) != -1) {
+			assertThat(index).isEqualTo(expected);
+			expected += 100 * 100;
+		}
+		assertThat(expected).isEqualTo(length + 99 * 100 + 99);
+		assertThat(viewLengths).allMatch(viewLength -> viewLength <= 4096);
+	}
+
+	private void assertIndexes(DataBuffer buffer) {
+		int length = TEXT.length();
+		assertThat(this.scanner.indexOf(buffer, 0, length)).isEqualTo(TEXT.indexOf('\r'));
+		assertThat(this.scanner.indexOf(buffer, TEXT.indexOf('\r') + 1, length)).isEqualTo(TEXT.indexOf('\r') + 1);
+		assertThat(this.scanner.indexOf(buffer, TEXT.indexOf('\n') + 1, length)).isEqualTo(length - 1);
+		assertThat(this.scanner.indexOf(buffer, 3, 60)).isEqualTo(-1);
+		assertThat(this.scanner.indexOf(buffer, 0, 0)).isEqualTo(-1);
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+}
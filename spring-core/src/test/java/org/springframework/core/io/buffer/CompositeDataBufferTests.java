@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link CompositeDataBuffer}.
+ */
+class CompositeDataBufferTests {
+
+	private final CompositeDataBuffer buffer = new CompositeDataBuffer(
+			List.of(toDataBuffer("foo"), toDataBuffer(""), toDataBuffer("bar"), toDataBuffer("baz")));
+
+
+	@Test
+	void composeReadableBytes() {
+		DataBuffer first = toDataBuffer("--foo");
+		first.readPosition(2);
+		CompositeDataBuffer composite = new CompositeDataBuffer(List.of(first, toDataBuffer("bar")));
+
+		assertThat(composite.readableByteCount()).isEqualTo(6);
+		assertThat(composite.capacity()).isEqualTo(6);
+		assertThat(composite.toString(StandardCharsets.UTF_8)).isEqualTo("foobar");
+	}
+
+	@Test
+	void read() {
+		assertThat(this.buffer.getByte(3)).isEqualTo((byte) 'b');
+		assertThat(this.buffer.read()).isEqualTo((byte) 'f');
+
+		byte[] bytes = new byte[7];
+		this.buffer.read(bytes);
+		assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("oobarba");
+		assertThat(this.buffer.readableByteCount()).isEqualTo(1);
+		assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> this.buffer.read(bytes));
+	}
+
+	@Test
+	void indexOf() {
+		assertThat(this.buffer.indexOf(b -> b == 'b', 0)).isEqualTo(3);
+		assertThat(this.buffer.indexOf(b -> b == 'b', 4)).isEqualTo(6);
+		assertThat(this.buffer.indexOf(b -> b == 'x', 0)).isEqualTo(-1);
+		assertThat(this.buffer.lastIndexOf(b -> b == 'a', 8)).isEqualTo(7);
+		assertThat(this.buffer.lastIndexOf(b -> b == 'a', 6)).isEqualTo(4);
+		assertThat(this.buffer.lastIndexOf(b -> b == 'f', 8)).isEqualTo(0);
+	}
+
+	@Test
+	void slice() {
+		assertThat(this.buffer.slice(3, 3).toString(StandardCharsets.UTF_8)).isEqualTo("bar");
+		DataBuffer slice = this.buffer.slice(2, 6);
+		assertThat(slice).isInstanceOf(CompositeDataBuffer.class);
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("obarba");
+	}
+
+	@Test
+	void asByteBuffer() {
+		ByteBuffer single = this.buffer.asByteBuffer(3, 3);
+		assertThat(StandardCharsets.UTF_8.decode(single).toString()).isEqualTo("bar");
+		ByteBuffer spanning = this.buffer.asByteBuffer(1, 7);
+		assertThat(StandardCharsets.UTF_8.decode(spanning).toString()).isEqualTo("oobarba");
+	}
+
+	@Test
+	void asInputStream() throws Exception {
+		try (InputStream inputStream = this.buffer.asInputStream()) {
+			assertThat(StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8)).isEqualTo("foobarbaz");
+		}
+		assertThat(this.buffer.readableByteCount()).isZero();
+	}
+
+	@Test
+	void writeNotSupported() {
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> this.buffer.write((byte) 'a'));
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> this.buffer.capacity(20));
+	}
+
+	@Test
+	void releaseComponents() {
+		NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+		NettyDataBuffer foo = bufferFactory.allocateBuffer(3).write("foo".getBytes(StandardCharsets.UTF_8));
+		NettyDataBuffer bar = bufferFactory.allocateBuffer(3).write("bar".getBytes(StandardCharsets.UTF_8));
+		CompositeDataBuffer composite = new CompositeDataBuffer(List.of(foo, bar));
+
+		DataBufferUtils.retain(composite);
+		assertThat(foo.getNativeBuffer().refCnt()).isEqualTo(2);
+		assertThat(DataBufferUtils.release(composite)).isFalse();
+		assertThat(DataBufferUtils.release(composite)).isTrue();
+		assertThat(composite.isAllocated()).isFalse();
+		assertThat(bar.getNativeBuffer().refCnt()).isZero();
+	}
+
+
+	private static DataBuffer toDataBuffer(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
@@ -253,6 +254,28 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 				.verify(Duration.ofSeconds(5));
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void readMapped(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource.getFile().toPath(), super.bufferFactory, 3);
+
+		verifyReadData(flux);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedPosition(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource.getFile().toPath(), 7, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("azq"))
+				.consumeNextWith(stringConsumer("ux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
 	private void verifyReadData(Flux<DataBuffer> buffers) {
 		StepVerifier.create(buffers)
 				.consumeNextWith(stringConsumer("foo"))
@@ -824,6 +847,48 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 				.verifyComplete();
 	}
 
+	@Test
+	void composeMapped() throws Exception {
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(
+				this.resource.getFile().toPath(), DefaultDataBufferFactory.sharedInstance, 5);
+		Mono<DataBuffer> result = DataBufferUtils.compose(flux);
+
+		StepVerifier.create(result)
+				.consumeNextWith(buf -> {
+					assertThat(buf).isInstanceOf(CompositeDataBuffer.class);
+					assertThat(buf.toString(StandardCharsets.UTF_8)).isEqualTo("foobarbazqux");
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	void joinMappedIsWritable() throws Exception {
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(
+				this.resource.getFile().toPath(), DefaultDataBufferFactory.sharedInstance, 5);
+		Mono<DataBuffer> result = DataBufferUtils.join(flux);
+
+		StepVerifier.create(result)
+				.consumeNextWith(buf -> {
+					assertThat(buf).isNotInstanceOf(CompositeDataBuffer.class);
+					buf.write("!", StandardCharsets.UTF_8);
+					assertThat(buf.toString(StandardCharsets.UTF_8)).isEqualTo("foobarbazqux!");
+				})
+				.verifyComplete();
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void composeWithLimit(String displayName, DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		DataBuffer foo = stringBuffer("foo");
+		DataBuffer bar = stringBuffer("bar");
+		Flux<DataBuffer> flux = Flux.just(foo, bar);
+		Mono<DataBuffer> result = DataBufferUtils.compose(flux, 5);
+
+		StepVerifier.create(result)
+				.verifyError(DataBufferLimitException.class);
+	}
+
 	@ParameterizedDataBufferAllocatingTest
 	void joinWithLimit(String displayName, DataBufferFactory bufferFactory) {
 		super.bufferFactory = bufferFactory;
@@ -942,6 +1007,78 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 		release(foo);
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void matcherLines(String displayName, DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			builder.append("line-".repeat(i % 7)).append(i % 3 == 0 ? "\r\n" : "\n");
+		}
+		builder.append("\r".repeat(20)).append("end");
+		String text = builder.toString();
+		DataBuffer buffer = stringBuffer(text);
+
+		byte[][] delims = {"\r\n".getBytes(StandardCharsets.UTF_8), "\n".getBytes(StandardCharsets.UTF_8)};
+		DataBufferUtils.Matcher matcher = DataBufferUtils.matcher(delims);
+		int expected = text.indexOf('\n');
+		while (expected != -1) {
+			int endIndex = matcher.match(buffer);
+			assertThat(endIndex).isEqualTo(expected);
+			assertThat(matcher.delimiter()).hasSize(text.charAt(expected - 1) == '\r' ? 2 : 1);
+			buffer.readPosition(endIndex + 1);
+			expected = text.indexOf('\n', expected + 1);
+		}
+		assertThat(matcher.match(buffer)).isEqualTo(-1);
+
+		release(buffer);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void matcherLinesInCompositeBuffer(String displayName, DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		StringBuilder builder = new StringBuilder();
+		List<DataBuffer> components = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			String component = "line-".repeat(i % 30) + (i % 4 == 0 ? "\r\n" : "-");
+			builder.append(component);
+			components.add(stringBuffer(component));
+		}
+		String text = builder.toString();
+		DataBuffer buffer = new CompositeDataBuffer(components);
+
+		byte[][] delims = {"\r\n".getBytes(StandardCharsets.UTF_8), "\n".getBytes(StandardCharsets.UTF_8)};
+		DataBufferUtils.Matcher matcher = DataBufferUtils.matcher(delims);
+		int expected = text.indexOf('\n');
+		while (expected != -1) {
+			int endIndex = matcher.match(buffer);
+			assertThat(endIndex).isEqualTo(expected);
+			buffer.readPosition(endIndex + 1);
+			expected = text.indexOf('\n', expected + 1);
+		}
+		assertThat(matcher.match(buffer)).isEqualTo(-1);
+
+		release(buffer);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void matcherAcrossBuffers(String displayName, DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		DataBuffer foo = stringBuffer("-".repeat(30) + "--");
+		DataBuffer bar = stringBuffer("=-".repeat(20) + "--=");
+
+		byte[] delims = "---=".getBytes(StandardCharsets.UTF_8);
+		DataBufferUtils.Matcher matcher = DataBufferUtils.matcher(delims);
+		assertThat(matcher.match(foo)).isEqualTo(-1);
+		assertThat(matcher.match(bar)).isEqualTo(0);
+		bar.readPosition(1);
+		assertThat(matcher.match(bar)).isEqualTo(42);
+
+		release(foo, bar);
+	}
+
 	@ParameterizedDataBufferAllocatingTest
 	void propagateContextByteChannel(String displayName, DataBufferFactory bufferFactory) throws IOException {
 		Path path = Paths.get(this.resource.getURI());
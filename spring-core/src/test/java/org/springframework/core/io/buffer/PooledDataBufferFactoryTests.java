@@ -0,0 +1,247 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link PooledDataBufferFactory}.
+ */
+class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+
+
+	@Test
+	void allocatePooledBuffer() {
+		DefaultDataBuffer buffer = this.bufferFactory.allocateBuffer(1000);
+
+		assertThat(buffer).isInstanceOf(PooledDataBuffer.class);
+		assertThat(buffer.factory()).isSameAs(this.bufferFactory);
+		assertThat(buffer.capacity()).isEqualTo(1000);
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isTrue();
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isFalse();
+	}
+
+	@Test
+	void reuseReleasedMemory() {
+		DefaultDataBuffer buffer = this.bufferFactory.allocateBuffer(1000);
+		buffer.write("foo", StandardCharsets.UTF_8);
+		byte[] memory = backingArray(buffer);
+		DataBufferUtils.release(buffer);
+
+		DefaultDataBuffer other = this.bufferFactory.allocateBuffer(600);
+		assertThat(backingArray(other)).isSameAs(memory);
+		assertThat(other.readableByteCount()).isZero();
+		assertThat(other.writableByteCount()).isEqualTo(600);
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	void reuseMemoryReplacedWhenGrowing() {
+		DefaultDataBuffer buffer = this.bufferFactory.allocateBuffer(256);
+		byte[] memory = backingArray(buffer);
+		buffer.write(new byte[1000]);
+		assertThat(buffer.capacity()).isGreaterThanOrEqualTo(1000);
+
+		DefaultDataBuffer other = this.bufferFactory.allocateBuffer(100);
+		assertThat(backingArray(other)).isSameAs(memory);
+		DataBufferUtils.release(buffer);
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	void reuseReleasedMemoryAfterReading() {
+		DefaultDataBuffer buffer = this.bufferFactory.allocateBuffer(1000);
+		buffer.write("foobar", StandardCharsets.UTF_8);
+		buffer.read(new byte[5]);
+		buffer.getNativeBuffer();
+		byte[] memory = backingArray(buffer);
+		DataBufferUtils.release(buffer);
+
+		DefaultDataBuffer other = this.bufferFactory.allocateBuffer(1000);
+		assertThat(backingArray(other)).isSameAs(memory);
+		assertThat(other.writableByteCount()).isEqualTo(1000);
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	void changeCapacity() {
+		DefaultDataBuffer buffer = this.bufferFactory.allocateBuffer(2);
+		buffer.write("ab", StandardCharsets.UTF_8);
+		buffer.capacity(300);
+		assertThat(buffer.capacity()).isEqualTo(300);
+		assertThat(buffer.writableByteCount()).isEqualTo(298);
+		buffer.capacity(1);
+		assertThat(buffer.capacity()).isEqualTo(1);
+		assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("a");
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	void keepMemoryReplacedWhenGrowingWhileSliced() {
+		DefaultDataBuffer buffer = this.bufferFactory.allocateBuffer(256);
+		buffer.write("foobar", StandardCharsets.UTF_8);
+		byte[] memory = backingArray(buffer);
+		DataBuffer slice = buffer.retainedSlice(0, 3);
+		buffer.write(new byte[1000]);
+
+		DefaultDataBuffer other = this.bufferFactory.allocateBuffer(100);
+		assertThat(backingArray(other)).isNotSameAs(memory);
+		other.write("bar", StandardCharsets.UTF_8);
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("foo");
+		DataBufferUtils.release(other);
+		DataBufferUtils.release(slice);
+		DataBufferUtils.release(buffer);
+
+		DefaultDataBuffer recycled = this.bufferFactory.allocateBuffer(100);
+		assertThat(backingArray(recycled)).isSameAs(memory);
+		DataBufferUtils.release(recycled);
+	}
+
+	@Test
+	void sliceOfSliceSharesReferenceCount() {
+		DefaultDataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		buffer.write("foobar", StandardCharsets.UTF_8);
+		DataBuffer slice = buffer.slice(3, 3).retainedSlice(1, 2);
+
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("ar");
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(DataBufferUtils.release(slice)).isTrue();
+	}
+
+	@Test
+	void countAllocatedBuffers() {
+		DefaultDataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		DataBuffer slice = buffer.retainedSlice(0, 1);
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(1);
+
+		DataBufferUtils.release(buffer);
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(1);
+		DataBufferUtils.release(slice);
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isZero();
+	}
+
+	@Test
+	void reportSampledLeak() throws InterruptedException {
+		List<Throwable> allocationSites = new CopyOnWriteArrayList<>();
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory() {
+			@Override
+			void reportLeak(Throwable allocationSite, @Nullable Object hint) {
+				allocationSites.add(allocationSite);
+			}
+		};
+		bufferFactory.setLeakDetectionSamplingInterval(1);
+		allocateAndLeak(bufferFactory);
+		DataBufferUtils.release(bufferFactory.allocateBuffer(10));
+
+		for (int i = 0; i < 50 && allocationSites.isEmpty(); i++) {
+			System.gc();
+			Thread.sleep(20);
+			DataBufferUtils.release(bufferFactory.allocateBuffer(10));
+		}
+		assertThat(allocationSites).hasSize(1);
+		assertThat(allocationSites.get(0).getStackTrace())
+				.anySatisfy(element -> assertThat(element.getMethodName()).isEqualTo("allocateAndLeak"));
+	}
+
+	@Test
+	void doNotPoolBuffersLargerThanMaxPooledCapacity() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(false, 256, 1024);
+		DefaultDataBuffer buffer = bufferFactory.allocateBuffer(2048);
+
+		assertThat(buffer).isNotInstanceOf(PooledDataBuffer.class);
+		assertThat(buffer.capacity()).isEqualTo(2048);
+	}
+
+	@Test
+	void allocateDirectBuffers() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(true);
+		DefaultDataBuffer buffer = bufferFactory.allocateBuffer();
+
+		assertThat(buffer.asByteBuffer(0, 1).isDirect()).isTrue();
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	void retainAndRelease() {
+		DefaultDataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		DataBufferUtils.retain(buffer);
+
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThatIllegalStateException().isThrownBy(() -> ((PooledDataBuffer) buffer).release());
+		assertThatIllegalStateException().isThrownBy(() -> ((PooledDataBuffer) buffer).retain());
+	}
+
+	@Test
+	void sliceSharesReferenceCount() {
+		DefaultDataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		buffer.write("foobar", StandardCharsets.UTF_8);
+		DataBuffer slice = buffer.retainedSlice(3, 3);
+
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("bar");
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(((PooledDataBuffer) slice).isAllocated()).isTrue();
+		assertThat(DataBufferUtils.release(slice)).isTrue();
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isFalse();
+	}
+
+	@Test
+	void joinIntoPooledBuffer() {
+		DataBuffer foo = this.bufferFactory.allocateBuffer(3).write("foo", StandardCharsets.UTF_8);
+		DataBuffer bar = this.bufferFactory.allocateBuffer(3).write("bar", StandardCharsets.UTF_8);
+		DataBuffer joined = this.bufferFactory.join(List.of(foo, bar));
+
+		assertThat(joined).isInstanceOf(PooledDataBuffer.class);
+		assertThat(joined.toString(StandardCharsets.UTF_8)).isEqualTo("foobar");
+		assertThat(((PooledDataBuffer) foo).isAllocated()).isFalse();
+		assertThat(((PooledDataBuffer) bar).isAllocated()).isFalse();
+		DataBufferUtils.release(joined);
+	}
+
+	@Test
+	void rejectInvalidMaxPooledCapacity() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new PooledDataBufferFactory(false, 256, 1000));
+		assertThatIllegalArgumentException().isThrownBy(() -> new PooledDataBufferFactory(false, 256, 128));
+		assertThatIllegalArgumentException().isThrownBy(() -> this.bufferFactory.setLeakDetectionSamplingInterval(-1));
+	}
+
+
+	private static void allocateAndLeak(PooledDataBufferFactory bufferFactory) {
+		bufferFactory.allocateBuffer(10).write("leak", StandardCharsets.UTF_8);
+	}
+
+	private static byte[] backingArray(DataBuffer buffer) {
+		ByteBuffer byteBuffer = buffer.asByteBuffer(0, 1);
+		return byteBuffer.array();
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotation.Adapt;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.type.AbstractAnnotationMetadataTests;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.FileCopyUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link PersistentMetadataReaderFactory}, running the
+ * {@link AbstractAnnotationMetadataTests} against metadata restored from
+ * the cache file.
+ */
+class PersistentMetadataReaderFactoryTests extends AbstractAnnotationMetadataTests {
+
+	@TempDir
+	Path tempDir;
+
+
+	@Override
+	protected AnnotationMetadata get(Class<?> source) {
+		try {
+			Path cacheFile = this.tempDir.resolve("metadata.cache");
+			PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile, source.getClassLoader());
+			factory.getMetadataReader(source.getName());
+			factory.store();
+			return new PersistentMetadataReaderFactory(cacheFile, source.getClassLoader())
+					.getMetadataReader(source.getName()).getAnnotationMetadata();
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	@Test
+	void attributeValuesAreRestored() {
+		Class<?>[] types = {
+				MergedAnnotationMetadataVisitorTests.WithSimpleTypesAnnotation.class,
+				MergedAnnotationMetadataVisitorTests.WithSimpleArrayTypesAnnotation.class,
+				MergedAnnotationMetadataVisitorTests.WithSimpleEmptyArrayTypesAnnotation.class,
+				MergedAnnotationMetadataVisitorTests.WithEnumAnnotation.class,
+				MergedAnnotationMetadataVisitorTests.WithAnnotationAnnotation.class,
+				MergedAnnotationMetadataVisitorTests.WithClassAnnotation.class};
+		for (Class<?> type : types) {
+			MergedAnnotation<?> expected = new SimpleAnnotationMetadataTests().get(type).getAnnotations().stream()
+					.findFirst().orElseThrow();
+			MergedAnnotation<?> actual = get(type).getAnnotations().get(expected.getType());
+			assertThat(actual.asMap(Adapt.CLASS_TO_STRING, Adapt.ANNOTATION_TO_MAP))
+					.usingRecursiveComparison()
+					.isEqualTo(expected.asMap(Adapt.CLASS_TO_STRING, Adapt.ANNOTATION_TO_MAP));
+		}
+	}
+
+	@Test
+	void declaredMethodsAreRestored() {
+		AnnotationMetadata expected = new SimpleAnnotationMetadataTests().get(WithDirectAndMetaAnnotatedMethods.class);
+		AnnotationMetadata actual = get(WithDirectAndMetaAnnotatedMethods.class);
+		assertThat(actual.getDeclaredMethods()).hasSize(2).isEqualTo(expected.getDeclaredMethods());
+		for (MethodMetadata method : actual.getDeclaredMethods()) {
+			assertThat(method.getDeclaringClassName()).isEqualTo(WithDirectAndMetaAnnotatedMethods.class.getName());
+			assertThat(method.getReturnTypeName()).isEqualTo("void");
+			assertThat(method.isOverridable()).isTrue();
+		}
+	}
+
+	@Test
+	void unchangedClassFileIsNotReadAgain() throws IOException {
+		Path classFile = copyClassFile(TestClass.class, "Test.class");
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(classFile));
+		factory.store();
+
+		// Same length and timestamp: the unparseable content must not be read
+		FileTime lastModified = Files.getLastModifiedTime(classFile);
+		Files.write(classFile, new byte[(int) Files.size(classFile)]);
+		Files.setLastModifiedTime(classFile, lastModified);
+
+		factory = new PersistentMetadataReaderFactory(cacheFile);
+		AnnotationMetadata metadata = factory.getMetadataReader(new FileSystemResource(classFile)).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(TestClass.class.getName());
+	}
+
+	@Test
+	void changedClassFileIsReadAgain() throws IOException {
+		Path classFile = copyClassFile(TestClass.class, "Test.class");
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(classFile));
+		factory.store();
+
+		copyClassFile(TestMemberClass.class, "Test.class");
+		Files.setLastModifiedTime(classFile, FileTime.fromMillis(Files.getLastModifiedTime(classFile).toMillis() + 2000));
+
+		factory = new PersistentMetadataReaderFactory(cacheFile);
+		AnnotationMetadata metadata = factory.getMetadataReader(new FileSystemResource(classFile)).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(TestMemberClass.class.getName());
+	}
+
+	@Test
+	void deletedClassFileIsDroppedOnStore() throws IOException {
+		Path classFile = copyClassFile(TestClass.class, "Test.class");
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(classFile));
+		factory.store();
+
+		long length = Files.size(classFile);
+		FileTime lastModified = Files.getLastModifiedTime(classFile);
+		Files.delete(classFile);
+		factory = new PersistentMetadataReaderFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(copyClassFile(TestMemberClass.class, "Other.class")));
+		factory.store();
+
+		// Same length and timestamp as the deleted file: the content must be read
+		Files.write(classFile, new byte[(int) length]);
+		Files.setLastModifiedTime(classFile, lastModified);
+		PersistentMetadataReaderFactory factoryToUse = new PersistentMetadataReaderFactory(cacheFile);
+		assertThatThrownBy(() -> factoryToUse.getMetadataReader(new FileSystemResource(classFile)));
+	}
+
+	@Test
+	void clearedCacheIsReadFromCacheFileAgain() throws IOException {
+		Path classFile = copyClassFile(TestClass.class, "Test.class");
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(classFile));
+		factory.store();
+		factory.clearCache();
+
+		// Same length and timestamp: the unparseable content must not be read
+		FileTime lastModified = Files.getLastModifiedTime(classFile);
+		Files.write(classFile, new byte[(int) Files.size(classFile)]);
+		Files.setLastModifiedTime(classFile, lastModified);
+
+		AnnotationMetadata metadata = factory.getMetadataReader(new FileSystemResource(classFile)).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(TestClass.class.getName());
+	}
+
+	@Test
+	void unreadableCacheFileIsIgnored() throws IOException {
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		Files.write(cacheFile, new byte[] {1, 2, 3});
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		assertThat(factory.getMetadataReader(TestClass.class.getName()).getClassMetadata().getClassName())
+				.isEqualTo(TestClass.class.getName());
+		factory.store();
+		assertThat(Files.size(cacheFile)).isGreaterThan(3);
+	}
+
+
+	private Path copyClassFile(Class<?> type, String fileName) throws IOException {
+		Path classFile = this.tempDir.resolve(fileName);
+		ClassPathResource resource = new ClassPathResource(
+				ClassUtils.convertClassNameToResourcePath(type.getName()) + ClassUtils.CLASS_FILE_SUFFIX);
+		Files.write(classFile, FileCopyUtils.copyToByteArray(resource.getInputStream()));
+		return classFile;
+	}
+
+}
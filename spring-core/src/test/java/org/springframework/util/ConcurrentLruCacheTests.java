@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -82,4 +82,83 @@ class ConcurrentLruCacheTests {
 		assertThat(this.cache.contains("k3")).isTrue();
 	}
 
+	@Test
+	void zeroSizeLimitAlwaysGenerates() {
+		ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(0, key -> key + "value");
+		assertThat(cache.get("k1")).isEqualTo("k1value");
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.contains("k1")).isFalse();
+	}
+
+	@Test
+	void recentlyReadEntryIsNotEvicted() {
+		assertThat(this.cache.get("k1")).isEqualTo("k1value");
+		assertThat(this.cache.get("k2")).isEqualTo("k2value");
+		assertThat(this.cache.get("k1")).isEqualTo("k1value");
+		assertThat(this.cache.get("k3")).isEqualTo("k3value");
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.contains("k1")).isTrue();
+		assertThat(this.cache.contains("k2")).isFalse();
+		assertThat(this.cache.contains("k3")).isTrue();
+	}
+
+	@Test
+	void statistics() {
+		this.cache.get("k1");
+		this.cache.get("k1");
+		this.cache.get("k2");
+		this.cache.get("k3");
+		assertThat(this.cache.hitCount()).isEqualTo(1);
+		assertThat(this.cache.missCount()).isEqualTo(3);
+		assertThat(this.cache.evictionCount()).isEqualTo(1);
+		this.cache.remove("k3");
+		this.cache.clear();
+		assertThat(this.cache.evictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void weightedSizeLimit() {
+		ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(10, key -> key, String::length);
+		assertThat(cache.get("aaaa")).isEqualTo("aaaa");
+		assertThat(cache.get("bbbb")).isEqualTo("bbbb");
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.weightedSize()).isEqualTo(8);
+		assertThat(cache.get("cc")).isEqualTo("cc");
+		assertThat(cache.weightedSize()).isEqualTo(10);
+		assertThat(cache.get("dddddd")).isEqualTo("dddddd");
+		assertThat(cache.weightedSize()).isEqualTo(8);
+		assertThat(cache.contains("aaaa")).isFalse();
+		assertThat(cache.contains("bbbb")).isFalse();
+		assertThat(cache.contains("cc")).isTrue();
+		assertThat(cache.contains("dddddd")).isTrue();
+		assertThat(cache.evictionCount()).isEqualTo(2);
+		cache.remove("cc");
+		assertThat(cache.weightedSize()).isEqualTo(6);
+	}
+
+	@Test
+	void concurrentAccess() throws Exception {
+		ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(64, key -> key);
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			int seed = i;
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < 10_000; j++) {
+					int key = (j * 31 + seed) % 200;
+					assertThat(cache.get(key)).isEqualTo(key);
+					if (j % 100 == 0) {
+						cache.remove(key);
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		cache.clear();
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.weightedSize()).isEqualTo(0);
+	}
+
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for mapping one million rows with a {@link BeanPropertyRowMapper}
+ * and a {@link DataClassRowMapper}, with or without compiled mapping.
+ *
+ * <p>Rows are read from an in-memory {@link ResultSet}, so that scores only
+ * reflect the cost of the mapping itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RowMapperBenchmark {
+
+	@Benchmark
+	public void mapRows(BenchmarkData data, Blackhole bh) throws SQLException {
+		ResultSet rs = data.resultSet();
+		int rowNumber = 0;
+		while (rs.next()) {
+			bh.consume(data.rowMapper.mapRow(rs, rowNumber++));
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		private static final String[] COLUMNS = {"id", "first_name", "last_name", "balance", "created_at", "active"};
+
+		@Param({"1000000"})
+		public int rowCount;
+
+		@Param({"bean", "dataClass"})
+		public String mappedClass;
+
+		@Param({"classic", "compiled"})
+		public String mapping;
+
+		public Object[][] rows;
+
+		public RowMapper<?> rowMapper;
+
+		@Setup
+		public void setup() {
+			this.rows = new Object[this.rowCount][];
+			for (int i = 0; i < this.rowCount; i++) {
+				this.rows[i] = new Object[] {(long) i, "First" + i, "Last" + i,
+						BigDecimal.valueOf(i, 2), new Timestamp(i * 1000L), (i % 2 == 0)};
+			}
+			BeanPropertyRowMapper<?> rowMapper = (this.mappedClass.equals("bean") ?
+					new BeanPropertyRowMapper<>(Customer.class) : new DataClassRowMapper<>(CustomerRecord.class));
+			rowMapper.setCompiledMapping(this.mapping.equals("compiled"));
+			this.rowMapper = rowMapper;
+		}
+
+		/**
+		 * Create a forward-only ResultSet over the generated rows.
+		 */
+		public ResultSet resultSet() {
+			ClassLoader classLoader = getClass().getClassLoader();
+			ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(classLoader,
+					new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+						case "getColumnCount" -> COLUMNS.length;
+						case "getColumnLabel", "getColumnName" -> COLUMNS[(int) args[0] - 1];
+						default -> throw new UnsupportedOperationException(method.getName());
+					});
+			int[] position = {-1};
+			return (ResultSet) Proxy.newProxyInstance(classLoader,
+					new Class<?>[] {ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+						case "next" -> ++position[0] < this.rows.length;
+						case "getMetaData" -> metaData;
+						case "wasNull" -> false;
+						case "findColumn" -> findColumn((String) args[0]);
+						case "getLong", "getString", "getBigDecimal", "getTimestamp", "getBoolean", "getObject" ->
+								this.rows[position[0]][(int) args[0] - 1];
+						default -> throw new UnsupportedOperationException(method.getName());
+					});
+		}
+
+		private static int findColumn(String name) throws SQLException {
+			for (int i = 0; i < COLUMNS.length; i++) {
+				if (COLUMNS[i].equalsIgnoreCase(name)) {
+					return i + 1;
+				}
+			}
+			throw new SQLException("Invalid column name: " + name);
+		}
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class Customer {
+
+		private long id;
+
+		private String firstName;
+
+		private String lastName;
+
+		private BigDecimal balance;
+
+		private java.util.Date createdAt;
+
+		private boolean active;
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getFirstName() {
+			return this.firstName;
+		}
+
+		public void setFirstName(String firstName) {
+			this.firstName = firstName;
+		}
+
+		public String getLastName() {
+			return this.lastName;
+		}
+
+		public void setLastName(String lastName) {
+			this.lastName = lastName;
+		}
+
+		public BigDecimal getBalance() {
+			return this.balance;
+		}
+
+		public void setBalance(BigDecimal balance) {
+			this.balance = balance;
+		}
+
+		public java.util.Date getCreatedAt() {
+			return this.createdAt;
+		}
+
+		public void setCreatedAt(java.util.Date createdAt) {
+			this.createdAt = createdAt;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+
+
+	public record CustomerRecord(long id, String firstName, String lastName,
+			BigDecimal balance, java.util.Date createdAt, boolean active) {
+	}
+
+}
@@ -16,12 +16,21 @@
 
 package org.springframework.jdbc.core;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -32,10 +41,13 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.MethodInvocationException;
 import org.springframework.beans.NotWritablePropertyException;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
@@ -43,6 +55,8 @@ import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -69,7 +83,8 @@ import org.springframework.util.StringUtils;
  * will have been set to the primitive's default value instead of null.
  *
  * <p>Please note that this class is designed to provide convenience rather than high performance.
- * For best performance, consider using a custom {@link RowMapper} implementation.
+ * For best performance, consider using a custom {@link RowMapper} implementation,
+ * or enable {@linkplain #setCompiledMapping compiled mapping}.
  *
  * @author Thomas Risberg
  * @author Juergen Hoeller
@@ -79,6 +94,10 @@ import org.springframework.util.StringUtils;
  */
 public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 
+	private static final int COLUMN_MAPPING_CACHE_LIMIT = 16;
+
+	private static final MethodType WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
 	/** Logger available to subclasses. */
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -104,6 +123,17 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	@Nullable
 	private Set<String> mappedProperties;
 
+	/** Whether we're mapping rows through a mapping compiled per column layout. */
+	private boolean compiledMapping = false;
+
+	/** Cache of compiled mappings, keyed by the column names of a ResultSet. */
+	@Nullable
+	private ConcurrentLruCache<List<String>, ColumnMapping> columnMappings;
+
+	/** The compiled mapping for the last ResultSet mapped. */
+	@Nullable
+	private volatile ResultSetMapping lastMapping;
+
 
 	/**
 	 * Create a new {@code BeanPropertyRowMapper} for bean-style configuration.
@@ -213,6 +243,36 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return this.conversionService;
 	}
 
+	/**
+	 * Set whether rows should be mapped through a mapping compiled for the
+	 * column layout of the {@code ResultSet}.
+	 * <p>Default is {@code false}, resolving the property of each column and
+	 * setting its value through a {@link BeanWrapper} for every row. When
+	 * {@code true}, the properties are resolved once per column layout, and
+	 * values that already match the type of their property are passed to its
+	 * setter (or constructor) directly, without a {@code BeanWrapper} for the row.
+	 * Other values are converted as usual, including through the property editors
+	 * registered in {@link #initBeanWrapper}. Compiled mappings are kept for the
+	 * last 16 column layouts mapped with this
+	 * instance, which should be reused across queries to benefit from them.
+	 * @since 6.0
+	 */
+	public void setCompiledMapping(boolean compiledMapping) {
+		this.compiledMapping = compiledMapping;
+		if (compiledMapping && this.columnMappings == null) {
+			this.columnMappings = new ConcurrentLruCache<>(COLUMN_MAPPING_CACHE_LIMIT, this::createColumnMapping);
+		}
+	}
+
+	/**
+	 * Return whether rows are mapped through a mapping compiled for the
+	 * column layout of the {@code ResultSet}.
+	 * @since 6.0
+	 */
+	public boolean isCompiledMapping() {
+		return this.compiledMapping;
+	}
+
 
 	/**
 	 * Initialize the mapping meta-data for the given class.
@@ -291,9 +351,14 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	 * Extract the values for all columns in the current row.
 	 * <p>Utilizes public setters and result set meta-data.
 	 * @see java.sql.ResultSetMetaData
+	 * @see #setCompiledMapping
 	 */
 	@Override
 	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		if (this.compiledMapping) {
+			return mapRowWithColumnMapping(rs, rowNumber);
+		}
+
 		BeanWrapperImpl bw = new BeanWrapperImpl();
 		initBeanWrapper(bw);
 
@@ -309,36 +374,14 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 			String field = lowerCaseName(StringUtils.delete(column, " "));
 			PropertyDescriptor pd = (this.mappedFields != null ? this.mappedFields.get(field) : null);
 			if (pd != null) {
-				try {
-					Object value = getColumnValue(rs, index, pd);
-					if (rowNumber == 0 && logger.isDebugEnabled()) {
-						logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
-								"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
-					}
-					try {
-						bw.setPropertyValue(pd.getName(), value);
-					}
-					catch (TypeMismatchException ex) {
-						if (value == null && this.primitivesDefaultedForNullValue) {
-							if (logger.isDebugEnabled()) {
-								logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
-										" and column '" + column + "' with null value when setting property '" +
-										pd.getName() + "' of type '" +
-										ClassUtils.getQualifiedName(pd.getPropertyType()) +
-										"' on object: " + mappedObject, ex);
-							}
-						}
-						else {
-							throw ex;
-						}
-					}
-					if (populatedProperties != null) {
-						populatedProperties.add(pd.getName());
-					}
+				Object value = getColumnValue(rs, index, pd);
+				if (rowNumber == 0 && logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
 				}
-				catch (NotWritablePropertyException ex) {
-					throw new DataRetrievalFailureException(
-							"Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+				setPropertyValue(bw, pd, column, value, rowNumber);
+				if (populatedProperties != null) {
+					populatedProperties.add(pd.getName());
 				}
 			}
 			else {
@@ -357,6 +400,163 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return mappedObject;
 	}
 
+	/**
+	 * Extract the values for all columns in the current row through the
+	 * compiled mapping for the column layout of the given ResultSet.
+	 */
+	private T mapRowWithColumnMapping(ResultSet rs, int rowNumber) throws SQLException {
+		ColumnMapping mapping = getColumnMapping(rs);
+		RowTypeConverter tc = new RowTypeConverter();
+		T mappedObject = constructMappedInstance(rs, tc);
+
+		for (int i = 0; i < mapping.properties.length; i++) {
+			PropertyDescriptor pd = mapping.properties[i];
+			if (pd != null) {
+				Object value = getColumnValue(rs, i + 1, pd);
+				MethodHandle writer = mapping.writers[i];
+				if (writer != null && (value != null ? mapping.valueTypes[i].isInstance(value) :
+						!pd.getPropertyType().isPrimitive())) {
+					try {
+						writer.invokeExact((Object) mappedObject, value);
+					}
+					catch (Throwable ex) {
+						throw new MethodInvocationException(
+								new PropertyChangeEvent(mappedObject, pd.getName(), null, value), ex);
+					}
+				}
+				else {
+					// Conversion needed, or null value for a primitive
+					setPropertyValue(tc.getBeanWrapper(mappedObject), pd, mapping.columns.get(i), value, rowNumber);
+				}
+			}
+		}
+
+		if (isCheckFullyPopulated() && !mapping.fullyPopulated) {
+			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+					"necessary to populate object of " + this.mappedClass + ": " + this.mappedProperties);
+		}
+
+		return mappedObject;
+	}
+
+	private void setPropertyValue(BeanWrapper bw, PropertyDescriptor pd, String column,
+			@Nullable Object value, int rowNumber) {
+
+		try {
+			bw.setPropertyValue(pd.getName(), value);
+		}
+		catch (TypeMismatchException ex) {
+			if (value == null && this.primitivesDefaultedForNullValue) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
+							" and column '" + column + "' with null value when setting property '" +
+							pd.getName() + "' of type '" +
+							ClassUtils.getQualifiedName(pd.getPropertyType()) +
+							"' on object: " + bw.getWrappedInstance(), ex);
+				}
+			}
+			else {
+				throw ex;
+			}
+		}
+		catch (NotWritablePropertyException ex) {
+			throw new DataRetrievalFailureException(
+					"Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+		}
+	}
+
+	/**
+	 * Return the compiled mapping for the column layout of the given ResultSet.
+	 */
+	ColumnMapping getColumnMapping(ResultSet rs) throws SQLException {
+		ResultSetMapping lastMapping = this.lastMapping;
+		if (lastMapping != null && lastMapping.resultSet.get() == rs) {
+			return lastMapping.columnMapping;
+		}
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int columnCount = rsmd.getColumnCount();
+		List<String> columns = new ArrayList<>(columnCount);
+		for (int index = 1; index <= columnCount; index++) {
+			columns.add(JdbcUtils.lookupColumnName(rsmd, index));
+		}
+		Assert.state(this.columnMappings != null, "Compiled mapping not enabled");
+		ColumnMapping columnMapping = this.columnMappings.get(columns);
+		this.lastMapping = new ResultSetMapping(rs, columnMapping);
+		return columnMapping;
+	}
+
+	private ColumnMapping createColumnMapping(List<String> columns) {
+		int columnCount = columns.size();
+		PropertyDescriptor[] properties = new PropertyDescriptor[columnCount];
+		MethodHandle[] writers = new MethodHandle[columnCount];
+		Class<?>[] valueTypes = new Class<?>[columnCount];
+		Set<String> populatedProperties = new HashSet<>();
+
+		for (int i = 0; i < columnCount; i++) {
+			String column = columns.get(i);
+			String field = lowerCaseName(StringUtils.delete(column, " "));
+			PropertyDescriptor pd = (this.mappedFields != null ? this.mappedFields.get(field) : null);
+			if (pd != null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
+				}
+				properties[i] = pd;
+				writers[i] = createWriter(pd);
+				valueTypes[i] = ClassUtils.resolvePrimitiveIfNecessary(pd.getPropertyType());
+				populatedProperties.add(pd.getName());
+			}
+			else if (logger.isDebugEnabled()) {
+				logger.debug("No property found for column '" + column + "' mapped to field '" + field + "'");
+			}
+		}
+
+		int[] constructorColumns = null;
+		String[] constructorColumnNames = getConstructorColumnNames();
+		if (constructorColumnNames != null) {
+			constructorColumns = new int[constructorColumnNames.length];
+			for (int i = 0; i < constructorColumnNames.length; i++) {
+				for (int j = 0; j < columnCount; j++) {
+					if (columns.get(j).equalsIgnoreCase(constructorColumnNames[i])) {
+						constructorColumns[i] = j + 1;
+						break;
+					}
+				}
+			}
+		}
+
+		return new ColumnMapping(columns, properties, writers, valueTypes, constructorColumns,
+				populatedProperties.equals(this.mappedProperties));
+	}
+
+	/**
+	 * Create a method handle invoking the write method of the given property,
+	 * or {@code null} if the write method is not accessible from here.
+	 */
+	@Nullable
+	private MethodHandle createWriter(PropertyDescriptor pd) {
+		Method writeMethod = pd.getWriteMethod();
+		try {
+			ReflectionUtils.makeAccessible(writeMethod);
+			return MethodHandles.lookup().unreflect(writeMethod).asType(WRITER_TYPE);
+		}
+		catch (IllegalAccessException | RuntimeException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Setting property '" + pd.getName() + "' through BeanWrapper", ex);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Return the names of the columns passed to the constructor of the
+	 * mapped class, if any, for resolution in compiled mappings.
+	 */
+	@Nullable
+	String[] getConstructorColumnNames() {
+		return null;
+	}
+
 	/**
 	 * Construct an instance of the mapped class for the current row.
 	 * @param rs the ResultSet to map (pre-initialized for the current row)
@@ -448,4 +648,116 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return rowMapper;
 	}
 
+
+
+	/**
+	 * Mapping of the columns of a ResultSet layout, resolved once.
+	 */
+	static final class ColumnMapping {
+
+		final List<String> columns;
+
+		final PropertyDescriptor[] properties;
+
+		final MethodHandle[] writers;
+
+		final Class<?>[] valueTypes;
+
+		/** Indexes of the constructor columns, 0 where not found. */
+		@Nullable
+		final int[] constructorColumns;
+
+		final boolean fullyPopulated;
+
+		ColumnMapping(List<String> columns, PropertyDescriptor[] properties, MethodHandle[] writers,
+				Class<?>[] valueTypes, @Nullable int[] constructorColumns, boolean fullyPopulated) {
+
+			this.columns = columns;
+			this.properties = properties;
+			this.writers = writers;
+			this.valueTypes = valueTypes;
+			this.constructorColumns = constructorColumns;
+			this.fullyPopulated = fullyPopulated;
+		}
+	}
+
+
+	/**
+	 * Compiled mapping of a ResultSet, not preventing the ResultSet
+	 * from being garbage-collected once it has been read.
+	 */
+	private static final class ResultSetMapping {
+
+		final WeakReference<ResultSet> resultSet;
+
+		final ColumnMapping columnMapping;
+
+		ResultSetMapping(ResultSet resultSet, ColumnMapping columnMapping) {
+			this.resultSet = new WeakReference<>(resultSet);
+			this.columnMapping = columnMapping;
+		}
+	}
+
+
+	/**
+	 * TypeConverter for a row mapped through a compiled mapping, only creating
+	 * a BeanWrapper for the row if a value actually needs to be converted.
+	 */
+	private class RowTypeConverter implements TypeConverter {
+
+		@Nullable
+		private BeanWrapperImpl beanWrapper;
+
+		private boolean beanInstanceSet;
+
+		private BeanWrapperImpl getBeanWrapper() {
+			BeanWrapperImpl bw = this.beanWrapper;
+			if (bw == null) {
+				bw = new BeanWrapperImpl();
+				initBeanWrapper(bw);
+				this.beanWrapper = bw;
+			}
+			return bw;
+		}
+
+		BeanWrapper getBeanWrapper(Object mappedObject) {
+			BeanWrapperImpl bw = getBeanWrapper();
+			if (!this.beanInstanceSet) {
+				bw.setBeanInstance(mappedObject);
+				this.beanInstanceSet = true;
+			}
+			return bw;
+		}
+
+		@Override
+		@Nullable
+		public <V> V convertIfNecessary(@Nullable Object value, @Nullable Class<V> requiredType) {
+			return getBeanWrapper().convertIfNecessary(value, requiredType);
+		}
+
+		@Override
+		@Nullable
+		public <V> V convertIfNecessary(@Nullable Object value, @Nullable Class<V> requiredType,
+				@Nullable MethodParameter methodParam) {
+
+			return getBeanWrapper().convertIfNecessary(value, requiredType, methodParam);
+		}
+
+		@Override
+		@Nullable
+		public <V> V convertIfNecessary(@Nullable Object value, @Nullable Class<V> requiredType,
+				@Nullable Field field) {
+
+			return getBeanWrapper().convertIfNecessary(value, requiredType, field);
+		}
+
+		@Override
+		@Nullable
+		public <V> V convertIfNecessary(@Nullable Object value, @Nullable Class<V> requiredType,
+				@Nullable TypeDescriptor typeDescriptor) {
+
+			return getBeanWrapper().convertIfNecessary(value, requiredType, typeDescriptor);
+		}
+	}
+
 }
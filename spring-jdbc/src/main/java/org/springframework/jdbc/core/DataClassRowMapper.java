@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * {@link RowMapper} implementation that converts a row into a new instance
@@ -49,7 +50,7 @@ public class DataClassRowMapper<T> extends BeanPropertyRowMapper<T> {
 	private Constructor<T> mappedConstructor;
 
 	@Nullable
-	private String[] constructorParameterNames;
+	private String[] constructorColumnNames;
 
 	@Nullable
 	private TypeDescriptor[] constructorParameterTypes;
@@ -79,9 +80,12 @@ public class DataClassRowMapper<T> extends BeanPropertyRowMapper<T> {
 		this.mappedConstructor = BeanUtils.getResolvableConstructor(mappedClass);
 		int paramCount = this.mappedConstructor.getParameterCount();
 		if (paramCount > 0) {
-			this.constructorParameterNames = BeanUtils.getParameterNames(this.mappedConstructor);
-			for (String name : this.constructorParameterNames) {
+			String[] parameterNames = BeanUtils.getParameterNames(this.mappedConstructor);
+			this.constructorColumnNames = new String[paramCount];
+			for (int i = 0; i < paramCount; i++) {
+				String name = parameterNames[i];
 				suppressProperty(name);
+				this.constructorColumnNames[i] = underscoreName(name);
 			}
 			this.constructorParameterTypes = new TypeDescriptor[paramCount];
 			for (int i = 0; i < paramCount; i++) {
@@ -95,13 +99,17 @@ public class DataClassRowMapper<T> extends BeanPropertyRowMapper<T> {
 		Assert.state(this.mappedConstructor != null, "Mapped constructor was not initialized");
 
 		Object[] args;
-		if (this.constructorParameterNames != null && this.constructorParameterTypes != null) {
-			args = new Object[this.constructorParameterNames.length];
+		if (this.constructorColumnNames != null && this.constructorParameterTypes != null) {
+			int[] columns = (isCompiledMapping() ? getColumnMapping(rs).constructorColumns : null);
+			args = new Object[this.constructorColumnNames.length];
 			for (int i = 0; i < args.length; i++) {
-				String name = underscoreName(this.constructorParameterNames[i]);
+				int index = (columns != null && columns[i] > 0 ?
+						columns[i] : rs.findColumn(this.constructorColumnNames[i]));
 				TypeDescriptor td = this.constructorParameterTypes[i];
-				Object value = getColumnValue(rs, rs.findColumn(name), td.getType());
-				args[i] = tc.convertIfNecessary(value, td.getType(), td);
+				Object value = getColumnValue(rs, index, td.getType());
+				// Values matching the parameter type need no conversion in a compiled mapping
+				args[i] = (columns != null && value != null && ClassUtils.isAssignableValue(td.getType(), value) ?
+						value : tc.convertIfNecessary(value, td.getType(), td));
 			}
 		}
 		else {
@@ -111,6 +119,12 @@ public class DataClassRowMapper<T> extends BeanPropertyRowMapper<T> {
 		return BeanUtils.instantiateClass(this.mappedConstructor, args);
 	}
 
+	@Override
+	@Nullable
+	String[] getConstructorColumnNames() {
+		return this.constructorColumnNames;
+	}
+
 
 	/**
 	 * Static factory method to create a new {@code DataClassRowMapper}.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.jdbc.core;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.springframework.dao.DataAccessException;
@@ -555,6 +556,64 @@ public interface JdbcOperations {
 	 */
 	<T> Stream<T> queryForStream(PreparedStatementCreator psc, RowMapper<T> rowMapper) throws DataAccessException;
 
+	/**
+	 * Query using a prepared statement, mapping each row to a result object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream
+	 * read with the given settings.
+	 * <p>The fetch size of the settings is applied to the statement: its ResultSet
+	 * type and holdability have to be applied by the PreparedStatementCreator,
+	 * for example through a {@link PreparedStatementCreatorFactory}.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param rowMapper a callback that will map one object per row
+	 * @param settings the fetch size for the query
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if there is any problem
+	 * @since 6.0
+	 * @see QueryStreamSettings
+	 */
+	<T> Stream<T> queryForStream(PreparedStatementCreator psc, RowMapper<T> rowMapper, QueryStreamSettings settings)
+			throws DataAccessException;
+
+	/**
+	 * Query using a prepared statement, mapping rows to result objects via
+	 * a RowMapper in chunks of the given size, and turning them into an
+	 * iterable and closeable Stream read with the given settings.
+	 * <p>The fetch size of the settings is applied to the statement: its ResultSet
+	 * type and holdability have to be applied by the PreparedStatementCreator,
+	 * for example through a {@link PreparedStatementCreatorFactory}.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param chunkSize the maximum number of mapped objects per chunk
+	 * @param rowMapper a callback that will map one object per row
+	 * @param settings the fetch size for the query
+	 * @return the result Stream, containing chunks of mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if there is any problem
+	 * @since 6.0
+	 * @see QueryStreamSettings
+	 */
+	<T> Stream<List<T>> queryForChunkedStream(PreparedStatementCreator psc, int chunkSize,
+			RowMapper<T> rowMapper, QueryStreamSettings settings) throws DataAccessException;
+
+	/**
+	 * Query using a prepared statement, mapping rows to result objects via
+	 * a RowMapper in chunks of the given size, and handing each chunk to the
+	 * given consumer, on the chunk executor of the given settings if any.
+	 * <p>The fetch size of the settings is applied to the statement: its ResultSet
+	 * type and holdability have to be applied by the PreparedStatementCreator,
+	 * for example through a {@link PreparedStatementCreatorFactory}.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param chunkSize the maximum number of mapped objects per chunk
+	 * @param rowMapper a callback that will map one object per row
+	 * @param chunkConsumer a callback that will process each chunk
+	 * @param settings the fetch size and concurrency settings for the query
+	 * @throws DataAccessException if there is any problem
+	 * @since 6.0
+	 * @see #queryForEachChunk(String, int, RowMapper, Consumer, QueryStreamSettings, Object...)
+	 */
+	<T> void queryForEachChunk(PreparedStatementCreator psc, int chunkSize, RowMapper<T> rowMapper,
+			Consumer<? super List<T>> chunkConsumer, QueryStreamSettings settings) throws DataAccessException;
+
 	/**
 	 * Query given SQL to create a prepared statement from SQL and a
 	 * PreparedStatementSetter implementation that knows how to bind values
@@ -592,6 +651,78 @@ public interface JdbcOperations {
 	<T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, @Nullable Object... args)
 			throws DataAccessException;
 
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, mapping each row to a result object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream
+	 * read with the given settings.
+	 * @param sql the SQL query to execute
+	 * @param rowMapper a callback that will map one object per row
+	 * @param settings the fetch size and cursor settings for the query
+	 * @param args arguments to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type);
+	 * may also contain {@link SqlParameterValue} objects which indicate not
+	 * only the argument value but also the SQL type and optionally the scale
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 * @see QueryStreamSettings
+	 */
+	<T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, QueryStreamSettings settings,
+			@Nullable Object... args) throws DataAccessException;
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, mapping rows to result objects via a
+	 * RowMapper in chunks of the given size, and turning them into an iterable
+	 * and closeable Stream read with the given settings.
+	 * <p>Each chunk is a new List that can be handed over to another thread,
+	 * while the next chunk is mapped.
+	 * @param sql the SQL query to execute
+	 * @param chunkSize the maximum number of mapped objects per chunk
+	 * @param rowMapper a callback that will map one object per row
+	 * @param settings the fetch size and cursor settings for the query
+	 * @param args arguments to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type);
+	 * may also contain {@link SqlParameterValue} objects which indicate not
+	 * only the argument value but also the SQL type and optionally the scale
+	 * @return the result Stream, containing chunks of mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 * @see QueryStreamSettings
+	 */
+	<T> Stream<List<T>> queryForChunkedStream(String sql, int chunkSize, RowMapper<T> rowMapper,
+			QueryStreamSettings settings, @Nullable Object... args) throws DataAccessException;
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, mapping rows to result objects via a
+	 * RowMapper in chunks of the given size, and handing each chunk to the
+	 * given consumer.
+	 * <p>Chunks are consumed on the {@linkplain QueryStreamSettings#getChunkExecutor()
+	 * chunk executor} of the settings if any, while the next chunks are read: reading
+	 * is suspended while the {@linkplain QueryStreamSettings#getMaxChunksInFlight()
+	 * maximum number of chunks} are being consumed. This method returns once all
+	 * chunks have been consumed, and all resources have been released.
+	 * @param sql the SQL query to execute
+	 * @param chunkSize the maximum number of mapped objects per chunk
+	 * @param rowMapper a callback that will map one object per row
+	 * @param chunkConsumer a callback that will process each chunk
+	 * @param settings the fetch size, cursor and concurrency settings for the query
+	 * @param args arguments to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type);
+	 * may also contain {@link SqlParameterValue} objects which indicate not
+	 * only the argument value but also the SQL type and optionally the scale
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 * @see QueryStreamSettings
+	 */
+	<T> void queryForEachChunk(String sql, int chunkSize, RowMapper<T> rowMapper,
+			Consumer<? super List<T>> chunkConsumer, QueryStreamSettings settings, @Nullable Object... args)
+			throws DataAccessException;
+
 	/**
 	 * Query given SQL to create a prepared statement from SQL and a list
 	 * of arguments to bind to the query, mapping a single result row to a
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,17 +31,23 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import javax.sql.DataSource;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.InvalidResultSetAccessException;
@@ -831,13 +837,112 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
 			RowMapper<T> rowMapper) throws DataAccessException {
 
+		return stream(psc, pss, null, rs -> new ResultSetSpliterator<>(rs, rowMapper));
+	}
+
+	/**
+	 * Query using a prepared statement, allowing for a PreparedStatementCreator
+	 * and a PreparedStatementSetter, mapping each row to a result object via a
+	 * RowMapper, and turning it into an iterable and closeable Stream read with
+	 * the given settings.
+	 * <p>The fetch size of the settings is applied to the statement: its ResultSet
+	 * type and holdability have to be applied by the PreparedStatementCreator,
+	 * for example through a {@link PreparedStatementCreatorFactory}.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param pss a callback that knows how to set values on the prepared statement.
+	 * If this is {@code null}, the SQL will be assumed to contain no bind parameters.
+	 * @param rowMapper a callback that will map one object per row
+	 * @param settings the fetch size for the query
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 */
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
+			RowMapper<T> rowMapper, QueryStreamSettings settings) throws DataAccessException {
+
+		Assert.notNull(settings, "QueryStreamSettings must not be null");
+		return stream(psc, pss, settings, rs -> new ResultSetSpliterator<>(rs, rowMapper));
+	}
+
+	/**
+	 * Query using a prepared statement, allowing for a PreparedStatementCreator
+	 * and a PreparedStatementSetter, mapping rows to result objects via a RowMapper
+	 * in chunks of the given size, and turning them into an iterable and closeable
+	 * Stream read with the given settings.
+	 * <p>The fetch size of the settings is applied to the statement: its ResultSet
+	 * type and holdability have to be applied by the PreparedStatementCreator,
+	 * for example through a {@link PreparedStatementCreatorFactory}.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param pss a callback that knows how to set values on the prepared statement.
+	 * If this is {@code null}, the SQL will be assumed to contain no bind parameters.
+	 * @param chunkSize the maximum number of mapped objects per chunk
+	 * @param rowMapper a callback that will map one object per row
+	 * @param settings the fetch size for the query
+	 * @return the result Stream, containing chunks of mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 */
+	public <T> Stream<List<T>> queryForChunkedStream(PreparedStatementCreator psc,
+			@Nullable PreparedStatementSetter pss, int chunkSize, RowMapper<T> rowMapper,
+			QueryStreamSettings settings) throws DataAccessException {
+
+		Assert.notNull(settings, "QueryStreamSettings must not be null");
+		Assert.isTrue(chunkSize > 0, "Chunk size must be positive");
+		return stream(psc, pss, settings, rs -> new ChunkedResultSetSpliterator<>(rs, rowMapper, chunkSize));
+	}
+
+	/**
+	 * Query using a prepared statement, allowing for a PreparedStatementCreator
+	 * and a PreparedStatementSetter, mapping rows to result objects via a RowMapper
+	 * in chunks of the given size, and handing each chunk to the given consumer,
+	 * on the chunk executor of the given settings if any.
+	 * <p>The fetch size of the settings is applied to the statement: its ResultSet
+	 * type and holdability have to be applied by the PreparedStatementCreator,
+	 * for example through a {@link PreparedStatementCreatorFactory}.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param pss a callback that knows how to set values on the prepared statement.
+	 * If this is {@code null}, the SQL will be assumed to contain no bind parameters.
+	 * @param chunkSize the maximum number of mapped objects per chunk
+	 * @param rowMapper a callback that will map one object per row
+	 * @param chunkConsumer a callback that will process each chunk
+	 * @param settings the fetch size and concurrency settings for the query
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 * @see #queryForEachChunk(String, int, RowMapper, Consumer, QueryStreamSettings, Object...)
+	 */
+	public <T> void queryForEachChunk(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
+			int chunkSize, RowMapper<T> rowMapper, Consumer<? super List<T>> chunkConsumer,
+			QueryStreamSettings settings) throws DataAccessException {
+
+		Assert.notNull(chunkConsumer, "Chunk consumer must not be null");
+		try (Stream<List<T>> chunks = queryForChunkedStream(psc, pss, chunkSize, rowMapper, settings)) {
+			Executor executor = settings.getChunkExecutor();
+			if (executor == null) {
+				chunks.forEach(chunkConsumer);
+			}
+			else {
+				new ChunkDispatcher<>(executor, settings.getMaxChunksInFlight(), chunkConsumer)
+						.dispatch(chunks.iterator());
+			}
+		}
+	}
+
+	private <R> Stream<R> stream(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
+			@Nullable QueryStreamSettings settings, Function<ResultSet, Spliterator<R>> spliteratorFactory)
+			throws DataAccessException {
+
 		return result(execute(psc, ps -> {
+			if (settings != null && settings.getFetchSize() != -1) {
+				ps.setFetchSize(settings.getFetchSize());
+			}
 			if (pss != null) {
 				pss.setValues(ps);
 			}
 			ResultSet rs = ps.executeQuery();
 			Connection con = ps.getConnection();
-			return new ResultSetSpliterator<>(rs, rowMapper).stream().onClose(() -> {
+			return StreamSupport.stream(spliteratorFactory.apply(rs), false).onClose(() -> {
 				JdbcUtils.closeResultSet(rs);
 				if (pss instanceof ParameterDisposer) {
 					((ParameterDisposer) pss).cleanupParameters();
@@ -853,6 +958,27 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return queryForStream(psc, null, rowMapper);
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, RowMapper<T> rowMapper,
+			QueryStreamSettings settings) throws DataAccessException {
+
+		return queryForStream(psc, null, rowMapper, settings);
+	}
+
+	@Override
+	public <T> Stream<List<T>> queryForChunkedStream(PreparedStatementCreator psc, int chunkSize,
+			RowMapper<T> rowMapper, QueryStreamSettings settings) throws DataAccessException {
+
+		return queryForChunkedStream(psc, null, chunkSize, rowMapper, settings);
+	}
+
+	@Override
+	public <T> void queryForEachChunk(PreparedStatementCreator psc, int chunkSize, RowMapper<T> rowMapper,
+			Consumer<? super List<T>> chunkConsumer, QueryStreamSettings settings) throws DataAccessException {
+
+		queryForEachChunk(psc, null, chunkSize, rowMapper, chunkConsumer, settings);
+	}
+
 	@Override
 	public <T> Stream<T> queryForStream(String sql, @Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper) throws DataAccessException {
 		return queryForStream(new SimplePreparedStatementCreator(sql), pss, rowMapper);
@@ -863,6 +989,31 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return queryForStream(new SimplePreparedStatementCreator(sql), newArgPreparedStatementSetter(args), rowMapper);
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, QueryStreamSettings settings,
+			@Nullable Object... args) throws DataAccessException {
+
+		return queryForStream(new SimplePreparedStatementCreator(sql, settings),
+				newArgPreparedStatementSetter(args), rowMapper, settings);
+	}
+
+	@Override
+	public <T> Stream<List<T>> queryForChunkedStream(String sql, int chunkSize, RowMapper<T> rowMapper,
+			QueryStreamSettings settings, @Nullable Object... args) throws DataAccessException {
+
+		return queryForChunkedStream(new SimplePreparedStatementCreator(sql, settings),
+				newArgPreparedStatementSetter(args), chunkSize, rowMapper, settings);
+	}
+
+	@Override
+	public <T> void queryForEachChunk(String sql, int chunkSize, RowMapper<T> rowMapper,
+			Consumer<? super List<T>> chunkConsumer, QueryStreamSettings settings, @Nullable Object... args)
+			throws DataAccessException {
+
+		queryForEachChunk(new SimplePreparedStatementCreator(sql, settings),
+				newArgPreparedStatementSetter(args), chunkSize, rowMapper, chunkConsumer, settings);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, Object[] args, int[] argTypes, RowMapper<T> rowMapper)
@@ -1633,13 +1784,34 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 		private final String sql;
 
+		private final int resultSetType;
+
+		private final int resultSetHoldability;
+
 		public SimplePreparedStatementCreator(String sql) {
 			Assert.notNull(sql, "SQL must not be null");
 			this.sql = sql;
+			this.resultSetType = ResultSet.TYPE_FORWARD_ONLY;
+			this.resultSetHoldability = -1;
+		}
+
+		public SimplePreparedStatementCreator(String sql, QueryStreamSettings settings) {
+			Assert.notNull(sql, "SQL must not be null");
+			Assert.notNull(settings, "QueryStreamSettings must not be null");
+			this.sql = sql;
+			this.resultSetType = settings.getResultSetType();
+			this.resultSetHoldability = settings.getResultSetHoldability();
 		}
 
 		@Override
 		public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+			if (this.resultSetHoldability != -1) {
+				return con.prepareStatement(this.sql, this.resultSetType, ResultSet.CONCUR_READ_ONLY,
+						this.resultSetHoldability);
+			}
+			if (this.resultSetType != ResultSet.TYPE_FORWARD_ONLY) {
+				return con.prepareStatement(this.sql, this.resultSetType, ResultSet.CONCUR_READ_ONLY);
+			}
 			return con.prepareStatement(this.sql);
 		}
 
@@ -1750,4 +1922,146 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 	}
 
+
+	/**
+	 * Spliterator for queryForChunkedStream adaptation of a ResultSet to a Stream
+	 * of chunks of mapped objects.
+	 * @since 6.0
+	 */
+	private static class ChunkedResultSetSpliterator<T> implements Spliterator<List<T>> {
+
+		private final ResultSet rs;
+
+		private final RowMapper<T> rowMapper;
+
+		private final int chunkSize;
+
+		private int rowNum = 0;
+
+		private boolean exhausted;
+
+		public ChunkedResultSetSpliterator(ResultSet rs, RowMapper<T> rowMapper, int chunkSize) {
+			this.rs = rs;
+			this.rowMapper = rowMapper;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super List<T>> action) {
+			if (this.exhausted) {
+				return false;
+			}
+			try {
+				List<T> chunk = new ArrayList<>(this.chunkSize);
+				while (chunk.size() < this.chunkSize) {
+					if (!this.rs.next()) {
+						this.exhausted = true;
+						break;
+					}
+					chunk.add(this.rowMapper.mapRow(this.rs, this.rowNum++));
+				}
+				if (chunk.isEmpty()) {
+					return false;
+				}
+				action.accept(chunk);
+				return true;
+			}
+			catch (SQLException ex) {
+				throw new InvalidResultSetAccessException(ex);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Spliterator<List<T>> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.NONNULL;
+		}
+	}
+
+
+	/**
+	 * Hands chunks over to a chunk consumer on an Executor for queryForEachChunk,
+	 * suspending the iteration over chunks while the maximum number of chunks
+	 * are being consumed.
+	 * @since 6.0
+	 */
+	private static class ChunkDispatcher<T> {
+
+		private final Executor executor;
+
+		private final int maxChunksInFlight;
+
+		private final Consumer<? super List<T>> chunkConsumer;
+
+		private final Semaphore permits;
+
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		public ChunkDispatcher(Executor executor, int maxChunksInFlight, Consumer<? super List<T>> chunkConsumer) {
+			this.executor = executor;
+			this.maxChunksInFlight = maxChunksInFlight;
+			this.chunkConsumer = chunkConsumer;
+			this.permits = new Semaphore(maxChunksInFlight);
+		}
+
+		public void dispatch(Iterator<List<T>> chunks) {
+			try {
+				while (this.failure.get() == null && chunks.hasNext()) {
+					List<T> chunk = chunks.next();
+					this.permits.acquire();
+					try {
+						this.executor.execute(() -> consume(chunk));
+					}
+					catch (RuntimeException ex) {
+						this.permits.release();
+						throw ex;
+					}
+				}
+			}
+			catch (InterruptedException ex) {
+				// Re-interrupt current thread, to allow other threads to react.
+				Thread.currentThread().interrupt();
+				throw new DataAccessResourceFailureException("Interrupted while dispatching chunks", ex);
+			}
+			finally {
+				// Wait for the chunks in flight, even if reading failed
+				this.permits.acquireUninterruptibly(this.maxChunksInFlight);
+			}
+			Throwable ex = this.failure.get();
+			if (ex instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (ex instanceof Error error) {
+				throw error;
+			}
+			if (ex != null) {
+				throw new IllegalStateException("Chunk consumer failed", ex);
+			}
+		}
+
+		private void consume(List<T> chunk) {
+			try {
+				if (this.failure.get() == null) {
+					this.chunkConsumer.accept(chunk);
+				}
+			}
+			catch (Throwable ex) {
+				this.failure.compareAndSet(null, ex);
+			}
+			finally {
+				this.permits.release();
+			}
+		}
+	}
+
 }
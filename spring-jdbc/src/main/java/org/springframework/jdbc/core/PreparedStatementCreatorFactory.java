@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -53,6 +53,8 @@ public class PreparedStatementCreatorFactory {
 
 	private boolean updatableResults = false;
 
+	private int resultSetHoldability = -1;
+
 	private boolean returnGeneratedKeys = false;
 
 	@Nullable
@@ -125,6 +127,18 @@ public class PreparedStatementCreatorFactory {
 		this.updatableResults = updatableResults;
 	}
 
+	/**
+	 * Set whether to use prepared statements that return ResultSets of a specific
+	 * holdability, rather than the default holdability of the connection.
+	 * @param resultSetHoldability the ResultSet holdability, or -1 for the default
+	 * @since 6.0
+	 * @see java.sql.ResultSet#HOLD_CURSORS_OVER_COMMIT
+	 * @see java.sql.ResultSet#CLOSE_CURSORS_AT_COMMIT
+	 */
+	public void setResultSetHoldability(int resultSetHoldability) {
+		this.resultSetHoldability = resultSetHoldability;
+	}
+
 	/**
 	 * Set whether prepared statements should be capable of returning auto-generated keys.
 	 */
@@ -232,13 +246,19 @@ public class PreparedStatementCreatorFactory {
 					ps = con.prepareStatement(this.actualSql, Statement.RETURN_GENERATED_KEYS);
 				}
 			}
-			else if (resultSetType == ResultSet.TYPE_FORWARD_ONLY && !updatableResults) {
+			else if (resultSetType == ResultSet.TYPE_FORWARD_ONLY && !updatableResults &&
+					resultSetHoldability == -1) {
 				ps = con.prepareStatement(this.actualSql);
 			}
-			else {
+			else if (resultSetHoldability == -1) {
 				ps = con.prepareStatement(this.actualSql, resultSetType,
 					updatableResults ? ResultSet.CONCUR_UPDATABLE : ResultSet.CONCUR_READ_ONLY);
 			}
+			else {
+				ps = con.prepareStatement(this.actualSql, resultSetType,
+					updatableResults ? ResultSet.CONCUR_UPDATABLE : ResultSet.CONCUR_READ_ONLY,
+					resultSetHoldability);
+			}
 			setValues(ps);
 			return ps;
 		}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.ResultSet;
+import java.util.concurrent.Executor;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Per-query settings for streaming large results with {@link JdbcOperations}
+ * and {@link org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations},
+ * overriding the statement settings of the template for a single query.
+ *
+ * <p>Streamed results are read through a read-only cursor of the configured
+ * {@linkplain #setResultSetType type} and {@linkplain #setResultSetHoldability
+ * holdability}, fetching {@linkplain #setFetchSize rows from the database} as the
+ * stream is consumed. Note that some drivers only honor the fetch size within
+ * a transaction (e.g. PostgreSQL) or with special values (e.g. MySQL), reading
+ * the entire result into memory otherwise.
+ *
+ * <p>Rows can also be handed in chunks to a {@link java.util.function.Consumer}
+ * running on a {@linkplain #setChunkExecutor chunk executor}, while the next chunk
+ * is read: reading is suspended as long as {@linkplain #setMaxChunksInFlight the
+ * maximum number of chunks} are being consumed, so that the memory used for a query
+ * is bounded by the chunk size, whatever the size of its result.
+ *
+ * @since 6.0
+ * @see JdbcOperations#queryForStream(String, RowMapper, QueryStreamSettings, Object...)
+ * @see JdbcOperations#queryForChunkedStream(String, int, RowMapper, QueryStreamSettings, Object...)
+ * @see JdbcOperations#queryForEachChunk(String, int, RowMapper, java.util.function.Consumer, QueryStreamSettings, Object...)
+ */
+public class QueryStreamSettings {
+
+	private int fetchSize = -1;
+
+	private int resultSetType = ResultSet.TYPE_FORWARD_ONLY;
+
+	private int resultSetHoldability = -1;
+
+	@Nullable
+	private Executor chunkExecutor;
+
+	private int maxChunksInFlight = 2;
+
+
+	/**
+	 * Create settings using the fetch size of the template
+	 * and a forward-only cursor.
+	 */
+	public QueryStreamSettings() {
+	}
+
+	/**
+	 * Create settings using the given fetch size and a forward-only cursor.
+	 * @param fetchSize the number of rows to fetch from the database at once
+	 */
+	public QueryStreamSettings(int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
+
+	/**
+	 * Set the fetch size for the query, overriding the fetch size of the template.
+	 * <p>Default is -1, indicating to use the fetch size of the template.
+	 * @see java.sql.Statement#setFetchSize
+	 * @see JdbcTemplate#setFetchSize
+	 */
+	public void setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Return the fetch size for the query.
+	 */
+	public int getFetchSize() {
+		return this.fetchSize;
+	}
+
+	/**
+	 * Set the type of the ResultSet to read rows from.
+	 * <p>Default is {@link ResultSet#TYPE_FORWARD_ONLY}, which allows the driver
+	 * to discard rows once read.
+	 * @see ResultSet#TYPE_FORWARD_ONLY
+	 * @see ResultSet#TYPE_SCROLL_INSENSITIVE
+	 * @see ResultSet#TYPE_SCROLL_SENSITIVE
+	 */
+	public void setResultSetType(int resultSetType) {
+		this.resultSetType = resultSetType;
+	}
+
+	/**
+	 * Return the type of the ResultSet to read rows from.
+	 */
+	public int getResultSetType() {
+		return this.resultSetType;
+	}
+
+	/**
+	 * Set the holdability of the ResultSet to read rows from, for example to keep
+	 * reading rows after the transaction of the query has been committed.
+	 * <p>Default is -1, indicating to use the default holdability of the connection.
+	 * @see ResultSet#HOLD_CURSORS_OVER_COMMIT
+	 * @see ResultSet#CLOSE_CURSORS_AT_COMMIT
+	 */
+	public void setResultSetHoldability(int resultSetHoldability) {
+		this.resultSetHoldability = resultSetHoldability;
+	}
+
+	/**
+	 * Return the holdability of the ResultSet to read rows from.
+	 */
+	public int getResultSetHoldability() {
+		return this.resultSetHoldability;
+	}
+
+	/**
+	 * Set the executor to consume chunks of rows with, concurrently with
+	 * reading the next chunks.
+	 * <p>Default is none, consuming chunks on the thread reading the rows.
+	 * @see JdbcOperations#queryForEachChunk
+	 */
+	public void setChunkExecutor(@Nullable Executor chunkExecutor) {
+		this.chunkExecutor = chunkExecutor;
+	}
+
+	/**
+	 * Return the executor to consume chunks of rows with, if any.
+	 */
+	@Nullable
+	public Executor getChunkExecutor() {
+		return this.chunkExecutor;
+	}
+
+	/**
+	 * Set the maximum number of chunks being consumed on the
+	 * {@linkplain #setChunkExecutor chunk executor} at the same time,
+	 * before reading from the database is suspended.
+	 * <p>Default is 2.
+	 */
+	public void setMaxChunksInFlight(int maxChunksInFlight) {
+		Assert.isTrue(maxChunksInFlight > 0, "'maxChunksInFlight' must be positive");
+		this.maxChunksInFlight = maxChunksInFlight;
+	}
+
+	/**
+	 * Return the maximum number of chunks being consumed at the same time.
+	 */
+	public int getMaxChunksInFlight() {
+		return this.maxChunksInFlight;
+	}
+
+}
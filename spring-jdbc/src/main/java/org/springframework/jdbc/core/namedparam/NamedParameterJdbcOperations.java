@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,11 +18,13 @@ package org.springframework.jdbc.core.namedparam;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.QueryStreamSettings;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
@@ -258,6 +260,121 @@ public interface NamedParameterJdbcOperations {
 	<T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper)
 			throws DataAccessException;
 
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping each row to a Java object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream
+	 * read with the given settings.
+	 * @param sql the SQL query to execute
+	 * @param paramSource container of arguments to bind to the query
+	 * @param rowMapper object that will map one object per row
+	 * @param settings the fetch size and cursor settings for the query
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 * @see QueryStreamSettings
+	 */
+	<T> Stream<T> queryForStream(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper,
+			QueryStreamSettings settings) throws DataAccessException;
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping each row to a Java object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream
+	 * read with the given settings.
+	 * @param sql the SQL query to execute
+	 * @param paramMap map of parameters to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type)
+	 * @param rowMapper object that will map one object per row
+	 * @param settings the fetch size and cursor settings for the query
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 * @see QueryStreamSettings
+	 */
+	<T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper,
+			QueryStreamSettings settings) throws DataAccessException;
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping rows to Java objects via
+	 * a RowMapper in chunks of the given size, and turning them into an
+	 * iterable and closeable Stream read with the given settings.
+	 * @param sql the SQL query to execute
+	 * @param paramSource container of arguments to bind to the query
+	 * @param chunkSize the maximum number of mapped objects per chunk
+	 * @param rowMapper object that will map one object per row
+	 * @param settings the fetch size and cursor settings for the query
+	 * @return the result Stream, containing chunks of mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 * @see QueryStreamSettings
+	 */
+	<T> Stream<List<T>> queryForChunkedStream(String sql, SqlParameterSource paramSource,
+			int chunkSize, RowMapper<T> rowMapper, QueryStreamSettings settings) throws DataAccessException;
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping rows to Java objects via
+	 * a RowMapper in chunks of the given size, and turning them into an
+	 * iterable and closeable Stream read with the given settings.
+	 * @param sql the SQL query to execute
+	 * @param paramMap map of parameters to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type)
+	 * @param chunkSize the maximum number of mapped objects per chunk
+	 * @param rowMapper object that will map one object per row
+	 * @param settings the fetch size and cursor settings for the query
+	 * @return the result Stream, containing chunks of mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 * @see QueryStreamSettings
+	 */
+	<T> Stream<List<T>> queryForChunkedStream(String sql, Map<String, ?> paramMap,
+			int chunkSize, RowMapper<T> rowMapper, QueryStreamSettings settings) throws DataAccessException;
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping rows to Java objects via
+	 * a RowMapper in chunks of the given size, and handing each chunk to the
+	 * given consumer, on the chunk executor of the given settings if any.
+	 * @param sql the SQL query to execute
+	 * @param paramSource container of arguments to bind to the query
+	 * @param chunkSize the maximum number of mapped objects per chunk
+	 * @param rowMapper object that will map one object per row
+	 * @param chunkConsumer object that will process each chunk
+	 * @param settings the fetch size, cursor and concurrency settings for the query
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 * @see JdbcOperations#queryForEachChunk(String, int, RowMapper, Consumer, QueryStreamSettings, Object...)
+	 */
+	<T> void queryForEachChunk(String sql, SqlParameterSource paramSource, int chunkSize,
+			RowMapper<T> rowMapper, Consumer<? super List<T>> chunkConsumer, QueryStreamSettings settings)
+			throws DataAccessException;
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping rows to Java objects via
+	 * a RowMapper in chunks of the given size, and handing each chunk to the
+	 * given consumer, on the chunk executor of the given settings if any.
+	 * @param sql the SQL query to execute
+	 * @param paramMap map of parameters to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type)
+	 * @param chunkSize the maximum number of mapped objects per chunk
+	 * @param rowMapper object that will map one object per row
+	 * @param chunkConsumer object that will process each chunk
+	 * @param settings the fetch size, cursor and concurrency settings for the query
+	 * @throws DataAccessException if the query fails
+	 * @since 6.0
+	 * @see JdbcOperations#queryForEachChunk(String, int, RowMapper, Consumer, QueryStreamSettings, Object...)
+	 */
+	<T> void queryForEachChunk(String sql, Map<String, ?> paramMap, int chunkSize,
+			RowMapper<T> rowMapper, Consumer<? super List<T>> chunkConsumer, QueryStreamSettings settings)
+			throws DataAccessException;
+
 	/**
 	 * Query given SQL to create a prepared statement from SQL and a list
 	 * of arguments to bind to the query, mapping a single result row to a
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.QueryStreamSettings;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
@@ -235,6 +236,53 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return queryForStream(sql, new MapSqlParameterSource(paramMap), rowMapper);
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper,
+			QueryStreamSettings settings) throws DataAccessException {
+
+		return getJdbcOperations().queryForStream(
+				getStreamingPreparedStatementCreator(sql, paramSource, settings), rowMapper, settings);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper,
+			QueryStreamSettings settings) throws DataAccessException {
+
+		return queryForStream(sql, new MapSqlParameterSource(paramMap), rowMapper, settings);
+	}
+
+	@Override
+	public <T> Stream<List<T>> queryForChunkedStream(String sql, SqlParameterSource paramSource,
+			int chunkSize, RowMapper<T> rowMapper, QueryStreamSettings settings) throws DataAccessException {
+
+		return getJdbcOperations().queryForChunkedStream(
+				getStreamingPreparedStatementCreator(sql, paramSource, settings), chunkSize, rowMapper, settings);
+	}
+
+	@Override
+	public <T> Stream<List<T>> queryForChunkedStream(String sql, Map<String, ?> paramMap,
+			int chunkSize, RowMapper<T> rowMapper, QueryStreamSettings settings) throws DataAccessException {
+
+		return queryForChunkedStream(sql, new MapSqlParameterSource(paramMap), chunkSize, rowMapper, settings);
+	}
+
+	@Override
+	public <T> void queryForEachChunk(String sql, SqlParameterSource paramSource, int chunkSize,
+			RowMapper<T> rowMapper, Consumer<? super List<T>> chunkConsumer, QueryStreamSettings settings)
+			throws DataAccessException {
+
+		getJdbcOperations().queryForEachChunk(getStreamingPreparedStatementCreator(sql, paramSource, settings),
+				chunkSize, rowMapper, chunkConsumer, settings);
+	}
+
+	@Override
+	public <T> void queryForEachChunk(String sql, Map<String, ?> paramMap, int chunkSize,
+			RowMapper<T> rowMapper, Consumer<? super List<T>> chunkConsumer, QueryStreamSettings settings)
+			throws DataAccessException {
+
+		queryForEachChunk(sql, new MapSqlParameterSource(paramMap), chunkSize, rowMapper, chunkConsumer, settings);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
@@ -426,6 +474,20 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return pscf.newPreparedStatementCreator(params);
 	}
 
+	/**
+	 * Build a {@link PreparedStatementCreator} based on the given SQL and named parameters,
+	 * creating statements with the ResultSet type and holdability of the given settings.
+	 */
+	private PreparedStatementCreator getStreamingPreparedStatementCreator(String sql,
+			SqlParameterSource paramSource, QueryStreamSettings settings) {
+
+		Assert.notNull(settings, "QueryStreamSettings must not be null");
+		return getPreparedStatementCreator(sql, paramSource, pscf -> {
+			pscf.setResultSetType(settings.getResultSetType());
+			pscf.setResultSetHoldability(settings.getResultSetHoldability());
+		});
+	}
+
 	/**
 	 * Obtain a parsed representation of the given SQL statement.
 	 * <p>The default implementation uses an LRU cache with an upper limit of 256 entries.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,9 @@ import java.sql.ResultSetMetaData;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -37,9 +40,11 @@ import org.springframework.dao.IncorrectResultSizeDataAccessException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -378,6 +383,101 @@ public class JdbcTemplateQueryTests {
 		verify(this.preparedStatement).close();
 	}
 
+	@Test
+	public void testQueryForStreamWithSettings() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID > ?";
+		given(this.connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+				ResultSet.HOLD_CURSORS_OVER_COMMIT)).willReturn(this.preparedStatement);
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(22, 23);
+		QueryStreamSettings settings = new QueryStreamSettings(500);
+		settings.setResultSetHoldability(ResultSet.HOLD_CURSORS_OVER_COMMIT);
+		this.template.setFetchSize(10);
+		try (Stream<Integer> s = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1), settings, 3)) {
+			assertThat(s).containsExactly(22, 23);
+		}
+		verify(this.preparedStatement).setFetchSize(500);
+		verify(this.preparedStatement).setObject(1, 3);
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithPreparedStatementCreator() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(22, 23);
+		PreparedStatementCreator psc = con -> con.prepareStatement(sql);
+		RowMapper<Integer> rowMapper = (rs, rowNum) -> rs.getInt(1);
+		try (Stream<Integer> s = this.template.queryForStream(psc, null, rowMapper)) {
+			assertThat(s).containsExactly(22, 23);
+		}
+		given(this.resultSet.next()).willReturn(true, false);
+		given(this.resultSet.getInt(1)).willReturn(24);
+		try (Stream<Integer> s = this.template.queryForStream(psc, rowMapper, new QueryStreamSettings(500))) {
+			assertThat(s).containsExactly(24);
+		}
+		verify(this.preparedStatement).setFetchSize(500);
+		verify(this.resultSet, times(2)).close();
+		verify(this.preparedStatement, times(2)).close();
+	}
+
+	@Test
+	public void testQueryForChunkedStream() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		given(this.resultSet.next()).willReturn(true, true, true, true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(1, 2, 3, 4, 5);
+		try (Stream<List<Integer>> s = this.template.queryForChunkedStream(sql, 2,
+				(rs, rowNum) -> rs.getInt(1), new QueryStreamSettings())) {
+			assertThat(s).containsExactly(List.of(1, 2), List.of(3, 4), List.of(5));
+		}
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+	}
+
+	@Test
+	public void testQueryForEachChunkWithExecutor() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		given(this.resultSet.next()).willReturn(true, true, true, true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(1, 2, 3, 4, 5);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			QueryStreamSettings settings = new QueryStreamSettings();
+			settings.setChunkExecutor(executor);
+			List<Integer> consumed = new CopyOnWriteArrayList<>();
+			this.template.queryForEachChunk(sql, 2, (rs, rowNum) -> rs.getInt(1), consumed::addAll, settings);
+			assertThat(consumed).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+		}
+		finally {
+			executor.shutdown();
+		}
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+	}
+
+	@Test
+	public void testQueryForEachChunkWithFailingConsumer() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		given(this.resultSet.next()).willReturn(true);
+		given(this.resultSet.getInt(1)).willReturn(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			QueryStreamSettings settings = new QueryStreamSettings();
+			settings.setChunkExecutor(executor);
+			assertThatIllegalStateException().isThrownBy(() ->
+					this.template.queryForEachChunk(sql, 10, (rs, rowNum) -> rs.getInt(1), chunk -> {
+						throw new IllegalStateException("Consumer failure");
+					}, settings))
+				.withMessage("Consumer failure");
+		}
+		finally {
+			executor.shutdown();
+		}
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+	}
+
 	@Test
 	public void testQueryForObjectWithArgsAndInteger() throws Exception {
 		String sql = "SELECT AGE FROM CUSTMR WHERE ID = ?";
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -42,6 +42,7 @@ import org.springframework.jdbc.Customer;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.QueryStreamSettings;
 import org.springframework.jdbc.core.SqlParameterValue;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -427,6 +428,31 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection).close();
 	}
 
+	@Test
+	public void testQueryForChunkedStreamWithSettings() throws SQLException {
+		given(connection.prepareStatement(SELECT_NAMED_PARAMETERS_PARSED, ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT)).willReturn(preparedStatement);
+		given(resultSet.next()).willReturn(true, true, true, false);
+		given(resultSet.getInt("id")).willReturn(1, 2, 3);
+
+		params.put("id", new SqlParameterValue(Types.DECIMAL, 1));
+		params.put("country", "UK");
+		QueryStreamSettings settings = new QueryStreamSettings(1000);
+		settings.setResultSetHoldability(ResultSet.HOLD_CURSORS_OVER_COMMIT);
+
+		try (Stream<List<Integer>> s = namedParameterTemplate.queryForChunkedStream(SELECT_NAMED_PARAMETERS, params,
+				2, (rs, rownum) -> rs.getInt(COLUMN_NAMES[0]), settings)) {
+			assertThat(s).containsExactly(List.of(1, 2), List.of(3));
+		}
+
+		verify(preparedStatement).setFetchSize(1000);
+		verify(preparedStatement).setObject(1, 1, Types.DECIMAL);
+		verify(preparedStatement).setString(2, "UK");
+		verify(resultSet).close();
+		verify(preparedStatement).close();
+		verify(connection).close();
+	}
+
 	@Test
 	public void testUpdate() throws SQLException {
 		given(preparedStatement.executeUpdate()).willReturn(1);
@@ -40,7 +40,7 @@ public class DefaultSubscriptionRegistryBenchmark {
 
 	@State(Scope.Benchmark)
 	public static class ServerState {
-		@Param("1000")
+		@Param({"1000", "100000"})
 		public int sessions;
 
 		@Param("10")
@@ -49,7 +49,7 @@ public class DefaultSubscriptionRegistryBenchmark {
 		@Param({"0", "1024"})
 		int cacheSizeLimit;
 
-		@Param({"none", "patternSubscriptions", "selectorHeaders"})
+		@Param({"none", "patternSubscriptions", "mixedPatternSubscriptions", "selectorHeaders"})
 		String specialization;
 
 		public DefaultSubscriptionRegistry registry;
@@ -87,10 +87,19 @@ public class DefaultSubscriptionRegistryBenchmark {
 		}
 
 		public void registerSubscriptions(String sessionId, String destination) {
+			int uniqueNumber = this.uniqueIdGenerator.incrementAndGet();
 			if ("patternSubscriptions".equals(this.specialization)) {
 				destination = "/**/" + destination;
 			}
-			String subscriptionId = "subscription_" + this.uniqueIdGenerator.incrementAndGet();
+			else if ("mixedPatternSubscriptions".equals(this.specialization)) {
+				destination = switch (uniqueNumber % 4) {
+					case 0 -> destination;
+					case 1 -> destination.replace("/destination/", "/*/");
+					case 2 -> "/user/" + sessionId + "/**";
+					default -> "/**/" + destination;
+				};
+			}
+			String subscriptionId = "subscription_" + uniqueNumber;
 			this.registry.registerSubscription(subscribeMessage(sessionId, subscriptionId, destination));
 		}
 	}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp.broker;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Benchmark for broadcasting messages to a topic with many subscribers
+ * through a {@link SimpleBrokerMessageHandler}, with and without partitions.
+ * Each operation completes once the message has been sent to all subscribers.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SimpleBrokerMessageHandlerBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BrokerState {
+
+		@Param({"10000"})
+		public int subscribers;
+
+		@Param({"0", "4"})
+		public int partitions;
+
+		public final AtomicLong delivered = new AtomicLong();
+
+		public long expected;
+
+		public SimpleBrokerMessageHandler messageHandler;
+
+		public Message<?> message;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			MessageChannel clientOutboundChannel = (message, timeout) -> {
+				if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+					this.delivered.incrementAndGet();
+				}
+				return true;
+			};
+			this.messageHandler = new SimpleBrokerMessageHandler(new ExecutorSubscribableChannel(),
+					clientOutboundChannel, new ExecutorSubscribableChannel(), Collections.emptyList());
+			this.messageHandler.setPartitionCount(this.partitions);
+			this.messageHandler.start();
+			for (int i = 0; i < this.subscribers; i++) {
+				String sessionId = "session_" + i;
+				this.messageHandler.handleMessage(createMessage(SimpMessageType.CONNECT, sessionId, null));
+				SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+				accessor.setSessionId(sessionId);
+				accessor.setSubscriptionId("subscription_" + i);
+				accessor.setDestination("/topic/prices");
+				this.messageHandler.handleMessage(MessageBuilder.createMessage("", accessor.getMessageHeaders()));
+			}
+			this.message = createMessage(SimpMessageType.MESSAGE, null, "/topic/prices");
+		}
+
+		@TearDown(Level.Trial)
+		public void shutdown() {
+			this.messageHandler.stop();
+		}
+
+		private static Message<?> createMessage(SimpMessageType messageType, String sessionId, String destination) {
+			SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(messageType);
+			accessor.setSessionId(sessionId);
+			accessor.setDestination(destination);
+			return MessageBuilder.createMessage("payload", accessor.getMessageHeaders());
+		}
+	}
+
+	@Benchmark
+	public long broadcast(BrokerState state) {
+		state.expected += state.subscribers;
+		state.messageHandler.handleMessage(state.message);
+		while (state.delivered.get() < state.expected) {
+			Thread.onSpinWait();
+		}
+		return state.expected;
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp.stomp;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Benchmark for encoding the STOMP frames of a message broadcast by the broker
+ * to many subscriptions, with and without a broadcast cache shared by all frames.
+ * Results are per recipient: run with the GC profiler ({@code -prof gc}) to get
+ * the bytes allocated per recipient ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StompEncoderBenchmark {
+
+	private static final int RECIPIENTS = 100;
+
+
+	@State(Scope.Benchmark)
+	public static class BroadcastState {
+
+		@Param({"128", "4096"})
+		public int payloadSize;
+
+		@Param({"true", "false"})
+		public boolean broadcastCache;
+
+		public final StompEncoder encoder = new StompEncoder();
+
+		public final AtomicReference<Object> cache = new AtomicReference<>();
+
+		public Message<?>[] messages;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			byte[] payload = new byte[this.payloadSize];
+			Arrays.fill(payload, (byte) 'a');
+			this.messages = new Message<?>[RECIPIENTS];
+			for (int i = 0; i < RECIPIENTS; i++) {
+				// As created by the broker for each subscription
+				SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+				accessor.setSessionId("session_" + i);
+				accessor.setSubscriptionId("subscription_" + i);
+				accessor.setDestination("/topic/prices.stock.NASDAQ");
+				accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+				accessor.setNativeHeader("priority", "9");
+				if (this.broadcastCache) {
+					accessor.setHeader(SimpMessageHeaderAccessor.BROADCAST_CACHE_HEADER, this.cache);
+				}
+				this.messages[i] = MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECIPIENTS)
+	public void encodeBroadcast(BroadcastState state, Blackhole blackhole) {
+		state.cache.set(null);
+		for (Message<?> message : state.messages) {
+			// As prepared by StompSubProtocolHandler for each WebSocket session
+			StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+			accessor.updateStompCommandAsServerMessage();
+			blackhole.consume(state.encoder.encode(accessor.getMessageHeaders(), (byte[]) message.getPayload()));
+		}
+	}
+
+}
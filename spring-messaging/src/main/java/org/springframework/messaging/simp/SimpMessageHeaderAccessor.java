@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -84,6 +84,16 @@ public class SimpMessageHeaderAccessor extends NativeMessageHeaderAccessor {
 	 */
 	public static final String IGNORE_ERROR = "simpIgnoreError";
 
+	/**
+	 * A header set by the broker on the messages created when broadcasting a
+	 * message to several subscriptions. The value is an
+	 * {@link java.util.concurrent.atomic.AtomicReference AtomicReference}
+	 * shared by all those messages, which encoders may use to cache the
+	 * encoded content common to all of them.
+	 * @since 6.0
+	 */
+	public static final String BROADCAST_CACHE_HEADER = "simpBroadcastCache";
+
 
 	@Nullable
 	private Consumer<Principal> userCallback;
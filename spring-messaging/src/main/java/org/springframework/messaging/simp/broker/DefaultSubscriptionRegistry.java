@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
@@ -58,6 +59,12 @@ import org.springframework.util.StringUtils;
  * header on subscription messages with Spring EL expressions evaluated against
  * the headers to filter out messages in addition to destination matching.
  *
+ * <p>As of 6.0, subscriptions are indexed by destination, and pattern
+ * subscriptions by destination segment when using an {@link AntPathMatcher}
+ * with default settings and either "/" or "." as path separator: resolving the
+ * subscriptions for a destination then only checks the patterns that can
+ * match it, instead of all pattern subscriptions.
+ *
  * @author Rossen Stoyanchev
  * @author Sebastien Deleuze
  * @author Juergen Hoeller
@@ -88,12 +95,15 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	private final SessionRegistry sessionRegistry = new SessionRegistry();
 
+	private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
+
 
 	/**
 	 * Specify the {@link PathMatcher} to use.
 	 */
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		this.pathMatcher = pathMatcher;
+		this.subscriptionIndex.reindexPatterns();
 	}
 
 	/**
@@ -154,8 +164,10 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		Expression expression = getSelectorExpression(message.getHeaders());
 		Subscription subscription = new Subscription(subscriptionId, destination, isPattern, expression);
 
-		this.sessionRegistry.addSubscription(sessionId, subscription);
-		this.destinationCache.updateAfterNewSubscription(sessionId, subscription);
+		if (this.sessionRegistry.addSubscription(sessionId, subscription)) {
+			this.subscriptionIndex.addSubscription(sessionId, subscription);
+			this.destinationCache.updateAfterNewSubscription(sessionId, subscription);
+		}
 	}
 
 	@Nullable
@@ -189,6 +201,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		if (info != null) {
 			Subscription subscription = info.removeSubscription(subscriptionId);
 			if (subscription != null) {
+				this.subscriptionIndex.removeSubscription(sessionId, subscription);
 				this.destinationCache.updateAfterRemovedSubscription(sessionId, subscription);
 			}
 		}
@@ -198,6 +211,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	public void unregisterAllSubscriptions(String sessionId) {
 		SessionInfo info = this.sessionRegistry.removeSubscriptions(sessionId);
 		if (info != null) {
+			for (Subscription subscription : info.getSubscriptions()) {
+				this.subscriptionIndex.removeSubscription(sessionId, subscription);
+			}
 			this.destinationCache.updateAfterRemovedSession(sessionId, info);
 		}
 	}
@@ -245,6 +261,128 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	}
 
 
+	/**
+	 * Add a subscription id to a [sessionId -> subscriptionId's] map, returning
+	 * the map to use from now on: maps holding a single session are immutable.
+	 */
+	private static Map<String, List<String>> addSubscriptionId(
+			@Nullable Map<String, List<String>> sessions, String sessionId, String subscriptionId) {
+
+		List<String> subscriptionIds = Collections.singletonList(subscriptionId);
+		if (sessions == null) {
+			return Collections.singletonMap(sessionId, subscriptionIds);
+		}
+		if (sessions instanceof ConcurrentHashMap) {
+			sessions.merge(sessionId, subscriptionIds, DefaultSubscriptionRegistry::concat);
+			return sessions;
+		}
+		List<String> existingIds = sessions.get(sessionId);
+		if (existingIds != null) {
+			return Collections.singletonMap(sessionId, concat(existingIds, subscriptionIds));
+		}
+		Map<String, List<String>> result = new ConcurrentHashMap<>(sessions);
+		result.put(sessionId, subscriptionIds);
+		return result;
+	}
+
+	/**
+	 * Remove a subscription id from a [sessionId -> subscriptionId's] map,
+	 * returning the map to use from now on, or {@code null} if empty.
+	 */
+	@Nullable
+	private static Map<String, List<String>> removeSubscriptionId(
+			Map<String, List<String>> sessions, String sessionId, String subscriptionId) {
+
+		BiFunction<String, List<String>, List<String>> removal = (_sessionId, subscriptionIds) -> {
+			if (subscriptionIds.size() == 1) {
+				return (subscriptionId.equals(subscriptionIds.get(0)) ? null : subscriptionIds);
+			}
+			List<String> result = new ArrayList<>(subscriptionIds);
+			result.remove(subscriptionId);
+			return result;
+		};
+		if (sessions instanceof ConcurrentHashMap) {
+			sessions.computeIfPresent(sessionId, removal);
+			return (sessions.isEmpty() ? null : sessions);
+		}
+		List<String> subscriptionIds = sessions.get(sessionId);
+		if (subscriptionIds == null) {
+			return sessions;
+		}
+		subscriptionIds = removal.apply(sessionId, subscriptionIds);
+		return (subscriptionIds != null ? Collections.singletonMap(sessionId, subscriptionIds) : null);
+	}
+
+	private static Map<String, Map<String, List<String>>> addPatternSubscriptionId(
+			@Nullable Map<String, Map<String, List<String>>> patterns,
+			String pattern, String sessionId, String subscriptionId) {
+
+		if (patterns == null) {
+			patterns = new ConcurrentHashMap<>(4);
+		}
+		patterns.compute(pattern, (_pattern, sessions) -> addSubscriptionId(sessions, sessionId, subscriptionId));
+		return patterns;
+	}
+
+	@Nullable
+	private static Map<String, Map<String, List<String>>> removePatternSubscriptionId(
+			@Nullable Map<String, Map<String, List<String>>> patterns,
+			String pattern, String sessionId, String subscriptionId) {
+
+		if (patterns == null) {
+			return null;
+		}
+		patterns.computeIfPresent(pattern, (_pattern, sessions) -> removeSubscriptionId(sessions, sessionId, subscriptionId));
+		return (patterns.isEmpty() ? null : patterns);
+	}
+
+	private static List<String> concat(List<String> subscriptionIds, List<String> otherIds) {
+		List<String> result = new ArrayList<>(subscriptionIds.size() + otherIds.size());
+		result.addAll(subscriptionIds);
+		result.addAll(otherIds);
+		return result;
+	}
+
+	/**
+	 * Return the path separator used by the given PathMatcher, if it matches
+	 * literal segments exactly and patterns can be indexed by segment, or 0.
+	 */
+	private static char getPathSeparator(PathMatcher pathMatcher) {
+		if (pathMatcher.getClass() != AntPathMatcher.class ||
+				pathMatcher.match("a", "A") || pathMatcher.match("a", " a")) {
+			return 0;
+		}
+		if (!pathMatcher.match("*", "a/b")) {
+			return '/';
+		}
+		if (!pathMatcher.match("*", "a.b")) {
+			return '.';
+		}
+		return 0;
+	}
+
+	/**
+	 * Split the given destination into segments the way AntPathMatcher does,
+	 * ignoring empty segments.
+	 */
+	private static List<String> tokenize(String destination, char separator) {
+		List<String> segments = new ArrayList<>();
+		int start = 0;
+		int length = destination.length();
+		while (start < length) {
+			int end = destination.indexOf(separator, start);
+			if (end == -1) {
+				end = length;
+			}
+			if (end > start) {
+				segments.add(destination.substring(start, end));
+			}
+			start = end + 1;
+		}
+		return segments;
+	}
+
+
 	/**
 	 * Cache for destinations resolved previously via
 	 * {@link DefaultSubscriptionRegistry#findSubscriptionsInternal(String, Message)}.
@@ -275,18 +413,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		}
 
 		private LinkedMultiValueMap<String, String> computeMatchingSubscriptions(String destination) {
-			LinkedMultiValueMap<String, String> sessionIdToSubscriptionIds = new LinkedMultiValueMap<>();
-			DefaultSubscriptionRegistry.this.sessionRegistry.forEachSubscription((sessionId, subscription) -> {
-				if (subscription.isPattern()) {
-					if (pathMatcher.match(subscription.getDestination(), destination)) {
-						addMatchedSubscriptionId(sessionIdToSubscriptionIds, sessionId, subscription.getId());
-					}
-				}
-				else if (destination.equals(subscription.getDestination())) {
-					addMatchedSubscriptionId(sessionIdToSubscriptionIds, sessionId, subscription.getId());
-				}
-			});
-			return sessionIdToSubscriptionIds;
+			return DefaultSubscriptionRegistry.this.subscriptionIndex.findSubscriptions(destination);
 		}
 
 		private void addMatchedSubscriptionId(
@@ -378,6 +505,258 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		}
 	}
 
+	/**
+	 * Index of all subscriptions, for resolving the subscriptions matching a
+	 * destination without iterating over all of them.
+	 * <p>Subscriptions to a destination are indexed by that destination. Pattern
+	 * subscriptions are held in a trie of destination segments, with literal
+	 * segments, single segment wildcards, and "**" wildcards matching any
+	 * remaining segments: the patterns found along the segments of a destination
+	 * are then checked with the {@link PathMatcher}. Patterns are all checked
+	 * if the PathMatcher does not split destinations into segments as expected.
+	 */
+	private final class SubscriptionIndex {
+
+		// destination -> [sessionId -> subscriptionId's]
+		private final Map<String, Map<String, List<String>>> destinations = new ConcurrentHashMap<>();
+
+		// Modified under lock, read without
+		private volatile PatternNode patterns = new PatternNode();
+
+		// 0 if patterns cannot be indexed by segment
+		private volatile char pathSeparator = getPathSeparator(pathMatcher);
+
+		public LinkedMultiValueMap<String, String> findSubscriptions(String destination) {
+			LinkedMultiValueMap<String, String> sessionIdToSubscriptionIds = new LinkedMultiValueMap<>();
+			Map<String, List<String>> sessions = this.destinations.get(destination);
+			if (sessions != null) {
+				addMatchedSubscriptionIds(sessionIdToSubscriptionIds, sessions);
+			}
+			PatternNode root = this.patterns;
+			char separator = this.pathSeparator;
+			if (separator == 0) {
+				addMatchingPatterns(sessionIdToSubscriptionIds, root.restPatterns, destination);
+			}
+			else if (!root.isEmpty()) {
+				List<String> segments = tokenize(destination, separator);
+				findMatchingPatterns(sessionIdToSubscriptionIds, root, segments, 0, destination);
+			}
+			return sessionIdToSubscriptionIds;
+		}
+
+		private void findMatchingPatterns(LinkedMultiValueMap<String, String> sessionIdToSubscriptionIds,
+				PatternNode node, List<String> segments, int index, String destination) {
+
+			addMatchingPatterns(sessionIdToSubscriptionIds, node.restPatterns, destination);
+			PatternNode wildcardChild = node.wildcardChild;
+			if (index == segments.size()) {
+				addMatchingPatterns(sessionIdToSubscriptionIds, node.patterns, destination);
+				if (wildcardChild != null) {
+					// A trailing "*" also matches a destination ending with a separator
+					addMatchingPatterns(sessionIdToSubscriptionIds, wildcardChild.patterns, destination);
+				}
+				return;
+			}
+			Map<String, PatternNode> children = node.children;
+			PatternNode child = (children != null ? children.get(segments.get(index)) : null);
+			if (child != null) {
+				findMatchingPatterns(sessionIdToSubscriptionIds, child, segments, index + 1, destination);
+			}
+			if (wildcardChild != null) {
+				findMatchingPatterns(sessionIdToSubscriptionIds, wildcardChild, segments, index + 1, destination);
+			}
+		}
+
+		private void addMatchingPatterns(LinkedMultiValueMap<String, String> sessionIdToSubscriptionIds,
+				@Nullable Map<String, Map<String, List<String>>> patterns, String destination) {
+
+			if (patterns != null) {
+				patterns.forEach((pattern, sessions) -> {
+					if (pathMatcher.match(pattern, destination)) {
+						addMatchedSubscriptionIds(sessionIdToSubscriptionIds, sessions);
+					}
+				});
+			}
+		}
+
+		private void addMatchedSubscriptionIds(
+				LinkedMultiValueMap<String, String> sessionIdToSubscriptionIds, Map<String, List<String>> sessions) {
+
+			sessions.forEach((sessionId, subscriptionIds) ->
+					sessionIdToSubscriptionIds.merge(sessionId, subscriptionIds, DefaultSubscriptionRegistry::concat));
+		}
+
+		public void addSubscription(String sessionId, Subscription subscription) {
+			String destination = subscription.getDestination();
+			String subscriptionId = subscription.getId();
+			if (!subscription.isPattern()) {
+				this.destinations.compute(destination, (_destination, sessions) ->
+						addSubscriptionId(sessions, sessionId, subscriptionId));
+				return;
+			}
+			synchronized (this) {
+				addPattern(this.patterns, sessionId, subscription);
+			}
+		}
+
+		private void addPattern(PatternNode root, String sessionId, Subscription subscription) {
+			String pattern = subscription.getDestination();
+			String subscriptionId = subscription.getId();
+			PatternNode node = root;
+			if (this.pathSeparator != 0) {
+				for (String segment : tokenize(pattern, this.pathSeparator)) {
+					if (segment.equals("**")) {
+						node.restPatterns = addPatternSubscriptionId(node.restPatterns, pattern, sessionId, subscriptionId);
+						return;
+					}
+					node = node.getOrCreateChild(segment);
+				}
+				node.patterns = addPatternSubscriptionId(node.patterns, pattern, sessionId, subscriptionId);
+			}
+			else {
+				node.restPatterns = addPatternSubscriptionId(node.restPatterns, pattern, sessionId, subscriptionId);
+			}
+		}
+
+		public void removeSubscription(String sessionId, Subscription subscription) {
+			String destination = subscription.getDestination();
+			String subscriptionId = subscription.getId();
+			if (!subscription.isPattern()) {
+				this.destinations.computeIfPresent(destination, (_destination, sessions) ->
+						removeSubscriptionId(sessions, sessionId, subscriptionId));
+				return;
+			}
+			synchronized (this) {
+				PatternNode root = this.patterns;
+				if (this.pathSeparator == 0) {
+					root.restPatterns = removePatternSubscriptionId(root.restPatterns, destination, sessionId, subscriptionId);
+					return;
+				}
+				List<PatternNode> path = new ArrayList<>();
+				List<String> segments = new ArrayList<>();
+				PatternNode node = root;
+				for (String segment : tokenize(destination, this.pathSeparator)) {
+					if (segment.equals("**")) {
+						node.restPatterns = removePatternSubscriptionId(node.restPatterns, destination, sessionId, subscriptionId);
+						node = null;
+						break;
+					}
+					path.add(node);
+					segments.add(segment);
+					node = node.getChild(segment);
+					if (node == null) {
+						return;
+					}
+				}
+				if (node != null) {
+					node.patterns = removePatternSubscriptionId(node.patterns, destination, sessionId, subscriptionId);
+				}
+				// Prune nodes left empty, from the deepest one
+				for (int i = path.size() - 1; i >= 0; i--) {
+					PatternNode parent = path.get(i);
+					PatternNode child = parent.getChild(segments.get(i));
+					if (child == null || !child.isEmpty()) {
+						break;
+					}
+					parent.removeChild(segments.get(i));
+				}
+			}
+		}
+
+		public void reindexPatterns() {
+			synchronized (this) {
+				PatternNode root = new PatternNode();
+				this.pathSeparator = getPathSeparator(pathMatcher);
+				sessionRegistry.forEachSubscription((sessionId, subscription) -> {
+					if (subscription.isPattern()) {
+						addPattern(root, sessionId, subscription);
+					}
+				});
+				this.patterns = root;
+			}
+		}
+	}
+
+	/**
+	 * Node of the pattern trie, for a segment of pattern subscriptions.
+	 * Maps are created on demand, since most nodes only need some of them.
+	 */
+	private static final class PatternNode {
+
+		// literal segment -> node
+		@Nullable
+		volatile Map<String, PatternNode> children;
+
+		// Node for any wildcard segment, such as "*", "a?", or "{id}"
+		@Nullable
+		volatile PatternNode wildcardChild;
+
+		// Patterns ending with this node: pattern -> [sessionId -> subscriptionId's]
+		@Nullable
+		volatile Map<String, Map<String, List<String>>> patterns;
+
+		// Patterns continuing with "**" after this node
+		@Nullable
+		volatile Map<String, Map<String, List<String>>> restPatterns;
+
+		@Nullable
+		PatternNode getChild(String segment) {
+			if (isWildcard(segment)) {
+				return this.wildcardChild;
+			}
+			Map<String, PatternNode> children = this.children;
+			return (children != null ? children.get(segment) : null);
+		}
+
+		PatternNode getOrCreateChild(String segment) {
+			if (isWildcard(segment)) {
+				PatternNode child = this.wildcardChild;
+				if (child == null) {
+					child = new PatternNode();
+					this.wildcardChild = child;
+				}
+				return child;
+			}
+			Map<String, PatternNode> children = this.children;
+			if (children == null) {
+				children = new ConcurrentHashMap<>(4);
+				this.children = children;
+			}
+			return children.computeIfAbsent(segment, _segment -> new PatternNode());
+		}
+
+		void removeChild(String segment) {
+			if (isWildcard(segment)) {
+				this.wildcardChild = null;
+			}
+			else {
+				Map<String, PatternNode> children = this.children;
+				if (children != null) {
+					children.remove(segment);
+					if (children.isEmpty()) {
+						this.children = null;
+					}
+				}
+			}
+		}
+
+		boolean isEmpty() {
+			return (this.children == null && this.wildcardChild == null &&
+					this.patterns == null && this.restPatterns == null);
+		}
+
+		private static boolean isWildcard(String segment) {
+			for (int i = 0; i < segment.length(); i++) {
+				char c = segment.charAt(i);
+				if (c == '*' || c == '?' || c == '{' || c == '}') {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+
 	/**
 	 * Registry for all session and their subscriptions.
 	 */
@@ -395,9 +774,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 				info.getSubscriptions().forEach(subscription -> consumer.accept(sessionId, subscription)));
 		}
 
-		public void addSubscription(String sessionId, Subscription subscription) {
+		public boolean addSubscription(String sessionId, Subscription subscription) {
 			SessionInfo info = this.sessions.computeIfAbsent(sessionId, _sessionId -> new SessionInfo());
-			info.addSubscription(subscription);
+			return info.addSubscription(subscription);
 		}
 
 		@Nullable
@@ -423,8 +802,8 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			return this.subscriptionMap.get(subscriptionId);
 		}
 
-		public void addSubscription(Subscription subscription) {
-			this.subscriptionMap.putIfAbsent(subscription.getId(), subscription);
+		public boolean addSubscription(Subscription subscription) {
+			return (this.subscriptionMap.putIfAbsent(subscription.getId(), subscription) == null);
 		}
 
 		@Nullable
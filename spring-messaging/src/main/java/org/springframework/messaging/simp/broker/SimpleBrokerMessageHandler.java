@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,11 +17,18 @@
 package org.springframework.messaging.simp.broker;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
@@ -35,6 +42,7 @@ import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.messaging.support.MessageHeaderInitializer;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.PathMatcher;
 
@@ -43,6 +51,9 @@ import org.springframework.util.PathMatcher;
  * {@link SimpMessageType}, keeps track of subscriptions with the help of a
  * {@link SubscriptionRegistry} and sends messages to subscribers.
  *
+ * <p>As of 6.0, messages to sessions can be sent from a configurable number of
+ * {@link #setPartitionCount partitions}, each with a single thread.
+ *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
  * @since 4.0
@@ -70,11 +81,16 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 	@Nullable
 	private MessageHeaderInitializer headerInitializer;
 
+	private int partitionCount;
+
 
 	private SubscriptionRegistry subscriptionRegistry;
 
 	private final Map<String, SessionInfo> sessions = new ConcurrentHashMap<>();
 
+	@Nullable
+	private volatile BrokerPartition[] partitions;
+
 	@Nullable
 	private ScheduledFuture<?> heartbeatFuture;
 
@@ -249,9 +265,47 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 		return this.headerInitializer;
 	}
 
+	/**
+	 * Configure the number of partitions to send messages to sessions from.
+	 * Each session is assigned to a partition based on its id, and messages to
+	 * the session are sent from the single thread of that partition, in the
+	 * order in which the broker processed them. Messages broadcast to many
+	 * sessions are sent by each partition to its own sessions, in a single task.
+	 * <p>Subscriptions are still registered, and messages matched against them,
+	 * on the calling thread.
+	 * <p>By default this is set to 0, in which case messages are sent to
+	 * sessions on the calling thread.
+	 * <p><strong>Note:</strong> to preserve the order of messages up to the
+	 * clients, the client outbound channel must either send messages on the
+	 * calling thread, or {@link #setPreservePublishOrder preservePublishOrder}
+	 * must be enabled.
+	 * @param partitionCount the number of partitions, e.g. the number of cores
+	 * @since 6.0
+	 */
+	public void setPartitionCount(int partitionCount) {
+		Assert.isTrue(partitionCount >= 0, "Partition count must not be negative");
+		this.partitionCount = partitionCount;
+	}
+
+	/**
+	 * Return the configured number of partitions.
+	 * @since 6.0
+	 */
+	public int getPartitionCount() {
+		return this.partitionCount;
+	}
+
 
 	@Override
 	public void startInternal() {
+		if (this.partitionCount > 0) {
+			CustomizableThreadCreator threadCreator = new CustomizableThreadCreator("SimpleBroker-partition-");
+			BrokerPartition[] partitions = new BrokerPartition[this.partitionCount];
+			for (int i = 0; i < partitions.length; i++) {
+				partitions[i] = new BrokerPartition(threadCreator);
+			}
+			this.partitions = partitions;
+		}
 		publishBrokerAvailableEvent();
 		if (this.taskScheduler != null) {
 			long interval = initHeartbeatTaskDelay();
@@ -284,6 +338,13 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 		if (this.heartbeatFuture != null) {
 			this.heartbeatFuture.cancel(true);
 		}
+		BrokerPartition[] partitions = this.partitions;
+		if (partitions != null) {
+			this.partitions = null;
+			for (BrokerPartition partition : partitions) {
+				partition.shutdown();
+			}
+		}
 	}
 
 	@Override
@@ -320,7 +381,7 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 				connectAck.setHeader(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER, message);
 				connectAck.setHeader(SimpMessageHeaderAccessor.HEART_BEAT_HEADER, heartbeatOut);
 				Message<byte[]> messageOut = MessageBuilder.createMessage(EMPTY_PAYLOAD, connectAck.getMessageHeaders());
-				getClientOutboundChannel().send(messageOut);
+				executeForSession(sessionId, () -> getClientOutboundChannel().send(messageOut));
 			}
 		}
 		else if (SimpMessageType.DISCONNECT.equals(messageType)) {
@@ -376,7 +437,7 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 		}
 		initHeaders(accessor);
 		Message<byte[]> message = MessageBuilder.createMessage(EMPTY_PAYLOAD, accessor.getMessageHeaders());
-		getClientOutboundChannel().send(message);
+		executeForSession(sessionId, () -> getClientOutboundChannel().send(message));
 	}
 
 	protected void sendMessageToSubscribers(@Nullable String destination, Message<?> message) {
@@ -384,33 +445,99 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 		if (!subscriptions.isEmpty() && logger.isDebugEnabled()) {
 			logger.debug("Broadcasting to " + subscriptions.size() + " sessions.");
 		}
-		long now = System.currentTimeMillis();
-		subscriptions.forEach((sessionId, subscriptionIds) -> {
-			for (String subscriptionId : subscriptionIds) {
-				SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
-				initHeaders(headerAccessor);
-				headerAccessor.setSessionId(sessionId);
-				headerAccessor.setSubscriptionId(subscriptionId);
-				headerAccessor.copyHeadersIfAbsent(message.getHeaders());
-				headerAccessor.setLeaveMutable(true);
-				Object payload = message.getPayload();
-				Message<?> reply = MessageBuilder.createMessage(payload, headerAccessor.getMessageHeaders());
+		AtomicReference<Object> broadcastCache = (isBroadcast(subscriptions) ? new AtomicReference<>() : null);
+		BrokerPartition[] partitions = this.partitions;
+		if (partitions == null) {
+			long now = System.currentTimeMillis();
+			subscriptions.forEach((sessionId, subscriptionIds) -> {
 				SessionInfo info = this.sessions.get(sessionId);
 				if (info != null) {
-					try {
-						info.getClientOutboundChannel().send(reply);
-					}
-					catch (Throwable ex) {
-						if (logger.isErrorEnabled()) {
-							logger.error("Failed to send " + message, ex);
-						}
-					}
-					finally {
-						info.setLastWriteTime(now);
-					}
+					sendMessageToSession(info, subscriptionIds, message, broadcastCache, now);
 				}
+			});
+			return;
+		}
+		// One task per partition, for all sessions of the partition: sessions are
+		// looked up now, as a DISCONNECT removes them before previous tasks run
+		List<Map.Entry<SessionInfo, List<String>>>[] recipients = newRecipientsArray(partitions.length);
+		subscriptions.forEach((sessionId, subscriptionIds) -> {
+			SessionInfo info = this.sessions.get(sessionId);
+			if (info == null) {
+				return;
+			}
+			int index = getPartitionIndex(sessionId, partitions.length);
+			if (recipients[index] == null) {
+				recipients[index] = new ArrayList<>();
 			}
+			recipients[index].add(Map.entry(info, subscriptionIds));
 		});
+		for (int i = 0; i < partitions.length; i++) {
+			List<Map.Entry<SessionInfo, List<String>>> sessionSubscriptions = recipients[i];
+			if (sessionSubscriptions != null) {
+				partitions[i].execute(() -> {
+					long now = System.currentTimeMillis();
+					for (Map.Entry<SessionInfo, List<String>> entry : sessionSubscriptions) {
+						sendMessageToSession(entry.getKey(), entry.getValue(), message, broadcastCache, now);
+					}
+				});
+			}
+		}
+	}
+
+	private static boolean isBroadcast(MultiValueMap<String, String> subscriptions) {
+		return (subscriptions.size() > 1 ||
+				(subscriptions.size() == 1 && subscriptions.values().iterator().next().size() > 1));
+	}
+
+	private void sendMessageToSession(SessionInfo info, List<String> subscriptionIds, Message<?> message,
+			@Nullable AtomicReference<Object> broadcastCache, long now) {
+
+		String sessionId = info.getSessionId();
+		for (String subscriptionId : subscriptionIds) {
+			SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+			initHeaders(headerAccessor);
+			headerAccessor.setSessionId(sessionId);
+			headerAccessor.setSubscriptionId(subscriptionId);
+			headerAccessor.setHeader(SimpMessageHeaderAccessor.BROADCAST_CACHE_HEADER, broadcastCache);
+			headerAccessor.copyHeadersIfAbsent(message.getHeaders());
+			headerAccessor.setLeaveMutable(true);
+			Object payload = message.getPayload();
+			Message<?> reply = MessageBuilder.createMessage(payload, headerAccessor.getMessageHeaders());
+			try {
+				info.getClientOutboundChannel().send(reply);
+			}
+			catch (Throwable ex) {
+				if (logger.isErrorEnabled()) {
+					logger.error("Failed to send " + message, ex);
+				}
+			}
+			finally {
+				info.setLastWriteTime(now);
+			}
+		}
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static List<Map.Entry<SessionInfo, List<String>>>[] newRecipientsArray(int length) {
+		return new List[length];
+	}
+
+	/**
+	 * Run the given task on the partition of the given session, if partitions
+	 * are configured, or on the calling thread otherwise.
+	 */
+	private void executeForSession(String sessionId, Runnable task) {
+		BrokerPartition[] partitions = this.partitions;
+		if (partitions != null) {
+			partitions[getPartitionIndex(sessionId, partitions.length)].execute(task);
+		}
+		else {
+			task.run();
+		}
+	}
+
+	private static int getPartitionIndex(String sessionId, int partitionCount) {
+		return Math.floorMod(sessionId.hashCode(), partitionCount);
 	}
 
 	@Override
@@ -498,6 +625,44 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 	}
 
 
+	/**
+	 * Partition with a single thread, sending messages to the sessions assigned to it.
+	 */
+	private class BrokerPartition {
+
+		private final ThreadPoolExecutor executor;
+
+		public BrokerPartition(CustomizableThreadCreator threadCreator) {
+			this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<>(), threadCreator::createThread);
+		}
+
+		public void execute(Runnable task) {
+			try {
+				this.executor.execute(() -> {
+					try {
+						task.run();
+					}
+					catch (Throwable ex) {
+						if (logger.isErrorEnabled()) {
+							logger.error("Failed to send message from broker partition", ex);
+						}
+					}
+				});
+			}
+			catch (RejectedExecutionException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Broker partition stopped, message not sent");
+				}
+			}
+		}
+
+		public void shutdown() {
+			this.executor.shutdown();
+		}
+	}
+
+
 	private class HeartbeatTask implements Runnable {
 
 		@Override
@@ -516,8 +681,8 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 					}
 					initHeaders(accessor);
 					accessor.setLeaveMutable(true);
-					MessageHeaders headers = accessor.getMessageHeaders();
-					info.getClientOutboundChannel().send(MessageBuilder.createMessage(EMPTY_PAYLOAD, headers));
+					Message<byte[]> heartbeat = MessageBuilder.createMessage(EMPTY_PAYLOAD, accessor.getMessageHeaders());
+					executeForSession(info.getSessionId(), () -> info.getClientOutboundChannel().send(heartbeat));
 				}
 			}
 		}
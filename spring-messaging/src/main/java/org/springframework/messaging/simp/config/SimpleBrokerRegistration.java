@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -39,6 +39,8 @@ public class SimpleBrokerRegistration extends AbstractBrokerRegistration {
 	@Nullable
 	private String selectorHeaderName = "selector";
 
+	private int partitionCount;
+
 
 	/**
 	 * Create a new {@code SimpleBrokerRegistration}.
@@ -97,6 +99,20 @@ public class SimpleBrokerRegistration extends AbstractBrokerRegistration {
 		this.selectorHeaderName = selectorHeaderName;
 	}
 
+	/**
+	 * Configure the number of partitions, each with a single thread, to send
+	 * messages to sessions from.
+	 * <p>By default this is set to 0, and messages are sent to sessions on
+	 * the thread processing the message in the broker.
+	 * @param partitionCount the number of partitions
+	 * @since 6.0
+	 * @see SimpleBrokerMessageHandler#setPartitionCount(int)
+	 */
+	public SimpleBrokerRegistration setPartitionCount(int partitionCount) {
+		this.partitionCount = partitionCount;
+		return this;
+	}
+
 
 	@Override
 	protected SimpleBrokerMessageHandler getMessageHandler(SubscribableChannel brokerChannel) {
@@ -109,6 +125,7 @@ public class SimpleBrokerRegistration extends AbstractBrokerRegistration {
 			handler.setHeartbeatValue(this.heartbeat);
 		}
 		handler.setSelectorHeaderName(this.selectorHeaderName);
+		handler.setPartitionCount(this.partitionCount);
 		return handler;
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.logging.Log;
 
@@ -38,6 +39,13 @@ import org.springframework.util.Assert;
 /**
  * An encoder for STOMP frames.
  *
+ * <p>As of 6.0, {@code MESSAGE} frames broadcast by the broker to several
+ * subscriptions, as indicated by the
+ * {@link SimpMessageHeaderAccessor#BROADCAST_CACHE_HEADER broadcast cache header},
+ * are encoded by reusing the encoded headers and payload common to all of them,
+ * and only encoding the {@code subscription} and {@code message-id} headers for
+ * each frame.
+ *
  * @author Andy Wilkinson
  * @author Rossen Stoyanchev
  * @since 4.0
@@ -53,6 +61,20 @@ public class StompEncoder  {
 
 	private static final int HEADER_KEY_CACHE_LIMIT = 32;
 
+	private static final byte[] MESSAGE_COMMAND_BYTES = StompCommand.MESSAGE.toString().getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[] SUBSCRIPTION_HEADER_KEY =
+			StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER.getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[] MESSAGE_ID_HEADER_KEY =
+			StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER.getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[][] NO_VALUES = new byte[0][];
+
+	// Headers specific to each frame of a broadcast message
+	private static final String[] BROADCAST_RECIPIENT_HEADERS =
+			{StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER, StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER};
+
 
 	private final Map<String, byte[]> headerKeyAccessCache = new ConcurrentHashMap<>(HEADER_KEY_CACHE_LIMIT);
 
@@ -101,26 +123,107 @@ public class StompEncoder  {
 			throw new IllegalStateException("Missing STOMP command: " + headers);
 		}
 
+		@SuppressWarnings("unchecked")
+		Map<String,List<String>> nativeHeaders =
+				(Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+
+		if (logger.isTraceEnabled()) {
+			logger.trace("Encoding STOMP " + command + ", headers=" + nativeHeaders);
+		}
+
+		@SuppressWarnings("unchecked")
+		AtomicReference<Object> broadcastCache =
+				(AtomicReference<Object>) headers.get(SimpMessageHeaderAccessor.BROADCAST_CACHE_HEADER);
+		if (broadcastCache != null && nativeHeaders != null && command == StompCommand.MESSAGE) {
+			return encodeBroadcastMessage(headers, nativeHeaders, payload, broadcastCache);
+		}
+
 		Result result = new DefaultResult();
 		result.add(command.toString().getBytes(StandardCharsets.UTF_8));
 		result.add(LINE_FEED_BYTE);
-		writeHeaders(command, headers, payload, result);
+		writeHeaders(command, headers, nativeHeaders, payload, false, result);
 		result.add(LINE_FEED_BYTE);
 		result.add(payload);
 		result.add((byte) 0);
 		return result.toByteArray();
 	}
 
-	private void writeHeaders(
-			StompCommand command, Map<String, Object> headers, byte[] payload, Result result) {
+	/**
+	 * Encode a {@code MESSAGE} frame broadcast to several subscriptions, reusing
+	 * the encoded headers and payload common to all frames of the broadcast
+	 * from the given cache, as long as they match the ones of this frame.
+	 */
+	private byte[] encodeBroadcastMessage(Map<String, Object> headers, Map<String, List<String>> nativeHeaders,
+			byte[] payload, AtomicReference<Object> broadcastCache) {
+
+		Object cached = broadcastCache.get();
+		EncodedBroadcast broadcast = (cached instanceof EncodedBroadcast encodedBroadcast &&
+				encodedBroadcast.matches(nativeHeaders, payload) ? encodedBroadcast : null);
+		if (broadcast == null) {
+			Result commonContent = new DefaultResult();
+			writeHeaders(StompCommand.MESSAGE, headers, nativeHeaders, payload, true, commonContent);
+			commonContent.add(LINE_FEED_BYTE);
+			commonContent.add(payload);
+			commonContent.add((byte) 0);
+			broadcast = new EncodedBroadcast(nativeHeaders, payload, commonContent.toByteArray());
+			broadcastCache.set(broadcast);
+		}
 
-		@SuppressWarnings("unchecked")
-		Map<String,List<String>> nativeHeaders =
-				(Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+		// Only the values of the headers specific to this frame remain to be encoded
+		List<String> subscriptionIds = nativeHeaders.get(StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER);
+		List<String> messageIds = nativeHeaders.get(StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER);
+		byte[][] encodedSubscriptionIds = encodeHeaderValues(subscriptionIds);
+		byte[][] encodedMessageIds = encodeHeaderValues(messageIds);
+
+		int length = MESSAGE_COMMAND_BYTES.length + 1 + broadcast.content.length +
+				getHeaderLength(SUBSCRIPTION_HEADER_KEY, encodedSubscriptionIds) +
+				getHeaderLength(MESSAGE_ID_HEADER_KEY, encodedMessageIds);
+		byte[] frame = new byte[length];
+		int position = append(MESSAGE_COMMAND_BYTES, frame, 0);
+		frame[position++] = LINE_FEED_BYTE;
+		position = appendHeader(SUBSCRIPTION_HEADER_KEY, encodedSubscriptionIds, frame, position);
+		position = appendHeader(MESSAGE_ID_HEADER_KEY, encodedMessageIds, frame, position);
+		append(broadcast.content, frame, position);
+		return frame;
+	}
 
-		if (logger.isTraceEnabled()) {
-			logger.trace("Encoding STOMP " + command + ", headers=" + nativeHeaders);
+	private byte[][] encodeHeaderValues(@Nullable List<String> values) {
+		if (values == null) {
+			return NO_VALUES;
+		}
+		byte[][] encodedValues = new byte[values.size()][];
+		for (int i = 0; i < encodedValues.length; i++) {
+			encodedValues[i] = encodeHeaderValue(values.get(i), true);
+		}
+		return encodedValues;
+	}
+
+	private static int getHeaderLength(byte[] key, byte[][] encodedValues) {
+		int length = 0;
+		for (byte[] value : encodedValues) {
+			length += key.length + 1 + value.length + 1;
+		}
+		return length;
+	}
+
+	private static int appendHeader(byte[] key, byte[][] encodedValues, byte[] target, int position) {
+		for (byte[] value : encodedValues) {
+			position = append(key, target, position);
+			target[position++] = COLON_BYTE;
+			position = append(value, target, position);
+			target[position++] = LINE_FEED_BYTE;
 		}
+		return position;
+	}
+
+	private static int append(byte[] bytes, byte[] target, int position) {
+		System.arraycopy(bytes, 0, target, position, bytes.length);
+		return position + bytes.length;
+	}
+
+	private void writeHeaders(StompCommand command, Map<String, Object> headers,
+			@Nullable Map<String, List<String>> nativeHeaders, byte[] payload,
+			boolean skipBroadcastRecipientHeaders, Result result) {
 
 		if (nativeHeaders == null) {
 			return;
@@ -133,6 +236,9 @@ public class StompEncoder  {
 			if (command.requiresContentLength() && "content-length".equals(entry.getKey())) {
 				continue;
 			}
+			if (skipBroadcastRecipientHeaders && isBroadcastRecipientHeader(entry.getKey())) {
+				continue;
+			}
 
 			List<String> values = entry.getValue();
 			if ((StompCommand.CONNECT.equals(command) || StompCommand.STOMP.equals(command)) &&
@@ -140,13 +246,7 @@ public class StompEncoder  {
 				values = Collections.singletonList(StompHeaderAccessor.getPasscode(headers));
 			}
 
-			byte[] encodedKey = encodeHeaderKey(entry.getKey(), shouldEscape);
-			for (String value : values) {
-				result.add(encodedKey);
-				result.add(COLON_BYTE);
-				result.add(encodeHeaderValue(value, shouldEscape));
-				result.add(LINE_FEED_BYTE);
-			}
+			writeHeader(entry.getKey(), values, shouldEscape, result);
 		}
 
 		if (command.requiresContentLength()) {
@@ -157,6 +257,25 @@ public class StompEncoder  {
 		}
 	}
 
+	private void writeHeader(String name, List<String> values, boolean escape, Result result) {
+		byte[] encodedKey = encodeHeaderKey(name, escape);
+		for (String value : values) {
+			result.add(encodedKey);
+			result.add(COLON_BYTE);
+			result.add(encodeHeaderValue(value, escape));
+			result.add(LINE_FEED_BYTE);
+		}
+	}
+
+	private static boolean isBroadcastRecipientHeader(String name) {
+		for (String recipientHeader : BROADCAST_RECIPIENT_HEADERS) {
+			if (recipientHeader.equals(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private byte[] encodeHeaderKey(String input, boolean escape) {
 		String inputToUse = (escape ? escape(input) : input);
 		if (this.headerKeyAccessCache.containsKey(inputToUse)) {
@@ -218,6 +337,46 @@ public class StompEncoder  {
 	}
 
 
+	/**
+	 * Encoded headers, except for the ones specific to each frame, and payload
+	 * of a broadcast {@code MESSAGE} frame, along with the headers and payload
+	 * they were encoded from.
+	 */
+	private static class EncodedBroadcast {
+
+		private final Map<String, List<String>> nativeHeaders;
+
+		private final byte[] payload;
+
+		private final byte[] content;
+
+		EncodedBroadcast(Map<String, List<String>> nativeHeaders, byte[] payload, byte[] content) {
+			this.nativeHeaders = new LinkedHashMap<>(nativeHeaders);
+			for (String name : BROADCAST_RECIPIENT_HEADERS) {
+				this.nativeHeaders.remove(name);
+			}
+			this.payload = payload;
+			this.content = content;
+		}
+
+		boolean matches(Map<String, List<String>> nativeHeaders, byte[] payload) {
+			if (payload != this.payload) {
+				return false;
+			}
+			int count = 0;
+			for (Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
+				if (!isBroadcastRecipientHeader(entry.getKey())) {
+					if (!entry.getValue().equals(this.nativeHeaders.get(entry.getKey()))) {
+						return false;
+					}
+					count++;
+				}
+			}
+			return (count == this.nativeHeaders.size());
+		}
+	}
+
+
 	/**
 	 * Accumulates byte content and returns an aggregated byte[] at the end.
 	 */
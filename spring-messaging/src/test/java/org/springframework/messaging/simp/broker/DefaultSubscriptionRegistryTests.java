@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.MultiValueMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -271,6 +272,99 @@ public class DefaultSubscriptionRegistryTests {
 		assertThat(actual.size()).as("Expected no elements " + actual).isEqualTo(0);
 	}
 
+	@Test
+	public void registerSubscriptionsWithMixedDestinationPatterns() {
+		this.registry.setCacheLimit(0);
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/*/price"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/topic/**"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/topic/stock/*"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs02", "/topic/{name}/volume"));
+		this.registry.registerSubscription(subscribeMessage("sess03", "subs01", "/topic/stock/price"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/stock/price"));
+		assertThat(actual).hasSize(3);
+		assertThat(actual.get("sess01")).containsExactlyInAnyOrder("subs01", "subs02");
+		assertThat(actual.get("sess02")).containsExactly("subs01");
+		assertThat(actual.get("sess03")).containsExactly("subs01");
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/bond/volume"));
+		assertThat(actual).hasSize(2);
+		assertThat(actual.get("sess01")).containsExactly("subs02");
+		assertThat(actual.get("sess02")).containsExactly("subs02");
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/stock/"));
+		assertThat(actual).hasSize(2);
+		assertThat(actual.get("sess01")).containsExactly("subs02");
+		assertThat(actual.get("sess02")).containsExactly("subs01");
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/stock/price/extra"));
+		assertThat(actual).hasSize(1);
+		assertThat(actual.get("sess01")).containsExactly("subs02");
+
+		assertThat(this.registry.findSubscriptions(createMessage("/queue/stock/price"))).isEmpty();
+	}
+
+	@Test
+	public void unregisterSubscriptionsWithDestinationPatterns() {
+		this.registry.setCacheLimit(0);
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/*/price"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/topic/*/price"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs02", "/topic/stock/**"));
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs01"));
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/stock/price"));
+		assertThat(actual).hasSize(1);
+		assertThat(actual.get("sess02")).containsExactlyInAnyOrder("subs01", "subs02");
+
+		this.registry.unregisterAllSubscriptions("sess02");
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/stock/price"))).isEmpty();
+
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/topic/*/price"));
+		actual = this.registry.findSubscriptions(createMessage("/topic/stock/price"));
+		assertThat(actual).hasSize(1);
+		assertThat(actual.get("sess01")).containsExactly("subs02");
+	}
+
+	@Test
+	public void registerSubscriptionWithDestinationPatternAndDotSeparator() {
+		this.registry.setPathMatcher(new AntPathMatcher("."));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic.price.*.IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/topic.**"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic.price.NASDAQ.IBM"));
+		assertThat(actual).hasSize(1);
+		assertThat(actual.get("sess01")).containsExactlyInAnyOrder("subs01", "subs02");
+
+		actual = this.registry.findSubscriptions(createMessage("/topic.price.NASDAQ/NYSE.IBM"));
+		assertThat(actual).hasSize(1);
+		assertThat(actual.get("sess01")).containsExactlyInAnyOrder("subs01", "subs02");
+	}
+
+	@Test
+	public void registerSubscriptionWithDestinationPatternAndCaseInsensitiveMatching() {
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		pathMatcher.setCaseSensitive(false);
+		this.registry.setPathMatcher(pathMatcher);
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/PRICE/*"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/Topic/price/IBM"));
+		assertThat(actual).hasSize(1);
+		assertThat(actual.get("sess01")).containsExactly("subs01");
+	}
+
+	@Test
+	public void setPathMatcherAfterRegisteringSubscriptions() {
+		this.registry.setCacheLimit(0);
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic.*.IBM"));
+
+		assertThat(this.registry.findSubscriptions(createMessage("/topic.NASDAQ/NYSE.IBM"))).isEmpty();
+
+		this.registry.setPathMatcher(new AntPathMatcher("."));
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic.NASDAQ/NYSE.IBM"));
+		assertThat(actual).hasSize(1);
+		assertThat(actual.get("sess01")).containsExactly("subs01");
+	}
+
 	@Test
 	public void registerSubscriptionWithSelector() {
 		String sessionId = "sess01";
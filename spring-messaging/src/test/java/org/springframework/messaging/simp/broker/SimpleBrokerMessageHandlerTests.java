@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,14 @@
 package org.springframework.messaging.simp.broker;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -296,6 +301,124 @@ public class SimpleBrokerMessageHandlerTests {
 	}
 
 
+	@Test
+	public void subscribePublishWithBroadcastCache() {
+		startSession("sess1");
+		startSession("sess2");
+
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess1", "sub1", "/foo"));
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess2", "sub1", "/foo"));
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess2", "sub2", "/bar"));
+
+		this.messageHandler.handleMessage(createMessage("/foo", "message1"));
+		this.messageHandler.handleMessage(createMessage("/bar", "message2"));
+
+		verify(this.clientOutChannel, times(3)).send(this.messageCaptor.capture());
+		List<Message<?>> messages = this.messageCaptor.getAllValues();
+		Object broadcastCache = messages.get(0).getHeaders().get(SimpMessageHeaderAccessor.BROADCAST_CACHE_HEADER);
+		assertThat(broadcastCache).isNotNull();
+		assertThat(messages.get(1).getHeaders().get(SimpMessageHeaderAccessor.BROADCAST_CACHE_HEADER)).isSameAs(broadcastCache);
+		assertThat(messages.get(2).getHeaders()).doesNotContainKey(SimpMessageHeaderAccessor.BROADCAST_CACHE_HEADER);
+	}
+
+	@Test
+	public void subscribePublishWithPartitions() throws Exception {
+		int sessionCount = 20;
+		int messageCount = 100;
+		CountDownLatch delivered = new CountDownLatch(sessionCount * (messageCount + 1));
+		Map<String, List<Object>> payloads = new ConcurrentHashMap<>();
+		Map<String, List<Thread>> threads = new ConcurrentHashMap<>();
+		MessageChannel outChannel = (message, timeout) -> {
+			String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+			// Messages to a session are never sent concurrently
+			SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+			payloads.computeIfAbsent(sessionId, id -> new ArrayList<>())
+					.add(messageType == SimpMessageType.MESSAGE ? message.getPayload() : messageType);
+			threads.computeIfAbsent(sessionId, id -> new ArrayList<>()).add(Thread.currentThread());
+			delivered.countDown();
+			return true;
+		};
+		this.messageHandler = new SimpleBrokerMessageHandler(
+				this.clientInChannel, outChannel, this.brokerChannel, Collections.emptyList());
+		this.messageHandler.setPartitionCount(4);
+		this.messageHandler.start();
+		try {
+			for (int i = 0; i < sessionCount; i++) {
+				this.messageHandler.handleMessage(createConnectMessage("sess" + i, new TestPrincipal("joe"), null));
+				this.messageHandler.handleMessage(createSubscriptionMessage("sess" + i, "sub1", "/foo"));
+			}
+			for (int i = 0; i < messageCount; i++) {
+				this.messageHandler.handleMessage(createMessage("/foo", "message" + i));
+			}
+
+			assertThat(delivered.await(10, TimeUnit.SECONDS)).isTrue();
+			List<Object> expected = new ArrayList<>();
+			expected.add(SimpMessageType.CONNECT_ACK);
+			for (int i = 0; i < messageCount; i++) {
+				expected.add("message" + i);
+			}
+			assertThat(payloads).hasSize(sessionCount);
+			payloads.values().forEach(sessionPayloads -> assertThat(sessionPayloads).isEqualTo(expected));
+			threads.values().forEach(sessionThreads -> assertThat(sessionThreads).containsOnly(sessionThreads.get(0)));
+			assertThat(threads.get("sess0").get(0).getName()).startsWith("SimpleBroker-partition-");
+		}
+		finally {
+			this.messageHandler.stop();
+		}
+	}
+
+	@Test
+	public void broadcastBeforeDisconnectWithPartitions() throws Exception {
+		CountDownLatch connectAckSending = new CountDownLatch(1);
+		CountDownLatch releaseConnectAck = new CountDownLatch(1);
+		CountDownLatch delivered = new CountDownLatch(3);
+		List<Object> payloads = Collections.synchronizedList(new ArrayList<>());
+		MessageChannel outChannel = (message, timeout) -> {
+			SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+			if (messageType == SimpMessageType.CONNECT_ACK) {
+				// Keep the partition busy until the DISCONNECT has been handled
+				connectAckSending.countDown();
+				try {
+					releaseConnectAck.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			payloads.add(messageType == SimpMessageType.MESSAGE ? message.getPayload() : messageType);
+			delivered.countDown();
+			return true;
+		};
+		this.messageHandler = new SimpleBrokerMessageHandler(
+				this.clientInChannel, outChannel, this.brokerChannel, Collections.emptyList());
+		this.messageHandler.setPartitionCount(2);
+		this.messageHandler.start();
+		try {
+			this.messageHandler.handleMessage(createConnectMessage("sess1", new TestPrincipal("joe"), null));
+			this.messageHandler.handleMessage(createSubscriptionMessage("sess1", "sub1", "/foo"));
+			assertThat(connectAckSending.await(10, TimeUnit.SECONDS)).isTrue();
+
+			this.messageHandler.handleMessage(createMessage("/foo", "message1"));
+			SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+			headers.setSessionId("sess1");
+			this.messageHandler.handleMessage(MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()));
+			releaseConnectAck.countDown();
+
+			assertThat(delivered.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(payloads).containsExactly(
+					SimpMessageType.CONNECT_ACK, "message1", SimpMessageType.DISCONNECT_ACK);
+		}
+		finally {
+			this.messageHandler.stop();
+		}
+	}
+
+	@Test
+	public void rejectNegativePartitionCount() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.messageHandler.setPartitionCount(-1));
+	}
+
+
 	private Message<String> startSession(String id) {
 		this.messageHandler.start();
 
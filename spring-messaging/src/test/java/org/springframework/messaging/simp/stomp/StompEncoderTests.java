@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,12 @@
 
 package org.springframework.messaging.simp.stomp;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.support.MessageBuilder;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -83,4 +86,44 @@ public class StompEncoderTests {
 		assertThat(new String(encoder.encode(frame))).isEqualTo("SEND\ncontent-length:12\n\nMessage body\0");
 	}
 
+	@Test
+	public void encodeBroadcastMessageFrames() {
+		AtomicReference<Object> broadcastCache = new AtomicReference<>();
+		byte[] payload = "Message body".getBytes();
+		Message<byte[]> frame1 = createBroadcastFrame("sub1", "1", "alpha", payload, broadcastCache);
+		Message<byte[]> frame2 = createBroadcastFrame("sub2", "2", "alpha", payload, broadcastCache);
+
+		assertThat(new String(encoder.encode(frame1))).isEqualTo(
+				"MESSAGE\nsubscription:sub1\nmessage-id:1\na:alpha\ncontent-length:12\n\nMessage body\0");
+		Object encodedBroadcast = broadcastCache.get();
+		assertThat(encodedBroadcast).isNotNull();
+		assertThat(new String(encoder.encode(frame2))).isEqualTo(
+				"MESSAGE\nsubscription:sub2\nmessage-id:2\na:alpha\ncontent-length:12\n\nMessage body\0");
+		assertThat(broadcastCache.get()).isSameAs(encodedBroadcast);
+	}
+
+	@Test
+	public void encodeBroadcastMessageFramesWithDifferentHeaders() {
+		AtomicReference<Object> broadcastCache = new AtomicReference<>();
+		byte[] payload = "Message body".getBytes();
+		Message<byte[]> frame1 = createBroadcastFrame("sub1", "1", "alpha", payload, broadcastCache);
+		Message<byte[]> frame2 = createBroadcastFrame("sub2", "2", "bravo", payload, broadcastCache);
+
+		assertThat(new String(encoder.encode(frame1))).isEqualTo(
+				"MESSAGE\nsubscription:sub1\nmessage-id:1\na:alpha\ncontent-length:12\n\nMessage body\0");
+		assertThat(new String(encoder.encode(frame2))).isEqualTo(
+				"MESSAGE\nsubscription:sub2\nmessage-id:2\na:bravo\ncontent-length:12\n\nMessage body\0");
+	}
+
+	private Message<byte[]> createBroadcastFrame(String subscriptionId, String messageId, String headerValue,
+			byte[] payload, AtomicReference<Object> broadcastCache) {
+
+		StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+		headers.addNativeHeader("a", headerValue);
+		headers.setSubscriptionId(subscriptionId);
+		headers.setMessageId(messageId);
+		headers.setHeader(SimpMessageHeaderAccessor.BROADCAST_CACHE_HEADER, broadcastCache);
+		return MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+	}
+
 }
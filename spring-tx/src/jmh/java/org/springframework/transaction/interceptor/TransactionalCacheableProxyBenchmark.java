@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.interceptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.CacheInterceptor;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.testfixture.CallCountingTransactionManager;
+
+/**
+ * Benchmark for invocations through a JDK proxy stacking a transaction
+ * interceptor and a cache interceptor, as created for a service declaring
+ * both {@code @Transactional} and {@code @Cacheable} methods.
+ *
+ * <p>Proxies are created from either a regular or a frozen configuration,
+ * the latter dispatching each method through a fixed interceptor chain.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class TransactionalCacheableProxyBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"false", "true"})
+		public boolean frozen;
+
+		public EntryService service;
+
+		@Setup
+		public void setup() {
+			TransactionInterceptor transactionInterceptor = new TransactionInterceptor(
+					new CallCountingTransactionManager(), new AnnotationTransactionAttributeSource());
+			CacheInterceptor cacheInterceptor = new CacheInterceptor();
+			cacheInterceptor.setCacheOperationSource(new AnnotationCacheOperationSource());
+			cacheInterceptor.setCacheManager(new ConcurrentMapCacheManager());
+			cacheInterceptor.afterPropertiesSet();
+			cacheInterceptor.afterSingletonsInstantiated();
+
+			ProxyFactory proxyFactory = new ProxyFactory(new DefaultEntryService());
+			proxyFactory.addAdvice(transactionInterceptor);
+			proxyFactory.addAdvice(cacheInterceptor);
+			proxyFactory.setFrozen(this.frozen);
+			this.service = (EntryService) proxyFactory.getProxy();
+		}
+	}
+
+	@Benchmark
+	public String cacheableAndTransactional(BenchmarkState state) {
+		return state.service.find("key");
+	}
+
+	@Benchmark
+	public int transactional(BenchmarkState state) {
+		return state.service.count("key");
+	}
+
+	@Benchmark
+	public int notAdvised(BenchmarkState state) {
+		return state.service.length("key");
+	}
+
+
+	public interface EntryService {
+
+		@Transactional(readOnly = true)
+		@Cacheable("entries")
+		String find(String key);
+
+		@Transactional
+		int count(String key);
+
+		int length(String key);
+	}
+
+
+	static class DefaultEntryService implements EntryService {
+
+		@Override
+		public String find(String key) {
+			return "value-" + key;
+		}
+
+		@Override
+		public int count(String key) {
+			return key.hashCode();
+		}
+
+		@Override
+		public int length(String key) {
+			return key.length();
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Benchmarks for decoding a JSON array of {@value #ELEMENT_COUNT} elements
+ * into a stream of POJOs using Jackson.
+ *
+ * <p>Scores are reported per element: running {@link #main} also reports the
+ * bytes allocated per element, comparing values replayed from a
+ * {@code TokenBuffer} with values {@link AbstractJackson2Decoder#setDirectBinding
+ * bound directly} from their raw bytes.
+ *
+ * @see Jackson2Tokenizer
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonDecoderBenchmark {
+
+	static final int ELEMENT_COUNT = 100_000;
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(Jackson2JsonDecoderBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+	/**
+	 * Benchmark data holding a JSON array of {@link Project} elements, split into
+	 * chunks of {@code chunkSize} bytes, as received from the network.
+	 */
+	@State(Scope.Benchmark)
+	public static class DecodeData {
+
+		@Param({"1024", "8192"})
+		int chunkSize;
+
+		@Param({"false", "true"})
+		boolean directBinding;
+
+		Jackson2JsonDecoder jsonDecoder;
+
+		ResolvableType resolvableType;
+
+		List<byte[]> chunks;
+
+		@Setup
+		public void setup() throws Exception {
+			ObjectMapper objectMapper = new Jackson2ObjectMapperBuilder().build();
+			this.jsonDecoder = new Jackson2JsonDecoder(objectMapper);
+			this.jsonDecoder.setDirectBinding(this.directBinding);
+			this.jsonDecoder.setMaxInMemorySize(-1);
+			this.resolvableType = ResolvableType.forClass(Project.class);
+			List<Project> projects = new ArrayList<>(ELEMENT_COUNT);
+			for (int i = 0; i < ELEMENT_COUNT; i++) {
+				projects.add(new Project("spring" + i));
+			}
+			byte[] json = objectMapper.writeValueAsBytes(projects);
+			this.chunks = new ArrayList<>(json.length / this.chunkSize + 1);
+			for (int offset = 0; offset < json.length; offset += this.chunkSize) {
+				this.chunks.add(Arrays.copyOfRange(json, offset, Math.min(offset + this.chunkSize, json.length)));
+			}
+		}
+
+		Flux<DataBuffer> input() {
+			return Flux.fromIterable(this.chunks).map(DefaultDataBufferFactory.sharedInstance::wrap);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ELEMENT_COUNT)
+	public void decode(Blackhole bh, DecodeData data) {
+		data.jsonDecoder.decode(data.input(), data.resolvableType, null, Collections.emptyMap())
+				.doOnNext(bh::consume)
+				.then().block();
+	}
+
+}
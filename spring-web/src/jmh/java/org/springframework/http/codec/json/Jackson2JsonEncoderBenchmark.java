@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,11 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 import reactor.core.publisher.Flux;
 
 import org.springframework.core.ResolvableType;
@@ -39,12 +44,23 @@ import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 /**
  * Benchmarks for encoding POJOs to JSON using Jackson.
  *
+ * <p>Running {@link #main} reports allocation rates along with throughput,
+ * which is the relevant metric for the encoding path writing straight into
+ * {@link DataBuffer DataBuffers}.
+ *
  * @author Brian Clozel
  * @see AbstractJackson2Encoder
  */
 @BenchmarkMode(Mode.Throughput)
 public class Jackson2JsonEncoderBenchmark {
 
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(Jackson2JsonEncoderBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
 
 	/**
 	 * Benchmark data holding {@link Project} to be serialized by the JSON Encoder.
@@ -91,12 +107,15 @@ public class Jackson2JsonEncoderBenchmark {
 		@Param({"1", "50", "500"})
 		int streamSize;
 
+		@Param({"application/json", "application/x-ndjson"})
+		String mediaType;
+
 	}
 
 	@Benchmark
 	public void encode(Blackhole bh, EncodeData data) {
 		Flux<Project> projects = Flux.generate(sink -> sink.next(data.project)).take(data.streamSize).cast(Project.class);
-		data.jsonEncoder.encode(projects, data.bufferFactory, data.resolvableType, MediaType.APPLICATION_JSON, Collections.emptyMap())
+		data.jsonEncoder.encode(projects, data.bufferFactory, data.resolvableType, MediaType.parseMediaType(data.mediaType), Collections.emptyMap())
 				.doOnNext(bh::consume)
 				.then().block();
 	}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import org.springframework.web.server.WebSession;
+
+/**
+ * Benchmarks for retrieving sessions and checking for expired sessions with
+ * {@link InMemoryWebSessionStore} and {@link ShardedInMemoryWebSessionStore},
+ * with a varying number of stored sessions.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class InMemoryWebSessionStoreBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"1000", "10000", "100000"})
+		public int sessionCount;
+
+		@Param({"default", "sharded"})
+		public String store;
+
+		public InMemoryWebSessionStore defaultStore;
+
+		public ShardedInMemoryWebSessionStore shardedStore;
+
+		public String[] sessionIds;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			WebSessionStore store;
+			if (this.store.equals("sharded")) {
+				this.shardedStore = new ShardedInMemoryWebSessionStore();
+				store = this.shardedStore;
+			}
+			else {
+				this.defaultStore = new InMemoryWebSessionStore();
+				this.defaultStore.setMaxSessions(this.sessionCount);
+				store = this.defaultStore;
+			}
+			this.sessionIds = new String[this.sessionCount];
+			for (int i = 0; i < this.sessionCount; i++) {
+				WebSession session = store.createWebSession().block();
+				session.setMaxIdleTime(Duration.ofMinutes(30 + i % 30));
+				session.start();
+				session.save().block();
+				this.sessionIds[i] = session.getId();
+			}
+		}
+
+		WebSessionStore getStore() {
+			return (this.shardedStore != null ? this.shardedStore : this.defaultStore);
+		}
+
+		void removeExpiredSessions() {
+			if (this.shardedStore != null) {
+				this.shardedStore.removeExpiredSessions();
+			}
+			else {
+				this.defaultStore.removeExpiredSessions();
+			}
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public WebSession retrieveSession(BenchmarkState state) {
+		String id = state.sessionIds[ThreadLocalRandom.current().nextInt(state.sessionIds.length)];
+		return state.getStore().retrieveSession(id).block();
+	}
+
+	@Benchmark
+	public void removeExpiredSessions(BenchmarkState state) {
+		state.removeExpiredSessions();
+	}
+
+}
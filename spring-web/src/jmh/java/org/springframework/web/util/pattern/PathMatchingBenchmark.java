@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,13 +18,16 @@ package org.springframework.web.util.pattern;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -36,7 +39,8 @@ import org.springframework.util.AntPathMatcher;
 /**
  * Benchmarks for matching requests paths against path patterns in a web context.
  * We're considering here the {@link org.springframework.util.AntPathMatcher} and
- * {@link PathPatternParser} implementations with typical sets of patterns.
+ * {@link PathPatternParser} implementations with typical sets of patterns,
+ * as well as a linear scan of many patterns compared with a {@link PathPatternIndex} lookup.
  * @author Brian Clozel
  */
 @BenchmarkMode(Mode.Throughput)
@@ -142,6 +146,59 @@ public class PathMatchingBenchmark {
 		}
 	}
 
+	@State(Scope.Benchmark)
+	public static class GeneratedRoutesPatternParser extends PatternParserData {
+
+		@Param({"10", "1000", "10000"})
+		public int routeCount;
+
+		PathPatternIndex<PathPattern> index = new PathPatternIndex<>();
+
+		@Setup(Level.Trial)
+		public void registerPatterns() {
+			PathPatternParser parser = new PathPatternParser();
+			List<Route> routes = RouteGenerator.generatedRoutes(this.routeCount);
+			int step = Math.max(1, routes.size() / 20);
+			for (int i = 0; i < routes.size(); i++) {
+				Route route = routes.get(i);
+				PathPattern pattern = parser.parse(route.pattern());
+				this.patterns.add(pattern);
+				this.index.register(pattern, Collections.singletonList(pattern));
+				if (i % step == 0) {
+					// Sample request paths across the whole set of routes
+					route.matchingPaths().forEach(path -> this.requestPaths.add(PathContainer.parsePath(path)));
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void matchGeneratedRoutesWithPathPatternParser(GeneratedRoutesPatternParser data, Blackhole bh) {
+		for (PathContainer path : data.requestPaths) {
+			List<PathPattern> matches = new ArrayList<>();
+			for (PathPattern pattern : data.patterns) {
+				if (pattern.matches(path)) {
+					matches.add(pattern);
+				}
+			}
+			bh.consume(matches);
+		}
+	}
+
+	@Benchmark
+	public void matchGeneratedRoutesWithPathPatternIndex(GeneratedRoutesPatternParser data, Blackhole bh) {
+		for (PathContainer path : data.requestPaths) {
+			List<PathPattern> matches = new ArrayList<>();
+			Collection<PathPattern> candidates = data.index.getCandidates(path);
+			for (PathPattern pattern : candidates) {
+				if (pattern.matches(path)) {
+					matches.add(pattern);
+				}
+			}
+			bh.consume(matches);
+		}
+	}
+
 
 	static class PatternParserData {
 
@@ -264,6 +321,25 @@ public class PathMatchingBenchmark {
 			);
 		}
 
+		/**
+		 * Generate the given number of parameterized REST-style routes.
+		 */
+		static List<Route> generatedRoutes(int count) {
+			Random random = new Random(42);
+			List<Route> routes = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				String resource = "/api/v" + (i % 3) + "/resource" + i;
+				switch (i % 4) {
+					case 0 -> routes.add(new Route(resource + "/{id}", resource + "/" + random.nextInt(1000)));
+					case 1 -> routes.add(new Route(resource + "/{id}/items/{itemId}",
+							resource + "/" + random.nextInt(1000) + "/items/" + random.nextInt(1000)));
+					case 2 -> routes.add(new Route(resource + "/*.json", resource + "/data.json"));
+					default -> routes.add(new Route(resource + "/**", resource + "/some/nested/path"));
+				}
+			}
+			return routes;
+		}
+
 		static List<Route> allRoutes() {
 			List<Route> routes = new ArrayList<>();
 			routes.addAll(staticRoutes());
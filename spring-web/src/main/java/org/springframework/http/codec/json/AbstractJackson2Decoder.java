@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
@@ -65,6 +66,8 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 
 	private int maxInMemorySize = 256 * 1024;
 
+	private boolean directBinding;
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -95,6 +98,31 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		return this.maxInMemorySize;
 	}
 
+	/**
+	 * Whether to bind each top-level JSON value, or each element of a top-level
+	 * JSON array, straight from its raw bytes, rather than from the tokens
+	 * collected for it by the non-blocking parser in a {@code TokenBuffer}.
+	 * <p>This avoids buffering every token of every value, which mostly helps
+	 * with long streams of small values, at the expense of scanning each value
+	 * twice. It applies to the JSON format only: other formats, such as Smile,
+	 * are always decoded from a {@code TokenBuffer}.
+	 * <p>By default this is set to {@code false}.
+	 * @param directBinding whether to bind values from their raw bytes
+	 * @since 6.0
+	 */
+	public void setDirectBinding(boolean directBinding) {
+		this.directBinding = directBinding;
+	}
+
+	/**
+	 * Return whether values are {@link #setDirectBinding bound directly}
+	 * from their raw bytes.
+	 * @since 6.0
+	 */
+	public boolean isDirectBinding() {
+		return this.directBinding;
+	}
+
 
 	@Override
 	public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
@@ -129,17 +157,35 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 			throw new IllegalStateException("No ObjectMapper for " + elementType);
 		}
 
+		Flux<DataBuffer> processed = processInput(input, elementType, mimeType, hints);
+		ObjectReader reader = getObjectReader(mapper, elementType, hints);
+
+		if (this.directBinding && JsonFactory.FORMAT_NAME_JSON.equals(mapper.getFactory().getFormatName())) {
+			Flux<DataBuffer> values = Jackson2Tokenizer.split(processed, mapper.getFactory(), mapper,
+					true, getMaxInMemorySize());
+
+			return values.handle((dataBuffer, sink) -> {
+				try {
+					Object value = reader.readValue(dataBuffer.asInputStream());
+					logValue(value, hints);
+					if (value != null) {
+						sink.next(value);
+					}
+				}
+				catch (IOException ex) {
+					sink.error(processException(ex));
+				}
+			});
+		}
+
 		boolean forceUseOfBigDecimal = mapper.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
 		if (BigDecimal.class.equals(elementType.getType())) {
 			forceUseOfBigDecimal = true;
 		}
 
-		Flux<DataBuffer> processed = processInput(input, elementType, mimeType, hints);
 		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(processed, mapper.getFactory(), mapper,
 				true, forceUseOfBigDecimal, getMaxInMemorySize());
 
-		ObjectReader reader = getObjectReader(mapper, elementType, hints);
-
 		return tokens.handle((tokenBuffer, sink) -> {
 			try {
 				Object value = reader.readValue(tokenBuffer.asParser(mapper));
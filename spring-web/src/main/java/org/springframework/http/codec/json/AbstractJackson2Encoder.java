@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -28,7 +29,6 @@ import java.util.concurrent.atomic.AtomicReference;
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -46,6 +46,7 @@ import org.springframework.core.codec.EncodingException;
 import org.springframework.core.codec.Hints;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.HttpMessageEncoder;
@@ -62,6 +63,11 @@ import org.springframework.util.MimeType;
  * cases, {@link Flux} elements are collected into a {@link List} before serialization for
  * performance reason.
  *
+ * <p>Values are serialized straight into {@link DataBuffer DataBuffers} allocated from
+ * the given {@link DataBufferFactory}, without an intermediate byte array. Large values
+ * span several buffers, {@linkplain DataBufferFactory#join joined} into a single
+ * (possibly composite) buffer once serialization has completed.
+ *
  * @author Sebastien Deleuze
  * @author Arjen Poutsma
  * @since 5.0
@@ -159,18 +165,17 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 						throw new IllegalStateException("No ObjectMapper for " + elementType);
 					}
 					ObjectWriter writer = createObjectWriter(mapper, elementType, mimeType, null, hints);
-					ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
+					DataBufferOutputStream outputStream = new DataBufferOutputStream(bufferFactory, separator.length);
 					JsonEncoding encoding = getJsonEncoding(mimeType);
-					JsonGenerator generator = mapper.getFactory().createGenerator(byteBuilder, encoding);
+					JsonGenerator generator = mapper.getFactory().createGenerator(outputStream, encoding);
 					SequenceWriter sequenceWriter = writer.writeValues(generator);
 
 					return Flux.from(inputStream)
-							.map(value -> encodeStreamingValue(value, bufferFactory, hints, sequenceWriter, byteBuilder,
-									separator))
+							.map(value -> encodeStreamingValue(value, hints, sequenceWriter, outputStream, separator))
 							.doAfterTerminate(() -> {
 								try {
-									byteBuilder.release();
 									generator.close();
+									outputStream.release();
 								}
 								catch (IOException ex) {
 									logger.error("Could not close Encoder resources", ex);
@@ -211,13 +216,14 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		if (filters != null) {
 			writer = writer.with(filters);
 		}
-		ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
+		DataBufferOutputStream outputStream = new DataBufferOutputStream(bufferFactory, 0);
+		boolean release = true;
 		try {
 			JsonEncoding encoding = getJsonEncoding(mimeType);
 
 			logValue(hints, value);
 
-			try (JsonGenerator generator = mapper.getFactory().createGenerator(byteBuilder, encoding)) {
+			try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream, encoding)) {
 				writer.writeValue(generator, value);
 				generator.flush();
 			}
@@ -228,29 +234,40 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 				throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
 			}
 			catch (IOException ex) {
-				throw new IllegalStateException("Unexpected I/O error while writing to byte array builder", ex);
+				throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
 			}
 
-			byte[] bytes = byteBuilder.toByteArray();
-			DataBuffer buffer = bufferFactory.allocateBuffer(bytes.length);
-			buffer.write(bytes);
+			DataBuffer buffer = outputStream.toDataBuffer();
+			release = false;
 			Hints.touchDataBuffer(buffer, hints, logger);
 
 			return buffer;
 		}
 		finally {
-			byteBuilder.release();
+			if (release) {
+				outputStream.release();
+			}
 		}
 	}
 
-	private DataBuffer encodeStreamingValue(Object value, DataBufferFactory bufferFactory, @Nullable Map<String, Object> hints,
-			SequenceWriter sequenceWriter, ByteArrayBuilder byteArrayBuilder, byte[] separator) {
+	private DataBuffer encodeStreamingValue(Object value, @Nullable Map<String, Object> hints,
+			SequenceWriter sequenceWriter, DataBufferOutputStream outputStream, byte[] separator) {
 
 		logValue(hints, value);
 
+		boolean release = true;
 		try {
+			// SequenceWriter writes an unnecessary space in between values
+			outputStream.skipLeadingSpace();
 			sequenceWriter.write(value);
 			sequenceWriter.flush();
+			outputStream.write(separator);
+
+			DataBuffer buffer = outputStream.toDataBuffer();
+			release = false;
+			Hints.touchDataBuffer(buffer, hints, logger);
+
+			return buffer;
 		}
 		catch (InvalidDefinitionException ex) {
 			throw new CodecException("Type definition error: " + ex.getType(), ex);
@@ -259,29 +276,13 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
 		}
 		catch (IOException ex) {
-			throw new IllegalStateException("Unexpected I/O error while writing to byte array builder", ex);
+			throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
 		}
-
-		byte[] bytes = byteArrayBuilder.toByteArray();
-		byteArrayBuilder.reset();
-
-		int offset;
-		int length;
-		if (bytes.length > 0 && bytes[0] == ' ') {
-			// SequenceWriter writes an unnecessary space in between values
-			offset = 1;
-			length = bytes.length - 1;
-		}
-		else {
-			offset = 0;
-			length = bytes.length;
+		finally {
+			if (release) {
+				outputStream.release();
+			}
 		}
-		DataBuffer buffer = bufferFactory.allocateBuffer(length + separator.length);
-		buffer.write(bytes, offset, length);
-		buffer.write(separator);
-		Hints.touchDataBuffer(buffer, hints, logger);
-
-		return buffer;
 	}
 
 	private void logValue(@Nullable Map<String, Object> hints, Object value) {
@@ -381,4 +382,117 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		return parameter.getMethodAnnotation(annotType);
 	}
 
+
+	/**
+	 * {@link OutputStream} that writes to {@link DataBuffer DataBuffers} allocated
+	 * on demand from a {@link DataBufferFactory}. Each new buffer is sized after the
+	 * write that requires it, which for a {@link JsonGenerator} is typically its
+	 * whole internal buffer, plus the given reserve for a trailing separator.
+	 * Not thread-safe.
+	 */
+	private static class DataBufferOutputStream extends OutputStream {
+
+		private final DataBufferFactory bufferFactory;
+
+		private final int reserve;
+
+		private final List<DataBuffer> buffers = new ArrayList<>(1);
+
+		@Nullable
+		private DataBuffer current;
+
+		private boolean skipLeadingSpace;
+
+		DataBufferOutputStream(DataBufferFactory bufferFactory, int reserve) {
+			this.bufferFactory = bufferFactory;
+			this.reserve = reserve;
+		}
+
+		/**
+		 * Skip the next byte written if it is a space.
+		 */
+		void skipLeadingSpace() {
+			this.skipLeadingSpace = true;
+		}
+
+		@Override
+		public void write(int b) {
+			if (this.skipLeadingSpace) {
+				this.skipLeadingSpace = false;
+				if (b == ' ') {
+					return;
+				}
+			}
+			DataBuffer buffer = this.current;
+			if (buffer == null || buffer.writableByteCount() == 0) {
+				buffer = allocate(1);
+			}
+			buffer.write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			if (len > 0 && this.skipLeadingSpace) {
+				this.skipLeadingSpace = false;
+				if (b[off] == ' ') {
+					off++;
+					len--;
+				}
+			}
+			if (len == 0) {
+				return;
+			}
+			DataBuffer buffer = this.current;
+			if (buffer != null) {
+				int count = Math.min(len, buffer.writableByteCount());
+				if (count > 0) {
+					buffer.write(b, off, count);
+					off += count;
+					len -= count;
+				}
+			}
+			if (len > 0) {
+				allocate(len).write(b, off, len);
+			}
+		}
+
+		private DataBuffer allocate(int length) {
+			DataBuffer buffer = this.bufferFactory.allocateBuffer(length + this.reserve);
+			this.buffers.add(buffer);
+			this.current = buffer;
+			return buffer;
+		}
+
+		/**
+		 * Return the content written so far as a single buffer, and reset this
+		 * stream. The caller is responsible for releasing the returned buffer.
+		 */
+		DataBuffer toDataBuffer() {
+			DataBuffer result;
+			if (this.buffers.isEmpty()) {
+				result = this.bufferFactory.allocateBuffer(0);
+			}
+			else if (this.buffers.size() == 1) {
+				result = this.buffers.get(0);
+			}
+			else {
+				result = this.bufferFactory.join(this.buffers);
+			}
+			this.buffers.clear();
+			this.current = null;
+			return result;
+		}
+
+		/**
+		 * Release the buffers written so far, and reset this stream.
+		 */
+		void release() {
+			for (DataBuffer buffer : this.buffers) {
+				DataBufferUtils.release(buffer);
+			}
+			this.buffers.clear();
+			this.current = null;
+		}
+	}
+
 }
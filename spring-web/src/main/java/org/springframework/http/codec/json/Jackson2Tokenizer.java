@@ -17,7 +17,9 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
@@ -37,12 +39,19 @@ import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.FastByteArrayOutputStream;
 
 /**
  * {@link Function} to transform a JSON stream of arbitrary size, byte array
  * chunks into a {@code Flux<TokenBuffer>} where each token buffer is a
  * well-formed JSON object.
  *
+ * <p>Alternatively, {@link #split} uses the same non-blocking parser only to
+ * find where each JSON value starts and ends, and returns the raw bytes of each
+ * value so that it can be bound directly, without an intermediate TokenBuffer.
+ *
  * @author Arjen Poutsma
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
@@ -50,6 +59,8 @@ import org.springframework.core.io.buffer.DataBufferUtils;
  */
 final class Jackson2Tokenizer {
 
+	private static final byte[] EMPTY_BYTES = new byte[0];
+
 	private final JsonParser parser;
 
 	private final DeserializationContext deserializationContext;
@@ -68,6 +79,17 @@ final class Jackson2Tokenizer {
 
 	private TokenBuffer tokenBuffer;
 
+	// For split(...): the current input chunk, and the start of the current value
+
+	private byte[] input = EMPTY_BYTES;
+
+	private long inputOffset;
+
+	private long valueStart;
+
+	@Nullable
+	private FastByteArrayOutputStream partialValue;
+
 
 	// TODO: change to ByteBufferFeeder when supported by Jackson
 	// See https://github.com/FasterXML/jackson-core/issues/478
@@ -87,15 +109,20 @@ final class Jackson2Tokenizer {
 	}
 
 
-
 	private List<TokenBuffer> tokenize(DataBuffer dataBuffer) {
 		int bufferSize = dataBuffer.readableByteCount();
-		byte[] bytes = new byte[bufferSize];
-		dataBuffer.read(bytes);
-		DataBufferUtils.release(dataBuffer);
-
 		try {
-			this.inputFeeder.feedInput(bytes, 0, bytes.length);
+			ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+			if (byteBuffer.hasArray()) {
+				// The parser consumes all input before asking for more: no need to copy it
+				this.inputFeeder.feedInput(byteBuffer.array(),
+						byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.arrayOffset() + byteBuffer.limit());
+			}
+			else {
+				byte[] bytes = new byte[bufferSize];
+				dataBuffer.read(bytes);
+				this.inputFeeder.feedInput(bytes, 0, bytes.length);
+			}
 			List<TokenBuffer> result = parseTokenBufferFlux();
 			assertInMemorySize(bufferSize, result);
 			return result;
@@ -106,6 +133,9 @@ final class Jackson2Tokenizer {
 		catch (IOException ex) {
 			throw Exceptions.propagate(ex);
 		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
 	}
 
 	private Flux<TokenBuffer> endOfInput() {
@@ -125,31 +155,155 @@ final class Jackson2Tokenizer {
 
 	private List<TokenBuffer> parseTokenBufferFlux() throws IOException {
 		List<TokenBuffer> result = new ArrayList<>();
+		JsonToken token;
+		while ((token = nextToken()) != null) {
+			if (!this.tokenizeArrayElements || !isTopLevelArrayToken(token)) {
+				this.tokenBuffer.copyCurrentEvent(this.parser);
+			}
+			if (isValueEnd(token)) {
+				result.add(this.tokenBuffer);
+				this.tokenBuffer = createToken();
+			}
+		}
+		return result;
+	}
+
+	private List<DataBuffer> split(DataBuffer dataBuffer) {
+		try {
+			this.input = new byte[dataBuffer.readableByteCount()];
+			dataBuffer.read(this.input);
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+		try {
+			this.inputFeeder.feedInput(this.input, 0, this.input.length);
+			return parseValueBuffers();
+		}
+		catch (JsonProcessingException ex) {
+			throw new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex);
+		}
+		catch (IOException ex) {
+			throw Exceptions.propagate(ex);
+		}
+	}
+
+	private Flux<DataBuffer> endOfSplitInput() {
+		return Flux.defer(() -> {
+			this.inputFeeder.endOfInput();
+			try {
+				return Flux.fromIterable(parseValueBuffers());
+			}
+			catch (JsonProcessingException ex) {
+				throw new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex);
+			}
+			catch (IOException ex) {
+				throw Exceptions.propagate(ex);
+			}
+		});
+	}
+
+	private List<DataBuffer> parseValueBuffers() throws IOException {
+		List<DataBuffer> result = Collections.emptyList();
+		JsonToken token;
+		while ((token = nextToken()) != null) {
+			if (this.tokenizeArrayElements && token == JsonToken.START_ARRAY && isTopLevelArrayToken(token)) {
+				this.valueStart = this.parser.getCurrentLocation().getByteOffset();
+			}
+			else if (isValueEnd(token)) {
+				if (result.isEmpty()) {
+					result = new ArrayList<>();
+				}
+				result.add(valueBuffer(token.isScalarValue()));
+			}
+		}
+		retainPartialValue();
+		return result;
+	}
 
+	/**
+	 * Return the raw bytes of the value that ends at the current location,
+	 * which may have started in a previous input chunk.
+	 */
+	private DataBuffer valueBuffer(boolean scalarValue) throws IOException {
+		long valueEnd = this.parser.getCurrentLocation().getByteOffset();
+		int end = (int) (valueEnd - this.inputOffset);
+		byte[] bytes = this.input;
+		int start;
+		if (this.partialValue != null && this.partialValue.size() > 0) {
+			this.partialValue.write(this.input, 0, end);
+			bytes = this.partialValue.toByteArray();
+			this.partialValue.reset();
+			start = 0;
+			end = bytes.length;
+		}
+		else {
+			start = skipSeparators(this.input, Math.max((int) (this.valueStart - this.inputOffset), 0), end);
+		}
+		if (scalarValue) {
+			// Scalars may only be complete once the next separator has been read
+			while (end > start && isSeparator(bytes[end - 1])) {
+				end--;
+			}
+		}
+		if (this.maxInMemorySize >= 0 && end - start > this.maxInMemorySize) {
+			raiseLimitException();
+		}
+		this.valueStart = valueEnd;
+		return DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(bytes, start, end - start));
+	}
+
+	/**
+	 * Keep the bytes of a value that is not complete at the end of the current
+	 * input chunk, until the rest of it is available.
+	 */
+	private void retainPartialValue() throws IOException {
+		int start = Math.max((int) (this.valueStart - this.inputOffset), 0);
+		if (this.partialValue == null || this.partialValue.size() == 0) {
+			start = skipSeparators(this.input, start, this.input.length);
+		}
+		if (start < this.input.length) {
+			if (this.partialValue == null) {
+				this.partialValue = new FastByteArrayOutputStream();
+			}
+			this.partialValue.write(this.input, start, this.input.length - start);
+			if (this.maxInMemorySize >= 0 && this.partialValue.size() > this.maxInMemorySize) {
+				raiseLimitException();
+			}
+		}
+		this.inputOffset += this.input.length;
+		this.input = EMPTY_BYTES;
+	}
+
+	private static int skipSeparators(byte[] bytes, int start, int end) {
+		while (start < end && isSeparator(bytes[start])) {
+			start++;
+		}
+		return start;
+	}
+
+	private static boolean isSeparator(byte b) {
+		return (b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',' || b == ']' || b == '}');
+	}
+
+	@Nullable
+	private JsonToken nextToken() throws IOException {
 		// SPR-16151: Smile data format uses null to separate documents
 		boolean previousNull = false;
 		while (!this.parser.isClosed()) {
 			JsonToken token = this.parser.nextToken();
 			if (token == JsonToken.NOT_AVAILABLE ||
 					token == null && previousNull) {
-				break;
+				return null;
 			}
 			else if (token == null ) { // !previousNull
 				previousNull = true;
 				continue;
 			}
-			else {
-				previousNull = false;
-			}
 			updateDepth(token);
-			if (!this.tokenizeArrayElements) {
-				processTokenNormal(token, result);
-			}
-			else {
-				processTokenArray(token, result);
-			}
+			return token;
 		}
-		return result;
+		return null;
 	}
 
 	private void updateDepth(JsonToken token) {
@@ -161,24 +315,13 @@ final class Jackson2Tokenizer {
 		}
 	}
 
-	private void processTokenNormal(JsonToken token, List<TokenBuffer> result) throws IOException {
-		this.tokenBuffer.copyCurrentEvent(this.parser);
-
-		if ((token.isStructEnd() || token.isScalarValue()) && this.objectDepth == 0 && this.arrayDepth == 0) {
-			result.add(this.tokenBuffer);
-			this.tokenBuffer = createToken();
+	private boolean isValueEnd(JsonToken token) {
+		if (!this.tokenizeArrayElements) {
+			return ((token.isStructEnd() || token.isScalarValue()) && this.objectDepth == 0 && this.arrayDepth == 0);
 		}
-	}
-
-	private void processTokenArray(JsonToken token, List<TokenBuffer> result) throws IOException {
-		if (!isTopLevelArrayToken(token)) {
-			this.tokenBuffer.copyCurrentEvent(this.parser);
-		}
-
-		if (this.objectDepth == 0 && (this.arrayDepth == 0 || this.arrayDepth == 1) &&
-				(token == JsonToken.END_OBJECT || token.isScalarValue())) {
-			result.add(this.tokenBuffer);
-			this.tokenBuffer = createToken();
+		else {
+			return (this.objectDepth == 0 && (this.arrayDepth == 0 || this.arrayDepth == 1) &&
+					(token == JsonToken.END_OBJECT || token.isScalarValue()));
 		}
 	}
 
@@ -247,4 +390,32 @@ final class Jackson2Tokenizer {
 		}
 	}
 
+	/**
+	 * Split the given {@code Flux<DataBuffer>} of JSON text into one data buffer
+	 * per top-level JSON value, holding the raw bytes of that value, ready to be
+	 * bound with a regular blocking parser. Unlike {@link #tokenize}, this does
+	 * not buffer the tokens of each value, but it only applies to JSON.
+	 * @param dataBuffers the source data buffers
+	 * @param jsonFactory the JSON factory to use
+	 * @param objectMapper the current mapper instance
+	 * @param tokenizeArrays if {@code true} and the "top level" JSON object is
+	 * an array, each element is returned individually immediately after it is received
+	 * @param maxInMemorySize maximum memory size of a single value
+	 * @return the raw bytes of each value
+	 * @since 6.0
+	 */
+	public static Flux<DataBuffer> split(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
+			ObjectMapper objectMapper, boolean tokenizeArrays, int maxInMemorySize) {
+
+		try {
+			JsonParser parser = jsonFactory.createNonBlockingByteArrayParser();
+			Jackson2Tokenizer tokenizer = new Jackson2Tokenizer(
+					parser, objectMapper.getDeserializationContext(), tokenizeArrays, false, maxInMemorySize);
+			return dataBuffers.concatMapIterable(tokenizer::split).concatWith(tokenizer.endOfSplitInput());
+		}
+		catch (IOException ex) {
+			return Flux.error(ex);
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -53,6 +54,10 @@ import org.springframework.util.Assert;
  * part is streamed directly from the parsed input buffer stream, and not stored
  * in memory nor file.
  *
+ * <p>The number of bytes stored in memory and on disk for the parts of each
+ * request can be monitored with a
+ * {@linkplain #setStorageUsageListener(StorageUsageListener) storage usage listener}.
+ *
  * <p>This reader can be provided to {@link MultipartHttpMessageReader} in order
  * to aggregate all parts into a Map.
  *
@@ -77,6 +82,9 @@ public class DefaultPartHttpMessageReader extends LoggingCodecSupport implements
 
 	private Charset headersCharset = StandardCharsets.UTF_8;
 
+	@Nullable
+	private StorageUsageListener storageUsageListener;
+
 
 	/**
 	 * Configure the maximum amount of memory that is allowed per headers section of each part.
@@ -198,6 +206,19 @@ public class DefaultPartHttpMessageReader extends LoggingCodecSupport implements
 		this.headersCharset = headersCharset;
 	}
 
+	/**
+	 * Set a listener to be notified of the number of bytes stored in memory and
+	 * on disk for the parts of each request, once all of its parts are created.
+	 * <p>Note that the listener is not notified when
+	 * {@linkplain #setStreaming(boolean) streaming} is enabled, as part contents
+	 * are not stored then, nor for requests that fail or are canceled.
+	 * @param storageUsageListener the listener to notify, or {@code null} for none
+	 * @since 6.0
+	 */
+	public void setStorageUsageListener(@Nullable StorageUsageListener storageUsageListener) {
+		this.storageUsageListener = storageUsageListener;
+	}
+
 	@Override
 	public List<MediaType> getReadableMediaTypes() {
 		return Collections.singletonList(MediaType.MULTIPART_FORM_DATA);
@@ -226,8 +247,13 @@ public class DefaultPartHttpMessageReader extends LoggingCodecSupport implements
 			Flux<MultipartParser.Token> tokens = MultipartParser.parse(message.getBody(), boundary,
 					this.maxHeadersSize, this.headersCharset);
 
+			StorageUsageListener listener = this.storageUsageListener;
+			BiConsumer<Long, Long> storageUsageConsumer = (listener != null ?
+					(inMemoryByteCount, diskByteCount) -> listener.storageUsed(message, inMemoryByteCount, diskByteCount) :
+					null);
+
 			return PartGenerator.createParts(tokens, this.maxParts, this.maxInMemorySize, this.maxDiskUsagePerPart,
-					this.streaming, this.fileStorage.directory(), this.blockingOperationScheduler);
+					this.streaming, this.fileStorage.directory(), this.blockingOperationScheduler, storageUsageConsumer);
 		});
 	}
 
@@ -247,4 +273,24 @@ public class DefaultPartHttpMessageReader extends LoggingCodecSupport implements
 		return null;
 	}
 
+
+	/**
+	 * Listener notified of the storage used for the parts of a request.
+	 * @since 6.0
+	 * @see #setStorageUsageListener(StorageUsageListener)
+	 */
+	@FunctionalInterface
+	public interface StorageUsageListener {
+
+		/**
+		 * Called once all parts of the given request have been created.
+		 * @param message the multipart request
+		 * @param inMemoryByteCount the number of bytes of part contents and form
+		 * field values stored in memory
+		 * @param diskByteCount the number of bytes of part contents stored in
+		 * temporary files
+		 */
+		void storageUsed(ReactiveHttpInputMessage message, long inMemoryByteCount, long diskByteCount);
+	}
+
 }
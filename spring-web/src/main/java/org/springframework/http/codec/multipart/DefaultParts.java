@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,7 @@ import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
 
 /**
  * Default implementations of {@link Part} and subtypes.
@@ -303,7 +304,7 @@ abstract class DefaultParts {
 		public Flux<DataBuffer> content() {
 			return DataBufferUtils.readByteChannel(
 					() -> Files.newByteChannel(this.file, StandardOpenOption.READ),
-							DefaultDataBufferFactory.sharedInstance, 1024)
+							DefaultDataBufferFactory.sharedInstance, StreamUtils.BUFFER_SIZE)
 					.subscribeOn(this.scheduler);
 		}
 
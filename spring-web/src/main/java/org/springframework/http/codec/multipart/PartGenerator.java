@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,7 +19,8 @@ package org.springframework.http.codec.multipart;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.WritableByteChannel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -33,6 +34,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -51,6 +53,7 @@ import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
 import org.springframework.util.FastByteArrayOutputStream;
 
 /**
@@ -84,9 +87,18 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 
 	private final Scheduler blockingOperationScheduler;
 
+	@Nullable
+	private final BiConsumer<Long, Long> storageUsageConsumer;
+
+	// Bytes of the parts created so far, stored in memory or on disk
+	private final AtomicLong inMemoryByteCount = new AtomicLong();
+
+	private final AtomicLong diskByteCount = new AtomicLong();
+
 
 	private PartGenerator(FluxSink<Part> sink, int maxParts, int maxInMemorySize, long maxDiskUsagePerPart,
-			boolean streaming, Mono<Path> fileStorageDirectory, Scheduler blockingOperationScheduler) {
+			boolean streaming, Mono<Path> fileStorageDirectory, Scheduler blockingOperationScheduler,
+			@Nullable BiConsumer<Long, Long> storageUsageConsumer) {
 
 		this.sink = sink;
 		this.maxParts = maxParts;
@@ -95,18 +107,21 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 		this.streaming = streaming;
 		this.fileStorageDirectory = fileStorageDirectory;
 		this.blockingOperationScheduler = blockingOperationScheduler;
+		this.storageUsageConsumer = storageUsageConsumer;
 	}
 
 	/**
 	 * Creates parts from a given stream of tokens.
+	 * @param storageUsageConsumer consumer of the bytes stored in memory and
+	 * on disk for all parts, called on completion unless streaming
 	 */
 	public static Flux<Part> createParts(Flux<MultipartParser.Token> tokens, int maxParts, int maxInMemorySize,
 			long maxDiskUsagePerPart, boolean streaming, Mono<Path> fileStorageDirectory,
-			Scheduler blockingOperationScheduler) {
+			Scheduler blockingOperationScheduler, @Nullable BiConsumer<Long, Long> storageUsageConsumer) {
 
 		return Flux.create(sink -> {
 			PartGenerator generator = new PartGenerator(sink, maxParts, maxInMemorySize, maxDiskUsagePerPart, streaming,
-					fileStorageDirectory, blockingOperationScheduler);
+					fileStorageDirectory, blockingOperationScheduler, storageUsageConsumer);
 
 			sink.onCancel(generator::onSinkCancel);
 			sink.onRequest(l -> generator.requestToken());
@@ -208,6 +223,31 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 		oldState.dispose();
 	}
 
+	/**
+	 * Write all readable bytes of the given buffers to the channel, with as
+	 * few gathering writes as the channel allows rather than one write per
+	 * buffer. The buffers are released afterwards, also if writing fails.
+	 */
+	@SuppressWarnings("BlockingMethodInNonBlockingContext")
+	static void writeFully(GatheringByteChannel channel, Collection<DataBuffer> dataBuffers) throws IOException {
+		try {
+			ByteBuffer[] byteBuffers = new ByteBuffer[dataBuffers.size()];
+			long remaining = 0;
+			int i = 0;
+			for (DataBuffer dataBuffer : dataBuffers) {
+				byteBuffers[i] = dataBuffer.asByteBuffer();
+				remaining += byteBuffers[i].remaining();
+				i++;
+			}
+			while (remaining > 0) {
+				remaining -= channel.write(byteBuffers);
+			}
+		}
+		finally {
+			dataBuffers.forEach(DataBufferUtils::release);
+		}
+	}
+
 	void emitPart(Part part) {
 		if (logger.isTraceEnabled()) {
 			logger.trace("Emitting: " + part);
@@ -216,6 +256,9 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 	}
 
 	void emitComplete() {
+		if (this.storageUsageConsumer != null && !this.streaming) {
+			this.storageUsageConsumer.accept(this.inMemoryByteCount.get(), this.diskByteCount.get());
+		}
 		this.sink.complete();
 	}
 
@@ -373,6 +416,7 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 		@Override
 		public void partComplete(boolean finalPart) {
 			byte[] bytes = this.value.toByteArrayUnsafe();
+			PartGenerator.this.inMemoryByteCount.addAndGet(bytes.length);
 			String value = new String(bytes, MultipartUtils.charset(this.headers));
 			emitPart(DefaultParts.formFieldPart(this.headers, value));
 			if (finalPart) {
@@ -517,6 +561,7 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 				DataBufferUtils.release(buffer);
 			}
 			this.content.clear();
+			PartGenerator.this.inMemoryByteCount.addAndGet(bytes.length);
 			Flux<DataBuffer> content = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes));
 			emitPart(DefaultParts.part(this.headers, content));
 		}
@@ -588,7 +633,7 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 				if (logger.isTraceEnabled()) {
 					logger.trace("Storing multipart data in file " + tempFile);
 				}
-				WritableByteChannel channel = Files.newByteChannel(tempFile, StandardOpenOption.WRITE);
+				FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
 				return new WritingFileState(this, tempFile, channel);
 			}
 			catch (IOException ex) {
@@ -634,7 +679,7 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 
 		private final Path file;
 
-		private final WritableByteChannel channel;
+		private final GatheringByteChannel channel;
 
 		private final AtomicLong byteCount;
 
@@ -674,6 +719,7 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 		@Override
 		public void partComplete(boolean finalPart) {
 			MultipartUtils.closeChannel(this.channel);
+			PartGenerator.this.diskByteCount.addAndGet(this.byteCount.get());
 			emitPart(DefaultParts.part(this.headers, this.file, PartGenerator.this.blockingOperationScheduler));
 			if (finalPart) {
 				emitComplete();
@@ -702,7 +748,7 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 
 		private final Path file;
 
-		private final WritableByteChannel channel;
+		private final GatheringByteChannel channel;
 
 		private final AtomicLong byteCount;
 
@@ -711,7 +757,7 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 		private volatile boolean finalPart;
 
 
-		public WritingFileState(CreateFileState state, Path file, WritableByteChannel channel) {
+		public WritingFileState(CreateFileState state, Path file, GatheringByteChannel channel) {
 			this.headers = state.headers;
 			this.file = file;
 			this.channel = channel;
@@ -746,10 +792,8 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 					this::writeComplete);
 		}
 
-		public void writeBuffers(Iterable<DataBuffer> dataBuffers) {
-			Flux.fromIterable(dataBuffers)
-					.concatMap(this::writeInternal)
-					.then()
+		public void writeBuffers(Collection<DataBuffer> dataBuffers) {
+			Mono.defer(() -> writeInternal(dataBuffers))
 					.subscribeOn(PartGenerator.this.blockingOperationScheduler)
 					.subscribe(null,
 							PartGenerator.this::emitError,
@@ -786,6 +830,16 @@ final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
 			}
 		}
 
+		private Mono<Void> writeInternal(Collection<DataBuffer> dataBuffers) {
+			try {
+				writeFully(this.channel, dataBuffers);
+				return Mono.empty();
+			}
+			catch (IOException ex) {
+				return Mono.error(ex);
+			}
+		}
+
 		@Override
 		public String toString() {
 			return "WRITE-FILE";
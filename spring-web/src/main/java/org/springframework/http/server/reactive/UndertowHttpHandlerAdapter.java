@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -54,6 +54,14 @@ public class UndertowHttpHandlerAdapter implements io.undertow.server.HttpHandle
 	}
 
 
+	/**
+	 * Configure the {@link DataBufferFactory} that request body content is
+	 * read into, and that response content is written with.
+	 * <p>By default this is {@link DefaultDataBufferFactory#sharedInstance}.
+	 * Use a {@link org.springframework.core.io.buffer.PooledDataBufferFactory}
+	 * to avoid allocating new buffers for each request.
+	 * @param bufferFactory the buffer factory to use
+	 */
 	public void setDataBufferFactory(DataBufferFactory bufferFactory) {
 		Assert.notNull(bufferFactory, "DataBufferFactory must not be null");
 		this.bufferFactory = bufferFactory;
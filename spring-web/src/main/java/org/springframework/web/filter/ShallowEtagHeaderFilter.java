@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,17 +18,21 @@ package org.springframework.web.filter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.ServletRequest;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
@@ -46,6 +50,10 @@ import org.springframework.web.util.WebUtils;
  * (e.g. a {@link org.springframework.web.servlet.View}) is still rendered.
  * As such, this filter only saves bandwidth, not server performance.
  *
+ * <p>The response content is cached in memory until the ETag is generated.
+ * A {@link #setContentCacheLimit content cache limit} can be configured for
+ * larger responses to be streamed to the client without an ETag instead.
+ *
  * @author Arjen Poutsma
  * @author Rossen Stoyanchev
  * @author Brian Clozel
@@ -61,6 +69,8 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	private boolean writeWeakETag = false;
 
+	private int contentCacheLimit = -1;
+
 
 	/**
 	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
@@ -81,6 +91,35 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return this.writeWeakETag;
 	}
 
+	/**
+	 * Set the maximum number of bytes of response content to cache for
+	 * generating an ETag. Once a response exceeds it, the content cached so
+	 * far is written to the response, followed by any further content as it
+	 * is written, and no ETag is generated. This keeps memory usage bounded
+	 * for large responses, such as downloads. The same applies to responses
+	 * with a Content-Length exceeding the limit, which are not cached at all.
+	 * <p>By default this is set to -1, i.e. the whole response content is
+	 * cached.
+	 * <p>Can be configured using an {@code <init-param>} for parameter name
+	 * "contentCacheLimit" in the filter definition in {@code web.xml}.
+	 * @param contentCacheLimit the maximum number of bytes to cache per response,
+	 * or -1 for no limit
+	 * @since 6.0
+	 */
+	public void setContentCacheLimit(int contentCacheLimit) {
+		Assert.isTrue(contentCacheLimit >= -1, "Content cache limit must be -1 or greater");
+		this.contentCacheLimit = contentCacheLimit;
+	}
+
+	/**
+	 * Return the maximum number of bytes of response content to cache for
+	 * generating an ETag, or -1 for no limit.
+	 * @since 6.0
+	 */
+	public int getContentCacheLimit() {
+		return this.contentCacheLimit;
+	}
+
 
 	/**
 	 * The default value is {@code false} so that the filter may delay the generation
@@ -97,7 +136,7 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 		HttpServletResponse responseToUse = response;
 		if (!isAsyncDispatch(request) && !(response instanceof ConditionalContentCachingResponseWrapper)) {
-			responseToUse = new ConditionalContentCachingResponseWrapper(response, request);
+			responseToUse = new ConditionalContentCachingResponseWrapper(response, request, this.contentCacheLimit);
 		}
 
 		filterChain.doFilter(request, responseToUse);
@@ -113,7 +152,7 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		Assert.notNull(wrapper, "ContentCachingResponseWrapper not found");
 		HttpServletResponse rawResponse = (HttpServletResponse) wrapper.getResponse();
 
-		if (isEligibleForEtag(request, wrapper, wrapper.getStatus(), wrapper.getContentInputStream())) {
+		if (!wrapper.isContentCacheLimitExceeded() && isEligibleForEtag(request, wrapper, wrapper.getStatus(), wrapper.getContentInputStream())) {
 			String eTag = wrapper.getHeader(HttpHeaders.ETAG);
 			if (!StringUtils.hasText(eTag)) {
 				eTag = generateETagHeaderValue(wrapper.getContentInputStream(), this.writeWeakETag);
@@ -198,32 +237,223 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	/**
 	 * Returns the raw OutputStream, instead of the one that does caching,
-	 * if {@link #isContentCachingDisabled}.
+	 * if {@link #isContentCachingDisabled}, and switches to it once the
+	 * content cache limit, if any, is exceeded.
 	 */
 	private static class ConditionalContentCachingResponseWrapper extends ContentCachingResponseWrapper {
 
 		private final HttpServletRequest request;
 
-		ConditionalContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request) {
+		private final int contentCacheLimit;
+
+		private boolean contentCacheLimitExceeded;
+
+		@Nullable
+		private ServletOutputStream outputStream;
+
+		@Nullable
+		private PrintWriter writer;
+
+		ConditionalContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+				int contentCacheLimit) {
+
 			super(response);
 			this.request = request;
+			this.contentCacheLimit = contentCacheLimit;
 		}
 
 		@Override
 		public ServletOutputStream getOutputStream() throws IOException {
-			return (isContentCachingDisabled(this.request) || hasETag() ?
-					getResponse().getOutputStream() : super.getOutputStream());
+			if (isContentCachingDisabled(this.request) || hasETag()) {
+				return getResponse().getOutputStream();
+			}
+			if (this.contentCacheLimit < 0) {
+				return super.getOutputStream();
+			}
+			if (this.outputStream == null) {
+				this.outputStream = new LimitedContentCachingOutputStream(super.getOutputStream());
+			}
+			return this.outputStream;
 		}
 
 		@Override
 		public PrintWriter getWriter() throws IOException {
-			return (isContentCachingDisabled(this.request) || hasETag()?
-					getResponse().getWriter() : super.getWriter());
+			if (isContentCachingDisabled(this.request) || hasETag()) {
+				return getResponse().getWriter();
+			}
+			if (this.contentCacheLimit < 0) {
+				return super.getWriter();
+			}
+			if (this.writer == null) {
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new LimitedContentCachingPrintWriter(new OutputStreamWriter(
+						new WriterOutputStream(getOutputStream()),
+						(characterEncoding != null ? characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING)));
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (this.contentCacheLimitExceeded) {
+				getResponse().flushBuffer();
+			}
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			setContentLengthLong(len);
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (this.contentCacheLimit >= 0 && len > this.contentCacheLimit && !this.contentCacheLimitExceeded) {
+				// Do not cache content known to exceed the limit
+				try {
+					exceedContentCacheLimit();
+				}
+				catch (IOException ex) {
+					throw new IllegalStateException("Failed to write cached content to response", ex);
+				}
+			}
+			if (this.contentCacheLimitExceeded) {
+				getResponse().setContentLengthLong(len);
+			}
+			else {
+				super.setContentLengthLong(len);
+			}
+		}
+
+		@Override
+		public void setBufferSize(int size) {
+			if (this.contentCacheLimit < 0 || size <= this.contentCacheLimit) {
+				super.setBufferSize(size);
+			}
+		}
+
+		boolean isContentCacheLimitExceeded() {
+			return this.contentCacheLimitExceeded;
+		}
+
+		private void exceedContentCacheLimit() throws IOException {
+			this.contentCacheLimitExceeded = true;
+			copyBodyToResponse(false);
 		}
 
 		private boolean hasETag() {
 			return StringUtils.hasText(getHeader(HttpHeaders.ETAG));
 		}
+
+
+		/**
+		 * Caches content until the limit is exceeded, and then writes to the
+		 * raw response.
+		 */
+		private class LimitedContentCachingOutputStream extends ServletOutputStream {
+
+			private final ServletOutputStream cachingStream;
+
+			LimitedContentCachingOutputStream(ServletOutputStream cachingStream) {
+				this.cachingStream = cachingStream;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				checkContentCacheLimit(1).write(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				checkContentCacheLimit(len).write(b, off, len);
+			}
+
+			@Override
+			public void flush() throws IOException {
+				if (contentCacheLimitExceeded) {
+					getResponse().getOutputStream().flush();
+				}
+			}
+
+			@Override
+			public boolean isReady() {
+				return this.cachingStream.isReady();
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				this.cachingStream.setWriteListener(writeListener);
+			}
+
+			private OutputStream checkContentCacheLimit(int len) throws IOException {
+				if (!contentCacheLimitExceeded && getContentSize() + (long) len > contentCacheLimit) {
+					exceedContentCacheLimit();
+				}
+				return (contentCacheLimitExceeded ? getResponse().getOutputStream() : this.cachingStream);
+			}
+		}
+
+
+		/**
+		 * Lets the writer flush encoded characters to the stream on each write,
+		 * without flushing the raw response.
+		 */
+		private static class WriterOutputStream extends OutputStream {
+
+			private final OutputStream outputStream;
+
+			WriterOutputStream(OutputStream outputStream) {
+				this.outputStream = outputStream;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				this.outputStream.write(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				this.outputStream.write(b, off, len);
+			}
+		}
+
+
+		private class LimitedContentCachingPrintWriter extends PrintWriter {
+
+			LimitedContentCachingPrintWriter(OutputStreamWriter writer) {
+				super(writer);
+			}
+
+			@Override
+			public void write(char[] buf, int off, int len) {
+				super.write(buf, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(String s, int off, int len) {
+				super.write(s, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(int c) {
+				super.write(c);
+				super.flush();
+			}
+
+			@Override
+			public void flush() {
+				super.flush();
+				if (contentCacheLimitExceeded) {
+					try {
+						getResponse().flushBuffer();
+					}
+					catch (IOException ex) {
+						setError();
+					}
+				}
+			}
+		}
 	}
 
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.util.IdGenerator;
+import org.springframework.util.JdkIdGenerator;
+import org.springframework.web.server.WebSession;
+
+/**
+ * Base class for the sessions of {@link InMemoryWebSessionStore} and
+ * {@link ShardedInMemoryWebSessionStore}, holding the state of a session.
+ * Subclasses are responsible for storing and removing the session.
+ *
+ * @since 6.0
+ */
+abstract class AbstractInMemoryWebSession implements WebSession {
+
+	private static final IdGenerator idGenerator = new JdkIdGenerator();
+
+
+	private final AtomicReference<String> id = new AtomicReference<>(String.valueOf(idGenerator.generateId()));
+
+	private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+	private final Instant creationTime;
+
+	private volatile Instant lastAccessTime;
+
+	private volatile Duration maxIdleTime = Duration.ofMinutes(30);
+
+	private final AtomicReference<State> state = new AtomicReference<>(State.NEW);
+
+
+	protected AbstractInMemoryWebSession(Instant creationTime) {
+		this.creationTime = creationTime;
+		this.lastAccessTime = this.creationTime;
+	}
+
+
+	@Override
+	public String getId() {
+		return this.id.get();
+	}
+
+	@Override
+	public Map<String, Object> getAttributes() {
+		return this.attributes;
+	}
+
+	@Override
+	public Instant getCreationTime() {
+		return this.creationTime;
+	}
+
+	@Override
+	public Instant getLastAccessTime() {
+		return this.lastAccessTime;
+	}
+
+	@Override
+	public void setMaxIdleTime(Duration maxIdleTime) {
+		this.maxIdleTime = maxIdleTime;
+	}
+
+	@Override
+	public Duration getMaxIdleTime() {
+		return this.maxIdleTime;
+	}
+
+	@Override
+	public void start() {
+		this.state.compareAndSet(State.NEW, State.STARTED);
+	}
+
+	@Override
+	public boolean isStarted() {
+		return this.state.get().equals(State.STARTED) || !getAttributes().isEmpty();
+	}
+
+	/**
+	 * Assign a new generated id to the session.
+	 */
+	void generateNewId() {
+		this.id.set(String.valueOf(idGenerator.generateId()));
+	}
+
+	/**
+	 * Mark the session as expired and clear its attributes.
+	 */
+	void markInvalidated() {
+		this.state.set(State.EXPIRED);
+		getAttributes().clear();
+	}
+
+	/**
+	 * Whether the session has been invalidated or found to be expired.
+	 */
+	boolean isInvalidated() {
+		return this.state.get().equals(State.EXPIRED);
+	}
+
+	/**
+	 * Mark the session as started if it has attributes.
+	 */
+	void startIfNecessary() {
+		// Implicitly started session..
+		if (!getAttributes().isEmpty()) {
+			this.state.compareAndSet(State.NEW, State.STARTED);
+		}
+	}
+
+	boolean isExpired(Instant now) {
+		if (this.state.get().equals(State.EXPIRED)) {
+			return true;
+		}
+		if (checkExpired(now)) {
+			this.state.set(State.EXPIRED);
+			return true;
+		}
+		return false;
+	}
+
+	private boolean checkExpired(Instant currentTime) {
+		return isStarted() && !this.maxIdleTime.isNegative() &&
+				currentTime.minus(this.maxIdleTime).isAfter(this.lastAccessTime);
+	}
+
+	void updateLastAccessTime(Instant currentTime) {
+		this.lastAccessTime = currentTime;
+	}
+
+
+	private enum State { NEW, STARTED, EXPIRED }
+
+}
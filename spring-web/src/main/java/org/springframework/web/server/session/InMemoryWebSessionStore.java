@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,7 +17,6 @@
 package org.springframework.web.server.session;
 
 import java.time.Clock;
-import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
@@ -25,15 +24,12 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import org.springframework.util.Assert;
-import org.springframework.util.IdGenerator;
-import org.springframework.util.JdkIdGenerator;
 import org.springframework.web.server.WebSession;
 
 /**
@@ -45,9 +41,6 @@ import org.springframework.web.server.WebSession;
  */
 public class InMemoryWebSessionStore implements WebSessionStore {
 
-	private static final IdGenerator idGenerator = new JdkIdGenerator();
-
-
 	private int maxSessions = 10000;
 
 	private Clock clock = Clock.system(ZoneId.of("GMT"));
@@ -167,81 +160,25 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 	}
 
 
-	private class InMemoryWebSession implements WebSession {
-
-		private final AtomicReference<String> id = new AtomicReference<>(String.valueOf(idGenerator.generateId()));
-
-		private final Map<String, Object> attributes = new ConcurrentHashMap<>();
-
-		private final Instant creationTime;
-
-		private volatile Instant lastAccessTime;
-
-		private volatile Duration maxIdleTime = Duration.ofMinutes(30);
-
-		private final AtomicReference<State> state = new AtomicReference<>(State.NEW);
-
+	private class InMemoryWebSession extends AbstractInMemoryWebSession {
 
 		public InMemoryWebSession(Instant creationTime) {
-			this.creationTime = creationTime;
-			this.lastAccessTime = this.creationTime;
-		}
-
-		@Override
-		public String getId() {
-			return this.id.get();
-		}
-
-		@Override
-		public Map<String, Object> getAttributes() {
-			return this.attributes;
-		}
-
-		@Override
-		public Instant getCreationTime() {
-			return this.creationTime;
-		}
-
-		@Override
-		public Instant getLastAccessTime() {
-			return this.lastAccessTime;
-		}
-
-		@Override
-		public void setMaxIdleTime(Duration maxIdleTime) {
-			this.maxIdleTime = maxIdleTime;
-		}
-
-		@Override
-		public Duration getMaxIdleTime() {
-			return this.maxIdleTime;
-		}
-
-		@Override
-		public void start() {
-			this.state.compareAndSet(State.NEW, State.STARTED);
-		}
-
-		@Override
-		public boolean isStarted() {
-			return this.state.get().equals(State.STARTED) || !getAttributes().isEmpty();
+			super(creationTime);
 		}
 
 		@Override
 		public Mono<Void> changeSessionId() {
-			String currentId = this.id.get();
+			String currentId = getId();
 			InMemoryWebSessionStore.this.sessions.remove(currentId);
-			String newId = String.valueOf(idGenerator.generateId());
-			this.id.set(newId);
+			generateNewId();
 			InMemoryWebSessionStore.this.sessions.put(this.getId(), this);
 			return Mono.empty();
 		}
 
 		@Override
 		public Mono<Void> invalidate() {
-			this.state.set(State.EXPIRED);
-			getAttributes().clear();
-			InMemoryWebSessionStore.this.sessions.remove(this.id.get());
+			markInvalidated();
+			InMemoryWebSessionStore.this.sessions.remove(getId());
 			return Mono.empty();
 		}
 
@@ -250,17 +187,14 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 			checkMaxSessionsLimit();
 
-			// Implicitly started session..
-			if (!getAttributes().isEmpty()) {
-				this.state.compareAndSet(State.NEW, State.STARTED);
-			}
+			startIfNecessary();
 
 			if (isStarted()) {
 				// Save
 				InMemoryWebSessionStore.this.sessions.put(this.getId(), this);
 
 				// Unless it was invalidated
-				if (this.state.get().equals(State.EXPIRED)) {
+				if (isInvalidated()) {
 					InMemoryWebSessionStore.this.sessions.remove(this.getId());
 					return Mono.error(new IllegalStateException("Session was invalidated"));
 				}
@@ -282,26 +216,6 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 		public boolean isExpired() {
 			return isExpired(clock.instant());
 		}
-
-		private boolean isExpired(Instant now) {
-			if (this.state.get().equals(State.EXPIRED)) {
-				return true;
-			}
-			if (checkExpired(now)) {
-				this.state.set(State.EXPIRED);
-				return true;
-			}
-			return false;
-		}
-
-		private boolean checkExpired(Instant currentTime) {
-			return isStarted() && !this.maxIdleTime.isNegative() &&
-					currentTime.minus(this.maxIdleTime).isAfter(this.lastAccessTime);
-		}
-
-		private void updateLastAccessTime(Instant currentTime) {
-			this.lastAccessTime = currentTime;
-		}
 	}
 
 
@@ -345,7 +259,4 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 		}
 	}
 
-
-	private enum State { NEW, STARTED, EXPIRED }
-
 }
@@ -0,0 +1,642 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.server.WebSession;
+
+/**
+ * In-memory storage for {@link WebSession} instances, sharded by session id,
+ * and suited to a large number of sessions.
+ *
+ * <p>Unlike {@link InMemoryWebSessionStore}, expired sessions are not found by
+ * checking all sessions: each shard indexes its sessions by expiration time in
+ * a hierarchical timing wheel with a one second tick, so that a check only
+ * involves the sessions due to expire since the previous one. Checks are
+ * kicked off lazily on each shard, at most once per tick, during calls to
+ * {@link #retrieveSession retrieve} sessions or to save them.
+ *
+ * <p>The number of sessions is not limited by default. Once the configured
+ * {@link #setMaxSessions maximum number of sessions} is reached, the sessions
+ * closest to expiration are evicted to make room for new ones.
+ *
+ * @since 6.0
+ * @see InMemoryWebSessionStore
+ */
+public class ShardedInMemoryWebSessionStore implements WebSessionStore {
+
+	private static final int DEFAULT_SHARD_COUNT = 16;
+
+	private static final long TICK_MILLIS = 1000;
+
+	// Wheels of 64 slots: each level spans 64 times the previous one
+	private static final int SLOT_BITS = 6;
+
+	private static final int SLOT_COUNT = 1 << SLOT_BITS;
+
+	private static final int SLOT_MASK = SLOT_COUNT - 1;
+
+	private static final int LEVEL_COUNT = 4;
+
+	private static final long MAX_DELAY_TICKS = 1L << (SLOT_BITS * LEVEL_COUNT);
+
+	// Clock adjustments backwards beyond which the wheels are rebuilt
+	private static final long MAX_REGRESSION_TICKS = SLOT_COUNT;
+
+
+	private final Shard[] shards;
+
+	private int maxSessions = Integer.MAX_VALUE;
+
+	private Clock clock = Clock.system(ZoneId.of("GMT"));
+
+	private final AtomicInteger sessionCount = new AtomicInteger();
+
+	private final LongAdder expiredSessionCount = new LongAdder();
+
+	private final LongAdder evictedSessionCount = new LongAdder();
+
+
+	/**
+	 * Create a store with 16 shards.
+	 */
+	public ShardedInMemoryWebSessionStore() {
+		this(DEFAULT_SHARD_COUNT);
+	}
+
+	/**
+	 * Create a store with the given number of shards.
+	 * @param shardCount the number of shards, each with its own timing wheel
+	 */
+	public ShardedInMemoryWebSessionStore(int shardCount) {
+		Assert.isTrue(shardCount > 0, "Shard count must be greater than 0");
+		this.shards = new Shard[shardCount];
+		long currentTick = toTick(this.clock.millis());
+		for (int i = 0; i < shardCount; i++) {
+			this.shards[i] = new Shard(currentTick);
+		}
+	}
+
+
+	/**
+	 * Set the maximum number of sessions that can be stored. Once the limit is
+	 * reached, expired sessions are removed and, if still necessary, the
+	 * sessions closest to expiration are evicted to store additional sessions.
+	 * <p>By default the number of sessions is not limited.
+	 * @param maxSessions the maximum number of sessions
+	 */
+	public void setMaxSessions(int maxSessions) {
+		Assert.isTrue(maxSessions > 0, "Max sessions must be greater than 0");
+		this.maxSessions = maxSessions;
+	}
+
+	/**
+	 * Return the maximum number of sessions that can be stored.
+	 */
+	public int getMaxSessions() {
+		return this.maxSessions;
+	}
+
+	/**
+	 * Configure the {@link Clock} to use to set lastAccessTime on every created
+	 * session and to calculate if it is expired.
+	 * <p>By default this is {@code Clock.system(ZoneId.of("GMT"))}.
+	 * @param clock the clock to use
+	 * @see InMemoryWebSessionStore#setClock(Clock)
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock is required");
+		this.clock = clock;
+		removeExpiredSessions();
+	}
+
+	/**
+	 * Return the configured clock for session lastAccessTime calculations.
+	 */
+	public Clock getClock() {
+		return this.clock;
+	}
+
+	/**
+	 * Return the number of sessions currently stored.
+	 */
+	public int getActiveSessionCount() {
+		return this.sessionCount.get();
+	}
+
+	/**
+	 * Return the number of sessions removed from the store since it was
+	 * created, because they expired.
+	 */
+	public long getExpiredSessionCount() {
+		return this.expiredSessionCount.sum();
+	}
+
+	/**
+	 * Return the number of sessions removed from the store since it was
+	 * created, to stay within the {@link #setMaxSessions maximum number of sessions}.
+	 */
+	public long getEvictedSessionCount() {
+		return this.evictedSessionCount.sum();
+	}
+
+
+	@Override
+	public Mono<WebSession> createWebSession() {
+		Instant now = this.clock.instant();
+		return Mono.<WebSession>fromSupplier(() -> new InMemoryWebSession(now))
+				.subscribeOn(Schedulers.boundedElastic())
+				.publishOn(Schedulers.parallel());
+	}
+
+	@Override
+	public Mono<WebSession> retrieveSession(String id) {
+		Instant now = this.clock.instant();
+		Shard shard = getShard(id);
+		shard.removeExpiredSessionsIfNecessary(now);
+		InMemoryWebSession session = shard.sessions.get(id);
+		if (session == null) {
+			return Mono.empty();
+		}
+		else if (session.isExpired(now)) {
+			if (removeStoredSession(session)) {
+				this.expiredSessionCount.increment();
+			}
+			return Mono.empty();
+		}
+		else {
+			session.updateLastAccessTime(now);
+			return Mono.just(session);
+		}
+	}
+
+	@Override
+	public Mono<Void> removeSession(String id) {
+		if (getShard(id).sessions.remove(id) != null) {
+			this.sessionCount.decrementAndGet();
+		}
+		return Mono.empty();
+	}
+
+	@Override
+	public Mono<WebSession> updateLastAccessTime(WebSession session) {
+		return Mono.fromSupplier(() -> {
+			Assert.isInstanceOf(InMemoryWebSession.class, session);
+			((InMemoryWebSession) session).updateLastAccessTime(this.clock.instant());
+			return session;
+		});
+	}
+
+	/**
+	 * Check for expired sessions and remove them. Typically such checks are
+	 * kicked off lazily on each shard during calls to {@link #retrieveSession
+	 * retrieve} or save sessions, no less than a second apart.
+	 * This method can be called to force a check at a specific time.
+	 */
+	public void removeExpiredSessions() {
+		Instant now = this.clock.instant();
+		for (Shard shard : this.shards) {
+			shard.removeExpiredSessions(now);
+		}
+	}
+
+
+	private Shard getShard(String id) {
+		int hash = id.hashCode();
+		return this.shards[Math.floorMod(hash ^ (hash >>> 16), this.shards.length)];
+	}
+
+	private boolean isStored(InMemoryWebSession session) {
+		String id = session.getId();
+		return (getShard(id).sessions.get(id) == session);
+	}
+
+	private void storeSession(InMemoryWebSession session) {
+		Shard shard = getShard(session.getId());
+		if (shard.sessions.put(session.getId(), session) == null) {
+			this.sessionCount.incrementAndGet();
+		}
+		shard.scheduleIfNecessary(session);
+	}
+
+	private boolean removeStoredSession(InMemoryWebSession session) {
+		if (getShard(session.getId()).sessions.remove(session.getId(), session)) {
+			this.sessionCount.decrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	private void checkMaxSessionsLimit(InMemoryWebSession session) {
+		if (this.sessionCount.get() >= this.maxSessions && !isStored(session)) {
+			removeExpiredSessions();
+			while (this.sessionCount.get() >= this.maxSessions) {
+				if (!evictSession()) {
+					throw new IllegalStateException("Max sessions limit reached: " + this.sessionCount.get());
+				}
+			}
+		}
+	}
+
+	private boolean evictSession() {
+		InMemoryWebSession sessionToEvict = null;
+		long expirationTick = Long.MAX_VALUE;
+		for (Shard shard : this.shards) {
+			InMemoryWebSession candidate = shard.findSessionToEvict();
+			if (candidate != null && (sessionToEvict == null || candidate.getExpirationTick() < expirationTick)) {
+				sessionToEvict = candidate;
+				expirationTick = candidate.getExpirationTick();
+			}
+		}
+		if (sessionToEvict == null) {
+			return false;
+		}
+		if (removeStoredSession(sessionToEvict)) {
+			this.evictedSessionCount.increment();
+			sessionToEvict.invalidate();
+		}
+		return true;
+	}
+
+	private static long toTick(long millis) {
+		return Math.floorDiv(millis, TICK_MILLIS);
+	}
+
+
+	private class InMemoryWebSession extends AbstractInMemoryWebSession {
+
+		// Whether the session is in a timing wheel, or about to be
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		// The shard whose timing wheel the session was last scheduled in
+		@Nullable
+		private volatile Shard shard;
+
+		// Position in the timing wheel, guarded by the lock of the shard
+		private int wheelLevel = -1;
+
+		private int wheelIndex;
+
+
+		public InMemoryWebSession(Instant creationTime) {
+			super(creationTime);
+		}
+
+		@Override
+		public void setMaxIdleTime(Duration maxIdleTime) {
+			super.setMaxIdleTime(maxIdleTime);
+			// Schedule again at the new expiration tick
+			Shard shard = this.shard;
+			if (shard != null && this.scheduled.get()) {
+				shard.reschedule(this);
+			}
+			else if (isStored(this)) {
+				getShard(getId()).scheduleIfNecessary(this);
+			}
+		}
+
+		@Override
+		public Mono<Void> changeSessionId() {
+			boolean stored = removeStoredSession(this);
+			generateNewId();
+			if (stored) {
+				storeSession(this);
+			}
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> invalidate() {
+			markInvalidated();
+			removeStoredSession(this);
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> save() {
+
+			checkMaxSessionsLimit(this);
+
+			startIfNecessary();
+
+			if (isStarted()) {
+				// Save
+				storeSession(this);
+
+				// Unless it was invalidated
+				if (isInvalidated()) {
+					removeStoredSession(this);
+					return Mono.error(new IllegalStateException("Session was invalidated"));
+				}
+
+				// Opportunity to clean expired sessions
+				getShard(getId()).removeExpiredSessionsIfNecessary(clock.instant());
+			}
+
+			return Mono.empty();
+		}
+
+		@Override
+		public boolean isExpired() {
+			return isExpired(clock.instant());
+		}
+
+		/**
+		 * Return the tick after which the session expires, if not accessed
+		 * in the meantime, or {@link Long#MAX_VALUE} if it never expires.
+		 */
+		private long getExpirationTick() {
+			Duration maxIdleTime = getMaxIdleTime();
+			if (maxIdleTime.isNegative() || maxIdleTime.getSeconds() >= MAX_DELAY_TICKS * TICK_MILLIS / 1000) {
+				return Long.MAX_VALUE;
+			}
+			long expirationMillis = getLastAccessTime().toEpochMilli() + maxIdleTime.toMillis();
+			return toTick(expirationMillis + TICK_MILLIS - 1);
+		}
+	}
+
+
+	/**
+	 * Sessions with ids mapped to the shard, along with a hierarchical timing
+	 * wheel indexing them by expiration tick: the first level has a slot per
+	 * tick, and each of the next levels a slot per rotation of the previous one.
+	 * Sessions are moved down to lower levels as their expiration approaches,
+	 * and checked when the slot of the first level they are in is reached.
+	 * The wheel is only accessed with the lock held; sessions to add to it are
+	 * queued until then.
+	 */
+	private class Shard {
+
+		private final Map<String, InMemoryWebSession> sessions = new ConcurrentHashMap<>();
+
+		private final Queue<InMemoryWebSession> scheduleQueue = new ConcurrentLinkedQueue<>();
+
+		private final ReentrantLock lock = new ReentrantLock();
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private final List<InMemoryWebSession>[][] wheels = new List[LEVEL_COUNT][SLOT_COUNT];
+
+		private final int[] levelSizes = new int[LEVEL_COUNT];
+
+		// Next tick to process
+		private long currentTick;
+
+		private volatile long checkedTick;
+
+
+		Shard(long currentTick) {
+			this.currentTick = currentTick;
+			this.checkedTick = currentTick;
+		}
+
+
+		void scheduleIfNecessary(InMemoryWebSession session) {
+			if (session.scheduled.compareAndSet(false, true)) {
+				session.shard = this;
+				this.scheduleQueue.add(session);
+			}
+		}
+
+		void reschedule(InMemoryWebSession session) {
+			// Removed from its current position in the wheel once polled
+			this.scheduleQueue.add(session);
+		}
+
+		void removeExpiredSessionsIfNecessary(Instant now) {
+			if (toTick(now.toEpochMilli()) != this.checkedTick) {
+				removeExpiredSessions(now);
+			}
+		}
+
+		void removeExpiredSessions(Instant now) {
+			if (this.lock.tryLock()) {
+				try {
+					long nowTick = toTick(now.toEpochMilli());
+					drainScheduleQueue(now);
+					if (nowTick - this.currentTick >= MAX_DELAY_TICKS ||
+							this.currentTick - nowTick > MAX_REGRESSION_TICKS) {
+						rebuild(nowTick, now);
+					}
+					else {
+						advance(nowTick, now);
+					}
+					this.checkedTick = nowTick;
+				}
+				finally {
+					this.lock.unlock();
+				}
+			}
+		}
+
+		/**
+		 * Return the stored session of the shard closest to expiration, within
+		 * the precision of the timing wheel slot it is in.
+		 */
+		@Nullable
+		InMemoryWebSession findSessionToEvict() {
+			this.lock.lock();
+			try {
+				drainScheduleQueue(clock.instant());
+				for (int level = 0; level < LEVEL_COUNT; level++) {
+					if (this.levelSizes[level] == 0) {
+						continue;
+					}
+					long position = this.currentTick >>> (SLOT_BITS * level);
+					for (int i = 0; i < SLOT_COUNT; i++) {
+						List<InMemoryWebSession> slot = this.wheels[level][(int) ((position + i) & SLOT_MASK)];
+						if (slot != null) {
+							for (Iterator<InMemoryWebSession> it = slot.iterator(); it.hasNext();) {
+								InMemoryWebSession session = it.next();
+								if (isStored(session)) {
+									return session;
+								}
+								// Evicted or removed: drop it now rather than scan it again
+								it.remove();
+								this.levelSizes[level]--;
+								session.wheelLevel = -1;
+								session.scheduled.set(false);
+								// Stored again in the meantime?
+								if (isStored(session)) {
+									scheduleIfNecessary(session);
+								}
+							}
+						}
+					}
+				}
+				return null;
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		private void drainScheduleQueue(Instant now) {
+			InMemoryWebSession session;
+			while ((session = this.scheduleQueue.poll()) != null) {
+				checkSession(session, now);
+			}
+		}
+
+		private void advance(long nowTick, Instant now) {
+			while (this.currentTick <= nowTick) {
+				long tick = this.currentTick;
+				// Move sessions down from the slots of upper levels reached with this tick
+				for (int level = LEVEL_COUNT - 1; level > 0; level--) {
+					int shift = SLOT_BITS * level;
+					if ((tick & ((1L << shift) - 1)) == 0) {
+						List<InMemoryWebSession> slot = removeSlot(level, (int) ((tick >>> shift) & SLOT_MASK));
+						if (slot != null) {
+							for (InMemoryWebSession session : slot) {
+								schedule(session, session.getExpirationTick());
+							}
+						}
+					}
+				}
+				List<InMemoryWebSession> slot = removeSlot(0, (int) (tick & SLOT_MASK));
+				this.currentTick = tick + 1;
+				if (slot != null) {
+					for (InMemoryWebSession session : slot) {
+						checkSession(session, now);
+					}
+				}
+				// Skip ticks until the next slot of the lowest non-empty level
+				int emptyLevels = 0;
+				while (emptyLevels < LEVEL_COUNT && this.levelSizes[emptyLevels] == 0) {
+					emptyLevels++;
+				}
+				if (emptyLevels == LEVEL_COUNT) {
+					this.currentTick = Math.max(this.currentTick, nowTick + 1);
+				}
+				else if (emptyLevels > 0) {
+					long span = 1L << (SLOT_BITS * emptyLevels);
+					long nextSlotTick = (this.currentTick + span - 1) & -span;
+					this.currentTick = Math.min(nextSlotTick, nowTick + 1);
+				}
+			}
+		}
+
+		private void rebuild(long nowTick, Instant now) {
+			List<InMemoryWebSession> all = new ArrayList<>();
+			for (int level = 0; level < LEVEL_COUNT; level++) {
+				for (int i = 0; i < SLOT_COUNT; i++) {
+					List<InMemoryWebSession> slot = removeSlot(level, i);
+					if (slot != null) {
+						all.addAll(slot);
+					}
+				}
+			}
+			this.currentTick = nowTick + 1;
+			for (InMemoryWebSession session : all) {
+				checkSession(session, now);
+			}
+		}
+
+		/**
+		 * Remove the session if expired, or schedule it at its expiration tick
+		 * if it is still stored.
+		 */
+		private void checkSession(InMemoryWebSession session, Instant now) {
+			unschedule(session);
+			if (!isStored(session)) {
+				session.scheduled.set(false);
+				// Stored again in the meantime?
+				if (!isStored(session) || !session.scheduled.compareAndSet(false, true)) {
+					return;
+				}
+				session.shard = this;
+			}
+			if (session.isExpired(now)) {
+				if (removeStoredSession(session)) {
+					expiredSessionCount.increment();
+				}
+				session.invalidate();
+				session.scheduled.set(false);
+			}
+			else {
+				schedule(session, session.getExpirationTick());
+			}
+		}
+
+		private void schedule(InMemoryWebSession session, long expirationTick) {
+			long tick = Math.max(expirationTick, this.currentTick);
+			long delay = tick - this.currentTick;
+			if (delay >= MAX_DELAY_TICKS) {
+				// Checked again once reached
+				delay = MAX_DELAY_TICKS - 1;
+				tick = this.currentTick + delay;
+			}
+			int level = 0;
+			while (delay >= (1L << (SLOT_BITS * (level + 1)))) {
+				level++;
+			}
+			int index = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+			List<InMemoryWebSession> slot = this.wheels[level][index];
+			if (slot == null) {
+				slot = new ArrayList<>();
+				this.wheels[level][index] = slot;
+			}
+			slot.add(session);
+			this.levelSizes[level]++;
+			session.wheelLevel = level;
+			session.wheelIndex = index;
+		}
+
+		private void unschedule(InMemoryWebSession session) {
+			if (session.wheelLevel >= 0) {
+				List<InMemoryWebSession> slot = this.wheels[session.wheelLevel][session.wheelIndex];
+				if (slot != null && slot.remove(session)) {
+					this.levelSizes[session.wheelLevel]--;
+				}
+				session.wheelLevel = -1;
+			}
+		}
+
+		@Nullable
+		private List<InMemoryWebSession> removeSlot(int level, int index) {
+			List<InMemoryWebSession> slot = this.wheels[level][index];
+			if (slot != null) {
+				this.wheels[level][index] = null;
+				this.levelSizes[level] -= slot.size();
+				for (InMemoryWebSession session : slot) {
+					session.wheelLevel = -1;
+				}
+			}
+			return slot;
+		}
+	}
+
+}
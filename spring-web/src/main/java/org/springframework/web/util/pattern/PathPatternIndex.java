@@ -0,0 +1,266 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.PathContainer.Element;
+import org.springframework.http.server.PathContainer.PathSegment;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Index of values keyed by one or more {@link PathPattern PathPatterns}, that
+ * narrows down the values whose patterns may match a given path with a single
+ * traversal, instead of trying every pattern in turn.
+ *
+ * <p>All registered patterns are merged into a trie of path elements: literal
+ * segments are looked up by value, while captures, wildcards and regex segments
+ * share a single "any segment" edge, and patterns ending with {@code /**} or
+ * {@code /{*var}} are attached to the node where the rest of the path starts.
+ *
+ * <p>The result of {@link #getCandidates(PathContainer)} is a superset of the
+ * values with a matching pattern: it still has to be checked against the actual
+ * patterns, e.g. to take case-insensitive literals, regular expressions, or the
+ * optional trailing separator into account. Values registered without any
+ * pattern are always part of the candidates.
+ *
+ * <p>This class is not thread-safe: callers are expected to guard concurrent
+ * registrations and lookups, e.g. with a read-write lock.
+ *
+ * @since 6.0
+ * @param <T> the type of values registered in the index
+ */
+public class PathPatternIndex<T> {
+
+	private final Node<T> root = new Node<>();
+
+	private final Map<T, List<Set<T>>> registrations = new HashMap<>();
+
+	private final Set<T> unindexed = new LinkedHashSet<>();
+
+
+	/**
+	 * Register the given value under the given patterns, replacing any previous
+	 * registration for the same value.
+	 * @param value the value to register
+	 * @param patterns the patterns of the value; if empty, the value is returned
+	 * as a candidate for every lookup
+	 */
+	public void register(T value, Collection<PathPattern> patterns) {
+		Assert.notNull(value, "Value must not be null");
+		unregister(value);
+		if (patterns.isEmpty()) {
+			this.unindexed.add(value);
+			return;
+		}
+		List<Set<T>> valueSets = new ArrayList<>(patterns.size());
+		for (PathPattern pattern : patterns) {
+			Set<T> valueSet = insert(pattern);
+			valueSet.add(value);
+			valueSets.add(valueSet);
+		}
+		this.registrations.put(value, valueSets);
+	}
+
+	private Set<T> insert(PathPattern pattern) {
+		Node<T> node = this.root;
+		PathElement element = pattern.getHeadSection();
+		while (element != null) {
+			if (element instanceof SeparatorPathElement) {
+				node = node.separatorChild();
+			}
+			else if (element instanceof LiteralPathElement literal && literal.isCaseSensitive()) {
+				node = node.literalChild(String.valueOf(literal.getChars()));
+			}
+			else if (element instanceof CaptureTheRestPathElement || element instanceof WildcardTheRestPathElement) {
+				// Only allowed at the end of a pattern, matching zero or more remaining path elements
+				return node.restValues();
+			}
+			else {
+				// Capture, wildcard or regex within a single segment, or case-insensitive literal
+				node = node.segmentChild();
+			}
+			element = element.next;
+		}
+		return node.values();
+	}
+
+	/**
+	 * Remove the given value from the index.
+	 * @param value the value to remove
+	 */
+	public void unregister(T value) {
+		if (this.unindexed.remove(value)) {
+			return;
+		}
+		List<Set<T>> valueSets = this.registrations.remove(value);
+		if (valueSets != null) {
+			for (Set<T> valueSet : valueSets) {
+				valueSet.remove(value);
+			}
+		}
+	}
+
+	/**
+	 * Return the values whose patterns may match the given path, along with
+	 * the values registered without any pattern.
+	 * @param path the path to look up
+	 * @return the candidate values, in no particular order
+	 */
+	public Collection<T> getCandidates(PathContainer path) {
+		if (this.registrations.isEmpty()) {
+			return this.unindexed;
+		}
+		Set<T> candidates = new LinkedHashSet<>(this.unindexed);
+		collect(this.root, path.elements(), 0, candidates);
+		return candidates;
+	}
+
+	private void collect(Node<T> node, List<Element> elements, int index, Set<T> candidates) {
+		if (node.restValues != null) {
+			candidates.addAll(node.restValues);
+		}
+		int remaining = elements.size() - index;
+		if (remaining == 0) {
+			if (node.values != null) {
+				candidates.addAll(node.values);
+			}
+			if (node.segmentChild != null && node.segmentChild.values != null) {
+				// A trailing wildcard may match an empty last segment
+				candidates.addAll(node.segmentChild.values);
+			}
+			return;
+		}
+		Element element = elements.get(index);
+		if (element instanceof PathSegment segment) {
+			if (node.literalChildren != null) {
+				Node<T> literalChild = node.literalChildren.get(segment.valueToMatch());
+				if (literalChild != null) {
+					collect(literalChild, elements, index + 1, candidates);
+				}
+			}
+			if (node.segmentChild != null) {
+				collect(node.segmentChild, elements, index + 1, candidates);
+			}
+		}
+		else {
+			if (remaining == 1 && node.values != null) {
+				// Possible match with an optional trailing separator
+				candidates.addAll(node.values);
+			}
+			if (node.separatorChild != null) {
+				collect(node.separatorChild, elements, index + 1, candidates);
+			}
+		}
+	}
+
+	/**
+	 * Whether any value has been registered with patterns.
+	 */
+	public boolean hasPatterns() {
+		return !this.registrations.isEmpty();
+	}
+
+	/**
+	 * Remove all values from the index.
+	 */
+	public void clear() {
+		this.root.clear();
+		this.registrations.clear();
+		this.unindexed.clear();
+	}
+
+
+	/**
+	 * Node in the trie, reached by a sequence of path elements.
+	 */
+	private static final class Node<T> {
+
+		@Nullable
+		Node<T> separatorChild;
+
+		@Nullable
+		Map<String, Node<T>> literalChildren;
+
+		@Nullable
+		Node<T> segmentChild;
+
+		/**
+		 * Values with a pattern ending at this node.
+		 */
+		@Nullable
+		Set<T> values;
+
+		/**
+		 * Values with a pattern matching the rest of the path from this node.
+		 */
+		@Nullable
+		Set<T> restValues;
+
+		Node<T> separatorChild() {
+			if (this.separatorChild == null) {
+				this.separatorChild = new Node<>();
+			}
+			return this.separatorChild;
+		}
+
+		Node<T> literalChild(String literal) {
+			if (this.literalChildren == null) {
+				this.literalChildren = new HashMap<>();
+			}
+			return this.literalChildren.computeIfAbsent(literal, key -> new Node<>());
+		}
+
+		Node<T> segmentChild() {
+			if (this.segmentChild == null) {
+				this.segmentChild = new Node<>();
+			}
+			return this.segmentChild;
+		}
+
+		Set<T> values() {
+			if (this.values == null) {
+				this.values = new LinkedHashSet<>();
+			}
+			return this.values;
+		}
+
+		Set<T> restValues() {
+			if (this.restValues == null) {
+				this.restValues = new LinkedHashSet<>();
+			}
+			return this.restValues;
+		}
+
+		void clear() {
+			this.separatorChild = null;
+			this.literalChildren = null;
+			this.segmentChild = null;
+			this.values = null;
+			this.restValues = null;
+		}
+	}
+
+}
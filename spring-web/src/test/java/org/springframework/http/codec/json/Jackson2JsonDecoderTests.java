@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -161,6 +161,30 @@ public class Jackson2JsonDecoderTests extends AbstractDecoderTests<Jackson2JsonD
 	}
 
 
+	@Test
+	public void decodeWithDirectBinding() {
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+		decoder.setDirectBinding(true);
+
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("[{\"bar\":\"b1\",\"fo"),
+				stringBuffer("o\":\"f1\"}, "),
+				stringBuffer("{\"bar\":\"b2\",\"foo\":\"f2\"}]"));
+
+		Flux<Object> result = decoder.decode(input, ResolvableType.forClass(Pojo.class), null, Collections.emptyMap());
+		StepVerifier.create(result)
+				.expectNext(pojo1)
+				.expectNext(pojo2)
+				.verifyComplete();
+
+		input = Flux.concat(stringBuffer("[ 1E+2, 0.1"), stringBuffer("0 ]"));
+		result = decoder.decode(input, ResolvableType.forClass(BigDecimal.class), null, Collections.emptyMap());
+		StepVerifier.create(result)
+				.expectNext(new BigDecimal("1E+2"))
+				.expectNext(new BigDecimal("0.10"))
+				.verifyComplete();
+	}
+
 	@Test
 	public void decodeEmptyArrayToFlux() {
 		Flux<DataBuffer> input = Flux.from(stringBuffer("[]"));
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -259,6 +259,32 @@ public class Jackson2JsonEncoderTests extends AbstractEncoderTests<Jackson2JsonE
 				new MimeType("application", "json", StandardCharsets.US_ASCII), null);
 	}
 
+	@Test
+	public void encodeLargeValue() {
+		String large = "a".repeat(20_000);
+		Mono<Object> input = Mono.just(new Pojo(large, "bar"));
+
+		testEncode(input, ResolvableType.forClass(Pojo.class), step -> step
+				.consumeNextWith(expectString("{\"foo\":\"" + large + "\",\"bar\":\"bar\"}")
+						.andThen(DataBufferUtils::release))
+				.verifyComplete(),
+				APPLICATION_JSON, null);
+	}
+
+	@Test
+	public void encodeLargeValuesAsStream() {
+		String large = "a".repeat(20_000);
+		Flux<Pojo> input = Flux.just(new Pojo(large, "bar"), new Pojo("foo", large));
+
+		testEncode(input, ResolvableType.forClass(Pojo.class), step -> step
+				.consumeNextWith(expectString("{\"foo\":\"" + large + "\",\"bar\":\"bar\"}\n")
+						.andThen(DataBufferUtils::release))
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"" + large + "\"}\n")
+						.andThen(DataBufferUtils::release))
+				.verifyComplete(),
+				APPLICATION_NDJSON, null);
+	}
+
 
 	@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
 	private static class ParentClass {
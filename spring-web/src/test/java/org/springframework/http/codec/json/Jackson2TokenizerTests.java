@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -235,7 +235,12 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 	}
 
 	private void testTokenize(List<String> input, List<String> output, boolean tokenize) {
-		StepVerifier.FirstStep<String> builder = StepVerifier.create(decode(input, tokenize, -1));
+		testTokenize(decode(input, tokenize, -1), output);
+		testTokenize(split(input, tokenize, -1), output);
+	}
+
+	private void testTokenize(Flux<String> result, List<String> output) {
+		StepVerifier.FirstStep<String> builder = StepVerifier.create(result);
 		output.forEach(expected -> builder.assertNext(actual -> {
 			try {
 				JSONAssert.assertEquals(expected, actual, true);
@@ -294,6 +299,40 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 				.verifyError(DataBufferLimitException.class);
 	}
 
+	@Test
+	public void testLimitSplit() {
+		List<String> source = asList(
+				"[",
+				"{", "\"id\":1, \"name\":\"Dan\"", "},",
+				"{", "\"id\":2, \"name\":\"Ron\"", "},",
+				"{", "\"id\":3, \"name\":\"Bartholomew\"", "}",
+				"]"
+		);
+
+		String expected = "{\"id\":3,\"name\":\"Bartholomew\"}";
+		int maxInMemorySize = "{\"id\":3, \"name\":\"Bartholomew\"}".length();
+
+		StepVerifier.create(split(source, true, maxInMemorySize))
+				.expectNext("{\"id\":1,\"name\":\"Dan\"}")
+				.expectNext("{\"id\":2,\"name\":\"Ron\"}")
+				.expectNext(expected)
+				.verifyComplete();
+
+		StepVerifier.create(split(source, true, maxInMemorySize - 1))
+				.expectNext("{\"id\":1,\"name\":\"Dan\"}")
+				.expectNext("{\"id\":2,\"name\":\"Ron\"}")
+				.verifyError(DataBufferLimitException.class);
+	}
+
+	@Test
+	public void splitScalarValues() {
+		StepVerifier.create(Jackson2Tokenizer.split(Flux.just(stringBuffer("[1, 2.5 ,\"a,]\""), stringBuffer(",true,nu"),
+				stringBuffer("ll]")), this.jsonFactory, this.objectMapper, true, -1)
+						.map(buffer -> buffer.toString(StandardCharsets.UTF_8)))
+				.expectNext("1", "2.5", "\"a,]\"", "true", "null")
+				.verifyComplete();
+	}
+
 	@Test
 	public void errorInStream() {
 		DataBuffer buffer = stringBuffer("{\"id\":1,\"name\":");
@@ -363,6 +402,24 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 				});
 	}
 
+	private Flux<String> split(List<String> source, boolean tokenize, int maxInMemorySize) {
+
+		Flux<DataBuffer> values = Jackson2Tokenizer.split(
+				Flux.fromIterable(source).map(this::stringBuffer),
+				this.jsonFactory, this.objectMapper, tokenize, maxInMemorySize);
+
+		return values
+				.map(dataBuffer -> {
+					try {
+						TreeNode root = this.objectMapper.readTree(dataBuffer.asInputStream());
+						return this.objectMapper.writeValueAsString(root);
+					}
+					catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				});
+	}
+
 	private DataBuffer stringBuffer(String value) {
 		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
 		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
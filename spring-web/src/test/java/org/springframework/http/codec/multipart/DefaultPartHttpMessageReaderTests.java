@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,8 @@ import java.lang.annotation.Target;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
@@ -48,6 +50,7 @@ import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
 import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
 import org.springframework.lang.Nullable;
 import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
 
@@ -296,10 +299,67 @@ public class DefaultPartHttpMessageReaderTests  {
 		latch.await();
 	}
 
+	@Test
+	public void fileFromManyBuffers() throws InterruptedException {
+		MockServerHttpRequest request = createRequest(new ClassPathResource("firefox.multipart", getClass()),
+				"---------------------------18399284482060392383840973206", 8);
+
+		// File contents arrive in many small buffers, that are stored with one
+		// gathering write once they exceed the in-memory limit
+		DefaultPartHttpMessageReader reader = new DefaultPartHttpMessageReader();
+		reader.setStreaming(false);
+		reader.setMaxInMemorySize(80);
+
+		testBrowser(reader, request);
+	}
+
+	@Test
+	public void storageUsage() throws InterruptedException {
+		MockServerHttpRequest request = createRequest(new ClassPathResource("firefox.multipart", getClass()),
+				"---------------------------18399284482060392383840973206");
+		List<ReactiveHttpInputMessage> messages = new CopyOnWriteArrayList<>();
+		List<Long> byteCounts = new CopyOnWriteArrayList<>();
+
+		DefaultPartHttpMessageReader reader = new DefaultPartHttpMessageReader();
+		reader.setMaxInMemorySize(80);
+		reader.setStorageUsageListener((message, inMemoryByteCount, diskByteCount) -> {
+			messages.add(message);
+			byteCounts.add(inMemoryByteCount);
+			byteCounts.add(diskByteCount);
+		});
+
+		testBrowser(reader, request);
+
+		assertThat(messages).containsExactly(request);
+		assertThat(byteCounts).containsExactly(2L, 2L * LOREM_IPSUM.length() + MUSPI_MEROL.length());
+	}
+
+	@Test
+	public void storageUsageNotReportedWhenStreaming() {
+		MockServerHttpRequest request = createRequest(
+				new ClassPathResource("simple.multipart", getClass()), "simple-boundary");
+		List<ReactiveHttpInputMessage> messages = new CopyOnWriteArrayList<>();
+
+		DefaultPartHttpMessageReader reader = new DefaultPartHttpMessageReader();
+		reader.setStreaming(true);
+		reader.setStorageUsageListener((message, inMemoryByteCount, diskByteCount) -> messages.add(message));
+
+		StepVerifier.create(reader.read(forClass(Part.class), request, emptyMap()))
+				.consumeNextWith(part -> part.content().subscribe(DataBufferUtils::release))
+				.consumeNextWith(part -> part.content().subscribe(DataBufferUtils::release))
+				.verifyComplete();
+
+		assertThat(messages).isEmpty();
+	}
+
 	private void testBrowser(DefaultPartHttpMessageReader reader, Resource resource, String boundary)
 			throws InterruptedException {
 
-		MockServerHttpRequest request = createRequest(resource, boundary);
+		testBrowser(reader, createRequest(resource, boundary));
+	}
+
+	private void testBrowser(DefaultPartHttpMessageReader reader, MockServerHttpRequest request)
+			throws InterruptedException {
 
 		Flux<Part> result = reader.read(forClass(Part.class), request, emptyMap());
 		CountDownLatch latch = new CountDownLatch(3);
@@ -314,8 +374,12 @@ public class DefaultPartHttpMessageReaderTests  {
 	}
 
 	private MockServerHttpRequest createRequest(Resource resource, String boundary) {
+		return createRequest(resource, boundary, BUFFER_SIZE);
+	}
+
+	private MockServerHttpRequest createRequest(Resource resource, String boundary, int bufferSize) {
 		Flux<DataBuffer> body = DataBufferUtils
-				.readByteChannel(resource::readableChannel, bufferFactory, BUFFER_SIZE);
+				.readByteChannel(resource::readableChannel, bufferFactory, bufferSize);
 
 		MediaType contentType = new MediaType("multipart", "form-data", singletonMap("boundary", boundary));
 		return MockServerHttpRequest.post("/")
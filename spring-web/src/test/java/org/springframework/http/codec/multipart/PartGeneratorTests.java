@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.testfixture.io.buffer.AbstractLeakCheckingTests;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Unit tests for {@link PartGenerator}.
+ */
+class PartGeneratorTests extends AbstractLeakCheckingTests {
+
+	@Test
+	void writeFully() throws IOException {
+		List<DataBuffer> dataBuffers = buffers("foo", "bar", "baz");
+		PartialWriteChannel channel = new PartialWriteChannel(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+		PartGenerator.writeFully(channel, dataBuffers);
+
+		assertThat(channel.toString()).isEqualTo("foobarbaz");
+		assertThat(channel.writeCount).isEqualTo(1);
+	}
+
+	@Test
+	void writeFullyWithPartialWrites() throws IOException {
+		List<DataBuffer> dataBuffers = buffers("foo", "bar", "baz", "qux");
+		PartialWriteChannel channel = new PartialWriteChannel(5, Integer.MAX_VALUE);
+
+		PartGenerator.writeFully(channel, dataBuffers);
+
+		assertThat(channel.toString()).isEqualTo("foobarbazqux");
+		assertThat(channel.writeCount).isEqualTo(3);
+	}
+
+	@Test
+	void writeFullyReleasesBuffersOnError() {
+		List<DataBuffer> dataBuffers = buffers("foo", "bar", "baz");
+		PartialWriteChannel channel = new PartialWriteChannel(4, 1);
+
+		assertThatIOException().isThrownBy(() -> PartGenerator.writeFully(channel, dataBuffers));
+		assertThat(channel.toString()).isEqualTo("foob");
+	}
+
+	private List<DataBuffer> buffers(String... values) {
+		List<DataBuffer> result = new ArrayList<>(values.length);
+		for (String value : values) {
+			byte[] bytes = value.getBytes(UTF_8);
+			DataBuffer dataBuffer = this.bufferFactory.allocateBuffer(bytes.length);
+			dataBuffer.write(bytes);
+			result.add(dataBuffer);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Channel that writes at most {@code maxBytesPerWrite} bytes per call, and
+	 * fails once {@code maxWrites} writes have been made.
+	 */
+	private static class PartialWriteChannel implements GatheringByteChannel {
+
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		private final int maxBytesPerWrite;
+
+		private final int maxWrites;
+
+		private int writeCount;
+
+
+		PartialWriteChannel(int maxBytesPerWrite, int maxWrites) {
+			this.maxBytesPerWrite = maxBytesPerWrite;
+			this.maxWrites = maxWrites;
+		}
+
+
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			if (this.writeCount == this.maxWrites) {
+				throw new IOException("Simulated write failure");
+			}
+			this.writeCount++;
+			long written = 0;
+			for (int i = offset; i < offset + length && written < this.maxBytesPerWrite; i++) {
+				ByteBuffer src = srcs[i];
+				while (src.hasRemaining() && written < this.maxBytesPerWrite) {
+					this.out.write(src.get());
+					written++;
+				}
+			}
+			return written;
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs) throws IOException {
+			return write(srcs, 0, srcs.length);
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			return (int) write(new ByteBuffer[] {src});
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public String toString() {
+			return this.out.toString(UTF_8);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -265,4 +265,83 @@ public class ShallowEtagHeaderFilterTests {
 		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
 	}
 
+	@Test
+	public void filterWithinContentCacheLimit() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.setContentCacheLimit(11);
+
+		final byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			((HttpServletResponse) filterResponse).setStatus(HttpServletResponse.SC_OK);
+			FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(200);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo("\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		assertThat(response.getContentLength()).as("Invalid Content-Length header").isEqualTo(11);
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
+	@Test
+	public void filterExceedingContentCacheLimit() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		request.addHeader("If-None-Match", "\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.setContentCacheLimit(8);
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			((HttpServletResponse) filterResponse).setStatus(HttpServletResponse.SC_OK);
+			filterResponse.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+			assertThat(response.getContentAsByteArray()).as("Content not cached").isEmpty();
+			filterResponse.getOutputStream().write(" World".getBytes(StandardCharsets.UTF_8));
+			assertThat(response.getContentAsString()).as("Content not streamed").isEqualTo("Hello World");
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(200);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isNull();
+		assertThat(response.getContentAsString()).as("Invalid content").isEqualTo("Hello World");
+	}
+
+	@Test
+	public void filterWriterExceedingContentCacheLimit() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.setContentCacheLimit(8);
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			((HttpServletResponse) filterResponse).setStatus(HttpServletResponse.SC_OK);
+			filterResponse.getWriter().write("Hello");
+			filterResponse.getWriter().write(" World");
+			assertThat(response.getContentAsString()).as("Content not streamed").isEqualTo("Hello World");
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isNull();
+		assertThat(response.getContentAsString()).as("Invalid content").isEqualTo("Hello World");
+	}
+
+	@Test
+	public void filterContentLengthExceedingContentCacheLimit() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.setContentCacheLimit(8);
+
+		final byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.setContentLength(responseBody.length);
+			assertThat(response.getContentLength()).as("Content-Length not set").isEqualTo(11);
+			filterResponse.getOutputStream().write(responseBody, 0, 5);
+			assertThat(response.getContentAsString()).as("Content not streamed").isEqualTo("Hello");
+			filterResponse.getOutputStream().write(responseBody, 5, 6);
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isNull();
+		assertThat(response.getContentLength()).as("Invalid Content-Length header").isEqualTo(11);
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
 }
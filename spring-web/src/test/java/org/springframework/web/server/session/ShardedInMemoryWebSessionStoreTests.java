@@ -0,0 +1,244 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.web.server.WebSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link ShardedInMemoryWebSessionStore}.
+ */
+class ShardedInMemoryWebSessionStoreTests {
+
+	private final ShardedInMemoryWebSessionStore store = new ShardedInMemoryWebSessionStore(4);
+
+
+	@Test
+	void startsSessionExplicitly() {
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.start();
+		assertThat(session.isStarted()).isTrue();
+	}
+
+	@Test
+	void startsSessionImplicitly() {
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.getAttributes().put("foo", "bar");
+		assertThat(session.isStarted()).isTrue();
+	}
+
+	@Test
+	void createSessionDoesNotBlock() {
+		this.store.createWebSession()
+				.doOnNext(session -> assertThat(Schedulers.isInNonBlockingThread()).isTrue())
+				.block();
+	}
+
+	@Test
+	void retrieveExpiredSession() {
+		WebSession session = insertSession();
+		assertThat(this.store.retrieveSession(session.getId()).block()).isSameAs(session);
+
+		// Fast-forward 31 minutes
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+		assertThat(this.store.retrieveSession(session.getId()).block()).isNull();
+		assertThat(session.isExpired()).isTrue();
+	}
+
+	@Test
+	void lastAccessTimeIsUpdatedOnRetrieve() {
+		Clock clock = Clock.fixed(this.store.getClock().instant(), ZoneId.of("GMT"));
+		this.store.setClock(clock);
+		WebSession session1 = insertSession();
+		this.store.setClock(Clock.offset(clock, Duration.ofSeconds(5)));
+
+		WebSession session2 = this.store.retrieveSession(session1.getId()).block();
+		assertThat(session2).isSameAs(session1);
+		assertThat(session2.getLastAccessTime()).isEqualTo(this.store.getClock().instant());
+	}
+
+	@Test
+	void sessionInvalidatedBeforeSave() {
+		WebSession session1 = this.store.createWebSession().block();
+		session1.start();
+		session1.save().block();
+
+		WebSession session2 = this.store.retrieveSession(session1.getId()).block();
+		assertThat(session2).isSameAs(session1);
+		session2.invalidate().block();
+
+		// Saving after invalidation does not store the session again
+		session1.save().block();
+		assertThat(this.store.retrieveSession(session1.getId()).block()).isNull();
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(0);
+	}
+
+	@Test
+	void changeSessionId() {
+		WebSession session = insertSession();
+		String oldId = session.getId();
+		session.changeSessionId().block();
+
+		assertThat(session.getId()).isNotEqualTo(oldId);
+		assertThat(this.store.retrieveSession(oldId).block()).isNull();
+		assertThat(this.store.retrieveSession(session.getId()).block()).isSameAs(session);
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(1);
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(0);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void removeExpiredSessionsWhenDue() {
+		Clock clock = this.store.getClock();
+		List<WebSession> sessions = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			WebSession session = this.store.createWebSession().block();
+			session.setMaxIdleTime(Duration.ofSeconds(10 * (i + 1)));
+			session.start();
+			session.save().block();
+			sessions.add(session);
+		}
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(100);
+
+		// Fast-forward to the expiration of the first 10 sessions
+		this.store.setClock(Clock.offset(clock, Duration.ofSeconds(101)));
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(90);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(10);
+
+		// Sessions accessed in the meantime are not removed
+		WebSession accessed = sessions.get(50);
+		assertThat(this.store.retrieveSession(accessed.getId()).block()).isSameAs(accessed);
+		this.store.setClock(Clock.offset(clock, Duration.ofSeconds(600)));
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(42);
+
+		// Sessions scheduled on upper levels of the timing wheels
+		this.store.setClock(Clock.offset(clock, Duration.ofHours(2)));
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(0);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(100);
+		assertThat(this.store.getEvictedSessionCount()).isEqualTo(0);
+	}
+
+	@Test
+	void sessionsWithoutExpirationAreKept() {
+		WebSession session = this.store.createWebSession().block();
+		session.setMaxIdleTime(Duration.ofSeconds(-1));
+		session.start();
+		session.save().block();
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofDays(365)));
+		assertThat(this.store.retrieveSession(session.getId()).block()).isSameAs(session);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(0);
+	}
+
+	@Test
+	void maxSessionsEvictsSessionsClosestToExpiration() {
+		this.store.setMaxSessions(10);
+		List<WebSession> sessions = new ArrayList<>();
+		for (int i = 0; i < 15; i++) {
+			WebSession session = this.store.createWebSession().block();
+			session.setMaxIdleTime(Duration.ofMinutes(10 * (i + 1)));
+			session.start();
+			session.save().block();
+			sessions.add(session);
+		}
+
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(10);
+		assertThat(this.store.getEvictedSessionCount()).isEqualTo(5);
+		for (int i = 0; i < 5; i++) {
+			assertThat(this.store.retrieveSession(sessions.get(i).getId()).block()).isNull();
+			assertThat(sessions.get(i).isExpired()).isTrue();
+		}
+		for (int i = 5; i < 15; i++) {
+			assertThat(this.store.retrieveSession(sessions.get(i).getId()).block()).isSameAs(sessions.get(i));
+		}
+	}
+
+	@Test
+	void maxSessionsEvictsManySessions() {
+		this.store.setMaxSessions(10);
+		for (int i = 0; i < 1000; i++) {
+			insertSession();
+		}
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(10);
+		assertThat(this.store.getEvictedSessionCount()).isEqualTo(990);
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(0);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(10);
+	}
+
+	@Test
+	void maxIdleTimeChangeReschedulesSession() {
+		WebSession shortened = insertSession();
+		WebSession extended = insertSession();
+		shortened.setMaxIdleTime(Duration.ofSeconds(10));
+		extended.setMaxIdleTime(Duration.ofHours(1));
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofSeconds(11)));
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(1);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(1);
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+		assertThat(this.store.retrieveSession(extended.getId()).block()).isSameAs(extended);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void maxSessionsRemovesExpiredSessionsFirst() {
+		this.store.setMaxSessions(10);
+		for (int i = 0; i < 10; i++) {
+			insertSession();
+		}
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+		insertSession();
+
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(1);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(10);
+		assertThat(this.store.getEvictedSessionCount()).isEqualTo(0);
+	}
+
+	@Test
+	void rejectInvalidConfiguration() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new ShardedInMemoryWebSessionStore(0));
+		assertThatIllegalArgumentException().isThrownBy(() -> this.store.setMaxSessions(0));
+	}
+
+
+	private WebSession insertSession() {
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.start();
+		session.save().block();
+		return session;
+	}
+
+}
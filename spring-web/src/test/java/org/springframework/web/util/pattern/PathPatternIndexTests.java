@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.server.PathContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PathPatternIndex}.
+ */
+class PathPatternIndexTests {
+
+	private final PathPatternParser parser = new PathPatternParser();
+
+	private final PathPatternIndex<String> index = new PathPatternIndex<>();
+
+
+	@Test
+	void literalPatterns() {
+		register("/a", "/a/b", "/a/c", "/b");
+		assertThat(candidates("/a/b")).containsExactly("/a/b");
+		assertThat(candidates("/a")).containsExactly("/a");
+		assertThat(candidates("/c")).isEmpty();
+	}
+
+	@Test
+	void capturesAndWildcards() {
+		register("/a/{id}", "/a/*", "/a/b", "/a/{id}/c", "/x{y}z", "/f?o");
+		assertThat(candidates("/a/b")).containsExactlyInAnyOrder("/a/{id}", "/a/*", "/a/b");
+		assertThat(candidates("/a/q/c")).containsExactly("/a/{id}/c");
+		assertThat(candidates("/xyz")).containsExactlyInAnyOrder("/x{y}z", "/f?o");
+	}
+
+	@Test
+	void restPatterns() {
+		register("/static/**", "/files/{*path}", "/other");
+		assertThat(candidates("/static")).containsExactly("/static/**");
+		assertThat(candidates("/static/css/app.css")).containsExactly("/static/**");
+		assertThat(candidates("/files/a/b")).containsExactly("/files/{*path}");
+		assertThat(candidates("/other/a")).isEmpty();
+	}
+
+	@Test
+	void trailingSeparator() {
+		register("/a", "/a/", "/a/*");
+		assertThat(candidates("/a/")).containsExactlyInAnyOrder("/a", "/a/", "/a/*");
+	}
+
+	@Test
+	void caseInsensitiveLiterals() {
+		this.parser.setCaseSensitive(false);
+		register("/Foo/bar");
+		assertThat(candidates("/foo/BAR")).containsExactly("/Foo/bar");
+	}
+
+	@Test
+	void emptyPattern() {
+		register("", "/a");
+		assertThat(candidates("")).containsExactly("");
+		assertThat(candidates("/")).containsExactly("");
+	}
+
+	@Test
+	void unindexedValues() {
+		register("/a");
+		this.index.register("none", Collections.emptyList());
+		assertThat(candidates("/a")).containsExactlyInAnyOrder("none", "/a");
+		assertThat(candidates("/b")).containsExactly("none");
+	}
+
+	@Test
+	void unregister() {
+		register("/a/{id}", "/a/b");
+		this.index.unregister("/a/{id}");
+		assertThat(candidates("/a/b")).containsExactly("/a/b");
+		this.index.unregister("/a/b");
+		assertThat(candidates("/a/b")).isEmpty();
+		assertThat(this.index.hasPatterns()).isFalse();
+	}
+
+	@Test
+	void multiplePatternsPerValue() {
+		this.index.register("value", List.of(this.parser.parse("/a"), this.parser.parse("/b/{id}")));
+		assertThat(candidates("/a")).containsExactly("value");
+		assertThat(candidates("/b/1")).containsExactly("value");
+		this.index.unregister("value");
+		assertThat(candidates("/b/1")).isEmpty();
+	}
+
+	@Test
+	void candidatesIncludeAllMatchingPatterns() {
+		String[] patterns = {"", "/", "/a", "/a/", "/a/*", "/a/{x}", "/a/b", "/a/**", "/a/b/c", "/a/{x}/c",
+				"/x{y}z/q", "/A", "/a/b*", "/**", "/a/*/d", "/f?o", "/api/{v:[0-9]+}/z", "/{*rest}"};
+		String[] paths = {"", "/", "/a", "/a/", "/a/b", "/a/b/", "/a/b/c", "/a//b", "/a/q/c", "/xyz/q",
+				"/A", "/a/bcd", "/foo", "/api/12/z", "/a/b/d", "/zz", "/a;m=1/b", "/caf%C3%A9"};
+		List<PathPattern> parsed = new ArrayList<>();
+		for (String pattern : patterns) {
+			PathPattern pathPattern = this.parser.parse(pattern);
+			parsed.add(pathPattern);
+			this.index.register(pattern, Collections.singletonList(pathPattern));
+		}
+		for (String path : paths) {
+			PathContainer pathContainer = PathContainer.parsePath(path);
+			Collection<String> candidates = this.index.getCandidates(pathContainer);
+			for (PathPattern pattern : parsed) {
+				if (pattern.matches(pathContainer)) {
+					assertThat(candidates).as(path).contains(pattern.getPatternString());
+				}
+			}
+		}
+	}
+
+
+	private void register(String... patterns) {
+		for (String pattern : patterns) {
+			this.index.register(pattern, Collections.singletonList(this.parser.parse(pattern)));
+		}
+	}
+
+	private Collection<String> candidates(String path) {
+		return this.index.getCandidates(PathContainer.parsePath(path));
+	}
+
+}
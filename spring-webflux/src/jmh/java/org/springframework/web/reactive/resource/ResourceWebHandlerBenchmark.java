@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.testfixture.server.MockServerWebExchange;
+
+/**
+ * Benchmark for serving static resources of various sizes with a
+ * {@link ResourceWebHandler}, resolving them from the file system for
+ * each request, or from a {@link ContentCachingResourceResolver}.
+ * Throughput is reported in requests per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ResourceWebHandlerBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"1024", "16384", "262144", "1048576"})
+		public int resourceSize;
+
+		@Param({"file-system", "content-cache"})
+		public String resolution;
+
+		public Path location;
+
+		public ResourceWebHandler handler;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.location = Files.createTempDirectory("resources");
+			byte[] content = new byte[this.resourceSize];
+			ThreadLocalRandom.current().nextBytes(content);
+			Files.write(this.location.resolve("asset.js"), content);
+
+			this.handler = new ResourceWebHandler();
+			this.handler.setLocations(List.of(new FileSystemResource(this.location.toString() + "/")));
+			List<ResourceResolver> resolvers = new ArrayList<>();
+			if (this.resolution.equals("content-cache")) {
+				ContentCachingResourceResolver cachingResolver = new ContentCachingResourceResolver();
+				cachingResolver.setMaxResourceSize(this.resourceSize);
+				resolvers.add(cachingResolver);
+			}
+			resolvers.add(new PathResourceResolver());
+			this.handler.setResourceResolvers(resolvers);
+			this.handler.afterPropertiesSet();
+		}
+
+		@TearDown(Level.Trial)
+		public void cleanup() throws IOException {
+			FileSystemUtils.deleteRecursively(this.location);
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public MockServerWebExchange serveResource(BenchmarkState state) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/asset.js"));
+		exchange.getAttributes().put(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE,
+				PathContainer.parsePath("asset.js"));
+		exchange.getResponse().setWriteHandler(body -> Flux.from(body).doOnNext(DataBufferUtils::release).then());
+		state.handler.handle(exchange).block();
+		return exchange;
+	}
+
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * A {@link ResourceResolver} that keeps the content of small resources in
+ * memory, along with their encoded variants, and resolves them from there
+ * on subsequent requests, without accessing the file system.
+ *
+ * <p>Content is held in direct buffers, up to a {@link #setCapacity capacity}
+ * in bytes, beyond which the least recently resolved resources are evicted.
+ * {@link ResourceWebHandler} writes it to the response without copying it,
+ * and uses the {@code ETag} computed from it along with the last-modified
+ * time of the resource, both set when the resource is cached, for conditional
+ * requests. Resources larger than {@link #setMaxResourceSize maxResourceSize}
+ * are not cached, and are written from the file system, with zero-copy
+ * transfers where supported.
+ *
+ * <p>Cached content is not refreshed, so this resolver is meant for resources
+ * that do not change while the application is running. It is typically placed
+ * first in the chain, or right after a {@link CachingResourceResolver}, and
+ * before an {@link EncodedResourceResolver}, if any.
+ *
+ * @since 6.0
+ */
+public class ContentCachingResourceResolver extends AbstractResourceResolver {
+
+	private final Map<String, CachedResource> cache = new ConcurrentHashMap<>();
+
+	private final AtomicLong cachedByteCount = new AtomicLong();
+
+	private final Object evictionMonitor = new Object();
+
+	private final List<String> contentCodings = new ArrayList<>(EncodedResourceResolver.DEFAULT_CODINGS);
+
+	private int maxResourceSize = 64 * 1024;
+
+	private long capacity = 16 * 1024 * 1024;
+
+
+	/**
+	 * Set the maximum size in bytes of the resources to cache.
+	 * <p>By default this is set to 64K.
+	 * @param maxResourceSize the maximum resource size
+	 */
+	public void setMaxResourceSize(int maxResourceSize) {
+		Assert.isTrue(maxResourceSize > 0, "Max resource size must be greater than 0");
+		this.maxResourceSize = maxResourceSize;
+	}
+
+	/**
+	 * Return the maximum size in bytes of the resources to cache.
+	 */
+	public int getMaxResourceSize() {
+		return this.maxResourceSize;
+	}
+
+	/**
+	 * Set the maximum number of bytes of resource content to keep in memory.
+	 * <p>By default this is set to 16M.
+	 * @param capacity the cache capacity in bytes
+	 */
+	public void setCapacity(long capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Return the maximum number of bytes of resource content to keep in memory.
+	 */
+	public long getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Configure the supported content codings from the
+	 * {@literal "Accept-Encoding"} header for which to cache resource variations.
+	 * <p>The codings configured here are generally expected to match those
+	 * configured on {@link EncodedResourceResolver#setContentCodings(List)}.
+	 * <p>By default this property is set to {@literal ["br", "gzip"]} based on
+	 * the value of {@link EncodedResourceResolver#DEFAULT_CODINGS}.
+	 * @param codings one or more supported content codings
+	 */
+	public void setContentCodings(List<String> codings) {
+		Assert.notEmpty(codings, "At least one content coding expected");
+		this.contentCodings.clear();
+		this.contentCodings.addAll(codings);
+	}
+
+	/**
+	 * Return a read-only list with the supported content codings.
+	 */
+	public List<String> getContentCodings() {
+		return Collections.unmodifiableList(this.contentCodings);
+	}
+
+	/**
+	 * Return the number of bytes of resource content currently in memory.
+	 */
+	public long getCachedByteCount() {
+		return this.cachedByteCount.get();
+	}
+
+
+	@Override
+	protected Mono<Resource> resolveResourceInternal(@Nullable ServerWebExchange exchange,
+			String requestPath, List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		String key = computeKey(exchange, requestPath);
+		CachedResource cachedResource = this.cache.get(key);
+
+		if (cachedResource != null) {
+			cachedResource.lastAccessTime = System.nanoTime();
+			String logPrefix = exchange != null ? exchange.getLogPrefix() : "";
+			logger.trace(logPrefix + "Resource content resolved from cache");
+			return Mono.just(cachedResource);
+		}
+
+		return chain.resolveResource(exchange, requestPath, locations)
+				.flatMap(resource -> cacheResource(key, resource));
+	}
+
+	private String computeKey(@Nullable ServerWebExchange exchange, String requestPath) {
+		if (exchange != null) {
+			String codingKey = getContentCodingKey(exchange);
+			if (StringUtils.hasText(codingKey)) {
+				return requestPath + "+encoding=" + codingKey;
+			}
+		}
+		return requestPath;
+	}
+
+	@Nullable
+	private String getContentCodingKey(ServerWebExchange exchange) {
+		String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+		if (!StringUtils.hasText(header)) {
+			return null;
+		}
+		return Arrays.stream(StringUtils.tokenizeToStringArray(header, ","))
+				.map(token -> {
+					int index = token.indexOf(';');
+					return (index >= 0 ? token.substring(0, index) : token).trim().toLowerCase();
+				})
+				.filter(this.contentCodings::contains)
+				.sorted()
+				.collect(Collectors.joining(","));
+	}
+
+	private Mono<Resource> cacheResource(String key, Resource resource) {
+		long contentLength;
+		long lastModified;
+		try {
+			contentLength = resource.contentLength();
+			lastModified = resource.lastModified();
+		}
+		catch (IOException ex) {
+			return Mono.just(resource);
+		}
+		if (contentLength > this.maxResourceSize || contentLength > this.capacity) {
+			return Mono.just(resource);
+		}
+		return DataBufferUtils.join(DataBufferUtils.read(resource, DefaultDataBufferFactory.sharedInstance,
+						StreamUtils.BUFFER_SIZE))
+				.map(dataBuffer -> {
+					try {
+						return cacheContent(key, resource, dataBuffer, lastModified);
+					}
+					finally {
+						DataBufferUtils.release(dataBuffer);
+					}
+				})
+				.onErrorResume(IOException.class, ex -> {
+					logger.debug("Failed to cache content of " + resource, ex);
+					return Mono.just(resource);
+				});
+	}
+
+	private Resource cacheContent(String key, Resource resource, DataBuffer dataBuffer, long lastModified) {
+		byte[] bytes = new byte[dataBuffer.readableByteCount()];
+		dataBuffer.read(bytes);
+		if (bytes.length > this.maxResourceSize) {
+			return resource;
+		}
+		ByteBuffer content = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+		HttpHeaders headers = new HttpHeaders();
+		if (resource instanceof HttpResource httpResource) {
+			headers.putAll(httpResource.getResponseHeaders());
+		}
+		headers.setETag("\"" + DigestUtils.md5DigestAsHex(bytes) + "\"");
+		CachedResource cachedResource = new CachedResource(resource, content, lastModified, headers);
+
+		CachedResource existing = this.cache.putIfAbsent(key, cachedResource);
+		if (existing != null) {
+			return existing;
+		}
+		if (this.cachedByteCount.addAndGet(bytes.length) > this.capacity) {
+			evictLeastRecentlyUsed();
+		}
+		return cachedResource;
+	}
+
+	/**
+	 * Evict least recently resolved resources, until 90% of the capacity
+	 * is left used so that evictions are not performed for every insertion.
+	 */
+	private void evictLeastRecentlyUsed() {
+		synchronized (this.evictionMonitor) {
+			if (this.cachedByteCount.get() <= this.capacity) {
+				return;
+			}
+			long target = this.capacity - this.capacity / 10;
+			List<Map.Entry<String, CachedResource>> entries = new ArrayList<>(this.cache.entrySet());
+			entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccessTime));
+			for (Map.Entry<String, CachedResource> entry : entries) {
+				if (this.cachedByteCount.get() <= target) {
+					break;
+				}
+				if (this.cache.remove(entry.getKey(), entry.getValue())) {
+					this.cachedByteCount.addAndGet(-entry.getValue().contentLength());
+				}
+			}
+		}
+	}
+
+	@Override
+	protected Mono<String> resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+
+	/**
+	 * A {@link HttpResource} with its content in memory.
+	 */
+	static final class CachedResource extends AbstractResource implements HttpResource {
+
+		private final Resource original;
+
+		private final ByteBuffer content;
+
+		private final long lastModified;
+
+		private final HttpHeaders responseHeaders;
+
+		volatile long lastAccessTime = System.nanoTime();
+
+
+		CachedResource(Resource original, ByteBuffer content, long lastModified, HttpHeaders responseHeaders) {
+			this.original = original;
+			this.content = content;
+			this.lastModified = lastModified;
+			this.responseHeaders = responseHeaders;
+		}
+
+
+		/**
+		 * Return a buffer wrapping the content, without copying it.
+		 */
+		DataBuffer getContent(DataBufferFactory bufferFactory) {
+			return bufferFactory.wrap(this.content.duplicate());
+		}
+
+		@Nullable
+		String getETag() {
+			return this.responseHeaders.getETag();
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return Channels.newInputStream(readableChannel());
+		}
+
+		@Override
+		public ReadableByteChannel readableChannel() {
+			ByteBuffer source = this.content.duplicate();
+			return new ReadableByteChannel() {
+				@Override
+				public int read(ByteBuffer target) {
+					if (!source.hasRemaining()) {
+						return -1;
+					}
+					int count = Math.min(source.remaining(), target.remaining());
+					target.put(target.position(), source, source.position(), count);
+					target.position(target.position() + count);
+					source.position(source.position() + count);
+					return count;
+				}
+				@Override
+				public boolean isOpen() {
+					return true;
+				}
+				@Override
+				public void close() {
+				}
+			};
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public long contentLength() {
+			return this.content.remaining();
+		}
+
+		@Override
+		public long lastModified() {
+			return this.lastModified;
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.original.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return this.original.getDescription();
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			// Callers may add headers
+			HttpHeaders headers = new HttpHeaders();
+			headers.putAll(this.responseHeaders);
+			return headers;
+		}
+	}
+
+}
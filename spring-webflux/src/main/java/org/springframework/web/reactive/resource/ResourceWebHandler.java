@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.codec.ResourceHttpMessageWriter;
 import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -420,7 +421,7 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 						}
 
 						// Header phase
-						if (isUseLastModified() && exchange.checkNotModified(Instant.ofEpochMilli(resource.lastModified()))) {
+						if (checkNotModified(exchange, resource)) {
 							logger.trace(exchange.getLogPrefix() + "Resource not modified");
 							return Mono.empty();
 						}
@@ -436,6 +437,16 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 						setHeaders(exchange, resource, mediaType);
 
 						// Content phase
+						if (resource instanceof ContentCachingResourceResolver.CachedResource cachedResource &&
+								!exchange.getRequest().getHeaders().containsKey(HttpHeaders.RANGE)) {
+							ServerHttpResponse response = exchange.getResponse();
+							response.getHeaders().set(HttpHeaders.ACCEPT_RANGES, "bytes");
+							if (mediaType == null) {
+								response.getHeaders().setContentType(MediaType.APPLICATION_OCTET_STREAM);
+							}
+							return response.writeWith(Mono.fromSupplier(() ->
+									cachedResource.getContent(response.bufferFactory())));
+						}
 						ResourceHttpMessageWriter writer = getResourceHttpMessageWriter();
 						Assert.state(writer != null, "No ResourceHttpMessageWriter");
 						return writer.write(Mono.just(resource),
@@ -449,6 +460,18 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 				});
 	}
 
+	private boolean checkNotModified(ServerWebExchange exchange, Resource resource) throws IOException {
+		// Cached resources come with an ETag for their content
+		String eTag = (resource instanceof ContentCachingResourceResolver.CachedResource cachedResource ?
+				cachedResource.getETag() : null);
+		if (isUseLastModified()) {
+			Instant lastModified = Instant.ofEpochMilli(resource.lastModified());
+			return (eTag != null ? exchange.checkNotModified(eTag, lastModified) :
+					exchange.checkNotModified(lastModified));
+		}
+		return (eTag != null && exchange.checkNotModified(eTag));
+	}
+
 	protected Mono<Resource> getResource(ServerWebExchange exchange) {
 		String name = HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE;
 		PathContainer pathWithinHandler = exchange.getRequiredAttribute(name);
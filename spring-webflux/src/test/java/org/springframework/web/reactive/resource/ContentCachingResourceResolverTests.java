@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.reactive.resource.GzipSupport.GzippedFiles;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.testfixture.server.MockServerWebExchange;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest.get;
+
+/**
+ * Unit tests for {@link ContentCachingResourceResolver}.
+ */
+@ExtendWith(GzipSupport.class)
+class ContentCachingResourceResolverTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+
+	private final ContentCachingResourceResolver cachingResolver = new ContentCachingResourceResolver();
+
+	private ResourceResolverChain chain;
+
+	private List<Resource> locations;
+
+
+	@BeforeEach
+	void setup() {
+		List<ResourceResolver> resolvers = new ArrayList<>();
+		resolvers.add(this.cachingResolver);
+		resolvers.add(new EncodedResourceResolver());
+		resolvers.add(new PathResourceResolver());
+		this.chain = new DefaultResourceResolverChain(resolvers);
+
+		this.locations = new ArrayList<>();
+		this.locations.add(new ClassPathResource("test/", getClass()));
+	}
+
+
+	@Test
+	void resolveResourceContent() throws IOException {
+		Resource original = new ClassPathResource("test/foo.css", getClass());
+		Resource actual = resolve(MockServerWebExchange.from(get("")), "foo.css");
+
+		assertThat(actual).isInstanceOf(ContentCachingResourceResolver.CachedResource.class);
+		assertThat(actual.contentLength()).isEqualTo(17);
+		assertThat(actual.lastModified()).isEqualTo(original.lastModified());
+		assertThat(actual.getFilename()).isEqualTo("foo.css");
+		assertThat(FileCopyUtils.copyToString(new InputStreamReader(actual.getInputStream(), UTF_8)))
+				.isEqualTo("h1 { color:red; }");
+		assertThat(content(actual)).isEqualTo("h1 { color:red; }");
+		assertThat(content(actual)).as("content readable more than once").isEqualTo("h1 { color:red; }");
+		assertThat(this.cachingResolver.getCachedByteCount()).isEqualTo(17);
+	}
+
+	@Test
+	void resolveResourceFromCache() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(get(""));
+		Resource first = resolve(exchange, "foo.css");
+		Resource second = resolve(exchange, "foo.css");
+
+		assertThat(second).isSameAs(first);
+		assertThat(this.cachingResolver.getCachedByteCount()).isEqualTo(17);
+	}
+
+	@Test
+	void resolveResourceWithETag() throws IOException {
+		Resource resource = resolve(MockServerWebExchange.from(get("")), "foo.css");
+
+		Resource original = new ClassPathResource("test/foo.css", getClass());
+		String expected = "\"" + DigestUtils.md5DigestAsHex(original.getInputStream()) + "\"";
+		assertThat(((HttpResource) resource).getResponseHeaders().getETag()).isEqualTo(expected);
+	}
+
+	@Test
+	void resolveResourceNoMatch() {
+		assertThat(resolve(MockServerWebExchange.from(get("")), "invalid.css")).isNull();
+		assertThat(this.cachingResolver.getCachedByteCount()).isZero();
+	}
+
+	@Test
+	void resolveEncodedResourceSeparately(GzippedFiles gzippedFiles) {
+		gzippedFiles.create("foo.css");
+
+		Resource gzipped = resolve(MockServerWebExchange.from(
+				MockServerHttpRequest.get("").header("Accept-Encoding", "gzip, deflate")), "foo.css");
+		Resource plain = resolve(MockServerWebExchange.from(get("")), "foo.css");
+
+		assertThat(gzipped).isNotSameAs(plain);
+		assertThat(((HttpResource) gzipped).getResponseHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+		assertThat(((HttpResource) plain).getResponseHeaders().containsKey("Content-Encoding")).isFalse();
+		assertThat(content(plain)).isEqualTo("h1 { color:red; }");
+
+		Resource gzippedAgain = resolve(MockServerWebExchange.from(
+				MockServerHttpRequest.get("").header("Accept-Encoding", "deflate;q=0.5,GZIP")), "foo.css");
+		assertThat(gzippedAgain).isSameAs(gzipped);
+	}
+
+	@Test
+	void resolveResourceLargerThanMaxResourceSize() {
+		this.cachingResolver.setMaxResourceSize(16);
+		Resource resource = resolve(MockServerWebExchange.from(get("")), "foo.css");
+
+		assertThat(resource).isNotInstanceOf(ContentCachingResourceResolver.CachedResource.class);
+		assertThat(resource.exists()).isTrue();
+		assertThat(this.cachingResolver.getCachedByteCount()).isZero();
+	}
+
+	@Test
+	void evictLeastRecentlyResolvedResources() {
+		this.cachingResolver.setCapacity(40);
+		MockServerWebExchange exchange = MockServerWebExchange.from(get(""));
+		Resource foo = resolve(exchange, "foo.css");
+		Resource bar = resolve(exchange, "bar.css");
+		assertThat(this.cachingResolver.getCachedByteCount()).isEqualTo(17 + 19);
+
+		assertThat(resolve(exchange, "foo.css")).isSameAs(foo);
+		resolve(exchange, "foo.txt");
+		assertThat(this.cachingResolver.getCachedByteCount()).isEqualTo(17 + 10);
+		assertThat(resolve(exchange, "foo.css")).isSameAs(foo);
+		assertThat(resolve(exchange, "bar.css")).isNotSameAs(bar);
+	}
+
+	@Test
+	void rejectInvalidConfiguration() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.cachingResolver.setMaxResourceSize(0));
+		assertThatIllegalArgumentException().isThrownBy(() -> this.cachingResolver.setCapacity(0));
+		assertThatIllegalArgumentException().isThrownBy(() -> this.cachingResolver.setContentCodings(List.of()));
+	}
+
+
+	private Resource resolve(MockServerWebExchange exchange, String requestPath) {
+		return this.chain.resolveResource(exchange, requestPath, this.locations).block(TIMEOUT);
+	}
+
+	private static String content(Resource resource) {
+		DataBuffer buffer = ((ContentCachingResourceResolver.CachedResource) resource)
+				.getContent(DefaultDataBufferFactory.sharedInstance);
+		try {
+			return buffer.toString(UTF_8);
+		}
+		finally {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -463,6 +463,42 @@ public class ResourceWebHandlerTests {
 		assertResponseBody(exchange, "h1 { color:red; }");
 	}
 
+	@Test
+	void getResourceFromContentCache() throws Exception {
+		this.handler.setResourceResolvers(Arrays.asList(new ContentCachingResourceResolver(), new PathResourceResolver()));
+		this.handler.afterPropertiesSet();
+
+		for (int i = 0; i < 2; i++) {
+			MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(""));
+			setPathWithinHandlerMapping(exchange, "foo.css");
+			this.handler.handle(exchange).block(TIMEOUT);
+
+			HttpHeaders headers = exchange.getResponse().getHeaders();
+			assertThat(headers.getContentType()).isEqualTo(MediaType.parseMediaType("text/css"));
+			assertThat(headers.getContentLength()).isEqualTo(17);
+			assertThat(headers.getETag()).startsWith("\"");
+			assertThat(resourceLastModifiedDate("test/foo.css") / 1000).isEqualTo(headers.getLastModified() / 1000);
+			assertThat(headers.get("Accept-Ranges")).containsExactly("bytes");
+			assertResponseBody(exchange, "h1 { color:red; }");
+		}
+	}
+
+	@Test
+	void notModifiedFromContentCache() throws Exception {
+		this.handler.setResourceResolvers(Arrays.asList(new ContentCachingResourceResolver(), new PathResourceResolver()));
+		this.handler.afterPropertiesSet();
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(""));
+		setPathWithinHandlerMapping(exchange, "foo.css");
+		this.handler.handle(exchange).block(TIMEOUT);
+		String eTag = exchange.getResponse().getHeaders().getETag();
+
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.get("").ifNoneMatch(eTag));
+		setPathWithinHandlerMapping(exchange, "foo.css");
+		this.handler.handle(exchange).block(TIMEOUT);
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+	}
+
 	@Test
 	public void directory() {
 		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(""));
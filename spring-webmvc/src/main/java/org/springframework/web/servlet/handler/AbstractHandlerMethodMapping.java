@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -49,6 +49,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternIndex;
 import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
@@ -405,7 +408,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, request);
 		}
 		if (matches.isEmpty()) {
-			addMatchingMappings(this.mappingRegistry.getRegistrations().keySet(), matches, request);
+			addMatchingMappings(this.mappingRegistry.getMappingsByPattern(request), matches, request);
 		}
 		if (!matches.isEmpty()) {
 			Match bestMatch = matches.get(0);
@@ -544,6 +547,21 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		return urls;
 	}
 
+	/**
+	 * Return the parsed path patterns of the given mapping, used to index
+	 * mappings so that only those with a potentially matching pattern are
+	 * checked for requests without a {@link #getDirectPaths(Object) direct path}
+	 * match. Only relevant when parsed {@link PathPattern PathPatterns} are
+	 * {@link #usesPathPatterns() enabled}.
+	 * <p>By default this returns an empty set, in which case the mapping is
+	 * checked for every such request.
+	 * @since 6.0
+	 * @see PathPatternIndex
+	 */
+	protected Set<PathPattern> getPathPatterns(T mapping) {
+		return Collections.emptySet();
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -574,6 +592,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final MultiValueMap<String, T> pathLookup = new LinkedMultiValueMap<>();
 
+		private final PathPatternIndex<T> patternLookup = new PathPatternIndex<>();
+
 		private final Map<String, List<HandlerMethod>> nameLookup = new ConcurrentHashMap<>();
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
@@ -597,6 +617,21 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.pathLookup.get(urlPath);
 		}
 
+		/**
+		 * Return the mappings with a pattern that may match the parsed request
+		 * path, including all mappings without parsed path patterns. Falls back
+		 * on all mappings if the request path has not been parsed. Not thread-safe.
+		 * @since 6.0
+		 * @see #acquireReadLock()
+		 */
+		public Collection<T> getMappingsByPattern(HttpServletRequest request) {
+			if (this.patternLookup.hasPatterns() && ServletRequestPathUtils.hasParsedRequestPath(request)) {
+				return this.patternLookup.getCandidates(
+						ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication());
+			}
+			return this.registry.keySet();
+		}
+
 		/**
 		 * Return handler methods by mapping name. Thread-safe for concurrent use.
 		 */
@@ -638,6 +673,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					this.pathLookup.add(path, mapping);
 				}
 
+				this.patternLookup.register(mapping, AbstractHandlerMethodMapping.this.getPathPatterns(mapping));
+
 				String name = null;
 				if (getNamingStrategy() != null) {
 					name = getNamingStrategy().getName(handlerMethod, mapping);
@@ -705,6 +742,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					}
 				}
 
+				this.patternLookup.unregister(registration.getMapping());
+
 				removeMappingName(registration);
 
 				this.corsLookup.remove(registration.getHandlerMethod());
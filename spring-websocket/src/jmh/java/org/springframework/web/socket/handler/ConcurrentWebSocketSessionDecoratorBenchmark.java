@@ -0,0 +1,98 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.handler;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Benchmark for broadcasting text messages to thousands of slow WebSocket
+ * sessions through {@link ConcurrentWebSocketSessionDecorator}, from several
+ * threads, with and without concatenating buffered text messages.
+ * Each message sent to a session consumes CPU, as a write to the network would.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ConcurrentWebSocketSessionDecoratorBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class SessionsState {
+
+		@Param({"1000", "5000"})
+		public int sessionCount;
+
+		@Param({"0", "8192"})
+		public int textMessageBatchSizeLimit;
+
+		@Param({"500"})
+		public long sendCost;
+
+		public ConcurrentWebSocketSessionDecorator[] sessions;
+
+		public final TextMessage message = new TextMessage(("MESSAGE\nsubscription:sub-0\nmessage-id:1\n" +
+				"destination:/topic/prices\ncontent-length:32\n\n{\"ticker\":\"ACME\",\"price\":1.23}\0").getBytes());
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.sessions = new ConcurrentWebSocketSessionDecorator[this.sessionCount];
+			for (int i = 0; i < this.sessionCount; i++) {
+				ConcurrentWebSocketSessionDecorator session = new ConcurrentWebSocketSessionDecorator(
+						createSlowSession("session-" + i, this.sendCost), 60 * 1000, 10 * 1024 * 1024);
+				session.setTextMessageBatchSizeLimit(this.textMessageBatchSizeLimit);
+				this.sessions[i] = session;
+			}
+		}
+
+		private static WebSocketSession createSlowSession(String id, long sendCost) {
+			return (WebSocketSession) Proxy.newProxyInstance(SessionsState.class.getClassLoader(),
+					new Class<?>[] {WebSocketSession.class}, (proxy, method, args) ->
+						switch (method.getName()) {
+							case "sendMessage" -> {
+								Blackhole.consumeCPU(sendCost);
+								yield null;
+							}
+							case "getId", "toString" -> id;
+							case "isOpen" -> true;
+							case "hashCode" -> id.hashCode();
+							case "equals" -> (proxy == args[0]);
+							default -> null;
+						});
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void broadcast(SessionsState state) throws IOException {
+		for (ConcurrentWebSocketSessionDecorator session : state.sessions) {
+			session.sendMessage(state.message);
+		}
+	}
+
+}
@@ -17,9 +17,12 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
@@ -28,7 +31,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
@@ -41,6 +46,11 @@ import org.springframework.web.socket.WebSocketSession;
  * At that time, the specified buffer-size limit and send-time limit will be checked
  * and the session will be closed if the limits are exceeded.
  *
+ * <p>Messages are buffered in a lock-free queue, and the size of a message is
+ * added to the buffer size before the message is buffered. Text messages
+ * buffered while a send is in progress can optionally be sent to the client
+ * {@link #setTextMessageBatchSizeLimit concatenated} into fewer messages.
+ *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
  * @since 4.0.3
@@ -59,21 +69,33 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 	@Nullable
 	private Consumer<WebSocketMessage<?>> preSendCallback;
 
+	private int textMessageBatchSizeLimit;
+
+
+	private final Queue<WebSocketMessage<?>> buffer = new ConcurrentLinkedQueue<>();
 
-	private final Queue<WebSocketMessage<?>> buffer = new LinkedBlockingQueue<>();
+	// Message taken off the buffer but not concatenated, to be sent before the buffered ones
+	private final AtomicReference<WebSocketMessage<?>> pendingMessage = new AtomicReference<>();
 
 	private final AtomicInteger bufferSize = new AtomicInteger();
 
+	private final AtomicInteger bufferedMessageCount = new AtomicInteger();
+
 	private volatile long sendStartTime;
 
 	private volatile boolean limitExceeded;
 
 	private volatile boolean closeInProgress;
 
-	private final Lock flushLock = new ReentrantLock();
+	private final AtomicBoolean flushInProgress = new AtomicBoolean();
 
 	private final Lock closeLock = new ReentrantLock();
 
+	// Updated with the closeLock held
+	private volatile int overflowCount;
+
+	private volatile long lastFlushTime;
+
 
 	/**
 	 * Basic constructor.
@@ -127,6 +149,33 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return this.bufferSize.get();
 	}
 
+	/**
+	 * Return the number of messages currently buffered.
+	 * @since 6.0
+	 */
+	public int getBufferedMessageCount() {
+		return this.bufferedMessageCount.get();
+	}
+
+	/**
+	 * Return the number of times the buffer-size limit was found to be
+	 * exceeded, leading to messages being dropped or to the session being
+	 * terminated, depending on the {@link OverflowStrategy}.
+	 * @since 6.0
+	 */
+	public int getOverflowCount() {
+		return this.overflowCount;
+	}
+
+	/**
+	 * Return the time it took to send all buffered messages the last time
+	 * the buffer was flushed, or {@link Duration#ZERO} if it never was.
+	 * @since 6.0
+	 */
+	public Duration getLastFlushTime() {
+		return Duration.ofNanos(this.lastFlushTime);
+	}
+
 	/**
 	 * Return the time (milliseconds) since the current send started,
 	 * or 0 if no send is currently in progress.
@@ -145,6 +194,35 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		this.preSendCallback = callback;
 	}
 
+	/**
+	 * Configure the maximum size (number of bytes) of a text message sent to
+	 * the client by concatenating text messages buffered while a send was in
+	 * progress, instead of sending each of them separately.
+	 * <p>This must only be enabled for sub-protocols allowing several frames
+	 * in a single WebSocket message, such as STOMP whose frames are delimited
+	 * by a NULL octet.
+	 * <p>By default this is set to 0, in which case messages are never
+	 * concatenated. This option is not exposed by {@code SubProtocolWebSocketHandler},
+	 * which may serve other sub-protocols: override its {@code decorateSession}
+	 * method to set it.
+	 * @param textMessageBatchSizeLimit the maximum size of a concatenated
+	 * text message (number of bytes)
+	 * @since 6.0
+	 */
+	public void setTextMessageBatchSizeLimit(int textMessageBatchSizeLimit) {
+		Assert.isTrue(textMessageBatchSizeLimit >= 0, "Text message batch size limit must not be negative");
+		this.textMessageBatchSizeLimit = textMessageBatchSizeLimit;
+	}
+
+	/**
+	 * Return the configured maximum size (number of bytes) of a text message
+	 * concatenating buffered text messages.
+	 * @since 6.0
+	 */
+	public int getTextMessageBatchSizeLimit() {
+		return this.textMessageBatchSizeLimit;
+	}
+
 
 	@Override
 	public void sendMessage(WebSocketMessage<?> message) throws IOException {
@@ -152,8 +230,10 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 			return;
 		}
 
-		this.buffer.add(message);
+		// Account for the message before it can be polled from the buffer
 		this.bufferSize.addAndGet(message.getPayloadLength());
+		this.bufferedMessageCount.incrementAndGet();
+		this.buffer.add(message);
 
 		if (this.preSendCallback != null) {
 			this.preSendCallback.accept(message);
@@ -170,7 +250,7 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 				break;
 			}
 		}
-		while (!this.buffer.isEmpty() && !shouldNotSend());
+		while (hasBufferedMessages() && !shouldNotSend());
 	}
 
 	private boolean shouldNotSend() {
@@ -178,14 +258,14 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 	}
 
 	private boolean tryFlushMessageBuffer() throws IOException {
-		if (this.flushLock.tryLock()) {
+		if (this.flushInProgress.compareAndSet(false, true)) {
+			long flushStartTime = System.nanoTime();
 			try {
-				while (true) {
-					WebSocketMessage<?> message = this.buffer.poll();
-					if (message == null || shouldNotSend()) {
-						break;
+				WebSocketMessage<?> message;
+				while (!shouldNotSend() && (message = pollMessage()) != null) {
+					if (this.textMessageBatchSizeLimit > 0 && isCompleteTextMessage(message)) {
+						message = concatenateTextMessages((TextMessage) message);
 					}
-					this.bufferSize.addAndGet(-message.getPayloadLength());
 					this.sendStartTime = System.currentTimeMillis();
 					getDelegate().sendMessage(message);
 					this.sendStartTime = 0;
@@ -193,13 +273,61 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 			}
 			finally {
 				this.sendStartTime = 0;
-				this.flushLock.unlock();
+				this.lastFlushTime = System.nanoTime() - flushStartTime;
+				this.flushInProgress.set(false);
 			}
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Concatenate the given text message with the text messages buffered after
+	 * it, up to the batch size limit. The first message that is not concatenated
+	 * is kept as pending, and is sent next, even if sending this batch fails.
+	 */
+	private TextMessage concatenateTextMessages(TextMessage message) {
+		StringBuilder batch = null;
+		int batchSize = message.getPayloadLength();
+		WebSocketMessage<?> next;
+		while ((next = pollMessage()) != null) {
+			if (!isCompleteTextMessage(next) ||
+					batchSize + next.getPayloadLength() > this.textMessageBatchSizeLimit) {
+				this.bufferSize.addAndGet(next.getPayloadLength());
+				this.bufferedMessageCount.incrementAndGet();
+				this.pendingMessage.set(next);
+				break;
+			}
+			if (batch == null) {
+				batch = new StringBuilder(message.getPayload());
+			}
+			batch.append(((TextMessage) next).getPayload());
+			batchSize += next.getPayloadLength();
+		}
+		return (batch != null ? new TextMessage(batch) : message);
+	}
+
+	@Nullable
+	private WebSocketMessage<?> pollMessage() {
+		WebSocketMessage<?> message = this.pendingMessage.getAndSet(null);
+		if (message == null) {
+			message = this.buffer.poll();
+		}
+		if (message != null) {
+			this.bufferSize.addAndGet(-message.getPayloadLength());
+			this.bufferedMessageCount.decrementAndGet();
+		}
+		return message;
+	}
+
+	private boolean hasBufferedMessages() {
+		return (this.pendingMessage.get() != null || !this.buffer.isEmpty());
+	}
+
+	private static boolean isCompleteTextMessage(WebSocketMessage<?> message) {
+		return (message instanceof TextMessage && message.isLast());
+	}
+
 	private void checkSessionLimits() {
 		if (!shouldNotSend() && this.closeLock.tryLock()) {
 			try {
@@ -209,6 +337,7 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 					limitExceeded(reason);
 				}
 				else if (getBufferSize() > getBufferSizeLimit()) {
+					this.overflowCount++;
 					switch (this.overflowStrategy) {
 						case TERMINATE -> {
 							String format = "Buffer size %d bytes for session '%s' exceeds the allowed limit %d";
@@ -218,11 +347,9 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 						case DROP -> {
 							int i = 0;
 							while (getBufferSize() > getBufferSizeLimit()) {
-								WebSocketMessage<?> message = this.buffer.poll();
-								if (message == null) {
+								if (pollMessage() == null) {
 									break;
 								}
-								this.bufferSize.addAndGet(-message.getPayloadLength());
 								i++;
 							}
 							if (logger.isDebugEnabled()) {
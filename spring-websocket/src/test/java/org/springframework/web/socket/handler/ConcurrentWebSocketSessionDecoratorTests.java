@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,19 +17,24 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.lang.Nullable;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIOException;
 
 /**
  * Unit tests for {@link ConcurrentWebSocketSessionDecorator}.
@@ -79,6 +84,7 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 
 		assertThat(decorator.getTimeSinceSendStarted() > 0).isTrue();
 		assertThat(decorator.getBufferSize()).isEqualTo((5 * payload.getPayloadLength()));
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(5);
 		assertThat(session.isOpen()).isTrue();
 	}
 
@@ -149,9 +155,81 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 		}
 
 		assertThat(decorator.getBufferSize()).isEqualTo(1023);
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(1);
+		assertThat(decorator.getOverflowCount()).isEqualTo(4);
 		assertThat(session.isOpen()).isTrue();
 	}
 
+	@Test
+	public void sendBufferedTextMessagesInBatch() throws IOException {
+		ReentrantWebSocketSession session = new ReentrantWebSocketSession(
+				new TextMessage("b"), new TextMessage("c"), new TextMessage("d"));
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 1000, 1024);
+		decorator.setTextMessageBatchSizeLimit(1024);
+		session.decorator = decorator;
+
+		decorator.sendMessage(new TextMessage("a"));
+
+		assertThat(session.getSentMessages()).map(WebSocketMessage::getPayload).containsExactly("a", "bcd");
+		assertThat(decorator.getBufferSize()).isEqualTo(0);
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void sendBufferedTextMessagesInBatchWithinSizeLimit() throws IOException {
+		ReentrantWebSocketSession session = new ReentrantWebSocketSession(
+				new TextMessage("b"), new TextMessage("c"), new TextMessage("d"),
+				new BinaryMessage(new byte[] {'e'}), new TextMessage("f"));
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 1000, 1024);
+		decorator.setTextMessageBatchSizeLimit(2);
+		session.decorator = decorator;
+
+		decorator.sendMessage(new TextMessage("a"));
+
+		List<WebSocketMessage<?>> messages = session.getSentMessages();
+		assertThat(messages).hasSize(5);
+		assertThat(messages.get(0).getPayload()).isEqualTo("a");
+		assertThat(messages.get(1).getPayload()).isEqualTo("bc");
+		assertThat(messages.get(2).getPayload()).isEqualTo("d");
+		assertThat(messages.get(3)).isInstanceOf(BinaryMessage.class);
+		assertThat(messages.get(4).getPayload()).isEqualTo("f");
+	}
+
+	@Test
+	public void sendBufferedTextMessagesInBatchAfterFailedSend() throws IOException {
+		ReentrantWebSocketSession session = new ReentrantWebSocketSession(
+				new TextMessage("b"), new TextMessage("c"), new TextMessage("d"));
+		session.failingPayload = "bc";
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 1000, 1024);
+		decorator.setTextMessageBatchSizeLimit(2);
+		session.decorator = decorator;
+
+		assertThatIOException().isThrownBy(() -> decorator.sendMessage(new TextMessage("a")));
+		assertThat(decorator.getBufferSize()).isEqualTo(1);
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(1);
+
+		decorator.sendMessage(new TextMessage("e"));
+
+		assertThat(session.getSentMessages()).map(WebSocketMessage::getPayload).containsExactly("a", "de");
+		assertThat(decorator.getBufferSize()).isEqualTo(0);
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void sendBufferedTextMessagesWithoutBatch() throws IOException {
+		ReentrantWebSocketSession session = new ReentrantWebSocketSession(new TextMessage("b"), new TextMessage("c"));
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 1000, 1024);
+		session.decorator = decorator;
+
+		decorator.sendMessage(new TextMessage("a"));
+
+		assertThat(session.getSentMessages()).map(WebSocketMessage::getPayload).containsExactly("a", "b", "c");
+	}
+
 	@Test
 	public void closeStatusNormal() throws Exception {
 
@@ -216,4 +294,39 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
 	}
 
+
+	/**
+	 * Sends messages through the decorator while the first message is sent,
+	 * which are buffered since a send is already in progress. Sending a message
+	 * with the given failing payload fails.
+	 */
+	private static class ReentrantWebSocketSession extends TestWebSocketSession {
+
+		private final WebSocketMessage<?>[] messagesToSend;
+
+		ConcurrentWebSocketSessionDecorator decorator;
+
+		@Nullable
+		String failingPayload;
+
+		ReentrantWebSocketSession(WebSocketMessage<?>... messagesToSend) {
+			this.messagesToSend = messagesToSend;
+			setOpen(true);
+		}
+
+		@Override
+		public void sendMessage(WebSocketMessage<?> message) throws IOException {
+			if (message.getPayload().equals(this.failingPayload)) {
+				throw new IOException("Simulated send failure");
+			}
+			boolean first = getSentMessages().isEmpty();
+			super.sendMessage(message);
+			if (first) {
+				for (WebSocketMessage<?> messageToSend : this.messagesToSend) {
+					this.decorator.sendMessage(messageToSend);
+				}
+			}
+		}
+	}
+
 }